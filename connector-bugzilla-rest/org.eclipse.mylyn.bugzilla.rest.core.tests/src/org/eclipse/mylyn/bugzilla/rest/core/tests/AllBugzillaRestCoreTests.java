@@ -23,7 +23,9 @@ import org.junit.runners.Suite;
 
 @RunWith(ManagedSuite.class)
 @Suite.SuiteClasses({ RepositoryKeyTest.class, BugzillaRestFlagMapperTest.class,
-		BugzillaRestConnectorNoFixtureTest.class })
+		BugzillaRestConnectorNoFixtureTest.class, JsonStringValueInputStreamTest.class,
+		BugzillaRestGetTaskDataTest.class, BugzillaRestAttachmentEntityTest.class,
+		BugzillaRestConditionalGetRequestTest.class, BugzillaRestConfigurationStoreTest.class })
 @TestConfigurationProperty()
 public class AllBugzillaRestCoreTests {
 	static {
@@ -0,0 +1,117 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Tasktop Technologies and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Tasktop Technologies - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.mylyn.bugzilla.rest.core.tests;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.mylyn.internal.bugzilla.rest.core.BugzillaRestAttachmentEntity;
+import org.eclipse.mylyn.tasks.core.data.AbstractTaskAttachmentSource;
+import org.junit.Test;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+public class BugzillaRestAttachmentEntityTest {
+
+	private static final String JSON = "{\"ids\":[1],\"file_name\":\"test.txt\"";
+
+	@Test
+	public void testContentLengthMultipleOfThree() throws IOException {
+		assertContent(new byte[0]);
+		assertContent(createContent(3));
+		assertContent(createContent(30));
+	}
+
+	@Test
+	public void testContentLengthRemainderOne() throws IOException {
+		assertContent(createContent(1));
+		assertContent(createContent(31));
+	}
+
+	@Test
+	public void testContentLengthRemainderTwo() throws IOException {
+		assertContent(createContent(2));
+		assertContent(createContent(32));
+	}
+
+	@Test
+	public void testContentLengthUnknown() {
+		BugzillaRestAttachmentEntity entity = new BugzillaRestAttachmentEntity(JSON, createSource(new byte[1], -1));
+		assertEquals(-1, entity.getContentLength());
+	}
+
+	private void assertContent(byte[] content) throws IOException {
+		BugzillaRestAttachmentEntity entity = new BugzillaRestAttachmentEntity(JSON,
+				createSource(content, content.length));
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		entity.writeTo(out);
+		byte[] body = out.toByteArray();
+		assertEquals("Content length for " + content.length + " bytes", body.length, entity.getContentLength());
+
+		JsonObject json = new JsonParser().parse(new String(body, StandardCharsets.UTF_8)).getAsJsonObject();
+		assertEquals("test.txt", json.get("file_name").getAsString());
+		assertArrayEquals(content, Base64.getDecoder().decode(json.get("data").getAsString()));
+	}
+
+	private byte[] createContent(int length) {
+		byte[] content = new byte[length];
+		for (int i = 0; i < length; i++) {
+			content[i] = (byte) (i * 31);
+		}
+		return content;
+	}
+
+	private AbstractTaskAttachmentSource createSource(final byte[] content, final long length) {
+		return new AbstractTaskAttachmentSource() {
+
+			@Override
+			public InputStream createInputStream(IProgressMonitor monitor) {
+				return new ByteArrayInputStream(content);
+			}
+
+			@Override
+			public boolean isLocal() {
+				return true;
+			}
+
+			@Override
+			public long getLength() {
+				return length;
+			}
+
+			@Override
+			public String getName() {
+				return "test.txt";
+			}
+
+			@Override
+			public String getContentType() {
+				return "text/plain";
+			}
+
+			@Override
+			public String getDescription() {
+				return "description";
+			}
+		};
+	}
+
+}
@@ -0,0 +1,208 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Tasktop Technologies and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Tasktop Technologies - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.mylyn.bugzilla.rest.core.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.mylyn.commons.repositories.core.RepositoryLocation;
+import org.eclipse.mylyn.internal.bugzilla.rest.core.BugzillaRestClient;
+import org.eclipse.mylyn.internal.bugzilla.rest.core.BugzillaRestConditionalGetRequest;
+import org.eclipse.mylyn.internal.bugzilla.rest.core.BugzillaRestConfiguration;
+import org.eclipse.mylyn.internal.bugzilla.rest.core.BugzillaRestConnector;
+import org.eclipse.mylyn.internal.bugzilla.rest.core.BugzillaRestCore;
+import org.eclipse.mylyn.internal.bugzilla.rest.core.IBugzillaRestConstants;
+import org.eclipse.mylyn.internal.bugzilla.rest.core.response.data.FieldResponse;
+import org.eclipse.mylyn.internal.commons.core.operations.NullOperationMonitor;
+import org.eclipse.mylyn.tasks.core.TaskRepository;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.gson.reflect.TypeToken;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Tests conditional requests against a local HTTP server that answers with <code>304 Not Modified</code> if the entity
+ * tag of a request matches.
+ */
+public class BugzillaRestConditionalGetRequestTest {
+
+	private static final String LAST_MODIFIED = "Tue, 15 Mar 2016 00:00:00 GMT";
+
+	/**
+	 * Serves a fixed response with an entity tag and records the validators of each request.
+	 */
+	private class ConditionalHandler implements HttpHandler {
+
+		private final String eTag;
+
+		private final String body;
+
+		public ConditionalHandler(String eTag, String body) {
+			this.eTag = eTag;
+			this.body = body;
+		}
+
+		public void handle(HttpExchange exchange) throws IOException {
+			String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+			synchronized (requests) {
+				requests.add(exchange.getRequestURI().getPath() + " " + ifNoneMatch + " "
+						+ exchange.getRequestHeaders().getFirst("If-Modified-Since"));
+			}
+			if (eTag.equals(ifNoneMatch)) {
+				exchange.sendResponseHeaders(304, -1);
+				exchange.close();
+				return;
+			}
+			byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+			exchange.getResponseHeaders().set("Content-Type", "application/json; charset=UTF-8");
+			exchange.getResponseHeaders().set("ETag", eTag);
+			exchange.getResponseHeaders().set("Last-Modified", LAST_MODIFIED);
+			exchange.sendResponseHeaders(200, bytes.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(bytes);
+			}
+		}
+
+	}
+
+	private final List<String> requests = new ArrayList<String>();
+
+	private final Map<String, ConditionalHandler> handlers = new HashMap<String, ConditionalHandler>();
+
+	private HttpServer server;
+
+	private TaskRepository repository;
+
+	private BugzillaRestClient client;
+
+	@Before
+	public void setUp() throws Exception {
+		server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		handlers.put("/rest.cgi/field/bug",
+				new ConditionalHandler("\"fields-1\"", "{\"fields\":[{\"id\":1,\"name\":\"priority\"}]}"));
+		handlers.put("/rest.cgi/product",
+				new ConditionalHandler("\"products-1\"", "{\"products\":[{\"id\":1,\"name\":\"Product\"}]}"));
+		handlers.put("/rest.cgi/parameters",
+				new ConditionalHandler("\"parameters-1\"", "{\"parameters\":{\"defaultpriority\":\"P3\"}}"));
+		for (Map.Entry<String, ConditionalHandler> entry : handlers.entrySet()) {
+			server.createContext(entry.getKey(), entry.getValue());
+		}
+		server.start();
+		String url = "http://localhost:" + server.getAddress().getPort();
+
+		repository = new TaskRepository(BugzillaRestCore.CONNECTOR_KIND, url);
+		RepositoryLocation location = new RepositoryLocation();
+		location.setUrl(url);
+		location.setProxy(null);
+		location.setProperty(IBugzillaRestConstants.REPOSITORY_USE_API_KEY, Boolean.toString(true));
+		location.setProperty(IBugzillaRestConstants.REPOSITORY_API_KEY, "key");
+		// configurations are not persisted
+		client = new BugzillaRestClient(location, new BugzillaRestConnector(
+				BugzillaRestConnector.CONFIGURATION_CACHE_REFRESH_AFTER_WRITE_DURATION, null));
+	}
+
+	@After
+	public void tearDown() {
+		server.stop(0);
+	}
+
+	@Test
+	public void testRequestWithoutValidators() throws Exception {
+		BugzillaRestConditionalGetRequest<FieldResponse> request = createFieldRequest(null, null);
+		FieldResponse response = request.run(new NullOperationMonitor());
+		assertNotNull(response);
+		assertEquals("priority", response.getArray()[0].getName());
+		assertFalse(request.isNotModified());
+		assertEquals("\"fields-1\"", request.getETag());
+		assertEquals(LAST_MODIFIED, request.getLastModified());
+		assertEquals(Collections.singletonList("/rest.cgi/field/bug null null"), requests);
+	}
+
+	@Test
+	public void testRequestNotModified() throws Exception {
+		BugzillaRestConditionalGetRequest<FieldResponse> request = createFieldRequest("\"fields-1\"", LAST_MODIFIED);
+		assertNull(request.run(new NullOperationMonitor()));
+		assertTrue(request.isNotModified());
+		// the validators of the previous response remain valid
+		assertEquals("\"fields-1\"", request.getETag());
+		assertEquals(LAST_MODIFIED, request.getLastModified());
+		assertEquals(Collections.singletonList("/rest.cgi/field/bug \"fields-1\" " + LAST_MODIFIED), requests);
+	}
+
+	@Test
+	public void testRequestModified() throws Exception {
+		BugzillaRestConditionalGetRequest<FieldResponse> request = createFieldRequest("\"fields-0\"", null);
+		assertNotNull(request.run(new NullOperationMonitor()));
+		assertFalse(request.isNotModified());
+		assertEquals("\"fields-1\"", request.getETag());
+	}
+
+	@Test
+	public void testGetConfigurationNotModified() throws Exception {
+		BugzillaRestConfiguration configuration = client.getConfiguration(repository, null,
+				new NullOperationMonitor());
+		assertNotNull(configuration);
+		assertEquals(Collections.singleton("priority"), configuration.getFields().keySet());
+		assertEquals(Collections.singleton("Product"), configuration.getProducts().keySet());
+		assertEquals("P3", configuration.getParameters().getDefaultpriority());
+		assertEquals(3, requests.size());
+
+		// the validators of the previous configuration are sent and nothing is transferred again
+		assertSame(configuration, client.getConfiguration(repository, configuration, new NullOperationMonitor()));
+		assertEquals(6, requests.size());
+		for (String request : requests.subList(3, 6)) {
+			assertTrue(request, request.contains("-1\" " + LAST_MODIFIED));
+		}
+	}
+
+	@Test
+	public void testGetConfigurationPartiallyModified() throws Exception {
+		BugzillaRestConfiguration configuration = client.getConfiguration(repository, null,
+				new NullOperationMonitor());
+		server.removeContext("/rest.cgi/product");
+		server.createContext("/rest.cgi/product",
+				new ConditionalHandler("\"products-2\"", "{\"products\":[{\"id\":2,\"name\":\"Other Product\"}]}"));
+
+		BugzillaRestConfiguration changedConfiguration = client.getConfiguration(repository, configuration,
+				new NullOperationMonitor());
+		assertNotNull(changedConfiguration);
+		assertFalse(configuration == changedConfiguration);
+		assertSame(configuration.getFields(), changedConfiguration.getFields());
+		assertEquals(Collections.singleton("Other Product"), changedConfiguration.getProducts().keySet());
+		assertEquals("P3", changedConfiguration.getParameters().getDefaultpriority());
+	}
+
+	private BugzillaRestConditionalGetRequest<FieldResponse> createFieldRequest(String eTag, String lastModified) {
+		return new BugzillaRestConditionalGetRequest<FieldResponse>(client.getClient(), "/field/bug?",
+				new TypeToken<FieldResponse>() {
+				}, eTag, lastModified);
+	}
+
+}
@@ -0,0 +1,139 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Tasktop Technologies and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Tasktop Technologies - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.mylyn.bugzilla.rest.core.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.eclipse.mylyn.internal.bugzilla.rest.core.BugzillaRestConfiguration;
+import org.eclipse.mylyn.internal.bugzilla.rest.core.BugzillaRestConfigurationStore;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+public class BugzillaRestConfigurationStoreTest {
+
+	private static final String REPOSITORY_URL = "http://mylyn.org/bugzilla";
+
+	private static final String CONFIGURATION = "{\"version\":1,\"repositoryId\":\"" + REPOSITORY_URL + "\"," //
+			+ "\"fields\":{\"priority\":{\"id\":1,\"name\":\"priority\"}}," //
+			+ "\"products\":{\"Product\":{\"id\":1,\"name\":\"Product\"}}," //
+			+ "\"parameters\":{\"defaultpriority\":\"P3\"}," //
+			+ "\"eTags\":{\"/field/bug?\":\"\\\"fields-1\\\"\"}," //
+			+ "\"lastModified\":{\"/field/bug?\":\"Tue, 15 Mar 2016 00:00:00 GMT\"}}";
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private BugzillaRestConfigurationStore store;
+
+	private File file;
+
+	@Before
+	public void setUp() throws Exception {
+		store = new BugzillaRestConfigurationStore(folder.getRoot());
+		file = new File(folder.getRoot(), URLEncoder.encode(REPOSITORY_URL, StandardCharsets.UTF_8.name()) + ".json");
+	}
+
+	@Test
+	public void testReadMissing() {
+		assertNull(store.read(REPOSITORY_URL));
+	}
+
+	@Test
+	public void testRoundTrip() throws Exception {
+		writeFile(CONFIGURATION);
+		BugzillaRestConfiguration configuration = store.read(REPOSITORY_URL);
+		assertConfiguration(configuration);
+
+		assertTrue(file.delete());
+		store.write(configuration);
+		assertTrue(file.exists());
+		JsonObject expected = new JsonParser().parse(CONFIGURATION).getAsJsonObject();
+		JsonObject written = new JsonParser().parse(readFile()).getAsJsonObject();
+		assertEquals(expected.get("version"), written.get("version"));
+		assertEquals(expected.get("repositoryId"), written.get("repositoryId"));
+		// the validators are persisted for conditional requests after a restart
+		assertEquals(expected.get("eTags"), written.get("eTags"));
+		assertEquals(expected.get("lastModified"), written.get("lastModified"));
+		// no temporary files are left behind
+		assertEquals(1, folder.getRoot().list().length);
+		assertConfiguration(store.read(REPOSITORY_URL));
+	}
+
+	@Test
+	public void testWriteReplacesPrevious() throws Exception {
+		writeFile(CONFIGURATION);
+		BugzillaRestConfiguration configuration = store.read(REPOSITORY_URL);
+		store.write(configuration);
+		store.write(configuration);
+		assertEquals(1, folder.getRoot().list().length);
+		assertConfiguration(store.read(REPOSITORY_URL));
+	}
+
+	@Test
+	public void testReadVersionMismatch() throws Exception {
+		JsonObject json = new JsonParser().parse(CONFIGURATION).getAsJsonObject();
+		json.addProperty("version", 0);
+		writeFile(json.toString());
+		assertNull(store.read(REPOSITORY_URL));
+		assertFalse(file.exists());
+	}
+
+	@Test
+	public void testReadRepositoryMismatch() throws Exception {
+		JsonObject json = new JsonParser().parse(CONFIGURATION).getAsJsonObject();
+		json.addProperty("repositoryId", "http://mylyn.org/other");
+		writeFile(json.toString());
+		assertNull(store.read(REPOSITORY_URL));
+		assertFalse(file.exists());
+	}
+
+	@Test
+	public void testReadInvalid() throws Exception {
+		writeFile("{\"version\":1,");
+		assertNull(store.read(REPOSITORY_URL));
+		assertFalse(file.exists());
+	}
+
+	private void assertConfiguration(BugzillaRestConfiguration configuration) {
+		assertNotNull(configuration);
+		assertEquals(REPOSITORY_URL, configuration.getRepositoryId());
+		assertEquals(1, configuration.getFields().size());
+		assertEquals(1, configuration.getFieldWithName("priority").getId());
+		assertEquals(1, configuration.getProducts().size());
+		assertEquals("Product", configuration.getProductWithName("Product").getName());
+		assertEquals("P3", configuration.getParameters().getDefaultpriority());
+	}
+
+	private void writeFile(String content) throws IOException {
+		Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private String readFile() throws IOException {
+		return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+	}
+
+}
@@ -1,15 +1,32 @@
 package org.eclipse.mylyn.bugzilla.rest.core.tests;
 
 import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.mylyn.commons.core.operations.IOperationMonitor;
+import org.eclipse.mylyn.commons.repositories.core.RepositoryLocation;
+import org.eclipse.mylyn.internal.bugzilla.rest.core.BugzillaRestClient;
 import org.eclipse.mylyn.internal.bugzilla.rest.core.BugzillaRestConnector;
+import org.eclipse.mylyn.internal.bugzilla.rest.core.BugzillaRestException;
 import org.eclipse.mylyn.internal.bugzilla.rest.core.BugzillaRestTaskSchema;
 import org.eclipse.mylyn.internal.tasks.core.TaskTask;
+import org.eclipse.mylyn.internal.tasks.core.sync.SynchronizationSession;
+import org.eclipse.mylyn.tasks.core.ITask;
 import org.eclipse.mylyn.tasks.core.TaskRepository;
 import org.eclipse.mylyn.tasks.core.data.TaskAttributeMapper;
 import org.eclipse.mylyn.tasks.core.data.TaskData;
@@ -18,13 +35,55 @@ import org.junit.Test;
 
 public class BugzillaRestConnectorNoFixtureTest {
 
+	private static final Date SINCE = new Date(1458000000000L);
+
+	/**
+	 * Returns the last change times of {@link #changes} instead of searching a repository.
+	 */
+	private class StubClient extends BugzillaRestClient {
+
+		private final Map<String, Date> changes = new LinkedHashMap<String, Date>();
+
+		private final List<String> requests = new ArrayList<String>();
+
+		public StubClient() {
+			super(new RepositoryLocation(), connector);
+		}
+
+		@Override
+		protected Map<String, Date> getChangedTasks(String urlSuffix, Date since, IOperationMonitor monitor)
+				throws BugzillaRestException {
+			requests.add(urlSuffix);
+			Map<String, Date> result = new LinkedHashMap<String, Date>();
+			for (Map.Entry<String, Date> entry : changes.entrySet()) {
+				if (!entry.getValue().before(since) && (urlSuffix.startsWith("limit=")
+						|| urlSuffix.matches("(.*&)?id=" + entry.getKey() + "(&.*)?"))) {
+					result.put(entry.getKey(), entry.getValue());
+				}
+				if (urlSuffix.startsWith("limit=") && result.size() == MAX_CHANGED_PER_QUERY) {
+					break;
+				}
+			}
+			return result;
+		}
+
+	}
+
+	private StubClient client;
+
 	private BugzillaRestConnector connector;
 
 	private TaskRepository repository;
 
 	@Before
 	public void setUp() {
-		connector = new BugzillaRestConnector();
+		connector = new BugzillaRestConnector() {
+			@Override
+			public BugzillaRestClient getClient(TaskRepository repository) {
+				return client;
+			}
+		};
+		client = new StubClient();
 		repository = new TaskRepository(connector.getConnectorKind(), "http://test.repository.url");
 	}
 
@@ -96,4 +155,133 @@ public class BugzillaRestConnectorNoFixtureTest {
 		assertTrue(connector.hasTaskChanged(repository, task, taskData));
 	}
 
+	@Test
+	public void testPreSynchronizationWithoutTimestamp() throws Exception {
+		TaskTask task = createTask("1", SINCE);
+		SynchronizationSession session = createSession(true, task);
+		connector.preSynchronization(session, new NullProgressMonitor());
+		assertEquals(Collections.singleton(task), session.getStaleTasks());
+		assertTrue(session.needsPerformQueries());
+		assertTrue(client.requests.isEmpty());
+	}
+
+	@Test
+	public void testPreSynchronizationNoChanges() throws Exception {
+		repository.setSynchronizationTimeStamp("2016-03-15T00:00:00Z");
+		TaskTask task = createTask("1", SINCE);
+		// the task that was changed last is returned again since the search includes the time stamp
+		client.changes.put("1", SINCE);
+		SynchronizationSession session = createSession(true, task);
+		connector.preSynchronization(session, new NullProgressMonitor());
+		assertTrue(session.getStaleTasks().isEmpty());
+		assertFalse(session.needsPerformQueries());
+		assertEquals(SINCE, session.getData());
+	}
+
+	@Test
+	public void testPreSynchronizationChangedAtTimestamp() throws Exception {
+		repository.setSynchronizationTimeStamp("2016-03-15T00:00:00Z");
+		TaskTask task = createTask("1", new Date(SINCE.getTime() - 1000));
+		// changed in the same second as the last synchronization
+		client.changes.put("01", SINCE);
+		client.changes.put("2", SINCE);
+		SynchronizationSession session = createSession(true, task);
+		connector.preSynchronization(session, new NullProgressMonitor());
+		assertEquals(Collections.singleton(task), session.getStaleTasks());
+		assertTrue(session.needsPerformQueries());
+	}
+
+	@Test
+	public void testPreSynchronizationChanges() throws Exception {
+		repository.setSynchronizationTimeStamp("2016-03-15T00:00:00Z");
+		TaskTask task1 = createTask("1", SINCE);
+		TaskTask task2 = createTask("2", SINCE);
+		// the same bug with a different id
+		TaskTask task3 = createTask("002", SINCE);
+		Date changed = new Date(SINCE.getTime() + 60 * 1000);
+		client.changes.put("2", changed);
+		SynchronizationSession session = createSession(true, task1, task2, task3);
+		connector.preSynchronization(session, new NullProgressMonitor());
+		assertEquals(new HashSet<ITask>(Arrays.asList(task2, task3)), session.getStaleTasks());
+		assertTrue(session.needsPerformQueries());
+		assertEquals(changed, session.getData());
+		assertEquals(1, client.requests.size());
+	}
+
+	@Test
+	public void testPreSynchronizationTooManyChanges() throws Exception {
+		repository.setSynchronizationTimeStamp("2016-03-15T00:00:00Z");
+		Date changed = new Date(SINCE.getTime() + 60 * 1000);
+		for (int i = 1000; i < 1000 + BugzillaRestClient.MAX_CHANGED_PER_QUERY; i++) {
+			client.changes.put(Integer.toString(i), changed);
+		}
+		client.changes.put("5", changed);
+		Set<ITask> tasks = new HashSet<ITask>();
+		for (int i = 1; i <= BugzillaRestClient.MAX_CHANGED_PER_QUERY + 50; i++) {
+			tasks.add(createTask(Integer.toString(i), SINCE));
+		}
+		// the same bug with a different id is requested once
+		tasks.add(createTask("0" + BugzillaRestClient.MAX_CHANGED_PER_QUERY, SINCE));
+		SynchronizationSession session = createSession(true, tasks.toArray(new ITask[0]));
+		connector.preSynchronization(session, new NullProgressMonitor());
+
+		// one search limited to MAX_CHANGED_PER_QUERY and two searches for the ids of the session
+		assertEquals(3, client.requests.size());
+		assertTrue(client.requests.get(0).startsWith("limit=" + BugzillaRestClient.MAX_CHANGED_PER_QUERY));
+		assertEquals(BugzillaRestClient.MAX_CHANGED_PER_QUERY, client.requests.get(1).split("&").length);
+		assertEquals(50, client.requests.get(2).split("&").length);
+		assertEquals(1, session.getStaleTasks().size());
+		assertEquals("5", session.getStaleTasks().iterator().next().getTaskId());
+		// the search was incomplete, queries may have changed
+		assertTrue(session.needsPerformQueries());
+	}
+
+	@Test
+	public void testPostSynchronizationStoresTimestamp() throws Exception {
+		SynchronizationSession session = createSession(true);
+		session.setData(new Date(1458000000000L));
+		connector.postSynchronization(session, new NullProgressMonitor());
+		assertEquals("2016-03-15T00:00:00Z", repository.getSynchronizationTimeStamp());
+	}
+
+	@Test
+	public void testPostSynchronizationUsesMostRecentChangedTask() throws Exception {
+		SynchronizationSession session = createSession(true);
+		session.setData(new Date(1458000000000L));
+		TaskTask task = new TaskTask(repository.getConnectorKind(), repository.getRepositoryUrl(), "123");
+		task.setModificationDate(new Date(1458000060000L));
+		session.setChangedTasks(Collections.<ITask> singleton(task));
+		connector.postSynchronization(session, new NullProgressMonitor());
+		assertEquals("2016-03-15T00:01:00Z", repository.getSynchronizationTimeStamp());
+	}
+
+	@Test
+	public void testPostSynchronizationPartialSynchronization() throws Exception {
+		SynchronizationSession session = createSession(false);
+		session.setData(new Date(1458000000000L));
+		connector.postSynchronization(session, new NullProgressMonitor());
+		assertNull(repository.getSynchronizationTimeStamp());
+	}
+
+	private SynchronizationSession createSession(boolean fullSynchronization) {
+		SynchronizationSession session = new SynchronizationSession();
+		session.setTaskRepository(repository);
+		session.setFullSynchronization(fullSynchronization);
+		session.setChangedTasks(Collections.<ITask> emptySet());
+		return session;
+	}
+
+	private SynchronizationSession createSession(boolean fullSynchronization, ITask... tasks) {
+		SynchronizationSession session = createSession(fullSynchronization);
+		session.setTasks(new HashSet<ITask>(Arrays.asList(tasks)));
+		session.setNeedsPerformQueries(true);
+		return session;
+	}
+
+	private TaskTask createTask(String taskId, Date modificationDate) {
+		TaskTask task = new TaskTask(repository.getConnectorKind(), repository.getRepositoryUrl(), taskId);
+		task.setModificationDate(modificationDate);
+		return task;
+	}
+
 }
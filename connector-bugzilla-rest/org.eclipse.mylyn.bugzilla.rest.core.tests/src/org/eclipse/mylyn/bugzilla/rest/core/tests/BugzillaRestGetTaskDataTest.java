@@ -0,0 +1,226 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Tasktop Technologies and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Tasktop Technologies - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.mylyn.bugzilla.rest.core.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.mylyn.commons.repositories.core.RepositoryLocation;
+import org.eclipse.mylyn.internal.bugzilla.rest.core.BugzillaRestClient;
+import org.eclipse.mylyn.internal.bugzilla.rest.core.BugzillaRestConfiguration;
+import org.eclipse.mylyn.internal.bugzilla.rest.core.BugzillaRestConnector;
+import org.eclipse.mylyn.internal.bugzilla.rest.core.BugzillaRestCore;
+import org.eclipse.mylyn.internal.bugzilla.rest.core.BugzillaRestGetChangedTasks;
+import org.eclipse.mylyn.internal.bugzilla.rest.core.BugzillaRestTaskSchema;
+import org.eclipse.mylyn.internal.bugzilla.rest.core.IBugzillaRestConstants;
+import org.eclipse.mylyn.internal.commons.core.operations.NullOperationMonitor;
+import org.eclipse.mylyn.internal.tasks.core.RepositoryQuery;
+import org.eclipse.mylyn.tasks.core.TaskRepository;
+import org.eclipse.mylyn.tasks.core.data.TaskAttribute;
+import org.eclipse.mylyn.tasks.core.data.TaskData;
+import org.eclipse.mylyn.tasks.core.data.TaskDataCollector;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Tests the streaming parser of query results against responses that are served from a local HTTP server.
+ */
+public class BugzillaRestGetTaskDataTest {
+
+	private static final String BUGS = "{\"bugs\":[" //
+			+ "{\"id\":1,\"summary\":\"First bug\",\"status\":\"NEW\",\"product\":\"TestProduct\","
+			+ "\"component\":\"TestComponent\",\"assigned_to_detail\":{\"email\":\"one@example.com\",\"name\":\"one\"},"
+			+ "\"cc\":[\"a@example.com\",\"b@example.com\"],\"last_change_time\":\"2016-03-15T00:00:00Z\","
+			+ "\"flags\":[]}," //
+			+ "{\"id\":2,\"summary\":\"Second bug\",\"status\":\"RESOLVED\",\"resolution\":\"FIXED\","
+			+ "\"product\":\"TestProduct\",\"component\":\"Other\",\"assigned_to_detail\":{\"name\":\"two\"},"
+			+ "\"cc\":[],\"last_change_time\":\"2016-03-15T00:01:00Z\",\"whiteboard\":null,"
+			+ "\"unknown_field\":{\"nested\":[1,2,3]}}," //
+			+ "{\"id\":3,\"summary\":\"Third bug with \\\"quotes\\\" and \\u00fcnicode\",\"status\":\"NEW\","
+			+ "\"product\":\"TestProduct\",\"component\":\"TestComponent\","
+			+ "\"last_change_time\":\"2016-03-15T00:02:00Z\"}" //
+			+ "],\"faults\":[]}";
+
+	private static final Pattern ID_PATTERN = Pattern.compile("(^|&)id=(\\d+)");
+
+	private final BugzillaRestTaskSchema taskSchema = BugzillaRestTaskSchema.getDefault();
+
+	private HttpServer server;
+
+	private BugzillaRestConnector connector;
+
+	private TaskRepository repository;
+
+	private BugzillaRestClient client;
+
+	@Before
+	public void setUp() throws Exception {
+		server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		server.createContext("/rest.cgi/bug", new HttpHandler() {
+			public void handle(HttpExchange exchange) throws IOException {
+				byte[] body = getResponse(exchange.getRequestURI().getRawQuery()).getBytes(StandardCharsets.UTF_8);
+				exchange.getResponseHeaders().set("Content-Type", "application/json; charset=UTF-8");
+				exchange.sendResponseHeaders(200, body.length);
+				try (OutputStream out = exchange.getResponseBody()) {
+					out.write(body);
+				}
+			}
+		});
+		server.start();
+		String url = "http://localhost:" + server.getAddress().getPort();
+
+		// configurations are not persisted
+		connector = new BugzillaRestConnector(BugzillaRestConnector.CONFIGURATION_CACHE_REFRESH_AFTER_WRITE_DURATION,
+				null) {
+			@Override
+			public BugzillaRestConfiguration getRepositoryConfiguration(TaskRepository repository) {
+				return null;
+			}
+		};
+		repository = new TaskRepository(BugzillaRestCore.CONNECTOR_KIND, url);
+		RepositoryLocation location = new RepositoryLocation();
+		location.setUrl(url);
+		location.setProxy(null);
+		location.setProperty(IBugzillaRestConstants.REPOSITORY_USE_API_KEY, Boolean.toString(true));
+		location.setProperty(IBugzillaRestConstants.REPOSITORY_API_KEY, "key");
+		client = new BugzillaRestClient(location, connector);
+	}
+
+	@After
+	public void tearDown() {
+		server.stop(0);
+	}
+
+	@Test
+	public void testPerformQueryMultipleBugs() throws Exception {
+		List<TaskData> results = performQuery("product=TestProduct");
+		assertEquals(3, results.size());
+
+		JsonArray bugs = new JsonParser().parse(BUGS).getAsJsonObject().get("bugs").getAsJsonArray();
+		for (int i = 0; i < bugs.size(); i++) {
+			TaskData taskData = results.get(i);
+			JsonObject bug = bugs.get(i).getAsJsonObject();
+			assertTrue(taskData.isPartial());
+			assertEquals(bug.get("id").getAsString(), taskData.getTaskId());
+			assertEquals(bug.get("id").getAsString(), getValue(taskData, taskSchema.BUG_ID.getKey()));
+			assertEquals(
+					Long.toString(BugzillaRestGetChangedTasks
+							.parseTimestamp(bug.get("last_change_time").getAsString()).getTime()),
+					getValue(taskData, taskSchema.DATE_MODIFICATION.getKey()));
+			for (Entry<String, JsonElement> entry : bug.entrySet()) {
+				TaskAttribute attribute = taskData.getRoot()
+						.getAttribute(BugzillaRestTaskSchema.getAttributeNameFromFieldName(entry.getKey()));
+				if (attribute == null || entry.getValue().isJsonNull() || entry.getKey().equals("id")
+						|| entry.getKey().equals("last_change_time")) {
+					continue;
+				}
+				if (entry.getValue().isJsonArray()) {
+					List<String> expected = new ArrayList<String>();
+					for (JsonElement element : entry.getValue().getAsJsonArray()) {
+						expected.add(element.getAsString());
+					}
+					assertEquals(entry.getKey(), expected, attribute.getValues());
+				} else if (entry.getValue().isJsonPrimitive()) {
+					assertEquals(entry.getKey(), entry.getValue().getAsString(), attribute.getValue());
+				}
+			}
+		}
+		assertEquals("one@example.com", getValue(results.get(0), taskSchema.ASSIGNED_TO.getKey()));
+		assertEquals("two", getValue(results.get(1), taskSchema.ASSIGNED_TO.getKey()));
+		assertEquals("Third bug with \"quotes\" and \u00fcnicode",
+				getValue(results.get(2), taskSchema.SUMMARY.getKey()));
+	}
+
+	@Test
+	public void testPerformQueryMatchesSingleBugResponses() throws Exception {
+		List<TaskData> results = performQuery("product=TestProduct");
+		assertEquals(3, results.size());
+		for (TaskData taskData : results) {
+			// the stream of the previous bug does not affect the parsing of the next bug
+			List<TaskData> single = performQuery("id=" + taskData.getTaskId());
+			assertEquals(1, single.size());
+			assertAttributeEquals(single.get(0).getRoot(), taskData.getRoot());
+		}
+	}
+
+	@Test
+	public void testPerformQueryNoBugs() throws Exception {
+		assertTrue(performQuery("id=4").isEmpty());
+	}
+
+	private List<TaskData> performQuery(String parameters) throws Exception {
+		RepositoryQuery query = new RepositoryQuery(BugzillaRestCore.CONNECTOR_KIND, "query");
+		query.setUrl(repository.getRepositoryUrl() + "/rest.cgi/bug?" + parameters);
+		final List<TaskData> results = new ArrayList<TaskData>();
+		IStatus status = client.performQuery(repository, query, new TaskDataCollector() {
+			@Override
+			public void accept(TaskData taskData) {
+				results.add(taskData);
+			}
+		}, new NullOperationMonitor());
+		assertTrue(status.isOK());
+		return results;
+	}
+
+	private String getResponse(String query) {
+		Matcher matcher = ID_PATTERN.matcher(query);
+		if (!matcher.find()) {
+			return BUGS;
+		}
+		JsonObject response = new JsonParser().parse(BUGS).getAsJsonObject();
+		JsonArray bugs = new JsonArray();
+		for (JsonElement bug : response.get("bugs").getAsJsonArray()) {
+			if (bug.getAsJsonObject().get("id").getAsString().equals(matcher.group(2))) {
+				bugs.add(bug);
+			}
+		}
+		response.add("bugs", bugs);
+		return response.toString();
+	}
+
+	private String getValue(TaskData taskData, String attributeId) {
+		TaskAttribute attribute = taskData.getRoot().getAttribute(attributeId);
+		assertNotNull(attributeId, attribute);
+		return attribute.getValue();
+	}
+
+	private void assertAttributeEquals(TaskAttribute expected, TaskAttribute actual) {
+		assertEquals(expected.getId(), actual.getId());
+		assertEquals(expected.getId(), expected.getValues(), actual.getValues());
+		assertEquals(expected.getId(), expected.getAttributes().keySet(), actual.getAttributes().keySet());
+		for (TaskAttribute child : expected.getAttributes().values()) {
+			assertAttributeEquals(child, actual.getAttribute(child.getId()));
+		}
+	}
+
+}
@@ -0,0 +1,64 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Tasktop Technologies and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Tasktop Technologies - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.mylyn.bugzilla.rest.core.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.commons.io.IOUtils;
+import org.eclipse.mylyn.internal.bugzilla.rest.core.JsonStringValueInputStream;
+import org.junit.Test;
+
+public class JsonStringValueInputStreamTest {
+
+	@Test
+	public void testOpen() throws IOException {
+		String json = "{\"bugs\":{},\"attachments\":{\"1\":{\"data\":\"AAAA\"},\"2\" : { \"size\": 3, "
+				+ "\"flags\": [{\"name\":\"}\"}], \"data\" : \"QUJD\\/\\u0041\" } }}";
+		assertEquals("QUJD/A", read(json, "attachments", "2", "data"));
+		assertEquals("AAAA", read(json, "attachments", "1", "data"));
+	}
+
+	@Test
+	public void testOpenMissingMember() throws IOException {
+		String json = "{\"attachments\":{\"1\":{\"data\":null,\"size\":0}}}";
+		assertNull(JsonStringValueInputStream.open(toStream(json), "attachments", "2", "data"));
+		assertNull(JsonStringValueInputStream.open(toStream(json), "attachments", "1", "data"));
+		assertNull(JsonStringValueInputStream.open(toStream(json), "attachments", "1", "size"));
+	}
+
+	@Test
+	public void testReadStopsAtEndOfValue() throws IOException {
+		InputStream in = JsonStringValueInputStream.open(toStream("{\"data\":\"abc\",\"next\":\"def\"}"), "data");
+		byte[] buffer = new byte[10];
+		assertEquals(3, in.read(buffer));
+		assertEquals("abc", new String(buffer, 0, 3, StandardCharsets.US_ASCII));
+		assertEquals(-1, in.read(buffer));
+		assertEquals(-1, in.read());
+	}
+
+	private String read(String json, String... path) throws IOException {
+		try (InputStream in = JsonStringValueInputStream.open(toStream(json), path)) {
+			return IOUtils.toString(in, "US-ASCII");
+		}
+	}
+
+	private InputStream toStream(String json) {
+		return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+	}
+
+}
@@ -0,0 +1,95 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Tasktop Technologies and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Tasktop Technologies - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.mylyn.internal.bugzilla.rest.core;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.apache.commons.codec.binary.Base64InputStream;
+import org.apache.commons.io.IOUtils;
+import org.apache.http.entity.AbstractHttpEntity;
+import org.eclipse.core.runtime.Assert;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.mylyn.tasks.core.data.AbstractTaskAttachmentSource;
+
+/**
+ * A JSON request entity that Base64-encodes the content of an attachment source while it is sent. The entity consists
+ * of a JSON object with the members in <code>json</code> followed by a <code>data</code> member which holds the
+ * encoded content.
+ */
+public class BugzillaRestAttachmentEntity extends AbstractHttpEntity {
+
+	private final byte[] prefix;
+
+	private final byte[] suffix;
+
+	private final AbstractTaskAttachmentSource source;
+
+	/**
+	 * @param json
+	 *            the leading members of the JSON object starting with <code>{</code> and without the closing
+	 *            <code>}</code>
+	 */
+	public BugzillaRestAttachmentEntity(String json, AbstractTaskAttachmentSource source) {
+		Assert.isNotNull(json);
+		Assert.isNotNull(source);
+		this.prefix = (json + ",\"data\":\"").getBytes(StandardCharsets.UTF_8); //$NON-NLS-1$
+		this.suffix = "\"}".getBytes(StandardCharsets.UTF_8); //$NON-NLS-1$
+		this.source = source;
+		setContentType(BugzillaRestRequest.APPLICATION_JSON);
+	}
+
+	@Override
+	public boolean isRepeatable() {
+		return true;
+	}
+
+	@Override
+	public long getContentLength() {
+		long length = source.getLength();
+		if (length < 0) {
+			return -1;
+		}
+		return prefix.length + 4 * ((length + 2) / 3) + suffix.length;
+	}
+
+	@Override
+	public InputStream getContent() throws IOException {
+		InputStream data;
+		try {
+			data = source.createInputStream(null);
+		} catch (CoreException e) {
+			throw new IOException("Could not read attachment content", e); //$NON-NLS-1$
+		}
+		return new SequenceInputStream(Collections.enumeration(Arrays.asList(new ByteArrayInputStream(prefix),
+				new Base64InputStream(data, true, 0, null), new ByteArrayInputStream(suffix))));
+	}
+
+	@Override
+	public void writeTo(OutputStream out) throws IOException {
+		try (InputStream in = getContent()) {
+			IOUtils.copy(in, out);
+		}
+	}
+
+	@Override
+	public boolean isStreaming() {
+		return false;
+	}
+
+}
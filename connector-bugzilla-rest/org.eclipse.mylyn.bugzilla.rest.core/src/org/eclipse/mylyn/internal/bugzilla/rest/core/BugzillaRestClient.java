@@ -13,6 +13,8 @@ package org.eclipse.mylyn.internal.bugzilla.rest.core;
 
 import java.io.InputStream;
 import java.text.MessageFormat;
+import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -32,12 +34,10 @@ import org.eclipse.mylyn.commons.repositories.core.auth.UserCredentials;
 import org.eclipse.mylyn.commons.repositories.http.core.CommonHttpClient;
 import org.eclipse.mylyn.internal.bugzilla.rest.core.response.data.BooleanResult;
 import org.eclipse.mylyn.internal.bugzilla.rest.core.response.data.BugzillaRestIdResult;
-import org.eclipse.mylyn.internal.bugzilla.rest.core.response.data.Field;
 import org.eclipse.mylyn.internal.bugzilla.rest.core.response.data.FieldResponse;
 import org.eclipse.mylyn.internal.bugzilla.rest.core.response.data.LoginToken;
 import org.eclipse.mylyn.internal.bugzilla.rest.core.response.data.Named;
 import org.eclipse.mylyn.internal.bugzilla.rest.core.response.data.ParameterResponse;
-import org.eclipse.mylyn.internal.bugzilla.rest.core.response.data.Product;
 import org.eclipse.mylyn.internal.bugzilla.rest.core.response.data.ProductResponse;
 import org.eclipse.mylyn.internal.bugzilla.rest.core.response.data.PutUpdateResult;
 import org.eclipse.mylyn.internal.bugzilla.rest.core.response.data.RestResponse;
@@ -59,6 +59,7 @@ import com.google.common.base.Strings;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 import com.google.gson.reflect.TypeToken;
 
 public class BugzillaRestClient {
@@ -69,6 +70,14 @@ public class BugzillaRestClient {
 
 	public static final int MAX_RETRIEVED_PER_QUERY = 50;
 
+	public static final int MAX_CHANGED_PER_QUERY = 200;
+
+	private static final String FIELDS_PATH = "/field/bug?"; //$NON-NLS-1$
+
+	private static final String PRODUCTS_PATH = "/product?type=accessible"; //$NON-NLS-1$
+
+	private static final String PARAMETERS_PATH = "/parameters?"; //$NON-NLS-1$
+
 	public BugzillaRestClient(RepositoryLocation location, BugzillaRestConnector connector) {
 		client = new CommonHttpClient(location);
 		this.connector = connector;
@@ -113,12 +122,46 @@ public class BugzillaRestClient {
 	}
 
 	public BugzillaRestConfiguration getConfiguration(TaskRepository repository, IOperationMonitor monitor) {
+		return getConfiguration(repository, null, monitor);
+	}
+
+	/**
+	 * Retrieves the configuration of <code>repository</code>. Fields, products and parameters that have not changed
+	 * since <code>previous</code> was retrieved are not transferred again. Returns <code>previous</code> if nothing has
+	 * changed and <code>null</code> if the configuration could not be retrieved.
+	 */
+	public BugzillaRestConfiguration getConfiguration(TaskRepository repository,
+			BugzillaRestConfiguration previous, IOperationMonitor monitor) {
 		try {
+			BugzillaRestConditionalGetRequest<FieldResponse> fieldRequest = createConditionalGetRequest(FIELDS_PATH,
+					new TypeToken<FieldResponse>() {
+					}, previous);
+			FieldResponse fieldResponse = fieldRequest.run(monitor);
+			BugzillaRestConditionalGetRequest<ProductResponse> productRequest = createConditionalGetRequest(
+					PRODUCTS_PATH, new TypeToken<ProductResponse>() {
+					}, previous);
+			ProductResponse productResponse = productRequest.run(monitor);
+			BugzillaRestConditionalGetRequest<ParameterResponse> parameterRequest = createConditionalGetRequest(
+					PARAMETERS_PATH, new TypeToken<ParameterResponse>() {
+					}, previous);
+			ParameterResponse parameterResponse = parameterRequest.run(monitor);
+			// requests can only be answered with Not Modified if there was a previous configuration
+			if (fieldRequest.isNotModified() && productRequest.isNotModified() && parameterRequest.isNotModified()) {
+				return previous;
+			}
+
 			BugzillaRestConfiguration config = new BugzillaRestConfiguration(repository.getUrl());
-			config.setFields(getFields(monitor));
-			config.setProducts(getProducts(monitor));
-			ParameterResponse parameterResponse = getParameters(monitor);
-			config.setParameters(parameterResponse != null ? parameterResponse.getParameters() : null);
+			config.setFields(fieldRequest.isNotModified() ? previous.getFields() : index(fieldResponse.getArray()));
+			config.setValidators(FIELDS_PATH, fieldRequest.getETag(), fieldRequest.getLastModified());
+			config.setProducts(
+					productRequest.isNotModified() ? previous.getProducts() : index(productResponse.getArray()));
+			config.setValidators(PRODUCTS_PATH, productRequest.getETag(), productRequest.getLastModified());
+			if (parameterRequest.isNotModified()) {
+				config.setParameters(previous.getParameters());
+			} else {
+				config.setParameters(parameterResponse != null ? parameterResponse.getParameters() : null);
+			}
+			config.setValidators(PARAMETERS_PATH, parameterRequest.getETag(), parameterRequest.getLastModified());
 			return config;
 		} catch (Exception e) {
 			StatusHandler
@@ -127,10 +170,20 @@ public class BugzillaRestClient {
 		}
 	}
 
+	private <T> BugzillaRestConditionalGetRequest<T> createConditionalGetRequest(String path, TypeToken<?> typeToken,
+			BugzillaRestConfiguration previous) {
+		return new BugzillaRestConditionalGetRequest<T>(client, path, typeToken,
+				(previous != null) ? previous.getETag(path) : null,
+				(previous != null) ? previous.getLastModified(path) : null);
+	}
+
 	public <R extends RestResponse<E>, E extends Named> Map<String, E> retrieveItems(IOperationMonitor monitor,
 			String path, TypeToken<?> typeToken) throws BugzillaRestException {
 		R response = new BugzillaRestGetRequest<R>(client, path, typeToken).run(monitor);
-		E[] members = response.getArray();
+		return index(response.getArray());
+	}
+
+	private <E extends Named> Map<String, E> index(E[] members) {
 		return Maps.uniqueIndex(Lists.newArrayList(members), new Function<E, String>() {
 			public String apply(E input) {
 				return input.getName();
@@ -138,18 +191,8 @@ public class BugzillaRestClient {
 		});
 	}
 
-	private Map<String, Field> getFields(IOperationMonitor monitor) throws BugzillaRestException {
-		return retrieveItems(monitor, "/field/bug?", new TypeToken<FieldResponse>() { //$NON-NLS-1$
-		});
-	}
-
-	private Map<String, Product> getProducts(IOperationMonitor monitor) throws BugzillaRestException {
-		return retrieveItems(monitor, "/product?type=accessible", new TypeToken<ProductResponse>() { //$NON-NLS-1$
-		});
-	}
-
 	public ParameterResponse getParameters(IOperationMonitor monitor) throws BugzillaRestException {
-		return new BugzillaRestGetRequest<ParameterResponse>(client, "/parameters?", //$NON-NLS-1$
+		return new BugzillaRestGetRequest<ParameterResponse>(client, PARAMETERS_PATH,
 				new TypeToken<ParameterResponse>() {
 				}).run(monitor);
 	}
@@ -169,10 +212,7 @@ public class BugzillaRestClient {
 
 		@Override
 		public String apply(String input) {
-			while (input.startsWith("0")) { //$NON-NLS-1$
-				input = input.substring(1);
-			}
-			return input;
+			return removeLeadingZeros(input);
 		}
 	};
 
@@ -217,30 +257,69 @@ public class BugzillaRestClient {
 
 	}
 
+	/**
+	 * Returns the last change time of up to {@link #MAX_CHANGED_PER_QUERY} bugs that were changed at or after
+	 * <code>since</code>. If the limit is reached there may be more changed bugs.
+	 */
+	public Map<String, Date> getChangedTasks(Date since, IOperationMonitor monitor) throws BugzillaRestException {
+		return getChangedTasks("limit=" + MAX_CHANGED_PER_QUERY, since, monitor); //$NON-NLS-1$
+	}
+
+	/**
+	 * Returns the last change time of the bugs in <code>taskIds</code> that were changed at or after
+	 * <code>since</code>. Ids that only differ in leading zeros are requested once and the result is keyed by the id
+	 * without leading zeros.
+	 */
+	public Map<String, Date> getChangedTasks(Set<String> taskIds, Date since, IOperationMonitor monitor)
+			throws BugzillaRestException {
+		Map<String, Date> lastChangeTimes = new LinkedHashMap<String, Date>();
+		Set<String> taskIdsTemp = Sets.newLinkedHashSet(Iterables.transform(taskIds, removeLeadingZero));
+		for (List<String> list : Iterables.partition(taskIdsTemp, MAX_CHANGED_PER_QUERY)) {
+			String urlIDList = "id=" + Joiner.on("&id=").join(list); //$NON-NLS-1$ //$NON-NLS-2$
+			lastChangeTimes.putAll(getChangedTasks(urlIDList, since, monitor));
+		}
+		return lastChangeTimes;
+	}
+
+	protected Map<String, Date> getChangedTasks(String urlSuffix, Date since, IOperationMonitor monitor)
+			throws BugzillaRestException {
+		return new BugzillaRestGetChangedTasks(client, urlSuffix, since).run(monitor);
+	}
+
+	public static String removeLeadingZeros(String taskId) {
+		while (taskId.startsWith("0")) { //$NON-NLS-1$
+			taskId = taskId.substring(1);
+		}
+		return taskId;
+	}
+
 	public IStatus performQuery(TaskRepository taskRepository, final IRepositoryQuery query,
 			final TaskDataCollector resultCollector, IOperationMonitor monitor) throws BugzillaRestException {
 		String urlIDList = query.getUrl();
 		urlIDList = urlIDList.substring(urlIDList.indexOf("?") + 1); //$NON-NLS-1$
-		List<TaskData> taskDataArray = new BugzillaRestGetTaskData(client, connector, urlIDList, taskRepository)
-				.run(monitor);
-		for (final TaskData taskData : taskDataArray) {
-			taskData.setPartial(true);
-			SafeRunner.run(new ISafeRunnable() {
-
-				@Override
-				public void run() throws Exception {
-					resultCollector.accept(taskData);
-				}
-
-				@Override
-				public void handleException(Throwable exception) {
-					StatusHandler.log(new Status(IStatus.ERROR, BugzillaRestCore.ID_PLUGIN,
-							NLS.bind("Unexpected error during result collection. TaskID {0} in repository {1}", //$NON-NLS-1$
-									taskData.getTaskId(), taskData.getRepositoryUrl()),
-							exception));
-				}
-			});
-		}
+		// results are passed on while the response is read
+		TaskDataCollector partialCollector = new TaskDataCollector() {
+			@Override
+			public void accept(final TaskData taskData) {
+				taskData.setPartial(true);
+				SafeRunner.run(new ISafeRunnable() {
+
+					@Override
+					public void run() throws Exception {
+						resultCollector.accept(taskData);
+					}
+
+					@Override
+					public void handleException(Throwable exception) {
+						StatusHandler.log(new Status(IStatus.ERROR, BugzillaRestCore.ID_PLUGIN,
+								NLS.bind("Unexpected error during result collection. TaskID {0} in repository {1}", //$NON-NLS-1$
+										taskData.getTaskId(), taskData.getRepositoryUrl()),
+								exception));
+					}
+				});
+			}
+		};
+		new BugzillaRestGetTaskData(client, connector, urlIDList, taskRepository, partialCollector).run(monitor);
 		return Status.OK_STATUS;
 	}
 
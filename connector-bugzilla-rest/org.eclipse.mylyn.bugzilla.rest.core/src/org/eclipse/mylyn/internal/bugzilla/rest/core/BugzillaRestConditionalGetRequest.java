@@ -0,0 +1,116 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Tasktop Technologies and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Tasktop Technologies - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.mylyn.internal.bugzilla.rest.core;
+
+import java.io.IOException;
+
+import org.apache.http.Header;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.mylyn.commons.core.operations.IOperationMonitor;
+import org.eclipse.mylyn.commons.repositories.http.core.CommonHttpClient;
+import org.eclipse.mylyn.commons.repositories.http.core.CommonHttpResponse;
+
+import com.google.gson.reflect.TypeToken;
+
+/**
+ * A GET request that only retrieves the resource if it was modified since a previous response. The validators of the
+ * previous response are sent in the If-None-Match and If-Modified-Since headers. If the server responds with
+ * <code>304 Not Modified</code> {@link #run(IOperationMonitor)} returns <code>null</code> and
+ * {@link #isNotModified()} returns <code>true</code>.
+ */
+public class BugzillaRestConditionalGetRequest<T> extends BugzillaRestGetRequest<T> {
+
+	private static final String IF_NONE_MATCH = "If-None-Match"; //$NON-NLS-1$
+
+	private static final String IF_MODIFIED_SINCE = "If-Modified-Since"; //$NON-NLS-1$
+
+	private static final String ETAG = "ETag"; //$NON-NLS-1$
+
+	private static final String LAST_MODIFIED = "Last-Modified"; //$NON-NLS-1$
+
+	private final String eTag;
+
+	private final String lastModified;
+
+	private boolean notModified;
+
+	private String responseETag;
+
+	private String responseLastModified;
+
+	public BugzillaRestConditionalGetRequest(CommonHttpClient client, String urlSuffix, TypeToken<?> responseType,
+			@Nullable String eTag, @Nullable String lastModified) {
+		super(client, urlSuffix, responseType);
+		this.eTag = eTag;
+		this.lastModified = lastModified;
+	}
+
+	@Override
+	protected HttpRequestBase createHttpRequestBase(String url) {
+		HttpRequestBase request = super.createHttpRequestBase(url);
+		if (eTag != null) {
+			request.setHeader(IF_NONE_MATCH, eTag);
+		}
+		if (lastModified != null) {
+			request.setHeader(IF_MODIFIED_SINCE, lastModified);
+		}
+		return request;
+	}
+
+	@Override
+	protected void doValidate(CommonHttpResponse response, IOperationMonitor monitor)
+			throws IOException, BugzillaRestException {
+		if (response.getStatusCode() != HttpStatus.SC_NOT_MODIFIED) {
+			super.doValidate(response, monitor);
+		}
+	}
+
+	@Override
+	protected T doProcess(CommonHttpResponse response, IOperationMonitor monitor)
+			throws IOException, BugzillaRestException {
+		if (response.getStatusCode() == HttpStatus.SC_NOT_MODIFIED) {
+			notModified = true;
+			responseETag = eTag;
+			responseLastModified = lastModified;
+			return null;
+		}
+		responseETag = getHeaderValue(response, ETAG);
+		responseLastModified = getHeaderValue(response, LAST_MODIFIED);
+		return super.doProcess(response, monitor);
+	}
+
+	private String getHeaderValue(CommonHttpResponse response, String name) {
+		Header header = response.getResponse().getFirstHeader(name);
+		return (header != null) ? header.getValue() : null;
+	}
+
+	public boolean isNotModified() {
+		return notModified;
+	}
+
+	/**
+	 * Returns the entity tag of the response or <code>null</code>, if the server did not send one.
+	 */
+	public String getETag() {
+		return responseETag;
+	}
+
+	/**
+	 * Returns the modification date of the response or <code>null</code>, if the server did not send one.
+	 */
+	public String getLastModified() {
+		return responseLastModified;
+	}
+
+}
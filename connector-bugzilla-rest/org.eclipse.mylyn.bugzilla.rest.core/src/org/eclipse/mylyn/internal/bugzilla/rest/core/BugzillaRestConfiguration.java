@@ -13,6 +13,8 @@ package org.eclipse.mylyn.internal.bugzilla.rest.core;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.SortedSet;
@@ -33,6 +35,7 @@ import org.eclipse.mylyn.internal.bugzilla.rest.core.response.data.Product;
 import org.eclipse.mylyn.internal.bugzilla.rest.core.response.data.SortableActiveEntry;
 import org.eclipse.mylyn.internal.bugzilla.rest.core.response.data.StatusTransition;
 import org.eclipse.mylyn.tasks.core.data.TaskAttribute;
+import org.eclipse.mylyn.tasks.core.data.TaskAttributeOptionTable;
 import org.eclipse.mylyn.tasks.core.data.TaskData;
 import org.eclipse.mylyn.tasks.core.data.TaskOperation;
 
@@ -55,6 +58,11 @@ public class BugzillaRestConfiguration implements Serializable {
 
 	private Parameters parameters;
 
+	// validators of the responses that the configuration was built from by request path
+	private final Map<String, String> eTags = new HashMap<String, String>();
+
+	private final Map<String, String> lastModifiedDates = new HashMap<String, String>();
+
 	public BugzillaRestConfiguration(String repositoryId) {
 		this.repositoryId = repositoryId;
 	}
@@ -109,6 +117,50 @@ public class BugzillaRestConfiguration implements Serializable {
 		return parameters;
 	}
 
+	/**
+	 * Returns the entity tag of the response for <code>path</code> or <code>null</code>, if not known.
+	 */
+	String getETag(String path) {
+		return eTags.get(path);
+	}
+
+	/**
+	 * Returns the modification date of the response for <code>path</code> or <code>null</code>, if not known.
+	 */
+	String getLastModified(String path) {
+		return lastModifiedDates.get(path);
+	}
+
+	void setValidators(String path, String eTag, String lastModified) {
+		putOrRemove(eTags, path, eTag);
+		putOrRemove(lastModifiedDates, path, lastModified);
+	}
+
+	void setValidators(Map<String, String> eTags, Map<String, String> lastModifiedDates) {
+		if (eTags != null) {
+			this.eTags.putAll(eTags);
+		}
+		if (lastModifiedDates != null) {
+			this.lastModifiedDates.putAll(lastModifiedDates);
+		}
+	}
+
+	Map<String, String> getETags() {
+		return eTags;
+	}
+
+	Map<String, String> getLastModifiedDates() {
+		return lastModifiedDates;
+	}
+
+	private void putOrRemove(Map<String, String> map, String key, String value) {
+		if (value != null) {
+			map.put(key, value);
+		} else {
+			map.remove(key);
+		}
+	}
+
 	private Component getProductComponentWithName(@NonNull Product product, String name) {
 		return product.getComponentWithName(name);
 	}
@@ -144,20 +196,22 @@ public class BugzillaRestConfiguration implements Serializable {
 				} else {
 					FieldValues[] val = configField.getValues();
 					if (val != null && val.length > 0) {
+						Map<String, String> options = new LinkedHashMap<String, String>(attribute.getOptions());
 						for (FieldValues fieldValues : val) {
 							if (configName.equals("bug_status")) {
 								if (fieldValues.getName() == null) {
 									for (StatusTransition bugzillaRestBugStatusTransition : fieldValues
 											.getCanChangeTo()) {
-										attribute.putOption(bugzillaRestBugStatusTransition.getName(),
+										options.put(bugzillaRestBugStatusTransition.getName(),
 												bugzillaRestBugStatusTransition.getName());
 									}
 								}
 							} else {
-								attribute.putOption(fieldValues.getName(), fieldValues.getName());
+								options.put(fieldValues.getName(), fieldValues.getName());
 							}
 
 						}
+						attribute.setOptionTable(TaskAttributeOptionTable.of(options));
 					}
 				}
 			}
@@ -183,9 +237,11 @@ public class BugzillaRestConfiguration implements Serializable {
 
 					FieldValues[] values1 = Field.getValues();
 					if (values1 != null) {
+						Map<String, String> options = new LinkedHashMap<String, String>();
 						for (FieldValues FieldValues : values1) {
-							attribute.putOption(FieldValues.getName(), FieldValues.getName());
+							options.put(FieldValues.getName(), FieldValues.getName());
 						}
+						attribute.setOptionTable(TaskAttributeOptionTable.of(options));
 					}
 					attribute.getMetaData().setReadOnly(false);
 				}
@@ -290,17 +346,15 @@ public class BugzillaRestConfiguration implements Serializable {
 	}
 
 	private void internalSetAttributeOptions(TaskAttribute taskAttribute, SortableActiveEntry[] actualProductEntry) {
-		boolean found = false;
-		String actualValue = taskAttribute.getValue();
+		Map<String, String> options = new LinkedHashMap<String, String>();
 		for (SortableActiveEntry SortableActiveEntry : actualProductEntry) {
 			if (SortableActiveEntry.isActive()) {
-				taskAttribute.putOption(SortableActiveEntry.getName(), SortableActiveEntry.getName());
-				if (!found) {
-					found = actualValue.equals(SortableActiveEntry.getName());
-				}
+				options.put(SortableActiveEntry.getName(), SortableActiveEntry.getName());
 			}
 		}
-		if (!found) {
+		// options are shared by all tasks of the product
+		taskAttribute.setOptionTable(TaskAttributeOptionTable.of(options));
+		if (!options.containsKey(taskAttribute.getValue())) {
 			taskAttribute.setValue(""); //$NON-NLS-1$
 		}
 	}
@@ -319,10 +373,11 @@ public class BugzillaRestConfiguration implements Serializable {
 						}
 					}
 				}
-				attributeProduct.clearOptions();
+				Map<String, String> options = new LinkedHashMap<String, String>();
 				for (String productName : products) {
-					attributeProduct.putOption(productName, productName);
+					options.put(productName, productName);
 				}
+				attributeProduct.setOptionTable(TaskAttributeOptionTable.of(options));
 			}
 
 			return true;
@@ -355,9 +410,11 @@ public class BugzillaRestConfiguration implements Serializable {
 				setAttributeOptionsForProduct(attributeTargetMilestone, actualProduct);
 			}
 		} else {
+			Map<String, String> options = new LinkedHashMap<String, String>(attributeProduct.getOptions());
 			for (Product product : getProducts().values()) {
-				attributeProduct.putOption(product.getName(), product.getName());
+				options.put(product.getName(), product.getName());
 			}
+			attributeProduct.setOptionTable(TaskAttributeOptionTable.of(options));
 			TaskAttribute attributeComponent = taskData.getRoot().getMappedAttribute(SCHEMA.COMPONENT.getKey());
 			if (attributeComponent != null) {
 				setAllAttributeOptions(attributeComponent, getFieldWithName("component")); //$NON-NLS-1$
@@ -378,9 +435,11 @@ public class BugzillaRestConfiguration implements Serializable {
 	private void setAllAttributeOptions(TaskAttribute updateAttribute, Field configField) {
 		FieldValues[] val = configField.getValues();
 		if (val != null && val.length > 0) {
+			Map<String, String> options = new LinkedHashMap<String, String>(updateAttribute.getOptions());
 			for (FieldValues fieldValues : val) {
-				updateAttribute.putOption(fieldValues.getName(), fieldValues.getName());
+				options.put(fieldValues.getName(), fieldValues.getName());
 			}
+			updateAttribute.setOptionTable(TaskAttributeOptionTable.of(options));
 		}
 	}
 
@@ -553,10 +612,11 @@ public class BugzillaRestConfiguration implements Serializable {
 		TaskAttribute attributeKeywords = taskData.getRoot().getMappedAttribute(SCHEMA.KEYWORDS.getKey());
 		Field keywords = getFieldWithName("keywords");
 		FieldValues[] keywordList = keywords.getValues();
-		attributeKeywords.clearOptions();
+		Map<String, String> options = new LinkedHashMap<String, String>();
 		for (FieldValues fieldValues : keywordList) {
-			attributeKeywords.putOption(fieldValues.getName(), fieldValues.getDescription());
+			options.put(fieldValues.getName(), fieldValues.getDescription());
 		}
+		attributeKeywords.setOptionTable(TaskAttributeOptionTable.of(options));
 	}
 
 }
\ No newline at end of file
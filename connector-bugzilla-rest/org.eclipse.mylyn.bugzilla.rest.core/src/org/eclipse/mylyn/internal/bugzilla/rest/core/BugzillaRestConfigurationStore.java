@@ -0,0 +1,159 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Tasktop Technologies and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Tasktop Technologies - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.mylyn.internal.bugzilla.rest.core;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.UnsupportedEncodingException;
+import java.io.Writer;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.mylyn.commons.core.StatusHandler;
+import org.eclipse.mylyn.internal.bugzilla.rest.core.response.data.Field;
+import org.eclipse.mylyn.internal.bugzilla.rest.core.response.data.Parameters;
+import org.eclipse.mylyn.internal.bugzilla.rest.core.response.data.Product;
+
+import com.google.common.base.Preconditions;
+import com.google.gson.Gson;
+
+/**
+ * Persists the configuration of each repository as a JSON file so that it is available right after a restart. The
+ * validators of the responses that a configuration was built from are stored along with it to allow conditional
+ * requests when the configuration is refreshed.
+ */
+public class BugzillaRestConfigurationStore {
+
+	/**
+	 * The version of the file format. Needs to be incremented when the format changes in an incompatible way.
+	 */
+	static final int FORMAT_VERSION = 1;
+
+	private static final String FILE_EXTENSION = ".json"; //$NON-NLS-1$
+
+	private static final String TEMP_FILE_EXTENSION = ".tmp"; //$NON-NLS-1$
+
+	private static class PersistedConfiguration {
+
+		private int version;
+
+		private String repositoryId;
+
+		private Map<String, Field> fields;
+
+		private Map<String, Product> products;
+
+		private Parameters parameters;
+
+		private Map<String, String> eTags;
+
+		private Map<String, String> lastModified;
+
+	}
+
+	private final File directory;
+
+	public BugzillaRestConfigurationStore(File directory) {
+		Preconditions.checkNotNull(directory);
+		this.directory = directory;
+	}
+
+	/**
+	 * Returns the persisted configuration of <code>repositoryUrl</code> or <code>null</code>, if no configuration was
+	 * persisted or the file could not be read.
+	 */
+	public BugzillaRestConfiguration read(String repositoryUrl) {
+		File file = getFile(repositoryUrl);
+		if (!file.exists()) {
+			return null;
+		}
+		try (Reader reader = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)) {
+			PersistedConfiguration persisted = new Gson().fromJson(reader, PersistedConfiguration.class);
+			if (persisted != null && persisted.version == FORMAT_VERSION
+					&& repositoryUrl.equals(persisted.repositoryId) && persisted.fields != null
+					&& persisted.products != null) {
+				BugzillaRestConfiguration configuration = new BugzillaRestConfiguration(persisted.repositoryId);
+				configuration.setFields(persisted.fields);
+				configuration.setProducts(persisted.products);
+				configuration.setParameters(persisted.parameters);
+				configuration.setValidators(persisted.eTags, persisted.lastModified);
+				return configuration;
+			}
+		} catch (Exception e) {
+			StatusHandler.log(new Status(IStatus.INFO, BugzillaRestCore.ID_PLUGIN,
+					"Discarding persisted configuration of " + repositoryUrl, e)); //$NON-NLS-1$
+		}
+		file.delete();
+		return null;
+	}
+
+	/**
+	 * Writes <code>configuration</code> replacing a previously persisted configuration of the same repository.
+	 */
+	public synchronized void write(BugzillaRestConfiguration configuration) throws IOException {
+		Preconditions.checkNotNull(configuration);
+		if (!directory.exists() && !directory.mkdirs()) {
+			throw new IOException("Failed to create directory " + directory); //$NON-NLS-1$
+		}
+		PersistedConfiguration persisted = new PersistedConfiguration();
+		persisted.version = FORMAT_VERSION;
+		persisted.repositoryId = configuration.getRepositoryId();
+		persisted.fields = configuration.getFields();
+		persisted.products = configuration.getProducts();
+		persisted.parameters = configuration.getParameters();
+		persisted.eTags = configuration.getETags();
+		persisted.lastModified = configuration.getLastModifiedDates();
+
+		File file = getFile(configuration.getRepositoryId());
+		File tempFile = new File(directory, file.getName() + TEMP_FILE_EXTENSION);
+		try (Writer writer = new OutputStreamWriter(new FileOutputStream(tempFile), StandardCharsets.UTF_8)) {
+			new Gson().toJson(persisted, writer);
+		}
+		// replace the previous file only after the new configuration was written completely
+		try {
+			move(tempFile, file);
+		} catch (IOException e) {
+			tempFile.delete();
+			throw e;
+		}
+	}
+
+	private void move(File source, File target) throws IOException {
+		try {
+			Files.move(source.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE,
+					StandardCopyOption.REPLACE_EXISTING);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	private File getFile(String repositoryUrl) {
+		try {
+			return new File(directory, URLEncoder.encode(repositoryUrl, StandardCharsets.UTF_8.name())
+					+ FILE_EXTENSION);
+		} catch (UnsupportedEncodingException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+}
@@ -13,8 +13,11 @@ package org.eclipse.mylyn.internal.bugzilla.rest.core;
 
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
+import java.io.File;
+import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.text.ParseException;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
@@ -23,9 +26,13 @@ import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IConfigurationElement;
+import org.eclipse.core.runtime.IExecutableExtension;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Platform;
 import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.mylyn.commons.core.StatusHandler;
@@ -54,6 +61,7 @@ import org.eclipse.mylyn.tasks.core.data.TaskData;
 import org.eclipse.mylyn.tasks.core.data.TaskDataCollector;
 import org.eclipse.mylyn.tasks.core.data.TaskMapper;
 import org.eclipse.mylyn.tasks.core.sync.ISynchronizationSession;
+import org.osgi.framework.Bundle;
 
 import com.google.common.base.Objects;
 import com.google.common.base.Optional;
@@ -63,7 +71,7 @@ import com.google.common.cache.LoadingCache;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.UncheckedExecutionException;
 
-public class BugzillaRestConnector extends AbstractRepositoryConnector {
+public class BugzillaRestConnector extends AbstractRepositoryConnector implements IExecutableExtension {
 
 	public static final Duration CLIENT_CACHE_DURATION = new Duration(24, TimeUnit.HOURS);
 
@@ -129,13 +137,31 @@ public class BugzillaRestConnector extends AbstractRepositoryConnector {
 
 	private final LoadingCache<RepositoryKey, Optional<BugzillaRestConfiguration>> configurationCache;
 
+	private volatile BugzillaRestConfigurationStore configurationStore;
+
 	public BugzillaRestConnector() {
 		this(CONFIGURATION_CACHE_REFRESH_AFTER_WRITE_DURATION);
 	}
 
 	public BugzillaRestConnector(Duration refreshAfterWriteDuration) {
+		this(refreshAfterWriteDuration, null);
+	}
+
+	/**
+	 * Repository configurations are persisted in the state location of the plug-in if the connector is created from
+	 * its extension and no directory is passed in.
+	 *
+	 * @param configurationDirectory
+	 *            the directory for persisting repository configurations or <code>null</code> to keep configurations
+	 *            in memory only
+	 * @see #setInitializationData(IConfigurationElement, String, Object)
+	 */
+	public BugzillaRestConnector(Duration refreshAfterWriteDuration, @Nullable File configurationDirectory) {
 		super();
 		this.attachmentHandler = new BugzillaRestTaskAttachmentHandler(this);
+		this.configurationStore = (configurationDirectory != null)
+				? new BugzillaRestConfigurationStore(configurationDirectory)
+				: null;
 		configurationCache = createCacheBuilder(CONFIGURATION_CACHE_EXPIRE_DURATION, refreshAfterWriteDuration)
 				.build(new CacheLoader<RepositoryKey, Optional<BugzillaRestConfiguration>>() {
 
@@ -144,12 +170,20 @@ public class BugzillaRestConnector extends AbstractRepositoryConnector {
 						BugzillaRestClient client = clientCache.get(key);
 						TaskRepository repository = key.getRepository();
 						repository.addChangeListener(repositoryChangeListener4ConfigurationCache);
-						return Optional.fromNullable(client.getConfiguration(key.getRepository(), context.get()));
+						BugzillaRestConfiguration configuration = readConfiguration(repository);
+						if (configuration != null) {
+							// use the persisted configuration right away and check for changes in the background
+							scheduleConfigurationUpdate(key, configuration);
+							return Optional.of(configuration);
+						}
+						configuration = client.getConfiguration(repository, null, context.get());
+						writeConfiguration(configuration);
+						return Optional.fromNullable(configuration);
 					}
 
 					@Override
 					public ListenableFuture<Optional<BugzillaRestConfiguration>> reload(final RepositoryKey key,
-							Optional<BugzillaRestConfiguration> oldValue) throws Exception {
+							final Optional<BugzillaRestConfiguration> oldValue) throws Exception {
 						// asynchronous!
 						ListenableFutureJob<Optional<BugzillaRestConfiguration>> job = new ListenableFutureJob<Optional<BugzillaRestConfiguration>>(
 								"") {
@@ -159,8 +193,13 @@ public class BugzillaRestConnector extends AbstractRepositoryConnector {
 								BugzillaRestClient client;
 								try {
 									client = clientCache.get(key);
-									set(Optional
-											.fromNullable(client.getConfiguration(key.getRepository(), context.get())));
+									BugzillaRestConfiguration previous = oldValue.orNull();
+									BugzillaRestConfiguration configuration = client
+											.getConfiguration(key.getRepository(), previous, context.get());
+									if (configuration != previous) {
+										writeConfiguration(configuration);
+									}
+									set(Optional.fromNullable(configuration));
 								} catch (ExecutionException e) {
 									e.printStackTrace();
 									return new Status(IStatus.ERROR, BugzillaRestCore.ID_PLUGIN,
@@ -175,6 +214,75 @@ public class BugzillaRestConnector extends AbstractRepositoryConnector {
 				});
 	}
 
+	/**
+	 * Invoked when the connector is created from its extension. Persists repository configurations in the state
+	 * location of the plug-in unless a configuration directory was passed to the constructor.
+	 */
+	@Override
+	public void setInitializationData(IConfigurationElement config, String propertyName, Object data)
+			throws CoreException {
+		if (configurationStore == null) {
+			File directory = getDefaultConfigurationDirectory();
+			if (directory != null) {
+				configurationStore = new BugzillaRestConfigurationStore(directory);
+			}
+		}
+	}
+
+	private static File getDefaultConfigurationDirectory() {
+		Bundle bundle = Platform.isRunning() ? Platform.getBundle(BugzillaRestCore.ID_PLUGIN) : null;
+		if (bundle != null) {
+			try {
+				return Platform.getStateLocation(bundle).append("configurations").toFile(); //$NON-NLS-1$
+			} catch (IllegalStateException e) {
+				// no instance location, e.g. when running outside of a workspace
+			}
+		}
+		return null;
+	}
+
+	private BugzillaRestConfiguration readConfiguration(TaskRepository repository) {
+		return (configurationStore != null) ? configurationStore.read(repository.getUrl()) : null;
+	}
+
+	private void writeConfiguration(BugzillaRestConfiguration configuration) {
+		if (configurationStore != null && configuration != null) {
+			try {
+				configurationStore.write(configuration);
+			} catch (IOException e) {
+				StatusHandler.log(new Status(IStatus.WARNING, BugzillaRestCore.ID_PLUGIN,
+						"Could not persist the Configuration", e)); //$NON-NLS-1$
+			}
+		}
+	}
+
+	/**
+	 * Retrieves the parts of the configuration that have changed since <code>persisted</code> was retrieved and
+	 * replaces the cached configuration if there were changes.
+	 */
+	private void scheduleConfigurationUpdate(final RepositoryKey key, final BugzillaRestConfiguration persisted) {
+		Job job = new Job("Update Bugzilla REST Configuration") { //$NON-NLS-1$
+			@Override
+			protected IStatus run(IProgressMonitor monitor) {
+				try {
+					BugzillaRestClient client = clientCache.get(key);
+					BugzillaRestConfiguration configuration = client.getConfiguration(key.getRepository(), persisted,
+							OperationUtil.convert(monitor));
+					if (configuration != null && configuration != persisted) {
+						writeConfiguration(configuration);
+						configurationCache.put(key, Optional.of(configuration));
+					}
+				} catch (ExecutionException e) {
+					return new Status(IStatus.ERROR, BugzillaRestCore.ID_PLUGIN,
+							"BugzillaRestConnector update Configuration", e); //$NON-NLS-1$
+				}
+				return Status.OK_STATUS;
+			}
+		};
+		job.setSystem(true);
+		job.schedule();
+	}
+
 	protected CacheBuilder<Object, Object> createCacheBuilder(Duration expireAfterWriteDuration,
 			Duration refreshAfterWriteDuration) {
 		return CacheBuilder.newBuilder()
@@ -258,6 +366,104 @@ public class BugzillaRestConnector extends AbstractRepositoryConnector {
 		}
 	}
 
+	@Override
+	public void preSynchronization(ISynchronizationSession session, IProgressMonitor monitor) throws CoreException {
+		monitor = Policy.monitorFor(monitor);
+		try {
+			monitor.beginTask("preSynchronization", IProgressMonitor.UNKNOWN); //$NON-NLS-1$
+			TaskRepository repository = session.getTaskRepository();
+			Date since = parseSynchronizationTimeStamp(repository);
+			if (since == null) {
+				// no previous synchronization, all tasks need to be retrieved
+				for (ITask task : session.getTasks()) {
+					session.markStale(task);
+				}
+				return;
+			}
+
+			BugzillaRestClient client = getClient(repository);
+			IOperationMonitor progress = OperationUtil.convert(monitor);
+			Map<String, Date> lastChangeTimes = client.getChangedTasks(since, progress);
+			boolean complete = lastChangeTimes.size() < BugzillaRestClient.MAX_CHANGED_PER_QUERY;
+			// the same bug may be in the session more than once if ids differ in leading zeros
+			Map<String, List<ITask>> tasksById = session.getTasks().stream().collect(
+					Collectors.groupingBy(task -> BugzillaRestClient.removeLeadingZeros(task.getTaskId())));
+			if (!complete) {
+				// too many changes in the repository, only check the tasks of the session
+				lastChangeTimes = client.getChangedTasks(tasksById.keySet(), since, progress);
+			}
+
+			Date timestamp = since;
+			boolean changed = false;
+			for (Map.Entry<String, Date> entry : lastChangeTimes.entrySet()) {
+				Date lastChangeTime = entry.getValue();
+				if (lastChangeTime.after(timestamp)) {
+					timestamp = lastChangeTime;
+				}
+				// the search includes bugs that were changed in the same second as the last synchronization, these
+				// may have been changed after the last synchronization and are only skipped if already up to date
+				if (lastChangeTime.before(since)) {
+					continue;
+				}
+				List<ITask> tasks = tasksById.get(BugzillaRestClient.removeLeadingZeros(entry.getKey()));
+				if (tasks == null) {
+					changed = true;
+				} else {
+					for (ITask task : tasks) {
+						if (task.getModificationDate() == null || lastChangeTime.after(task.getModificationDate())) {
+							session.markStale(task);
+							changed = true;
+						}
+					}
+				}
+			}
+			if (complete && !changed) {
+				// query results can not have changed either
+				session.setNeedsPerformQueries(false);
+			}
+			session.setData(timestamp);
+		} catch (BugzillaRestException e) {
+			throw new CoreException(new Status(IStatus.ERROR, BugzillaRestCore.ID_PLUGIN,
+					"BugzillaRestException from preSynchronization", e)); //$NON-NLS-1$
+		} finally {
+			monitor.done();
+		}
+	}
+
+	@Override
+	public void postSynchronization(ISynchronizationSession event, IProgressMonitor monitor) throws CoreException {
+		if (event.isFullSynchronization() && event.getStatus() == null) {
+			Date timestamp = getSynchronizationTimestamp(event);
+			if (timestamp != null) {
+				event.getTaskRepository()
+						.setSynchronizationTimeStamp(BugzillaRestGetChangedTasks.formatTimestamp(timestamp));
+			}
+		}
+	}
+
+	private Date parseSynchronizationTimeStamp(TaskRepository repository) {
+		String timestamp = repository.getSynchronizationTimeStamp();
+		if (timestamp != null) {
+			try {
+				return BugzillaRestGetChangedTasks.parseTimestamp(timestamp);
+			} catch (ParseException e) {
+				// ignore, all tasks are retrieved
+			}
+		}
+		return null;
+	}
+
+	private Date getSynchronizationTimestamp(ISynchronizationSession event) {
+		Date mostRecent = (event.getData() instanceof Date) ? (Date) event.getData() : null;
+		for (ITask task : event.getChangedTasks()) {
+			Date taskModifiedDate = task.getModificationDate();
+			if (taskModifiedDate != null && (mostRecent == null || taskModifiedDate.after(mostRecent))) {
+				mostRecent = taskModifiedDate;
+			}
+		}
+		return mostRecent;
+	}
+
 	@Override
 	public void updateRepositoryConfiguration(TaskRepository taskRepository, IProgressMonitor monitor)
 			throws CoreException {
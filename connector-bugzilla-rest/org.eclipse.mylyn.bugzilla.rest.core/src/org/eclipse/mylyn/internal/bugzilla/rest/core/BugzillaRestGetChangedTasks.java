@@ -0,0 +1,70 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Tasktop Technologies and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Tasktop Technologies - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.mylyn.internal.bugzilla.rest.core;
+
+import java.io.InputStreamReader;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
+
+import org.eclipse.mylyn.commons.repositories.http.core.CommonHttpClient;
+import org.eclipse.mylyn.internal.bugzilla.rest.core.response.data.LastChangeTimeEntry;
+import org.eclipse.mylyn.internal.bugzilla.rest.core.response.data.LastChangeTimeResponse;
+
+import com.google.gson.Gson;
+
+/**
+ * Searches for bugs that were changed at or after a point in time and returns the last change time of each bug
+ * without retrieving any other fields.
+ */
+public class BugzillaRestGetChangedTasks extends BugzillaRestGetRequest<Map<String, Date>> {
+
+	public BugzillaRestGetChangedTasks(CommonHttpClient client, String urlSuffix, Date since) {
+		super(client, "/bug?" + urlSuffix + "&last_change_time=" + formatTimestamp(since) //$NON-NLS-1$ //$NON-NLS-2$
+				+ "&include_fields=id,last_change_time", null); //$NON-NLS-1$
+	}
+
+	@Override
+	protected Map<String, Date> parseFromJson(InputStreamReader in) throws BugzillaRestException {
+		LastChangeTimeResponse response = new Gson().fromJson(in, LastChangeTimeResponse.class);
+		Map<String, Date> lastChangeTimes = new LinkedHashMap<String, Date>();
+		if (response != null && response.getBugs() != null) {
+			for (LastChangeTimeEntry entry : response.getBugs()) {
+				try {
+					lastChangeTimes.put(entry.getId(), parseTimestamp(entry.getLast_change_time()));
+				} catch (ParseException e) {
+					throw new BugzillaRestException("Can not parse Date (" + entry.getLast_change_time() + ")", e); //$NON-NLS-1$ //$NON-NLS-2$
+				}
+			}
+		}
+		return lastChangeTimes;
+	}
+
+	public static String formatTimestamp(Date date) {
+		return createTimestampFormat().format(date);
+	}
+
+	public static Date parseTimestamp(String timestamp) throws ParseException {
+		return createTimestampFormat().parse(timestamp);
+	}
+
+	private static SimpleDateFormat createTimestampFormat() {
+		SimpleDateFormat iso8601Format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'", Locale.US); //$NON-NLS-1$
+		iso8601Format.setTimeZone(TimeZone.getTimeZone("UTC")); //$NON-NLS-1$
+		return iso8601Format;
+	}
+
+}
@@ -11,27 +11,24 @@
 
 package org.eclipse.mylyn.internal.bugzilla.rest.core;
 
-import java.io.ByteArrayInputStream;
+import java.io.BufferedInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
 
 import org.apache.commons.codec.binary.Base64InputStream;
-import org.eclipse.core.runtime.CoreException;
-import org.eclipse.core.runtime.IStatus;
-import org.eclipse.core.runtime.Status;
+import org.apache.commons.io.input.ReaderInputStream;
+import org.eclipse.mylyn.commons.core.operations.IOperationMonitor;
 import org.eclipse.mylyn.commons.repositories.http.core.CommonHttpClient;
+import org.eclipse.mylyn.commons.repositories.http.core.CommonHttpResponse;
 import org.eclipse.mylyn.tasks.core.data.TaskAttribute;
 
-import com.google.gson.GsonBuilder;
-import com.google.gson.JsonDeserializationContext;
-import com.google.gson.JsonDeserializer;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParseException;
-import com.google.gson.JsonPrimitive;
-import com.google.gson.reflect.TypeToken;
-
+/**
+ * Retrieves the content of an attachment. The returned stream decodes the content while it is read from the response
+ * and releases the response when it is closed.
+ */
 public class BugzillaRestGetTaskAttachmentData extends BugzillaRestGetRequest<InputStream> {
 	private final TaskAttribute taskAttribute;
 
@@ -41,31 +38,50 @@ public class BugzillaRestGetTaskAttachmentData extends BugzillaRestGetRequest<In
 	}
 
 	@Override
-	protected InputStream parseFromJson(InputStreamReader in) {
-		TypeToken<InputStream> type = new TypeToken<InputStream>() {
-		};
-		return new GsonBuilder().registerTypeAdapter(type.getType(), new JSonTaskDataDeserializer())
-				.create()
-				.fromJson(in, type.getType());
+	protected InputStream processAndRelease(final CommonHttpResponse response, IOperationMonitor monitor)
+			throws IOException, BugzillaRestException {
+		boolean streaming = false;
+		try {
+			doValidate(response, monitor);
+			BufferedInputStream is = new BufferedInputStream(response.getResponseEntityAsStream());
+			throwExeptionIfRestError(is, new InputStreamReader(is));
+			InputStream data = decode(new FilterInputStream(is) {
+				@Override
+				public void close() throws IOException {
+					try {
+						super.close();
+					} finally {
+						response.release();
+					}
+				}
+			});
+			streaming = true;
+			return data;
+		} finally {
+			if (!streaming) {
+				response.release();
+			}
+		}
 	}
 
-	private class JSonTaskDataDeserializer implements JsonDeserializer<InputStream> {
-
-		@Override
-		public InputStream deserialize(JsonElement json, Type typeOfT, JsonDeserializationContext context)
-				throws JsonParseException {
-
-			JsonElement attachments = ((JsonObject) json.getAsJsonObject().get("attachments")) //$NON-NLS-1$
-					.get(taskAttribute.getValue());
-			JsonPrimitive attachment = attachments.getAsJsonObject().get("data").getAsJsonPrimitive(); //$NON-NLS-1$
-			if (attachment == null) {
-				throw com.google.common.base.Throwables.propagate(new CoreException(
-						new Status(IStatus.ERROR, BugzillaRestCore.ID_PLUGIN, "Can not get Attachment Data"))); //$NON-NLS-1$
-			}
-			InputStream is = new ByteArrayInputStream(attachment.getAsString().getBytes());
+	@Override
+	protected InputStream parseFromJson(InputStreamReader in) throws BugzillaRestException {
+		try {
+			return decode(new ReaderInputStream(in, StandardCharsets.UTF_8));
+		} catch (IOException e) {
+			throw new BugzillaRestException(e);
+		}
+	}
 
-			return new Base64InputStream(is);
+	/**
+	 * Returns a stream that decodes the attachment data of the JSON document in <code>in</code>.
+	 */
+	private InputStream decode(InputStream in) throws IOException, BugzillaRestException {
+		InputStream data = JsonStringValueInputStream.open(in, "attachments", taskAttribute.getValue(), "data"); //$NON-NLS-1$ //$NON-NLS-2$
+		if (data == null) {
+			throw new BugzillaRestException("Can not get Attachment Data"); //$NON-NLS-1$
 		}
+		return new Base64InputStream(data);
 	}
 
 }
@@ -14,7 +14,6 @@ package org.eclipse.mylyn.internal.bugzilla.rest.core;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.lang.reflect.Type;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
@@ -28,6 +27,7 @@ import org.apache.http.HttpStatus;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
+import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.mylyn.commons.core.operations.IOperationMonitor;
 import org.eclipse.mylyn.commons.repositories.http.core.CommonHttpClient;
 import org.eclipse.mylyn.commons.repositories.http.core.CommonHttpResponse;
@@ -36,17 +36,17 @@ import org.eclipse.mylyn.tasks.core.TaskRepository;
 import org.eclipse.mylyn.tasks.core.data.TaskAttribute;
 import org.eclipse.mylyn.tasks.core.data.TaskAttributeMapper;
 import org.eclipse.mylyn.tasks.core.data.TaskData;
+import org.eclipse.mylyn.tasks.core.data.TaskDataCollector;
 import org.eclipse.osgi.util.NLS;
 
 import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
 import com.google.gson.JsonArray;
-import com.google.gson.JsonDeserializationContext;
-import com.google.gson.JsonDeserializer;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParseException;
-import com.google.gson.reflect.TypeToken;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 
 public class BugzillaRestGetTaskData extends BugzillaRestGetRequest<List<TaskData>> {
 
@@ -54,20 +54,44 @@ public class BugzillaRestGetTaskData extends BugzillaRestGetRequest<List<TaskDat
 
 	private final BugzillaRestConnector connector;
 
+	private final TaskDataCollector collector;
+
 	public BugzillaRestGetTaskData(CommonHttpClient client, BugzillaRestConnector connector, String urlSuffix,
 			TaskRepository taskRepository) {
+		this(client, connector, urlSuffix, taskRepository, null);
+	}
+
+	/**
+	 * Creates a request that passes each task to <code>collector</code> as soon as it has been read from the response
+	 * instead of returning all tasks when the response has been read completely. If <code>collector</code> is not
+	 * <code>null</code>, the request returns an empty list.
+	 */
+	public BugzillaRestGetTaskData(CommonHttpClient client, BugzillaRestConnector connector, String urlSuffix,
+			TaskRepository taskRepository, @Nullable TaskDataCollector collector) {
 		super(client, "/bug?" + urlSuffix, null); //$NON-NLS-1$
 		this.taskRepository = taskRepository;
 		this.connector = connector;
+		this.collector = collector;
 	}
 
 	@Override
 	protected List<TaskData> parseFromJson(InputStreamReader in) throws BugzillaRestException {
-		TypeToken<List<TaskData>> type = new TypeToken<List<TaskData>>() {
-		};
-		return new GsonBuilder().registerTypeAdapter(type.getType(), new JSonTaskDataDeserializer())
-				.create()
-				.fromJson(in, type.getType());
+		final List<TaskData> response = new ArrayList<TaskData>();
+		TaskDataCollector resultCollector = collector;
+		if (resultCollector == null) {
+			resultCollector = new TaskDataCollector() {
+				@Override
+				public void accept(TaskData taskData) {
+					response.add(taskData);
+				}
+			};
+		}
+		try {
+			parseTaskData(new JsonReader(in), resultCollector);
+		} catch (IOException | IllegalStateException | JsonParseException e) {
+			throw new BugzillaRestException(e);
+		}
+		return response;
 	}
 
 	@Override
@@ -95,104 +119,126 @@ public class BugzillaRestGetTaskData extends BugzillaRestGetRequest<List<TaskDat
 
 	BugzillaRestTaskSchema taskSchema = BugzillaRestTaskSchema.getDefault();
 
-	private class JSonTaskDataDeserializer implements JsonDeserializer<ArrayList<TaskData>> {
-
-		@Override
-		public ArrayList<TaskData> deserialize(JsonElement json, Type typeOfT, JsonDeserializationContext context)
-				throws JsonParseException {
-			ArrayList<TaskData> response = new ArrayList<TaskData>();
-			BugzillaRestTaskDataHandler dataHandler = (BugzillaRestTaskDataHandler) connector.getTaskDataHandler();
-			TaskAttributeMapper mapper = dataHandler.getAttributeMapper(taskRepository);
-			for (JsonElement bug : json.getAsJsonObject().get("bugs").getAsJsonArray()) { //$NON-NLS-1$
-				JsonObject bugdata = bug.getAsJsonObject();
-				TaskData taskData = null;
-				Integer taskId = bugdata.get("id").getAsInt(); //$NON-NLS-1$
-				taskData = new TaskData(mapper, connector.getConnectorKind(), taskRepository.getRepositoryUrl(),
-						taskId.toString());
-				try {
-					dataHandler.initializeTaskData(taskRepository, taskData, null, null);
-				} catch (CoreException e) {
-					com.google.common.base.Throwables.propagate(e);
+	private void parseTaskData(JsonReader reader, TaskDataCollector resultCollector)
+			throws IOException, BugzillaRestException {
+		BugzillaRestTaskDataHandler dataHandler = (BugzillaRestTaskDataHandler) connector.getTaskDataHandler();
+		TaskAttributeMapper mapper = dataHandler.getAttributeMapper(taskRepository);
+		BugzillaRestConfiguration config = null;
+		try {
+			config = connector.getRepositoryConfiguration(taskRepository);
+		} catch (CoreException e) {
+			com.google.common.base.Throwables.propagate(e);
+		}
+		JsonParser parser = new JsonParser();
+		boolean bugsFound = false;
+		String message = null;
+		String code = null;
+		reader.beginObject();
+		while (reader.hasNext()) {
+			String name = reader.nextName();
+			if (name.equals("bugs")) { //$NON-NLS-1$
+				bugsFound = true;
+				reader.beginArray();
+				while (reader.hasNext()) {
+					// only the tree of the current bug is kept in memory
+					JsonObject bugdata = parser.parse(reader).getAsJsonObject();
+					TaskData taskData = createTaskData(bugdata, dataHandler, mapper);
+					if (config != null) {
+						config.addValidOperations(taskData);
+					}
+					resultCollector.accept(taskData);
 				}
-				TaskAttribute idAttribute = taskData.getRoot().getAttribute(taskSchema.BUG_ID.getKey());
-				idAttribute.setValue(taskId.toString());
-				response.add(taskData);
-				for (Entry<String, JsonElement> entry : bugdata.entrySet()) {
-					String attributeId = BugzillaRestTaskSchema.getAttributeNameFromFieldName(entry.getKey());
-					if (entry.getKey().equals("assigned_to_detail")) { //$NON-NLS-1$
-						TaskAttribute attribute = taskData.getRoot().getAttribute(taskSchema.ASSIGNED_TO.getKey());
-						if (attribute != null) {
-							JsonElement value = entry.getValue().getAsJsonObject().get("email"); //$NON-NLS-1$
-							if (value != null) {
-								attribute.setValue(value.getAsString());
-							} else {
-								value = entry.getValue().getAsJsonObject().get("name"); //$NON-NLS-1$
-								if (value != null) {
-									attribute.setValue(value.getAsString());
-								}
-							}
+				reader.endArray();
+			} else if (name.equals("message") && reader.peek() == JsonToken.STRING) { //$NON-NLS-1$
+				message = reader.nextString();
+			} else if (name.equals("code") && reader.peek() != JsonToken.NULL) { //$NON-NLS-1$
+				code = reader.nextString();
+			} else {
+				reader.skipValue();
+			}
+		}
+		reader.endObject();
+		if (!bugsFound && message != null) {
+			throw new BugzillaRestException(NLS.bind("Error {1}: {0}", message, code)); //$NON-NLS-1$
+		}
+	}
+
+	private TaskData createTaskData(JsonObject bugdata, BugzillaRestTaskDataHandler dataHandler,
+			TaskAttributeMapper mapper) {
+		TaskData taskData = null;
+		Integer taskId = bugdata.get("id").getAsInt(); //$NON-NLS-1$
+		taskData = new TaskData(mapper, connector.getConnectorKind(), taskRepository.getRepositoryUrl(),
+				taskId.toString());
+		try {
+			dataHandler.initializeTaskData(taskRepository, taskData, null, null);
+		} catch (CoreException e) {
+			com.google.common.base.Throwables.propagate(e);
+		}
+		TaskAttribute idAttribute = taskData.getRoot().getAttribute(taskSchema.BUG_ID.getKey());
+		idAttribute.setValue(taskId.toString());
+		for (Entry<String, JsonElement> entry : bugdata.entrySet()) {
+			String attributeId = BugzillaRestTaskSchema.getAttributeNameFromFieldName(entry.getKey());
+			if (entry.getKey().equals("assigned_to_detail")) { //$NON-NLS-1$
+				TaskAttribute attribute = taskData.getRoot().getAttribute(taskSchema.ASSIGNED_TO.getKey());
+				if (attribute != null) {
+					JsonElement value = entry.getValue().getAsJsonObject().get("email"); //$NON-NLS-1$
+					if (value != null) {
+						attribute.setValue(value.getAsString());
+					} else {
+						value = entry.getValue().getAsJsonObject().get("name"); //$NON-NLS-1$
+						if (value != null) {
+							attribute.setValue(value.getAsString());
 						}
+					}
+				}
+				continue;
+			} else if (entry.getKey().equals("last_change_time")) { //$NON-NLS-1$
+				TaskAttribute attribute = taskData.getRoot().getAttribute(taskSchema.DATE_MODIFICATION.getKey());
+				JsonElement value = entry.getValue(); //.get("real_name");
+				if (attribute != null) {
+					try {
+						SimpleDateFormat iso8601Format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'", //$NON-NLS-1$
+								Locale.US);
+						iso8601Format.setTimeZone(TimeZone.getTimeZone("UTC")); //$NON-NLS-1$
+						Date tempDate = iso8601Format.parse(value.getAsString());
+						attribute.setValue(Long.toString(tempDate.getTime()));
 						continue;
-					} else if (entry.getKey().equals("last_change_time")) { //$NON-NLS-1$
+					} catch (ParseException e) {
+						com.google.common.base.Throwables
+								.propagate(new CoreException(new Status(IStatus.ERROR, BugzillaRestCore.ID_PLUGIN,
+										"Can not parse Date (" + value.getAsString() + ")"))); //$NON-NLS-1$ //$NON-NLS-2$
+					}
+				}
+			} else if (entry.getKey().equals("flags")) { //$NON-NLS-1$
+				JsonArray array = entry.getValue().getAsJsonArray();
+				if (!array.isJsonNull()) {
+					for (JsonElement jsonElement : array) {
+						BugzillaRestFlagMapper flagMapper = new Gson().fromJson(jsonElement,
+								BugzillaRestFlagMapper.class);
 						TaskAttribute attribute = taskData.getRoot()
-								.getAttribute(taskSchema.DATE_MODIFICATION.getKey());
-						JsonElement value = entry.getValue(); //.get("real_name");
-						if (attribute != null) {
-							try {
-								SimpleDateFormat iso8601Format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'", //$NON-NLS-1$
-										Locale.US);
-								iso8601Format.setTimeZone(TimeZone.getTimeZone("UTC")); //$NON-NLS-1$
-								Date tempDate = iso8601Format.parse(value.getAsString());
-								attribute.setValue(Long.toString(tempDate.getTime()));
-								continue;
-							} catch (ParseException e) {
-								com.google.common.base.Throwables.propagate(
-										new CoreException(new Status(IStatus.ERROR, BugzillaRestCore.ID_PLUGIN,
-												"Can not parse Date (" + value.getAsString() + ")"))); //$NON-NLS-1$ //$NON-NLS-2$
-							}
-						}
-					} else if (entry.getKey().equals("flags")) { //$NON-NLS-1$
-						JsonArray array = entry.getValue().getAsJsonArray();
-						if (!array.isJsonNull()) {
-							for (JsonElement jsonElement : array) {
-								BugzillaRestFlagMapper flagMapper = new Gson().fromJson(jsonElement,
-										BugzillaRestFlagMapper.class);
-								TaskAttribute attribute = taskData.getRoot()
-										.createAttribute(IBugzillaRestConstants.KIND_FLAG + flagMapper.getNumber());
-								flagMapper.applyTo(attribute);
-							}
-						}
+								.createAttribute(IBugzillaRestConstants.KIND_FLAG + flagMapper.getNumber());
+						flagMapper.applyTo(attribute);
 					}
+				}
+			}
 
-					TaskAttribute attribute = taskData.getRoot().getAttribute(attributeId);
-					if (attribute != null) {
-						JsonElement value = entry.getValue();
-						if (!value.isJsonNull()) {
-							if (value.isJsonArray()) {
-								JsonArray valueArray = value.getAsJsonArray();
-								attribute.clearValues();
-								for (JsonElement jsonElement : valueArray) {
-									attribute.addValue(jsonElement.getAsString());
-								}
-							} else {
-								attribute.setValue(entry.getValue().getAsString());
-							}
+			TaskAttribute attribute = taskData.getRoot().getAttribute(attributeId);
+			if (attribute != null) {
+				JsonElement value = entry.getValue();
+				if (!value.isJsonNull()) {
+					if (value.isJsonArray()) {
+						JsonArray valueArray = value.getAsJsonArray();
+						attribute.clearValues();
+						for (JsonElement jsonElement : valueArray) {
+							attribute.addValue(jsonElement.getAsString());
 						}
+					} else {
+						attribute.setValue(entry.getValue().getAsString());
 					}
 				}
-				BugzillaRestConfiguration config;
-				try {
-					config = connector.getRepositoryConfiguration(taskRepository);
-					if (config != null) {
-						config.addValidOperations(taskData);
-					}
-				} catch (CoreException e) {
-					com.google.common.base.Throwables.propagate(e);
-				}
 			}
-			return response;
 		}
-
+		return taskData;
 	}
 
-}
\ No newline at end of file
+}
@@ -11,7 +11,6 @@
 
 package org.eclipse.mylyn.internal.bugzilla.rest.core;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
@@ -21,13 +20,10 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
-import org.apache.commons.codec.binary.Base64;
-import org.apache.commons.io.IOUtils;
 import org.apache.http.HttpStatus;
 import org.apache.http.NameValuePair;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.client.methods.HttpRequestBase;
-import org.apache.http.entity.StringEntity;
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IStatus;
@@ -100,33 +96,11 @@ public class BugzillaRestPostNewAttachment extends BugzillaRestPostRequest<Bugzi
 		Assert.isNotNull(bugReportID);
 		Assert.isNotNull(source);
 		Assert.isNotNull(contentType);
-		ByteArrayOutputStream outb = new ByteArrayOutputStream();
-		InputStream is = null;
-
-		try {
-			is = source.createInputStream(null);
-			IOUtils.copy(is, outb);
-		} catch (CoreException | IOException e) {
-			throw new BugzillaRestException(
-					"BugzillaRestPostNewAttachment.createHttpRequestBase could not get stream form source", e);
-		} finally {
-			if (is != null) {
-				try {
-					is.close();
-				} catch (IOException e) {
-					throw new BugzillaRestException(
-							"BugzillaRestPostNewAttachment.createHttpRequestBase could not cloase stream form source",
-							e);
-				}
-			}
-		}
 
 		if (description == null) {
 			throw new BugzillaRestException(new CoreException(new Status(IStatus.WARNING, BugzillaRestCore.ID_PLUGIN,
 					"Description required when submitting attachments")));
 		}
-		Base64 base64 = new Base64();
-		String dataBase64 = base64.encodeAsString(outb.toByteArray());
 		try {
 			StringWriter stringWriter = new StringWriter();
 			JsonWriter out = new JsonWriter(stringWriter);
@@ -137,7 +111,6 @@ public class BugzillaRestPostNewAttachment extends BugzillaRestPostRequest<Bugzi
 			out.name("is_patch").value(isPatch); //$NON-NLS-1$
 			out.name("summary").value(description); //$NON-NLS-1$
 			out.name("content_type").value(contentType); //$NON-NLS-1$
-			out.name("data").value(dataBase64); //$NON-NLS-1$
 			out.name("file_name").value(filename); //$NON-NLS-1$
 			out.name("is_private").value(isPrivate); //$NON-NLS-1$
 			if (attachmentAttribute != null) {
@@ -149,10 +122,9 @@ public class BugzillaRestPostNewAttachment extends BugzillaRestPostRequest<Bugzi
 
 				BugzillaRestGsonUtil.buildFlags(out, changed, attachmentAttribute);
 			}
-			out.endObject();
-			out.close();
-			StringEntity requestEntity = new StringEntity(stringWriter.toString());
-			((HttpPost) request).setEntity(requestEntity);
+			// the content is encoded into the data member while the request is sent
+			out.flush();
+			((HttpPost) request).setEntity(new BugzillaRestAttachmentEntity(stringWriter.toString(), source));
 		} catch (IOException e) {
 			throw new BugzillaRestException(
 					"BugzillaRestPostNewAttachment.createHttpRequestBase could not create RequestEntity", e);
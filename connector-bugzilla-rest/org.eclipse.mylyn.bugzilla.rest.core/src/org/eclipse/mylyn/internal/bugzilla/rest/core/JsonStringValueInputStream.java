@@ -0,0 +1,227 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Tasktop Technologies and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Tasktop Technologies - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.mylyn.internal.bugzilla.rest.core;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads the value of a string member of a JSON document without loading it into memory. The stream returns the
+ * unescaped characters of the value which must be ASCII, e.g. Base64 encoded data. Closing the stream closes the
+ * underlying stream.
+ */
+public class JsonStringValueInputStream extends FilterInputStream {
+
+	/**
+	 * Positions <code>in</code> at the string value of the member with the names in <code>path</code>, starting from
+	 * the root object.
+	 *
+	 * @return a stream that reads the value or <code>null</code>, if the member does not exist or is not a string
+	 */
+	public static JsonStringValueInputStream open(InputStream in, String... path) throws IOException {
+		PushbackInputStream pushbackIn = new PushbackInputStream(in, 1);
+		if (skipWhitespace(pushbackIn) != '{') {
+			return null;
+		}
+		for (int i = 0; i < path.length; i++) {
+			if (!seekMember(pushbackIn, path[i])) {
+				return null;
+			}
+			int c = skipWhitespace(pushbackIn);
+			if (i == path.length - 1) {
+				return (c == '"') ? new JsonStringValueInputStream(pushbackIn) : null;
+			} else if (c != '{') {
+				return null;
+			}
+		}
+		return null;
+	}
+
+	private boolean eof;
+
+	private JsonStringValueInputStream(InputStream in) {
+		super(in);
+	}
+
+	@Override
+	public int read() throws IOException {
+		if (eof) {
+			return -1;
+		}
+		int c = readChar(in);
+		if (c == '"') {
+			eof = true;
+			return -1;
+		} else if (c == '\\') {
+			c = readChar(in);
+			switch (c) {
+			case 'b':
+				return '\b';
+			case 'f':
+				return '\f';
+			case 'n':
+				return '\n';
+			case 'r':
+				return '\r';
+			case 't':
+				return '\t';
+			case 'u':
+				int value = 0;
+				for (int i = 0; i < 4; i++) {
+					value = (value << 4) + Character.digit(readChar(in), 16);
+				}
+				if (value < 0 || value > 0x7f) {
+					throw new IOException("Unexpected character in JSON string value: " + value); //$NON-NLS-1$
+				}
+				return value;
+			default:
+				return c;
+			}
+		}
+		return c;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		if (len == 0) {
+			return 0;
+		}
+		int count = 0;
+		while (count < len) {
+			int c = read();
+			if (c == -1) {
+				break;
+			}
+			b[off + count++] = (byte) c;
+		}
+		return (count == 0) ? -1 : count;
+	}
+
+	@Override
+	public long skip(long n) throws IOException {
+		long skipped = 0;
+		while (skipped < n && read() != -1) {
+			skipped++;
+		}
+		return skipped;
+	}
+
+	@Override
+	public int available() throws IOException {
+		return 0;
+	}
+
+	@Override
+	public boolean markSupported() {
+		return false;
+	}
+
+	@Override
+	public synchronized void mark(int readlimit) {
+	}
+
+	@Override
+	public synchronized void reset() throws IOException {
+		throw new IOException("mark/reset not supported"); //$NON-NLS-1$
+	}
+
+	/**
+	 * Reads the members of the current object until a member with <code>name</code> is found and positions the stream
+	 * after the colon that separates the name from the value.
+	 */
+	private static boolean seekMember(PushbackInputStream in, String name) throws IOException {
+		while (true) {
+			int c = skipWhitespace(in);
+			if (c == '}') {
+				return false;
+			} else if (c == ',') {
+				continue;
+			} else if (c != '"') {
+				throw new IOException("Unexpected character in JSON object: " + (char) c); //$NON-NLS-1$
+			}
+			String memberName = readString(in);
+			if (skipWhitespace(in) != ':') {
+				throw new IOException("Expected ':' after JSON member name"); //$NON-NLS-1$
+			}
+			if (name.equals(memberName)) {
+				return true;
+			}
+			skipValue(in);
+		}
+	}
+
+	private static void skipValue(PushbackInputStream in) throws IOException {
+		int c = skipWhitespace(in);
+		if (c == '"') {
+			skipString(in);
+		} else if (c == '{' || c == '[') {
+			int depth = 1;
+			while (depth > 0) {
+				c = readChar(in);
+				if (c == '"') {
+					skipString(in);
+				} else if (c == '{' || c == '[') {
+					depth++;
+				} else if (c == '}' || c == ']') {
+					depth--;
+				}
+			}
+		} else {
+			// number, boolean or null
+			while (c != ',' && c != '}' && c != ']' && !Character.isWhitespace(c)) {
+				c = readChar(in);
+			}
+			in.unread(c);
+		}
+	}
+
+	private static void skipString(InputStream in) throws IOException {
+		int c;
+		while ((c = readChar(in)) != '"') {
+			if (c == '\\') {
+				readChar(in);
+			}
+		}
+	}
+
+	private static String readString(InputStream in) throws IOException {
+		JsonStringValueInputStream value = new JsonStringValueInputStream(in);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		int c;
+		while ((c = value.read()) != -1) {
+			out.write(c);
+		}
+		return new String(out.toByteArray(), StandardCharsets.UTF_8);
+	}
+
+	private static int skipWhitespace(InputStream in) throws IOException {
+		int c;
+		do {
+			c = readChar(in);
+		} while (Character.isWhitespace(c));
+		return c;
+	}
+
+	private static int readChar(InputStream in) throws IOException {
+		int c = in.read();
+		if (c == -1) {
+			throw new EOFException("Unexpected end of JSON document"); //$NON-NLS-1$
+		}
+		return c;
+	}
+
+}
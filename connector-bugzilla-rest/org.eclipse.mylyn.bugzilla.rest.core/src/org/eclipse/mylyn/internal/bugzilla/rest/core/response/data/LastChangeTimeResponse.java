@@ -0,0 +1,24 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Tasktop Technologies and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Tasktop Technologies - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.mylyn.internal.bugzilla.rest.core.response.data;
+
+public class LastChangeTimeResponse {
+	private LastChangeTimeEntry[] bugs;
+
+	public LastChangeTimeEntry[] getBugs() {
+		return bugs;
+	}
+
+	public LastChangeTimeResponse() {
+	}
+
+}
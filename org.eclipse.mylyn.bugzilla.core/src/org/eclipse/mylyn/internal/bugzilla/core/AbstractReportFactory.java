@@ -12,7 +12,6 @@
 package org.eclipse.mylyn.internal.bugzilla.core;
 
 import java.io.BufferedInputStream;
-import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
@@ -51,8 +50,6 @@ public class AbstractReportFactory {
 	 * @throws GeneralSecurityException
 	 */
 	protected void collectResults(DefaultHandler contentHandler, boolean clean) throws IOException {
-		File tempFile = null;
-
 		if (inStream == null) {
 			return;
 		}
@@ -81,9 +78,7 @@ public class AbstractReportFactory {
 		}
 
 		if (clean) {
-			tempFile = File.createTempFile("XmlCleaner-", "tmp"); //$NON-NLS-1$//$NON-NLS-2$
-			tempFile.deleteOnExit();
-			in = XmlCleaner.clean(in, tempFile);
+			in = XmlCleaner.clean(in);
 		}
 
 		try {
@@ -124,11 +119,5 @@ public class AbstractReportFactory {
 		} catch (SAXException e) {
 			throw new IOException(e.getMessage());
 		}
-
-		finally {
-			if (tempFile != null) {
-				tempFile.delete();
-			}
-		}
 	}
 }
@@ -14,7 +14,6 @@
 package org.eclipse.mylyn.internal.bugzilla.core;
 
 import java.io.BufferedReader;
-import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
@@ -53,6 +52,7 @@ import org.apache.commons.httpclient.HttpMethodBase;
 import org.apache.commons.httpclient.HttpStatus;
 import org.apache.commons.httpclient.NameValuePair;
 import org.apache.commons.httpclient.RedirectException;
+import org.apache.commons.httpclient.cookie.CookiePolicy;
 import org.apache.commons.httpclient.methods.GetMethod;
 import org.apache.commons.httpclient.methods.HeadMethod;
 import org.apache.commons.httpclient.methods.multipart.MultipartRequestEntity;
@@ -82,6 +82,7 @@ import org.eclipse.mylyn.commons.net.WebLocation;
 import org.eclipse.mylyn.commons.net.WebUtil;
 import org.eclipse.mylyn.internal.bugzilla.core.IBugzillaConstants.BUGZILLA_REPORT_STATUS_4_0;
 import org.eclipse.mylyn.internal.bugzilla.core.service.BugzillaXmlRpcClient;
+import org.eclipse.mylyn.internal.tasks.core.RepositoryConnectionPool;
 import org.eclipse.mylyn.internal.tasks.core.TaskRepositoryLocation;
 import org.eclipse.mylyn.tasks.core.IRepositoryQuery;
 import org.eclipse.mylyn.tasks.core.RepositoryResponse;
@@ -107,6 +108,13 @@ public class BugzillaClient {
 
 	private static final String UNKNOWN_REPOSITORY_ERROR = "An unknown repository error has occurred: "; //$NON-NLS-1$
 
+	private static final String BUG_PM_LINE = "Bugzilla/Bug.pm line"; //$NON-NLS-1$
+
+	/**
+	 * Maximum number of characters of a response page that are kept for error reporting.
+	 */
+	private static final int MAX_RESPONSE_BODY_LENGTH = 64 * 1024;
+
 	private static final String COOKIE_BUGZILLA_LOGIN = "Bugzilla_login"; //$NON-NLS-1$
 
 	protected static final String USER_AGENT = "BugzillaConnector"; //$NON-NLS-1$
@@ -179,7 +187,7 @@ public class BugzillaClient {
 
 	private final Map<String, String> configParameters;
 
-	private final HttpClient httpClient = new HttpClient(WebUtil.getConnectionManager());
+	private final HttpClient httpClient;
 
 	private boolean lastModifiedSupported = true;
 
@@ -205,7 +213,10 @@ public class BugzillaClient {
 		this.bugzillaLanguageSettings = languageSettings;
 		this.connector = connector;
 		this.proxy = location.getProxyForHost(location.getUrl(), IProxyData.HTTP_PROXY_TYPE);
-		WebUtil.configureHttpClient(httpClient, USER_AGENT);
+		if (configParameters != null) {
+			RepositoryConnectionPool.getDefault().configure(location.getUrl(), configParameters);
+		}
+		this.httpClient = createHttpClient();
 	}
 
 	public BugzillaClient(AbstractWebLocation location, TaskRepository taskRepository,
@@ -214,6 +225,12 @@ public class BugzillaClient {
 				getLanguageSettings(taskRepository), connector);
 	}
 
+	private HttpClient createHttpClient() {
+		HttpClient client = new HttpClient(RepositoryConnectionPool.getDefault().getConnectionManager(location.getUrl()));
+		WebUtil.configureHttpClient(client, USER_AGENT);
+		return client;
+	}
+
 	private static BugzillaLanguageSettings getLanguageSettings(TaskRepository taskRepository) {
 		String language = taskRepository.getProperty(IBugzillaConstants.BUGZILLA_LANGUAGE_SETTING);
 		if (language == null || language.equals("")) { //$NON-NLS-1$
@@ -360,9 +377,6 @@ public class BugzillaClient {
 						"Proxy authentication required")); //$NON-NLS-1$
 			case HttpURLConnection.HTTP_INTERNAL_ERROR:
 				loggedIn = false;
-				InputStream stream = getResponseStream(getMethod, monitor);
-				ByteArrayOutputStream ou = new ByteArrayOutputStream(1024);
-				transferData(stream, ou);
 				WebUtil.releaseConnection(getMethod, monitor);
 				throw new CoreException(new BugzillaStatus(IStatus.ERROR, BugzillaCorePlugin.ID_PLUGIN,
 						RepositoryStatus.ERROR_NETWORK, repositoryUrl.toString(), "Error = 500")); //$NON-NLS-1$
@@ -395,49 +409,58 @@ public class BugzillaClient {
 		}
 	}
 
+	/**
+	 * Returns the decoded response body of <code>method</code>. Compressed responses are inflated while the stream is
+	 * read. The returned stream supports a look-ahead of {@link HttpResponseDecoder#LOOK_AHEAD_LIMIT} bytes.
+	 */
 	protected InputStream getResponseStream(HttpMethodBase method, IProgressMonitor monitor) throws IOException {
-		InputStream in = WebUtil.getResponseBodyAsStream(method, monitor);
-		if (isZippedReply(method)) {
-			in = new java.util.zip.GZIPInputStream(in);
-		}
-		return in;
+		// content-encoding:gzip can be set by a dedicated perl script or mod_gzip, content-type:application/x-gzip can
+		// be set by any apache after 302 redirect, based on .gz suffix
+		return HttpResponseDecoder.decode(WebUtil.getResponseBodyAsStream(method, monitor),
+				getResponseHeaderValue(method, "Content-Encoding"), getResponseHeaderValue(method, "Content-Type")); //$NON-NLS-1$ //$NON-NLS-2$
 	}
 
-	private boolean isZippedReply(HttpMethodBase method) {
-		// content-encoding:gzip can be set by a dedicated perl script or
-		// mod_gzip
-		boolean zipped = (null != method.getResponseHeader("Content-encoding") && method.getResponseHeader( //$NON-NLS-1$
-				"Content-encoding").getValue().equals(IBugzillaConstants.CONTENT_ENCODING_GZIP)) //$NON-NLS-1$
-				||
-				// content-type: application/x-gzip can be set by any apache
-				// after 302 redirect, based on .gz suffix
-				(null != method.getResponseHeader("Content-Type") && method.getResponseHeader("Content-Type") //$NON-NLS-1$ //$NON-NLS-2$
-						.getValue()
-						.equals("application/x-gzip")); //$NON-NLS-1$
-		return zipped;
+	/**
+	 * Returns a reader for <code>stream</code> that uses the encoding of the repository and falls back to the charset
+	 * declared by the response of <code>method</code>.
+	 */
+	private BufferedReader getResponseReader(HttpMethodBase method, InputStream stream)
+			throws UnsupportedEncodingException {
+		return new BufferedReader(new InputStreamReader(stream, getResponseCharacterEncoding(method)));
 	}
 
-	private static String getStringFromInputStream(InputStream is) throws IOException {
-
-		BufferedReader br = null;
-		StringBuilder sb = new StringBuilder();
-
-		String line;
-		try {
+	private String getResponseCharacterEncoding(HttpMethodBase method) {
+		// the encoding configured for the repository takes precedence over the charset declared by the response
+		String encoding = getCharacterEncoding();
+		if (encoding == null || encoding.length() == 0) {
+			encoding = HttpResponseDecoder.getCharset(getResponseHeaderValue(method, "Content-Type")); //$NON-NLS-1$
+		}
+		return (encoding != null) ? encoding : TaskRepository.DEFAULT_CHARACTER_ENCODING;
+	}
 
-			br = new BufferedReader(new InputStreamReader(is));
-			while ((line = br.readLine()) != null) {
-				sb.append(line);
-				sb.append("\n"); //$NON-NLS-1$
+	/**
+	 * Returns true, if the response of <code>method</code> is XML according to its content type or, if the content
+	 * type is inconclusive, according to the start of <code>stream</code>.
+	 */
+	private boolean isXmlResponse(HttpMethodBase method, InputStream stream) throws IOException {
+		String contentType = getResponseHeaderValue(method, "Content-Type"); //$NON-NLS-1$
+		if (contentType != null) {
+			contentType = contentType.toLowerCase(Locale.ENGLISH);
+			for (String type : VALID_CONFIG_CONTENT_TYPES) {
+				if (contentType.contains(type)) {
+					return true;
+				}
 			}
-		} finally {
-			if (br != null) {
-				br.close();
+			if (contentType.contains(HttpResponseDecoder.CONTENT_TYPE_HTML)) {
+				return false;
 			}
 		}
+		return HttpResponseDecoder.CONTENT_TYPE_XML.equals(HttpResponseDecoder.sniffContentType(stream));
+	}
 
-		return sb.toString();
-
+	private static String getResponseHeaderValue(HttpMethodBase method, String name) {
+		Header header = method.getResponseHeader(name);
+		return (header != null) ? header.getValue() : null;
 	}
 
 	private String getBugzillaLoginTokenIfExists(IProgressMonitor monitor) throws CoreException {
@@ -469,14 +492,22 @@ public class BugzillaClient {
 				throw new CoreException(new BugzillaStatus(IStatus.ERROR, BugzillaCorePlugin.ID_PLUGIN,
 						RepositoryStatus.ERROR_NETWORK, "Http error: " + HttpStatus.getStatusText(code))); //$NON-NLS-1$
 			}
-			InputStream is = getResponseStream(getMethod, monitor);
-			String result = getStringFromInputStream(is);
-			if (result.lastIndexOf(INPUT_TYPE_HIDDEN_NAME_BUGZILLA_LOGIN_TOKEN) != -1) {
-				int index = result.lastIndexOf(INPUT_TYPE_HIDDEN_NAME_BUGZILLA_LOGIN_TOKEN);
-				String loginTokenAndRest = result.substring(index);
-				int valueStart = loginTokenAndRest.indexOf("value=\"") + 7; //$NON-NLS-1$
-				int valueEnd = loginTokenAndRest.indexOf("\">"); //$NON-NLS-1$
-				loginToken = loginTokenAndRest.substring(valueStart, valueEnd);
+			BufferedReader in = getResponseReader(getMethod, getResponseStream(getMethod, monitor));
+			try {
+				String line;
+				while ((line = in.readLine()) != null) {
+					int index = line.lastIndexOf(INPUT_TYPE_HIDDEN_NAME_BUGZILLA_LOGIN_TOKEN);
+					if (index != -1) {
+						String loginTokenAndRest = line.substring(index);
+						int valueStart = loginTokenAndRest.indexOf("value=\"") + 7; //$NON-NLS-1$
+						int valueEnd = loginTokenAndRest.indexOf("\">"); //$NON-NLS-1$
+						if (valueEnd >= valueStart) {
+							loginToken = loginTokenAndRest.substring(valueStart, valueEnd);
+						}
+					}
+				}
+			} finally {
+				in.close();
 			}
 		} catch (IOException e) {
 			throw new CoreException(new BugzillaStatus(IStatus.ERROR, BugzillaCorePlugin.ID_PLUGIN,
@@ -579,7 +610,7 @@ public class BugzillaClient {
 				loggedIn = true;
 				InputStream inputStream = getResponseStream(postMethod, monitor);
 				try {
-					BufferedReader in = new BufferedReader(new InputStreamReader(inputStream, getCharacterEncoding()));
+					BufferedReader in = getResponseReader(postMethod, inputStream);
 
 					try {
 						String errorMessage = extractErrorMessage(in);
@@ -608,7 +639,7 @@ public class BugzillaClient {
 				if (!loggedIn) {
 					InputStream input = getResponseStream(postMethod, monitor);
 					try {
-						throw new CoreException(parseHtmlError(input));
+						throw new CoreException(parseHtmlError(postMethod, input));
 					} finally {
 						input.close();
 					}
@@ -723,24 +754,22 @@ public class BugzillaClient {
 				postMethod = getConnectGzip(r.getMessage(), monitor, null);
 			}
 
-			if (postMethod != null && postMethod.getResponseHeader("Content-Type") != null) { //$NON-NLS-1$
-				Header responseTypeHeader = postMethod.getResponseHeader("Content-Type"); //$NON-NLS-1$
-				for (String type : VALID_CONFIG_CONTENT_TYPES) {
-					if (responseTypeHeader.getValue().toLowerCase(Locale.ENGLISH).contains(type)) {
-						InputStream stream = getResponseStream(postMethod, monitor);
-						try {
-							RepositoryQueryResultsFactory queryFactory = getQueryResultsFactory(stream);
-							int count = queryFactory.performQuery(repositoryUrl.toString(), collector, mapper);
-							return count > 0;
-						} finally {
-							stream.close();
-						}
-					}
+			if (postMethod == null) {
+				throw new IOException(Messages.BugzillaClient_could_not_post_form_null_returned);
+			}
+			InputStream stream = getResponseStream(postMethod, monitor);
+			try {
+				if (isXmlResponse(postMethod, stream)) {
+					RepositoryQueryResultsFactory queryFactory = getQueryResultsFactory(stream);
+					int count = queryFactory.performQuery(repositoryUrl.toString(), collector, mapper);
+					return count > 0;
 				}
+				// because html is not a valid config content type it is save to get
+				// the response here
+				throw new CoreException(parseHtmlError(postMethod, stream));
+			} finally {
+				stream.close();
 			}
-			// because html is not a valid config content type it is save to get
-			// the response here
-			throw new CoreException(parseHtmlError(getResponseStream(postMethod, monitor)));
 		} finally {
 			if (postMethod != null) {
 				WebUtil.releaseConnection(postMethod, monitor);
@@ -847,67 +876,60 @@ public class BugzillaClient {
 
 				InputStream stream = getResponseStream(method, monitor);
 				try {
-					if (method.getResponseHeader("Content-Type") != null) { //$NON-NLS-1$
-						Header responseTypeHeader = method.getResponseHeader("Content-Type"); //$NON-NLS-1$
-						for (String type : VALID_CONFIG_CONTENT_TYPES) {
-							if (responseTypeHeader.getValue().toLowerCase(Locale.ENGLISH).contains(type)) {
-								RepositoryConfigurationFactory configFactory = new RepositoryConfigurationFactory(
-										stream, getCharacterEncoding());
-
-								repositoryConfiguration = configFactory.getConfiguration();
-								Header eTag = method.getResponseHeader("ETag"); //$NON-NLS-1$
-								if (eTag != null) {
-									repositoryConfiguration.setETagValue(eTag.getValue());
-								} else {
-									repositoryConfiguration.setETagValue(null);
-								}
-								Header lastModifiedHeader = method.getResponseHeader("Last-Modified"); //$NON-NLS-1$
-								if (lastModifiedHeader != null) {
-									try {
-										repositoryConfiguration.setLastModifiedHeader(
-												DateUtil.parseDate(lastModifiedHeader.getValue()));
-									} catch (DateParseException e) {
-										repositoryConfiguration.setLastModifiedHeader((Date) null);
-									}
-								} else {
-									repositoryConfiguration.setLastModifiedHeader((Date) null);
-								}
+					if (isXmlResponse(method, stream)) {
+						RepositoryConfigurationFactory configFactory = new RepositoryConfigurationFactory(stream,
+								getResponseCharacterEncoding(method));
+
+						repositoryConfiguration = configFactory.getConfiguration();
+						Header eTag = method.getResponseHeader("ETag"); //$NON-NLS-1$
+						if (eTag != null) {
+							repositoryConfiguration.setETagValue(eTag.getValue());
+						} else {
+							repositoryConfiguration.setETagValue(null);
+						}
+						Header lastModifiedHeader = method.getResponseHeader("Last-Modified"); //$NON-NLS-1$
+						if (lastModifiedHeader != null) {
+							try {
+								repositoryConfiguration.setLastModifiedHeader(
+										DateUtil.parseDate(lastModifiedHeader.getValue()));
+							} catch (DateParseException e) {
+								repositoryConfiguration.setLastModifiedHeader((Date) null);
+							}
+						} else {
+							repositoryConfiguration.setLastModifiedHeader((Date) null);
+						}
 
-								if (repositoryConfiguration != null) {
-									getXmlRpcClient();
-									if (xmlRpcClient != null) {
-										xmlRpcClient.updateConfiguration(monitor, repositoryConfiguration,
-												configParameters.get(IBugzillaConstants.BUGZILLA_DESCRIPTOR_FILE));
-									} else {
-										repositoryConfiguration.setValidTransitions(monitor,
-												configParameters.get(IBugzillaConstants.BUGZILLA_DESCRIPTOR_FILE),
-												null);
-									}
-									if (!repositoryConfiguration.getOptionValues(BugzillaAttribute.PRODUCT).isEmpty()) {
-										repositoryConfiguration.setRepositoryUrl(repositoryUrl.toString());
-									}
+						if (repositoryConfiguration != null) {
+							getXmlRpcClient();
+							if (xmlRpcClient != null) {
+								xmlRpcClient.updateConfiguration(monitor, repositoryConfiguration,
+										configParameters.get(IBugzillaConstants.BUGZILLA_DESCRIPTOR_FILE));
+							} else {
+								repositoryConfiguration.setValidTransitions(monitor,
+										configParameters.get(IBugzillaConstants.BUGZILLA_DESCRIPTOR_FILE),
+										null);
+							}
+							if (!repositoryConfiguration.getOptionValues(BugzillaAttribute.PRODUCT).isEmpty()) {
+								repositoryConfiguration.setRepositoryUrl(repositoryUrl.toString());
+							}
 
-									if (!repositoryConfiguration.getOptionValues(BugzillaAttribute.PRODUCT).isEmpty()) {
-										return repositoryConfiguration;
-									} else {
-										if (attempt == 0) {
-											// empty configuration, retry
-											// authenticate
-											loggedIn = false;
-											break;
-										} else {
-											throw new CoreException(new Status(IStatus.WARNING,
-													BugzillaCorePlugin.ID_PLUGIN,
-													"No products found in repository configuration. Ensure credentials are valid.")); //$NON-NLS-1$
-										}
-									}
+							if (!repositoryConfiguration.getOptionValues(BugzillaAttribute.PRODUCT).isEmpty()) {
+								return repositoryConfiguration;
+							} else {
+								if (attempt == 0) {
+									// empty configuration, retry
+									// authenticate
+									loggedIn = false;
+								} else {
+									throw new CoreException(new Status(IStatus.WARNING,
+											BugzillaCorePlugin.ID_PLUGIN,
+											"No products found in repository configuration. Ensure credentials are valid.")); //$NON-NLS-1$
 								}
 							}
 						}
-
 					}
 					if (loggedIn) {
-						throw new CoreException(parseHtmlError(stream));
+						throw new CoreException(parseHtmlError(method, stream));
 					}
 				} finally {
 					stream.close();
@@ -931,13 +953,13 @@ public class BugzillaClient {
 			if (method.getStatusCode() == HttpStatus.SC_OK) {
 				Header contentDisposition = method.getResponseHeader("Content-disposition"); //$NON-NLS-1$
 				if (contentDisposition == null) {
-					status = parseHtmlError(method.getResponseBodyAsStream());
+					status = parseHtmlError(method, getResponseStream(method, monitor));
 				} else {
 					// copy the response
 					return method.getResponseBodyAsStream();
 				}
 			} else {
-				status = parseHtmlError(method.getResponseBodyAsStream());
+				status = parseHtmlError(method, getResponseStream(method, monitor));
 			}
 		} catch (Exception e) {
 			status = new Status(IStatus.ERROR, BugzillaCorePlugin.ID_PLUGIN, "Unable to retrieve attachment", e); //$NON-NLS-1$
@@ -1097,7 +1119,7 @@ public class BugzillaClient {
 			if (status == HttpStatus.SC_OK) {
 				InputStream input = getResponseStream(postMethod, monitor);
 				try {
-					parsePostResponse(bugReportID, input);
+					parsePostResponse(bugReportID, postMethod, input);
 				} finally {
 					input.close();
 				}
@@ -1239,7 +1261,7 @@ public class BugzillaClient {
 
 			input = getResponseStream(method, monitor);
 
-			parsePostResponse(taskAttribute.getTaskData().getTaskId(), input);
+			parsePostResponse(taskAttribute.getTaskData().getTaskId(), method, input);
 
 			// BufferedReader in = new BufferedReader(new
 			// InputStreamReader(input, method.getRequestCharSet()));
@@ -1368,8 +1390,7 @@ public class BugzillaClient {
 			code = WebUtil.execute(httpClient, hostConfiguration, getMethod, monitor);
 			if (code == HttpURLConnection.HTTP_OK) {
 				inStream = getResponseStream(getMethod, monitor);
-				HtmlStreamTokenizer tokenizer = new HtmlStreamTokenizer(
-						new BufferedReader(new InputStreamReader(inStream, getCharacterEncoding())), null);
+				HtmlStreamTokenizer tokenizer = new HtmlStreamTokenizer(getResponseReader(getMethod, inStream), null);
 				for (Token token = tokenizer.nextToken(); token.getType() != Token.EOF; token = tokenizer.nextToken()) {
 					if (token.getType() == Token.TAG && ((HtmlTag) (token.getValue())).getTagType() == Tag.INPUT
 							&& !((HtmlTag) (token.getValue())).isEndTag()) {
@@ -1450,7 +1471,7 @@ public class BugzillaClient {
 			}
 
 			input = getResponseStream(method, monitor);
-			response = parsePostResponse(taskData.getTaskId(), input);
+			response = parsePostResponse(taskData.getTaskId(), method, input);
 			return response;
 		} catch (CoreException e) {
 			throw e;
@@ -1930,8 +1951,7 @@ public class BugzillaClient {
 			code = WebUtil.execute(httpClient, hostConfiguration, getMethod, monitor);
 			if (code == HttpURLConnection.HTTP_OK) {
 				inStream = getResponseStream(getMethod, monitor);
-				HtmlStreamTokenizer tokenizer = new HtmlStreamTokenizer(
-						new BufferedReader(new InputStreamReader(inStream, getCharacterEncoding())), null);
+				HtmlStreamTokenizer tokenizer = new HtmlStreamTokenizer(getResponseReader(getMethod, inStream), null);
 				String formName = null;
 				for (Token token = tokenizer.nextToken(); token.getType() != Token.EOF; token = tokenizer.nextToken()) {
 					if (token.getType() == Token.TAG && ((HtmlTag) (token.getValue())).getTagType() == Tag.FORM
@@ -1998,10 +2018,10 @@ public class BugzillaClient {
 	/**
 	 * Utility method for determining what potential error has occurred from a bugzilla html reponse page
 	 */
-	private Status parseHtmlError(InputStream inputStream) {
+	private Status parseHtmlError(HttpMethodBase method, InputStream inputStream) {
 
 		try {
-			BufferedReader in = new BufferedReader(new InputStreamReader(inputStream, getCharacterEncoding()));
+			BufferedReader in = getResponseReader(method, inputStream);
 			parseRepositoryResponse(null, in);
 			return new Status(IStatus.ERROR, BugzillaCorePlugin.ID_PLUGIN, "No Exception from parseHtmlError"); //$NON-NLS-1$
 		} catch (CoreException e) {
@@ -2018,10 +2038,10 @@ public class BugzillaClient {
 		}
 	}
 
-	private BugzillaRepositoryResponse parsePostResponse(String taskId, InputStream inputStream)
+	private BugzillaRepositoryResponse parsePostResponse(String taskId, HttpMethodBase method, InputStream inputStream)
 			throws IOException, CoreException {
 
-		BufferedReader in = new BufferedReader(new InputStreamReader(inputStream, getCharacterEncoding()));
+		BufferedReader in = getResponseReader(method, inputStream);
 		return parseRepositoryResponse(taskId, in);
 	}
 
@@ -2032,11 +2052,13 @@ public class BugzillaClient {
 		BugzillaRepositoryResponse response;
 		boolean isTitle = false;
 		String title = ""; //$NON-NLS-1$
-		String body = ""; //$NON-NLS-1$
+		// only a prefix of the page is kept for reporting errors
+		StringBuilder body = new StringBuilder();
+		boolean bugPmLine = false;
 		String errorMessage = null;
 		try {
 			for (Token token = tokenizer.nextToken(); token.getType() != Token.EOF; token = tokenizer.nextToken()) {
-				body += token.toString();
+				bugPmLine |= appendToBody(body, token);
 				if (token.getType() == Token.TAG && ((HtmlTag) (token.getValue())).getTagType() == Tag.TITLE
 						&& !((HtmlTag) (token.getValue())).isEndTag()) {
 					isTitle = true;
@@ -2158,7 +2180,7 @@ public class BugzillaClient {
 							if (found) {
 								for (Token tokenError = tokenizer.nextToken(); tokenError
 										.getType() != Token.EOF; tokenError = tokenizer.nextToken()) {
-									body += tokenError.toString();
+									appendToBody(body, tokenError);
 									if (tokenError.getType() == Token.COMMENT) {
 										if (tokenError.getValue().toString().startsWith("reason=")) { //$NON-NLS-1$
 											String reason = tokenError.getValue().toString().substring(7);
@@ -2196,7 +2218,8 @@ public class BugzillaClient {
 						}
 						if (found) {
 							BugzillaUserMatchResponse matchResponse = new BugzillaUserMatchResponse();
-							matchResponse.parseResultConfirmMatch(tokenizer, repositoryUrl.toString(), body);
+							matchResponse.parseResultConfirmMatch(tokenizer, repositoryUrl.toString(),
+									body.toString());
 						}
 
 						found = false;
@@ -2208,7 +2231,8 @@ public class BugzillaClient {
 						}
 						if (found) {
 							BugzillaUserMatchResponse matchResponse = new BugzillaUserMatchResponse();
-							matchResponse.parseResultMatchFailed(tokenizer, repositoryUrl.toString(), body);
+							matchResponse.parseResultMatchFailed(tokenizer, repositoryUrl.toString(),
+									body.toString());
 						}
 						isTitle = false;
 					}
@@ -2240,17 +2264,17 @@ public class BugzillaClient {
 					result = errorMessage;
 				}
 				throw new CoreException(RepositoryStatus.createHtmlStatus(repositoryUrl.toString(), IStatus.ERROR,
-						BugzillaCorePlugin.ID_PLUGIN, RepositoryStatus.ERROR_REPOSITORY, result, body));
+						BugzillaCorePlugin.ID_PLUGIN, RepositoryStatus.ERROR_REPOSITORY, result, body.toString()));
 			}
 			if (result.length() == 0) {
-				if (body.contains("Bugzilla/Bug.pm line")) { //$NON-NLS-1$
-					result = "Bugzilla/Bug.pm line"; //$NON-NLS-1$
+				if (bugPmLine) {
+					result = BUG_PM_LINE;
 				}
 			}
 
 			RepositoryStatus status = RepositoryStatus.createHtmlStatus(repositoryUrl.toString(), IStatus.INFO,
 					BugzillaCorePlugin.ID_PLUGIN, RepositoryStatus.ERROR_REPOSITORY, UNKNOWN_REPOSITORY_ERROR + result,
-					body);
+					body.toString());
 
 			throw new CoreException(status);
 
@@ -2264,6 +2288,19 @@ public class BugzillaClient {
 		}
 	}
 
+	/**
+	 * Appends <code>token</code> to <code>body</code> up to {@link #MAX_RESPONSE_BODY_LENGTH} characters.
+	 *
+	 * @return true, if <code>token</code> contains a reference to a line of Bugzilla/Bug.pm
+	 */
+	private static boolean appendToBody(StringBuilder body, Token token) {
+		String value = token.toString();
+		if (body.length() < MAX_RESPONSE_BODY_LENGTH) {
+			body.append(value, 0, Math.min(value.length(), MAX_RESPONSE_BODY_LENGTH - body.length()));
+		}
+		return value.contains(BUG_PM_LINE);
+	}
+
 	public void getTaskData(Set<String> taskIds, final TaskDataCollector collector, final TaskAttributeMapper mapper,
 			final IProgressMonitor monitor) throws IOException, CoreException {
 
@@ -2321,35 +2358,24 @@ public class BugzillaClient {
 					throw new IOException("Could not post form, client returned null method."); //$NON-NLS-1$
 				}
 
-				boolean parseable = false;
-				if (method.getResponseHeader("Content-Type") != null) { //$NON-NLS-1$
-					Header responseTypeHeader = method.getResponseHeader("Content-Type"); //$NON-NLS-1$
-					for (String type : VALID_CONFIG_CONTENT_TYPES) {
-						if (responseTypeHeader.getValue().toLowerCase(Locale.ENGLISH).contains(type)) {
-							InputStream input = getResponseStream(method, monitor);
-							try {
-								MultiBugReportFactory factory = new MultiBugReportFactory(input, getCharacterEncoding(),
-										connector);
-								List<BugzillaCustomField> customFields = new ArrayList<BugzillaCustomField>();
-								if (repositoryConfiguration != null) {
-									customFields = repositoryConfiguration.getCustomFields();
-								}
-								factory.populateReport(taskDataMap, collector, mapper, customFields);
-								taskIds.removeAll(idsToRetrieve);
-								taskDataMap.clear();
-								parseable = true;
-								break;
-							} finally {
-								input.close();
-							}
-						}
+				InputStream input = getResponseStream(method, monitor);
+				try {
+					if (!isXmlResponse(method, input)) {
+						// because html is not a valid config content type it is
+						// save to get the response here
+						throw new CoreException(parseHtmlError(method, input));
 					}
-				}
-
-				if (!parseable) {
-					// because html is not a valid config content type it is
-					// save to get the response here
-					throw new CoreException(parseHtmlError(getResponseStream(method, monitor)));
+					MultiBugReportFactory factory = new MultiBugReportFactory(input,
+							getResponseCharacterEncoding(method), connector);
+					List<BugzillaCustomField> customFields = new ArrayList<BugzillaCustomField>();
+					if (repositoryConfiguration != null) {
+						customFields = repositoryConfiguration.getCustomFields();
+					}
+					factory.populateReport(taskDataMap, collector, mapper, customFields);
+					taskIds.removeAll(idsToRetrieve);
+					taskDataMap.clear();
+				} finally {
+					input.close();
 				}
 			} catch (CoreException c) {
 				if (c.getStatus().getCode() == RepositoryStatus.ERROR_REPOSITORY_LOGIN && authenticationAttempt < 1) {
@@ -2624,7 +2650,9 @@ public class BugzillaClient {
 				password = location.getCredentials(AuthenticationType.REPOSITORY).getPassword();
 			}
 			webLocation.setCredentials(AuthenticationType.REPOSITORY, username, password);
-			xmlRpcClient = new BugzillaXmlRpcClient(webLocation, this);
+			HttpClient xmlRpcHttpClient = createHttpClient();
+			xmlRpcHttpClient.getParams().setCookiePolicy(CookiePolicy.RFC_2109);
+			xmlRpcClient = new BugzillaXmlRpcClient(webLocation, xmlRpcHttpClient, this);
 			xmlRpcClient.setContentTypeCheckingEnabled(true);
 		}
 		return xmlRpcClient;
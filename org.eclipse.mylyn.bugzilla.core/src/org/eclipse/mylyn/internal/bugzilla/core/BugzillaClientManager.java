@@ -19,6 +19,7 @@ import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
+import org.eclipse.mylyn.internal.tasks.core.RepositoryConnectionPool;
 import org.eclipse.mylyn.tasks.core.IRepositoryListener;
 import org.eclipse.mylyn.tasks.core.TaskRepository;
 
@@ -70,6 +71,7 @@ public class BugzillaClientManager implements IRepositoryListener {
 
 	public void repositoryRemoved(TaskRepository repository) {
 		removeClient(repository);
+		RepositoryConnectionPool.getDefault().remove(repository.getRepositoryUrl());
 	}
 
 	private void removeClient(TaskRepository repository) {
@@ -83,7 +85,8 @@ public class BugzillaClientManager implements IRepositoryListener {
 	}
 
 	public void repositoryUrlChanged(TaskRepository repository, String oldUrl) {
-		// ignore
+		// the connections to the previous URL are no longer used
+		RepositoryConnectionPool.getDefault().remove(oldUrl);
 	}
 
 }
@@ -11,6 +11,9 @@
 
 package org.eclipse.mylyn.internal.bugzilla.core;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
@@ -158,4 +161,22 @@ public class BugzillaCustomField implements Serializable {
 		return fieldType;
 	}
 
+	void write(DataOutput out) throws IOException {
+		RepositoryConfigurationStore.writeString(out, description);
+		RepositoryConfigurationStore.writeString(out, name);
+		out.writeInt(type);
+		out.writeBoolean(enterBug);
+		RepositoryConfigurationStore.writeStrings(out, options);
+	}
+
+	static BugzillaCustomField read(DataInput in) throws IOException {
+		String description = RepositoryConfigurationStore.readString(in);
+		String name = RepositoryConfigurationStore.readString(in);
+		String type = Integer.toString(in.readInt());
+		String enterBug = in.readBoolean() ? "1" : "0"; //$NON-NLS-1$ //$NON-NLS-2$
+		BugzillaCustomField field = new BugzillaCustomField(description, name, type, enterBug);
+		RepositoryConfigurationStore.readStrings(in, field.options);
+		return field;
+	}
+
 }
@@ -11,6 +11,9 @@
 
 package org.eclipse.mylyn.internal.bugzilla.core;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -113,4 +116,46 @@ public class BugzillaFlag implements Serializable {
 		}
 		return false;
 	}
+
+	/**
+	 * Returns the components that the flag applies to by product.
+	 */
+	Map<String, List<String>> getUsed() {
+		return used;
+	}
+
+	void write(DataOutput out) throws IOException {
+		RepositoryConfigurationStore.writeString(out, name);
+		RepositoryConfigurationStore.writeString(out, description);
+		RepositoryConfigurationStore.writeString(out, type);
+		out.writeBoolean(requestable);
+		out.writeBoolean(specifically_requestable);
+		out.writeBoolean(multiplicable);
+		out.writeInt(flagId);
+		out.writeInt(used.size());
+		for (Map.Entry<String, List<String>> entry : used.entrySet()) {
+			RepositoryConfigurationStore.writeString(out, entry.getKey());
+			RepositoryConfigurationStore.writeStrings(out, entry.getValue());
+		}
+	}
+
+	static BugzillaFlag read(DataInput in) throws IOException {
+		String name = RepositoryConfigurationStore.readString(in);
+		String description = RepositoryConfigurationStore.readString(in);
+		String type = RepositoryConfigurationStore.readString(in);
+		String requestable = in.readBoolean() ? "1" : "0"; //$NON-NLS-1$ //$NON-NLS-2$
+		String specificallyRequestable = in.readBoolean() ? "1" : "0"; //$NON-NLS-1$ //$NON-NLS-2$
+		String multiplicable = in.readBoolean() ? "1" : "0"; //$NON-NLS-1$ //$NON-NLS-2$
+		BugzillaFlag flag = new BugzillaFlag(name, description, type, requestable, specificallyRequestable,
+				multiplicable, in.readInt());
+		int size = in.readInt();
+		for (int i = 0; i < size; i++) {
+			String product = RepositoryConfigurationStore.readString(in);
+			List<String> components = new ArrayList<String>();
+			RepositoryConfigurationStore.readStrings(in, components);
+			flag.used.put(product, components);
+		}
+		return flag;
+	}
+
 }
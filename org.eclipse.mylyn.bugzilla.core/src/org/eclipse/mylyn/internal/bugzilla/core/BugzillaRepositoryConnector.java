@@ -12,11 +12,7 @@
 package org.eclipse.mylyn.internal.bugzilla.core;
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.io.UnsupportedEncodingException;
 import java.net.URLEncoder;
 import java.text.MessageFormat;
@@ -24,14 +20,15 @@ import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
@@ -74,6 +71,16 @@ public class BugzillaRepositoryConnector extends AbstractRepositoryConnector {
 
 	private static final String CHANGED_BUGS_CGI_QUERY = "/buglist.cgi?query_format=advanced&chfieldfrom="; //$NON-NLS-1$
 
+	private static final String CHANGED_BUGS_CGI_LIMIT = "&limit="; //$NON-NLS-1$
+
+	private static final int MAX_CHANGED_QUERY_LENGTH = 7000;
+
+	/**
+	 * Maximum number of bugs retrieved by a query for all changed bugs of a repository. If the limit is reached the
+	 * changed tasks are determined by querying each chunk of task ids instead.
+	 */
+	private static final int MAX_CHANGED_BUGS = 1000;
+
 	private static final String CLIENT_LABEL = Messages.BugzillaRepositoryConnector_BUGZILLA_CONNECTOR_LABEL;
 
 	private static final String COMMENT_FORMAT = "yyyy-MM-dd HH:mm"; //$NON-NLS-1$
@@ -94,15 +101,15 @@ public class BugzillaRepositoryConnector extends AbstractRepositoryConnector {
 
 	protected static final Set<BugzillaLanguageSettings> languages = new LinkedHashSet<BugzillaLanguageSettings>();
 
-	private static final String ERROR_DELETING_CONFIGURATION = "Error removing corrupt repository configuration file."; //$NON-NLS-1$
-
-	private static final String ERROR_INCOMPATIBLE_CONFIGURATION = "Reset Bugzilla repository configuration cache due to format change"; //$NON-NLS-1$
+	private RepositoryConfigurationStore configurationStore;
 
-	private boolean cacheFileRead;
+	private final Map<String, RepositoryConfiguration> repositoryConfigurations = new ConcurrentHashMap<String, RepositoryConfiguration>();
 
-	private File repositoryConfigurationFile;
+	// repositories for which the configuration cache has been read, guarded by repositoryConfigurations
+	private final Set<String> cachedRepositoryUrls = new HashSet<String>();
 
-	private final Map<String, RepositoryConfiguration> repositoryConfigurations = new HashMap<String, RepositoryConfiguration>();
+	// configurations that have not been written to the cache, guarded by repositoryConfigurations
+	private final Set<String> modifiedRepositoryUrls = new HashSet<String>();
 
 	// A Map from Java's  Platform to Buzilla's
 	private static final Map<String, String> java2buzillaPlatformMap = new HashMap<String, String>();
@@ -148,12 +155,16 @@ public class BugzillaRepositoryConnector extends AbstractRepositoryConnector {
 		if (BugzillaCorePlugin.getDefault() != null) {
 			BugzillaCorePlugin.getDefault().setConnector(this);
 			IPath path = BugzillaCorePlugin.getDefault().getConfigurationCachePath();
-			this.repositoryConfigurationFile = path.toFile();
+			this.configurationStore = new RepositoryConfigurationStore(path.toFile());
 		}
 	}
 
-	public BugzillaRepositoryConnector(File repositoryConfigurationFile) {
-		this.repositoryConfigurationFile = repositoryConfigurationFile;
+	/**
+	 * @param repositoryConfigurationDirectory
+	 *            the directory for caching repository configurations
+	 */
+	public BugzillaRepositoryConnector(File repositoryConfigurationDirectory) {
+		this.configurationStore = new RepositoryConfigurationStore(repositoryConfigurationDirectory);
 	}
 
 	@Override
@@ -295,36 +306,41 @@ public class BugzillaRepositoryConnector extends AbstractRepositoryConnector {
 			String urlQueryBase = repository.getRepositoryUrl() + CHANGED_BUGS_CGI_QUERY
 					+ URLEncoder.encode(dateString, repository.getCharacterEncoding()) + CHANGED_BUGS_CGI_ENDDATE;
 
-			StringBuilder urlQueryString = new StringBuilder(Math.min(30 + 9 * session.getTasks().size(), 7009));
-			urlQueryString.append(urlQueryBase + BUG_ID);
-
-			Set<ITask> changedTasks = new HashSet<ITask>();
-			Iterator<ITask> itr = session.getTasks().iterator();
-			int queryCounter = 0;
-			Set<ITask> checking = new HashSet<ITask>();
-			while (itr.hasNext()) {
-				ITask task = itr.next();
-				checking.add(task);
-				queryCounter++;
-				urlQueryString.append(URLEncoder.encode(task.getTaskId() + ",", repository.getCharacterEncoding())); //$NON-NLS-1$
-				if (urlQueryString.length() >= 7000) {
-					queryForChanged(repository, changedTasks, urlQueryString.toString(), session,
-							new SubProgressMonitor(monitor, queryCounter));
-
-					queryCounter = 0;
-					urlQueryString.setLength(0);
-					urlQueryString.append(urlQueryBase + BUG_ID);
-				}
+			Map<String, ITask> taskById = new HashMap<String, ITask>();
+			for (ITask task : session.getTasks()) {
+				taskById.put(task.getTaskId(), task);
+			}
 
-				if (!itr.hasNext() && queryCounter != 0) {
-					queryForChanged(repository, changedTasks, urlQueryString.toString(), session,
-							new SubProgressMonitor(monitor, queryCounter));
+			List<String> urlQueryStrings = createChangedQueryStrings(repository, urlQueryBase, taskById.keySet());
+			List<BugzillaTaskDataCollector> collectors = null;
+			if (urlQueryStrings.size() > 1) {
+				// a single query for all bugs changed since the last synchronization is cheaper than a query for each
+				// chunk of task ids unless most of the repository has changed
+				// the repository silently truncates results that exceed max_search_results
+				int limit = getMaxChangedBugs(repository);
+				BugzillaTaskDataCollector collector = new BugzillaTaskDataCollector();
+				IStatus status = queryForChanged(repository, collector, urlQueryBase + CHANGED_BUGS_CGI_LIMIT + limit,
+						session, new SubProgressMonitor(monitor, 1));
+				if (status.isOK() && collector.getTaskData().size() < limit) {
+					collectors = Collections.singletonList(collector);
 				}
 			}
+			if (collectors == null) {
+				collectors = queryForChanged(repository, urlQueryStrings, session, monitor);
+			}
 
-			for (ITask task : session.getTasks()) {
-				if (changedTasks.contains(task)) {
-					session.markStale(task);
+			for (BugzillaTaskDataCollector collector : collectors) {
+				for (TaskData data : collector.getTaskData()) {
+					ITask changedTask = taskById.get(data.getTaskId());
+					if (changedTask != null) {
+						session.markStale(changedTask);
+					}
+				}
+
+				if (session.getData() == null && collector.getQueryTimestamp() != null) {
+					// Bugzilla 4.2 does not parse the timezone of the time stamp properly hence it needs to be persisted in
+					// server time and not local time
+					session.setData(collector.getQueryTimestamp());
 				}
 			}
 
@@ -337,39 +353,71 @@ public class BugzillaRepositoryConnector extends AbstractRepositoryConnector {
 		}
 	}
 
-	private void queryForChanged(final TaskRepository repository, Set<ITask> changedTasks, String urlQueryString,
-			ISynchronizationSession syncSession, IProgressMonitor monitor) throws UnsupportedEncodingException,
-			CoreException {
+	private List<String> createChangedQueryStrings(TaskRepository repository, String urlQueryBase,
+			Collection<String> taskIds) throws UnsupportedEncodingException {
+		List<String> urlQueryStrings = new ArrayList<String>();
+		StringBuilder urlQueryString = new StringBuilder(
+				Math.min(30 + 9 * taskIds.size(), MAX_CHANGED_QUERY_LENGTH + 9));
+		urlQueryString.append(urlQueryBase + BUG_ID);
+		int queryCounter = 0;
+		for (String taskId : taskIds) {
+			queryCounter++;
+			urlQueryString.append(URLEncoder.encode(taskId + ",", repository.getCharacterEncoding())); //$NON-NLS-1$
+			if (urlQueryString.length() >= MAX_CHANGED_QUERY_LENGTH) {
+				urlQueryStrings.add(urlQueryString.toString());
+				queryCounter = 0;
+				urlQueryString.setLength(0);
+				urlQueryString.append(urlQueryBase + BUG_ID);
+			}
+		}
+		if (queryCounter != 0) {
+			urlQueryStrings.add(urlQueryString.toString());
+		}
+		return urlQueryStrings;
+	}
 
-		HashMap<String, ITask> taskById = new HashMap<String, ITask>();
-		for (ITask task : syncSession.getTasks()) {
-			taskById.put(task.getTaskId(), task);
+	/**
+	 * Runs the queries for changed tasks one after another and returns a collector for each query in the same order.
+	 * The queries are not run concurrently since they share the client of the repository.
+	 */
+	private List<BugzillaTaskDataCollector> queryForChanged(TaskRepository repository, List<String> urlQueryStrings,
+			ISynchronizationSession syncSession, IProgressMonitor monitor) {
+		List<BugzillaTaskDataCollector> collectors = new ArrayList<BugzillaTaskDataCollector>(urlQueryStrings.size());
+		int work = Math.max(1, syncSession.getTasks().size() / Math.max(1, urlQueryStrings.size()));
+		for (String urlQueryString : urlQueryStrings) {
+			Policy.checkCanceled(monitor);
+			BugzillaTaskDataCollector collector = new BugzillaTaskDataCollector();
+			queryForChanged(repository, collector, urlQueryString, syncSession, new SubProgressMonitor(monitor, work));
+			collectors.add(collector);
 		}
+		return collectors;
+	}
 
-		BugzillaTaskDataCollector collector = new BugzillaTaskDataCollector();
+	/**
+	 * Returns the number of bugs that a query for all changed bugs of <code>repository</code> is limited to.
+	 */
+	private int getMaxChangedBugs(TaskRepository repository) {
+		String maxSearchResults = repository.getProperty(IBugzillaConstants.BUGZILLA_PARAM_MAX_SEARCH_RESULTS);
+		if (maxSearchResults != null) {
+			try {
+				int value = Integer.parseInt(maxSearchResults.trim());
+				if (value > 0) {
+					return Math.min(value, MAX_CHANGED_BUGS);
+				}
+			} catch (NumberFormatException e) {
+				// ignore
+			}
+		}
+		return MAX_CHANGED_BUGS;
+	}
 
+	private IStatus queryForChanged(TaskRepository repository, BugzillaTaskDataCollector collector,
+			String urlQueryString, ISynchronizationSession syncSession, IProgressMonitor monitor) {
 		// TODO: Decouple from internals
 		IRepositoryQuery query = new RepositoryQuery(repository.getConnectorKind(), ""); //$NON-NLS-1$
 		query.setSummary(Messages.BugzillaRepositoryConnector_Query_for_changed_tasks);
 		query.setUrl(urlQueryString);
-		performQuery(repository, query, collector, syncSession, monitor);
-		for (TaskData data : collector.getTaskData()) {
-			ITask changedTask = taskById.get(data.getTaskId());
-			if (changedTask != null) {
-				changedTasks.add(changedTask);
-			}
-		}
-
-		if (syncSession.getData() == null && collector.getQueryTimestamp() != null) {
-			// Bugzilla 4.2 does not parse the timezone of the time stamp properly hence it needs to be persisted in
-			// server time and not local time
-			syncSession.setData(collector.getQueryTimestamp());
-//			Date queryDate = BugzillaAttributeMapper.parseDate(collector.getQueryTimestamp());
-//			if (queryDate != null) {
-//				// Ensure time is in right format
-//				syncSession.setData(new SimpleDateFormat(TIMESTAMP_WITH_OFFSET).format(queryDate));
-//			}
-		}
+		return performQuery(repository, query, collector, syncSession, monitor);
 	}
 
 	@Override
@@ -676,53 +724,50 @@ public class BugzillaRepositoryConnector extends AbstractRepositoryConnector {
 		};
 	}
 
-	/** public for testing */
-	public synchronized void readRepositoryConfigurationFile() {
-		if (cacheFileRead || repositoryConfigurationFile == null || !repositoryConfigurationFile.exists()) {
+	/**
+	 * Reads the cached configurations of all repositories. Configurations are otherwise read on demand.
+	 * <p>
+	 * public for testing
+	 */
+	public void readRepositoryConfigurationFile() {
+		if (configurationStore == null) {
 			return;
 		}
-
+		// read outside of the lock, configurations that were added in the meantime are not replaced
+		Collection<RepositoryConfiguration> configurations = configurationStore.readAll();
 		synchronized (repositoryConfigurations) {
-			ObjectInputStream in = null;
-			try {
-				in = new ObjectInputStream(new FileInputStream(repositoryConfigurationFile));
-				int size = in.readInt();
-				for (int nX = 0; nX < size; nX++) {
-					RepositoryConfiguration item = (RepositoryConfiguration) in.readObject();
-					if (item != null) {
-						repositoryConfigurations.put(item.getRepositoryUrl(), item);
-					}
+			for (RepositoryConfiguration configuration : configurations) {
+				String repositoryUrl = configuration.getRepositoryUrl();
+				if (cachedRepositoryUrls.add(repositoryUrl)) {
+					repositoryConfigurations.put(repositoryUrl, configuration);
 				}
-			} catch (Exception e) {
-				StatusHandler.log(new Status(IStatus.INFO, BugzillaCorePlugin.ID_PLUGIN,
-						ERROR_INCOMPATIBLE_CONFIGURATION));
-				try {
-					if (in != null) {
-						in.close();
-					}
-					if (repositoryConfigurationFile != null && repositoryConfigurationFile.exists()) {
-						if (repositoryConfigurationFile.delete()) {
-							// successfully deleted
-						} else {
-							StatusHandler.log(new Status(IStatus.ERROR, BugzillaCorePlugin.ID_PLUGIN, 0,
-									ERROR_DELETING_CONFIGURATION, e));
-						}
-					}
+			}
+		}
+	}
 
-				} catch (Exception ex) {
-					StatusHandler.log(new Status(IStatus.ERROR, BugzillaCorePlugin.ID_PLUGIN, 0,
-							ERROR_DELETING_CONFIGURATION, e));
-				}
-			} finally {
-				cacheFileRead = true;
-				if (in != null) {
-					try {
-						in.close();
-					} catch (IOException e) {
-						// ignore
-					}
-				}
+	/**
+	 * Returns the configuration for <code>repositoryUrl</code> reading it from the cache on first access.
+	 */
+	private RepositoryConfiguration getCachedConfiguration(String repositoryUrl) {
+		RepositoryConfiguration configuration = repositoryConfigurations.get(repositoryUrl);
+		if (configuration != null) {
+			return configuration;
+		}
+		if (configurationStore == null) {
+			return null;
+		}
+		synchronized (repositoryConfigurations) {
+			if (cachedRepositoryUrls.contains(repositoryUrl)) {
+				return repositoryConfigurations.get(repositoryUrl);
+			}
+		}
+		// read outside of the lock, the cache is only used if no configuration was added in the meantime
+		configuration = configurationStore.read(repositoryUrl);
+		synchronized (repositoryConfigurations) {
+			if (cachedRepositoryUrls.add(repositoryUrl) && configuration != null) {
+				repositoryConfigurations.put(repositoryUrl, configuration);
 			}
+			return repositoryConfigurations.get(repositoryUrl);
 		}
 	}
 
@@ -733,9 +778,9 @@ public class BugzillaRepositoryConnector extends AbstractRepositoryConnector {
 			IProgressMonitor monitor) throws CoreException {
 		monitor = Policy.monitorFor(monitor);
 		try {
-			readRepositoryConfigurationFile();
 			RepositoryConfiguration configuration;
-			configuration = repositoryConfigurations.get(repository.getRepositoryUrl());
+			RepositoryConfiguration retrievedConfiguration = null;
+			configuration = getCachedConfiguration(repository.getRepositoryUrl());
 			if (configuration == null || forceRefresh) {
 				synchronized (repositoryConfigurations) {
 					// check if another thread already retrieved configuration
@@ -764,18 +809,22 @@ public class BugzillaRepositoryConnector extends AbstractRepositoryConnector {
 									repository.setVersion(configVersion);
 								}
 								internalAddConfiguration(configuration);
+								retrievedConfiguration = configuration;
 							}
 						}
 					}
 				}
 			}
+			if (retrievedConfiguration != null) {
+				writeRepositoryConfiguration(retrievedConfiguration);
+			}
 			return configuration;
 		} catch (IOException e) {
 			throw new CoreException(new Status(IStatus.ERROR, BugzillaCorePlugin.ID_PLUGIN, 1,
 					"Error retrieving task attributes from repository.\n\n" + e.getMessage(), e)); //$NON-NLS-1$
 		} catch (CoreException e) {
 			if (e.getMessage().equals("Not changed")) { //$NON-NLS-1$
-				RepositoryConfiguration configuration = repositoryConfigurations.get(repository.getRepositoryUrl());
+				RepositoryConfiguration configuration = getCachedConfiguration(repository.getRepositoryUrl());
 				if (configuration == null) {
 					throw new CoreException(new BugzillaStatus(IStatus.ERROR, BugzillaCorePlugin.ID_PLUGIN,
 							RepositoryStatus.ERROR_INTERNAL, "Failed to retrieve repository configuration for " //$NON-NLS-1$
@@ -791,7 +840,6 @@ public class BugzillaRepositoryConnector extends AbstractRepositoryConnector {
 
 	public void addRepositoryConfiguration(RepositoryConfiguration config) {
 		if (config != null) {
-			readRepositoryConfigurationFile();
 			synchronized (repositoryConfigurations) {
 				internalAddConfiguration(config);
 			}
@@ -799,52 +847,65 @@ public class BugzillaRepositoryConnector extends AbstractRepositoryConnector {
 	}
 
 	private void internalAddConfiguration(RepositoryConfiguration config) {
-		repositoryConfigurations.remove(config.getRepositoryUrl());
-		repositoryConfigurations.put(config.getRepositoryUrl(), config);
+		String repositoryUrl = config.getRepositoryUrl();
+		// a cached configuration is outdated now
+		cachedRepositoryUrls.add(repositoryUrl);
+		repositoryConfigurations.put(repositoryUrl, config);
+		modifiedRepositoryUrls.add(repositoryUrl);
 	}
 
 	public RepositoryConfiguration getRepositoryConfiguration(String repositoryUrl) {
-		readRepositoryConfigurationFile();
-		return repositoryConfigurations.get(repositoryUrl);
+		return getCachedConfiguration(repositoryUrl);
 	}
 
 	/** public for testing */
 	public void removeConfiguration(RepositoryConfiguration config) {
 		synchronized (repositoryConfigurations) {
+			cachedRepositoryUrls.add(config.getRepositoryUrl());
 			repositoryConfigurations.remove(config.getRepositoryUrl());
+			modifiedRepositoryUrls.remove(config.getRepositoryUrl());
 		}
 	}
 
-	/** public for testing */
+	/**
+	 * Writes configurations that were modified since they were last cached. Each configuration is written to a
+	 * separate file.
+	 * <p>
+	 * public for testing
+	 */
 	public void writeRepositoryConfigFile() {
-		if (repositoryConfigurationFile != null) {
-			ObjectOutputStream out = null;
-			try {
-				Set<RepositoryConfiguration> tempConfigs;
-				synchronized (repositoryConfigurations) {
-					tempConfigs = new HashSet<RepositoryConfiguration>(repositoryConfigurations.values());
-				}
-				if (tempConfigs.size() > 0) {
-					out = new ObjectOutputStream(new FileOutputStream(repositoryConfigurationFile));
-					out.writeInt(tempConfigs.size());
-					for (RepositoryConfiguration repositoryConfiguration : tempConfigs) {
-						if (repositoryConfiguration != null) {
-							out.writeObject(repositoryConfiguration);
-						}
-					}
-				}
-			} catch (IOException e) {
-				StatusHandler.log(new Status(IStatus.WARNING, BugzillaCorePlugin.ID_PLUGIN, 0,
-						"Failed to write repository configuration cache", e)); //$NON-NLS-1$
-			} finally {
-				if (out != null) {
-					try {
-						out.close();
-					} catch (IOException e) {
-						// ignore
-					}
+		List<RepositoryConfiguration> configurations = new ArrayList<RepositoryConfiguration>();
+		synchronized (repositoryConfigurations) {
+			for (String repositoryUrl : modifiedRepositoryUrls) {
+				configurations.add(repositoryConfigurations.get(repositoryUrl));
+			}
+		}
+		for (RepositoryConfiguration configuration : configurations) {
+			writeRepositoryConfiguration(configuration);
+		}
+	}
+
+	private void writeRepositoryConfiguration(RepositoryConfiguration configuration) {
+		if (configurationStore == null) {
+			return;
+		}
+		String repositoryUrl = configuration.getRepositoryUrl();
+		synchronized (repositoryConfigurations) {
+			if (!modifiedRepositoryUrls.remove(repositoryUrl)) {
+				// already written
+				return;
+			}
+		}
+		try {
+			configurationStore.write(configuration);
+		} catch (IOException e) {
+			synchronized (repositoryConfigurations) {
+				if (repositoryConfigurations.get(repositoryUrl) == configuration) {
+					modifiedRepositoryUrls.add(repositoryUrl);
 				}
 			}
+			StatusHandler.log(new Status(IStatus.WARNING, BugzillaCorePlugin.ID_PLUGIN, 0,
+					"Failed to write repository configuration cache", e)); //$NON-NLS-1$
 		}
 	}
 
@@ -67,12 +67,12 @@ public class BugzillaUserMatchResponse {
 
 	public void parseResultConfirmMatch(HtmlStreamTokenizer tokenizer, String repositoryURL, String body)
 			throws IOException, CoreException {
-		parseConfirmMatchInternal(tokenizer, repositoryURL, body);
+		parseConfirmMatchInternal(tokenizer, repositoryURL);
 		throw new CoreException(new BugzillaStatus(IStatus.ERROR, BugzillaCorePlugin.ID_PLUGIN,
 				BugzillaStatus.ERROR_CONFIRM_MATCH, repositoryURL, "Confirm Match", body, this)); //$NON-NLS-1$
 	}
 
-	private void parseConfirmMatchInternal(HtmlStreamTokenizer tokenizer, String repositoryURL, String body)
+	private void parseConfirmMatchInternal(HtmlStreamTokenizer tokenizer, String repositoryURL)
 			throws IOException, CoreException {
 		boolean isDT = false;
 		String dtString = ""; //$NON-NLS-1$
@@ -12,6 +12,8 @@
 package org.eclipse.mylyn.internal.bugzilla.core;
 
 import java.io.BufferedReader;
+import java.io.DataInput;
+import java.io.DataOutput;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
@@ -34,6 +36,29 @@ import org.eclipse.mylyn.tasks.core.data.TaskAttribute;
 public class CustomTransitionManager implements Serializable {
 	private static final long serialVersionUID = 3340305752692674487L;
 
+	/**
+	 * The transitions of a status as they were parsed. Used to restore the operations when reading a cached
+	 * configuration.
+	 */
+	private static class Transition implements Serializable {
+
+		private static final long serialVersionUID = -2180245532457806185L;
+
+		private final String status;
+
+		private final List<String> endStatuses;
+
+		// the number of closed statuses that were known when the transitions were parsed
+		private final int closedStatusCount;
+
+		Transition(String status, List<String> endStatuses, int closedStatusCount) {
+			this.status = status;
+			this.endStatuses = endStatuses;
+			this.closedStatusCount = closedStatusCount;
+		}
+
+	}
+
 	private static final String DEFAULT_DUPLICATE_STATUS = "RESOLVED"; //$NON-NLS-1$
 
 	/** Default start status -- this uses the Mylyn default from before bug #317729 */
@@ -52,6 +77,9 @@ public class CustomTransitionManager implements Serializable {
 	//Statuses that are not marked as is_open by Bugzilla
 	private final ArrayList<String> closedStatuses;
 
+	//Parsed transitions in order
+	private final ArrayList<Transition> transitions;
+
 	//Whether or not customized names were used in Bugzilla
 	private boolean customNames = false;
 
@@ -67,6 +95,7 @@ public class CustomTransitionManager implements Serializable {
 		operationMapByCurrentStatus = new HashMap<String, List<AbstractBugzillaOperation>>();
 		operationMapByEndStatus = new HashMap<String, List<AbstractBugzillaOperation>>();
 		closedStatuses = new ArrayList<String>();
+		transitions = new ArrayList<Transition>();
 		this.valid = false;
 		this.filePath = ""; //$NON-NLS-1$
 		duplicateStatus = DEFAULT_DUPLICATE_STATUS;
@@ -95,6 +124,7 @@ public class CustomTransitionManager implements Serializable {
 		operationMapByCurrentStatus.clear();
 		operationMapByEndStatus.clear();
 		closedStatuses.clear();
+		transitions.clear();
 
 		File file = new File(filePath);
 		if (!file.exists() || !file.canRead()) {
@@ -299,25 +329,30 @@ public class CustomTransitionManager implements Serializable {
 	}
 
 	private void parse(String start, Object[] transitions) {
-		addNewStatus(start);
-
-		//Find valid transitions
+		List<String> endStatuses = new ArrayList<String>(transitions.length);
 		for (Object o : transitions) {
 			if ((o instanceof HashMap<?, ?>)) {
 				//Used for XMLRPC
 				HashMap<?, ?> tran = (HashMap<?, ?>) o;
-				String endStatus = (String) tran.get("name"); //$NON-NLS-1$
-				addNewStatus(endStatus);
-				if (!endStatus.equals(start)) {
-					addTransition(start, endStatus);
-				}
+				endStatuses.add((String) tran.get("name")); //$NON-NLS-1$
 			} else if (o instanceof String) {
 				//Used for files
-				String endStatus = (String) o;
-				addNewStatus(endStatus);
-				if (!endStatus.equals(start)) {
-					addTransition(start, endStatus);
-				}
+				endStatuses.add((String) o);
+			}
+		}
+		addTransitions(new Transition(start, endStatuses, closedStatuses.size()));
+	}
+
+	private void addTransitions(Transition transition) {
+		this.transitions.add(transition);
+		String start = transition.status;
+		addNewStatus(start);
+
+		//Find valid transitions
+		for (String endStatus : transition.endStatuses) {
+			addNewStatus(endStatus);
+			if (!endStatus.equals(start)) {
+				addTransition(start, endStatus);
 			}
 		}
 	}
@@ -327,6 +362,7 @@ public class CustomTransitionManager implements Serializable {
 		operationMapByCurrentStatus.clear();
 		operationMapByEndStatus.clear();
 		closedStatuses.clear();
+		transitions.clear();
 		defaultNames();
 		setValid(false);
 		//Assume custom names, we have no way to check
@@ -405,4 +441,65 @@ public class CustomTransitionManager implements Serializable {
 		return closedStatuses;
 	}
 
+	/**
+	 * Writes the state of this transition manager to <code>out</code>. Operations are not written but restored from
+	 * the parsed transitions when reading.
+	 *
+	 * @see RepositoryConfigurationStore
+	 */
+	void write(DataOutput out) throws IOException {
+		out.writeBoolean(customNames);
+		out.writeBoolean(valid);
+		RepositoryConfigurationStore.writeString(out, filePath);
+		RepositoryConfigurationStore.writeString(out, duplicateStatus);
+		RepositoryConfigurationStore.writeString(out, startStatus);
+		RepositoryConfigurationStore.writeStrings(out, closedStatuses);
+		out.writeBoolean(!operationMapByEndStatus.isEmpty());
+		out.writeInt(transitions.size());
+		for (Transition transition : transitions) {
+			RepositoryConfigurationStore.writeString(out, transition.status);
+			RepositoryConfigurationStore.writeStrings(out, transition.endStatuses);
+			out.writeInt(transition.closedStatusCount);
+		}
+	}
+
+	/**
+	 * Reads a transition manager that was written by {@link #write(DataOutput)}.
+	 */
+	static CustomTransitionManager read(DataInput in) throws IOException {
+		CustomTransitionManager manager = new CustomTransitionManager();
+		manager.customNames = in.readBoolean();
+		manager.valid = in.readBoolean();
+		manager.filePath = RepositoryConfigurationStore.readString(in);
+		manager.duplicateStatus = RepositoryConfigurationStore.readString(in);
+		manager.startStatus = RepositoryConfigurationStore.readString(in);
+		List<String> closedStatuses = new ArrayList<String>();
+		RepositoryConfigurationStore.readStrings(in, closedStatuses);
+		if (in.readBoolean()) {
+			manager.defaultNames();
+		}
+		// replay the transitions in the original order since the operations depend on the closed statuses that were
+		// known at the time
+		int size = in.readInt();
+		for (int i = 0; i < size; i++) {
+			String status = RepositoryConfigurationStore.readString(in);
+			List<String> endStatuses = new ArrayList<String>();
+			RepositoryConfigurationStore.readStrings(in, endStatuses);
+			int closedStatusCount = in.readInt();
+			if (closedStatusCount > closedStatuses.size()) {
+				throw new IOException("Invalid transition for " + status); //$NON-NLS-1$
+			}
+			manager.addClosedStatuses(closedStatuses, closedStatusCount);
+			manager.addTransitions(new Transition(status, endStatuses, closedStatusCount));
+		}
+		manager.addClosedStatuses(closedStatuses, closedStatuses.size());
+		return manager;
+	}
+
+	private void addClosedStatuses(List<String> statuses, int count) {
+		if (closedStatuses.size() < count) {
+			closedStatuses.addAll(statuses.subList(closedStatuses.size(), count));
+		}
+	}
+
 }
@@ -0,0 +1,164 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Tasktop Technologies and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Tasktop Technologies - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.mylyn.internal.bugzilla.core;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Decodes HTTP response bodies while they are read. Compressed bodies are inflated on the fly and the type of the
+ * content is detected from a bounded look-ahead, so callers never need to hold a complete response in memory.
+ */
+public class HttpResponseDecoder {
+
+	/**
+	 * The maximum number of bytes that are inspected to detect the type of the content.
+	 */
+	public static final int LOOK_AHEAD_LIMIT = 512;
+
+	public static final String CONTENT_TYPE_HTML = "text/html"; //$NON-NLS-1$
+
+	public static final String CONTENT_TYPE_XML = "application/xml"; //$NON-NLS-1$
+
+	private static final String CONTENT_TYPE_GZIP = "application/x-gzip"; //$NON-NLS-1$
+
+	private static final String CONTENT_ENCODING_X_GZIP = "x-gzip"; //$NON-NLS-1$
+
+	private static final int BUFFER_SIZE = 8 * 1024;
+
+	private HttpResponseDecoder() {
+	}
+
+	/**
+	 * Returns a stream that provides the decoded content of <code>in</code>. Content that is compressed according to
+	 * <code>contentEncoding</code> or that is served as <code>application/x-gzip</code>, e.g. after a redirect to a
+	 * pre-compressed file, is inflated. The returned stream supports {@link InputStream#mark(int)} for at least
+	 * {@link #LOOK_AHEAD_LIMIT} bytes.
+	 *
+	 * @param contentEncoding
+	 *            the value of the Content-Encoding header or <code>null</code>
+	 * @param contentType
+	 *            the value of the Content-Type header or <code>null</code>
+	 */
+	public static InputStream decode(InputStream in, String contentEncoding, String contentType) throws IOException {
+		String encoding = (contentEncoding != null) ? contentEncoding.trim().toLowerCase(Locale.ENGLISH) : ""; //$NON-NLS-1$
+		BufferedInputStream buffered = new BufferedInputStream(in, BUFFER_SIZE);
+		if (IBugzillaConstants.CONTENT_ENCODING_GZIP.equals(encoding) || CONTENT_ENCODING_X_GZIP.equals(encoding)
+				|| (contentType != null && contentType.toLowerCase(Locale.ENGLISH).startsWith(CONTENT_TYPE_GZIP))) {
+			// some servers announce a compressed body but send it uncompressed
+			if (isGzip(buffered)) {
+				return new BufferedInputStream(new GZIPInputStream(buffered, BUFFER_SIZE), BUFFER_SIZE);
+			}
+		} else if (IBugzillaConstants.CONTENT_ENCODING_DEFLATE.equals(encoding)) {
+			// the specification requires a zlib wrapper but some servers send raw deflate data
+			Inflater inflater = new Inflater(!isZlib(buffered));
+			return new BufferedInputStream(new InflaterInputStream(buffered, inflater, BUFFER_SIZE), BUFFER_SIZE);
+		}
+		return buffered;
+	}
+
+	/**
+	 * Detects the type of the content of <code>in</code> without consuming it. Returns {@link #CONTENT_TYPE_XML},
+	 * {@link #CONTENT_TYPE_HTML} or <code>null</code>, if the type could not be detected.
+	 *
+	 * @param in
+	 *            a stream that supports {@link InputStream#mark(int)}
+	 */
+	public static String sniffContentType(InputStream in) throws IOException {
+		String prefix = peek(in, LOOK_AHEAD_LIMIT).toLowerCase(Locale.ENGLISH);
+		int start = 0;
+		// skip byte order mark and leading white space
+		if (prefix.startsWith("\u00ef\u00bb\u00bf")) { //$NON-NLS-1$
+			start = 3;
+		}
+		while (start < prefix.length() && Character.isWhitespace(prefix.charAt(start))) {
+			start++;
+		}
+		// XHTML pages may start with an XML declaration
+		if (prefix.indexOf("<!doctype html", start) != -1 || prefix.indexOf("<html", start) != -1) { //$NON-NLS-1$ //$NON-NLS-2$
+			return CONTENT_TYPE_HTML;
+		}
+		if (prefix.startsWith("<?xml", start) || prefix.startsWith("<rdf:rdf", start) //$NON-NLS-1$ //$NON-NLS-2$
+				|| prefix.startsWith("<bugzilla", start)) { //$NON-NLS-1$
+			return CONTENT_TYPE_XML;
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the charset declared in <code>contentType</code> or <code>null</code>, if no supported charset is
+	 * declared.
+	 */
+	public static String getCharset(String contentType) {
+		if (contentType == null) {
+			return null;
+		}
+		for (String parameter : contentType.split(";")) { //$NON-NLS-1$
+			int i = parameter.indexOf('=');
+			if (i != -1 && parameter.substring(0, i).trim().equalsIgnoreCase("charset")) { //$NON-NLS-1$
+				String charset = parameter.substring(i + 1).trim();
+				if (charset.length() > 1 && charset.startsWith("\"") && charset.endsWith("\"")) { //$NON-NLS-1$ //$NON-NLS-2$
+					charset = charset.substring(1, charset.length() - 1);
+				}
+				try {
+					if (Charset.isSupported(charset)) {
+						return charset;
+					}
+				} catch (IllegalArgumentException e) {
+					// illegal charset name
+				}
+				return null;
+			}
+		}
+		return null;
+	}
+
+	private static boolean isGzip(InputStream in) throws IOException {
+		String prefix = peek(in, 2);
+		return prefix.length() == 2 && prefix.charAt(0) == 0x1f && prefix.charAt(1) == 0x8b;
+	}
+
+	private static boolean isZlib(InputStream in) throws IOException {
+		String prefix = peek(in, 2);
+		if (prefix.length() < 2) {
+			return true;
+		}
+		int header = (prefix.charAt(0) << 8) | prefix.charAt(1);
+		return (prefix.charAt(0) & 0x0f) == 8 && header % 31 == 0;
+	}
+
+	/**
+	 * Returns up to <code>limit</code> bytes from the start of <code>in</code> as ISO-8859-1 characters and resets the
+	 * stream.
+	 */
+	private static String peek(InputStream in, int limit) throws IOException {
+		byte[] buffer = new byte[limit];
+		int count = 0;
+		in.mark(limit);
+		try {
+			int read;
+			while (count < limit && (read = in.read(buffer, count, limit - count)) != -1) {
+				count += read;
+			}
+		} finally {
+			in.reset();
+		}
+		return new String(buffer, 0, count, "ISO-8859-1"); //$NON-NLS-1$
+	}
+
+}
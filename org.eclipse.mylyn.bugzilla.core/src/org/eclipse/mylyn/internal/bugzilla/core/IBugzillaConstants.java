@@ -268,6 +268,12 @@ public interface IBugzillaConstants {
 
 	public static final String BUGZILLA_PARAM_USE_SEE_ALSO = "bugzilla.param.use_see_also"; //$NON-NLS-1$
 
+	/**
+	 * The maximum number of bugs returned by a search which is limited by the max_search_results parameter of the
+	 * repository.
+	 */
+	public static final String BUGZILLA_PARAM_MAX_SEARCH_RESULTS = "bugzilla.param.max_search_results"; //$NON-NLS-1$
+
 	public static final String BUGZILLA_INSIDER_GROUP = "bugzilla.insider.group"; //$NON-NLS-1$
 
 	public static final String BUGZILLA_DESCRIPTION_ID = "id"; //$NON-NLS-1$
@@ -299,6 +305,8 @@ public interface IBugzillaConstants {
 
 	public static final String CONTENT_ENCODING_GZIP = "gzip"; //$NON-NLS-1$
 
+	public static final String CONTENT_ENCODING_DEFLATE = "deflate"; //$NON-NLS-1$
+
 	public static final String LAST_PRODUCT_SELECTION = "last.selection.product"; //$NON-NLS-1$
 
 	public static final String LAST_COMPONENT_SELECTION = "last.selection.component"; //$NON-NLS-1$
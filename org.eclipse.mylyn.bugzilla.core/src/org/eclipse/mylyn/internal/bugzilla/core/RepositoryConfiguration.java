@@ -12,15 +12,20 @@
 
 package org.eclipse.mylyn.internal.bugzilla.core;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 
 import org.apache.commons.lang.BooleanUtils;
 import org.eclipse.core.runtime.CoreException;
@@ -29,6 +34,7 @@ import org.eclipse.mylyn.internal.bugzilla.core.IBugzillaConstants.BUGZILLA_REPO
 import org.eclipse.mylyn.internal.bugzilla.core.IBugzillaConstants.BUGZILLA_REPORT_STATUS_4_0;
 import org.eclipse.mylyn.internal.bugzilla.core.service.BugzillaXmlRpcClient;
 import org.eclipse.mylyn.tasks.core.data.TaskAttribute;
+import org.eclipse.mylyn.tasks.core.data.TaskAttributeOptionTable;
 import org.eclipse.mylyn.tasks.core.data.TaskData;
 import org.eclipse.mylyn.tasks.core.data.TaskOperation;
 
@@ -89,6 +95,74 @@ public class RepositoryConfiguration implements Serializable {
 
 	private Date lastModifiedHeader = null;
 
+	private transient volatile Index index;
+
+	/**
+	 * Lookup tables for custom fields and flags that are consulted for each task that is configured. Indexes are
+	 * immutable and replaced when the configuration changes.
+	 */
+	private static class Index {
+
+		private final Map<String, BugzillaCustomField> customFieldByName = new HashMap<String, BugzillaCustomField>();
+
+		private final Map<String, List<BugzillaFlag>> flagsByName = new HashMap<String, List<BugzillaFlag>>();
+
+		private final Map<Integer, BugzillaFlag> flagById = new HashMap<Integer, BugzillaFlag>();
+
+		// product -> component -> flags that can be set in the component
+		private final Map<String, Map<String, List<BugzillaFlag>>> flagsByProductComponent = new HashMap<String, Map<String, List<BugzillaFlag>>>();
+
+		public Index(List<BugzillaCustomField> customFields, List<BugzillaFlag> flags) {
+			for (BugzillaCustomField customField : customFields) {
+				if (!customFieldByName.containsKey(customField.getName())) {
+					customFieldByName.put(customField.getName(), customField);
+				}
+			}
+			for (BugzillaFlag flag : flags) {
+				get(flagsByName, flag.getName()).add(flag);
+				if (!flagById.containsKey(flag.getFlagId())) {
+					flagById.put(flag.getFlagId(), flag);
+				}
+				for (Map.Entry<String, List<String>> entry : flag.getUsed().entrySet()) {
+					Map<String, List<BugzillaFlag>> flagsByComponent = flagsByProductComponent.get(entry.getKey());
+					if (flagsByComponent == null) {
+						flagsByComponent = new HashMap<String, List<BugzillaFlag>>();
+						flagsByProductComponent.put(entry.getKey(), flagsByComponent);
+					}
+					for (String component : entry.getValue()) {
+						get(flagsByComponent, component).add(flag);
+					}
+				}
+			}
+		}
+
+		private static List<BugzillaFlag> get(Map<String, List<BugzillaFlag>> map, String key) {
+			List<BugzillaFlag> list = map.get(key);
+			if (list == null) {
+				list = new ArrayList<BugzillaFlag>(1);
+				map.put(key, list);
+			}
+			return list;
+		}
+
+		public List<BugzillaFlag> getFlags(String name) {
+			List<BugzillaFlag> flags = flagsByName.get(name);
+			return (flags != null) ? flags : Collections.<BugzillaFlag> emptyList();
+		}
+
+		public List<BugzillaFlag> getFlags(String product, String component) {
+			Map<String, List<BugzillaFlag>> flagsByComponent = flagsByProductComponent.get(product);
+			if (flagsByComponent != null) {
+				List<BugzillaFlag> flags = flagsByComponent.get(component);
+				if (flags != null) {
+					return flags;
+				}
+			}
+			return Collections.emptyList();
+		}
+
+	}
+
 	public RepositoryConfiguration() {
 	}
 
@@ -247,7 +321,6 @@ public class RepositoryConfiguration implements Serializable {
 
 		private static final long serialVersionUID = 4120139521246741120L;
 
-		@SuppressWarnings("unused")
 		String productName;
 
 		List<String> components = new ArrayList<String>();
@@ -264,6 +337,26 @@ public class RepositoryConfiguration implements Serializable {
 			this.productName = name;
 		}
 
+		void write(DataOutput out) throws IOException {
+			RepositoryConfigurationStore.writeString(out, productName);
+			RepositoryConfigurationStore.writeStrings(out, components);
+			RepositoryConfigurationStore.writeStrings(out, versions);
+			RepositoryConfigurationStore.writeStrings(out, milestones);
+			RepositoryConfigurationStore.writeString(out, defaultMilestone);
+			out.writeByte((unconfirmedAllowed == null) ? -1 : (unconfirmedAllowed ? 1 : 0));
+		}
+
+		static ProductEntry read(DataInput in) throws IOException {
+			ProductEntry entry = new ProductEntry(RepositoryConfigurationStore.readString(in));
+			RepositoryConfigurationStore.readStrings(in, entry.components);
+			RepositoryConfigurationStore.readStrings(in, entry.versions);
+			RepositoryConfigurationStore.readStrings(in, entry.milestones);
+			entry.defaultMilestone = RepositoryConfigurationStore.readString(in);
+			byte unconfirmedAllowed = in.readByte();
+			entry.unconfirmedAllowed = (unconfirmedAllowed == -1) ? null : unconfirmedAllowed == 1;
+			return entry;
+		}
+
 		List<String> getComponents() {
 			return components;
 		}
@@ -479,6 +572,7 @@ public class RepositoryConfiguration implements Serializable {
 	 */
 	public void addCustomField(BugzillaCustomField newField) {
 		customFields.add(newField);
+		index = null;
 	}
 
 	public List<BugzillaCustomField> getCustomFields() {
@@ -518,25 +612,21 @@ public class RepositoryConfiguration implements Serializable {
 	}
 
 	private void addMissingFlags(TaskData taskData, BugzillaRepositoryConnector connector) {
-		List<String> existingFlags = new ArrayList<String>();
-		List<BugzillaFlag> flags = getFlags();
-		for (TaskAttribute attribute : new HashSet<TaskAttribute>(taskData.getRoot().getAttributes().values())) {
+		Set<String> existingFlags = new HashSet<String>();
+		Index index = getIndex();
+		for (TaskAttribute attribute : taskData.getRoot().getAttributes().values()) {
 			if (attribute.getId().startsWith(BugzillaAttribute.KIND_FLAG)) {
 				TaskAttribute state = attribute.getAttribute("state"); //$NON-NLS-1$
 				if (state != null) {
 					String nameValue = state.getMetaData().getLabel();
-					if (!existingFlags.contains(nameValue)) {
-						existingFlags.add(nameValue);
-					}
+					existingFlags.add(nameValue);
 					String desc = attribute.getMetaData().getLabel();
 					if (desc == null || desc.equals("")) { //$NON-NLS-1$
-						for (BugzillaFlag bugzillaFlag : flags) {
+						for (BugzillaFlag bugzillaFlag : index.getFlags(nameValue)) {
 							if (bugzillaFlag.getType().equals("attachment")) { //$NON-NLS-1$
 								continue;
 							}
-							if (bugzillaFlag.getName().equals(nameValue)) {
-								attribute.getMetaData().setLabel(bugzillaFlag.getDescription());
-							}
+							attribute.getMetaData().setLabel(bugzillaFlag.getDescription());
 						}
 					}
 				}
@@ -544,13 +634,10 @@ public class RepositoryConfiguration implements Serializable {
 		}
 		TaskAttribute productAttribute = taskData.getRoot().getMappedAttribute(BugzillaAttribute.PRODUCT.getKey());
 		TaskAttribute componentAttribute = taskData.getRoot().getMappedAttribute(BugzillaAttribute.COMPONENT.getKey());
-		for (BugzillaFlag bugzillaFlag : flags) {
+		for (BugzillaFlag bugzillaFlag : index.getFlags(productAttribute.getValue(), componentAttribute.getValue())) {
 			if (bugzillaFlag.getType().equals("attachment")) { //$NON-NLS-1$
 				continue;
 			}
-			if (!bugzillaFlag.isUsedIn(productAttribute.getValue(), componentAttribute.getValue())) {
-				continue;
-			}
 			if (existingFlags.contains(bugzillaFlag.getName()) && !bugzillaFlag.isMultiplicable()) {
 				continue;
 			}
@@ -565,25 +652,23 @@ public class RepositoryConfiguration implements Serializable {
 					.createAttribute(BugzillaAttribute.KIND_FLAG_TYPE + bugzillaFlag.getFlagId());
 			mapper.applyTo(attribute);
 		}
-		setFlagsRequestee(taskData);
+		setFlagsRequestee(taskData, index);
 	}
 
-	private void setFlagsRequestee(TaskData taskData) {
-		for (TaskAttribute attribute : new HashSet<TaskAttribute>(taskData.getRoot().getAttributes().values())) {
+	private void setFlagsRequestee(TaskData taskData, Index index) {
+		for (TaskAttribute attribute : taskData.getRoot().getAttributes().values()) {
 			if (attribute.getId().startsWith(BugzillaAttribute.KIND_FLAG)) {
 				TaskAttribute state = attribute.getAttribute("state"); //$NON-NLS-1$
 				if (state != null) {
 					String nameValue = state.getMetaData().getLabel();
-					for (BugzillaFlag bugzillaFlag : flags) {
-						if (nameValue.equals(bugzillaFlag.getName())) {
-							TaskAttribute requestee = attribute.getAttribute("requestee"); //$NON-NLS-1$
-							if (requestee == null) {
-								requestee = attribute.createMappedAttribute("requestee"); //$NON-NLS-1$
-								requestee.getMetaData().defaults().setType(TaskAttribute.TYPE_PERSON);
-								requestee.setValue(""); //$NON-NLS-1$
-							}
-							requestee.getMetaData().setReadOnly(!bugzillaFlag.isSpecifically_requestable());
+					for (BugzillaFlag bugzillaFlag : index.getFlags(nameValue)) {
+						TaskAttribute requestee = attribute.getAttribute("requestee"); //$NON-NLS-1$
+						if (requestee == null) {
+							requestee = attribute.createMappedAttribute("requestee"); //$NON-NLS-1$
+							requestee.getMetaData().defaults().setType(TaskAttribute.TYPE_PERSON);
+							requestee.setValue(""); //$NON-NLS-1$
 						}
+						requestee.getMetaData().setReadOnly(!bugzillaFlag.isSpecifically_requestable());
 					}
 				}
 			}
@@ -597,7 +682,8 @@ public class RepositoryConfiguration implements Serializable {
 			return;
 		}
 		String product = attributeProduct.getValue();
-		for (TaskAttribute attribute : new HashSet<TaskAttribute>(existingReport.getRoot().getAttributes().values())) {
+		// copy attributes since the target milestone may be removed
+		for (TaskAttribute attribute : new ArrayList<TaskAttribute>(existingReport.getRoot().getAttributes().values())) {
 
 			List<String> optionValues = getAttributeOptions(product, attribute);
 
@@ -610,10 +696,12 @@ public class RepositoryConfiguration implements Serializable {
 				attribute = attribute.getAttribute("state"); //$NON-NLS-1$
 			}
 
-			attribute.clearOptions();
+			// options are shared by all tasks with the same configuration
+			Map<String, String> options = new LinkedHashMap<String, String>();
 			for (String option : optionValues) {
-				attribute.putOption(option, option);
+				options.put(option, option);
 			}
+			attribute.setOptionTable(TaskAttributeOptionTable.of(options));
 		}
 
 	}
@@ -622,11 +710,9 @@ public class RepositoryConfiguration implements Serializable {
 		List<String> options = new ArrayList<String>();
 
 		if (attribute.getId().startsWith(BugzillaCustomField.CUSTOM_FIELD_PREFIX)) {
-			for (BugzillaCustomField bugzillaCustomField : customFields) {
-				if (bugzillaCustomField.getName().equals(attribute.getId())) {
-					options.addAll(bugzillaCustomField.getOptions());
-					break;
-				}
+			BugzillaCustomField bugzillaCustomField = getIndex().customFieldByName.get(attribute.getId());
+			if (bugzillaCustomField != null) {
+				options.addAll(bugzillaCustomField.getOptions());
 			}
 
 		} else if (attribute.getId().startsWith(BugzillaAttribute.KIND_FLAG)) {
@@ -635,15 +721,9 @@ public class RepositoryConfiguration implements Serializable {
 			if (state != null) {
 				String nameValue = state.getMetaData().getLabel();
 				options.add(""); //$NON-NLS-1$
-				for (BugzillaFlag bugzillaFlag : flags) {
-					if (nameValue.equals(bugzillaFlag.getName())) {
-						if (nameValue.equals(bugzillaFlag.getName())) {
-							if (bugzillaFlag.isRequestable()) {
-								options.add("?"); //$NON-NLS-1$
-							}
-							break;
-						}
-					}
+				List<BugzillaFlag> flags = getIndex().getFlags(nameValue);
+				if (!flags.isEmpty() && flags.get(0).isRequestable()) {
+					options.add("?"); //$NON-NLS-1$
 				}
 				options.add("+"); //$NON-NLS-1$
 				options.add("-"); //$NON-NLS-1$
@@ -1102,6 +1182,7 @@ public class RepositoryConfiguration implements Serializable {
 	 */
 	public void addFlag(BugzillaFlag newFlag) {
 		flags.add(newFlag);
+		index = null;
 	}
 
 	public List<BugzillaFlag> getFlags() {
@@ -1109,12 +1190,24 @@ public class RepositoryConfiguration implements Serializable {
 	}
 
 	public BugzillaFlag getFlagWithId(Integer id) {
-		for (BugzillaFlag bugzillaFlag : flags) {
-			if (bugzillaFlag.getFlagId() == id) {
-				return bugzillaFlag;
-			}
+		return getIndex().flagById.get(id);
+	}
+
+	/**
+	 * Rebuilds the lookup tables for custom fields and flags. Needs to be invoked after the usage of flags has been
+	 * modified through {@link BugzillaFlag#addUsed(String, String)}.
+	 */
+	void updateIndex() {
+		index = new Index(customFields, flags);
+	}
+
+	private Index getIndex() {
+		Index index = this.index;
+		if (index == null) {
+			index = new Index(customFields, flags);
+			this.index = index;
 		}
-		return null;
+		return index;
 	}
 
 	public void setEncoding(String encoding) {
@@ -1126,7 +1219,8 @@ public class RepositoryConfiguration implements Serializable {
 	}
 
 	public void updateAttachmentOptions(TaskData existingReport) {
-		for (TaskAttribute attribute : new HashSet<TaskAttribute>(existingReport.getRoot().getAttributes().values())) {
+		Index index = getIndex();
+		for (TaskAttribute attribute : existingReport.getRoot().getAttributes().values()) {
 
 			if (!attribute.getId().startsWith("task.common.attachment")) { //$NON-NLS-1$
 				continue;
@@ -1142,21 +1236,18 @@ public class RepositoryConfiguration implements Serializable {
 
 				String nameValue = state.getMetaData().getLabel();
 				state.putOption("", ""); //$NON-NLS-1$ //$NON-NLS-2$
-				for (BugzillaFlag bugzillaFlag : flags) {
-					if (nameValue.equals(bugzillaFlag.getName()) && bugzillaFlag.getType().equals("attachment")) { //$NON-NLS-1$
-						if ("attachment".equals(bugzillaFlag.getType())) { //$NON-NLS-1$
-							if (bugzillaFlag.isRequestable()) {
-								state.putOption("?", "?"); //$NON-NLS-1$ //$NON-NLS-2$
-							}
-							break;
+				for (BugzillaFlag bugzillaFlag : index.getFlags(nameValue)) {
+					if ("attachment".equals(bugzillaFlag.getType())) { //$NON-NLS-1$
+						if (bugzillaFlag.isRequestable()) {
+							state.putOption("?", "?"); //$NON-NLS-1$ //$NON-NLS-2$
 						}
+						break;
 					}
 				}
 				state.putOption("-", "-"); //$NON-NLS-1$ //$NON-NLS-2$
 				state.putOption("+", "+"); //$NON-NLS-1$ //$NON-NLS-2$
-				String flagNameValue = state.getMetaData().getLabel();
-				for (BugzillaFlag bugzillaFlag : flags) {
-					if (flagNameValue.equals(bugzillaFlag.getName()) && bugzillaFlag.getType().equals("attachment")) { //$NON-NLS-1$
+				for (BugzillaFlag bugzillaFlag : index.getFlags(nameValue)) {
+					if (bugzillaFlag.getType().equals("attachment")) { //$NON-NLS-1$
 						TaskAttribute requestee = attachmentAttribute.getAttribute("requestee"); //$NON-NLS-1$
 						if (requestee == null) {
 							requestee = attachmentAttribute.createMappedAttribute("requestee"); //$NON-NLS-1$
@@ -1172,9 +1263,9 @@ public class RepositoryConfiguration implements Serializable {
 	}
 
 	private void addMissingAttachmentFlags(TaskData taskData, BugzillaRepositoryConnector connector) {
-		List<String> existingFlags = new ArrayList<String>();
-		List<BugzillaFlag> flags = getFlags();
-		for (TaskAttribute attribute : new HashSet<TaskAttribute>(taskData.getRoot().getAttributes().values())) {
+		Set<String> existingFlags = new HashSet<String>();
+		Index index = getIndex();
+		for (TaskAttribute attribute : taskData.getRoot().getAttributes().values()) {
 
 			if (!attribute.getId().startsWith("task.common.attachment")) { //$NON-NLS-1$
 				continue;
@@ -1186,22 +1277,17 @@ public class RepositoryConfiguration implements Serializable {
 				}
 				TaskAttribute state = attachmentAttribute.getAttribute("state"); //$NON-NLS-1$
 				if (state != null) {
-					String nameValue = state.getMetaData().getLabel();
-					if (!existingFlags.contains(nameValue)) {
-						existingFlags.add(nameValue);
-					}
+					existingFlags.add(state.getMetaData().getLabel());
 				}
 			}
 			TaskAttribute productAttribute = taskData.getRoot().getMappedAttribute(BugzillaAttribute.PRODUCT.getKey());
 			TaskAttribute componentAttribute = taskData.getRoot()
 					.getMappedAttribute(BugzillaAttribute.COMPONENT.getKey());
-			for (BugzillaFlag bugzillaFlag : flags) {
+			for (BugzillaFlag bugzillaFlag : index.getFlags(productAttribute.getValue(),
+					componentAttribute.getValue())) {
 				if (!bugzillaFlag.getType().equals("attachment")) { //$NON-NLS-1$
 					continue;
 				}
-				if (!bugzillaFlag.isUsedIn(productAttribute.getValue(), componentAttribute.getValue())) {
-					continue;
-				}
 				if (existingFlags.contains(bugzillaFlag.getName()) && !bugzillaFlag.isMultiplicable()) {
 					continue;
 				}
@@ -1281,4 +1367,91 @@ public class RepositoryConfiguration implements Serializable {
 			return false;
 		}
 	}
+
+	/**
+	 * Writes the state of this configuration to <code>out</code>.
+	 *
+	 * @see RepositoryConfigurationStore
+	 */
+	void write(DataOutput out) throws IOException {
+		RepositoryConfigurationStore.writeString(out, repositoryUrl);
+		out.writeInt(products.size());
+		for (Map.Entry<String, ProductEntry> entry : products.entrySet()) {
+			RepositoryConfigurationStore.writeString(out, entry.getKey());
+			entry.getValue().write(out);
+		}
+		RepositoryConfigurationStore.writeStrings(out, platforms);
+		RepositoryConfigurationStore.writeStrings(out, operatingSystems);
+		RepositoryConfigurationStore.writeStrings(out, priorities);
+		RepositoryConfigurationStore.writeStrings(out, severities);
+		RepositoryConfigurationStore.writeStrings(out, bugStatus);
+		RepositoryConfigurationStore.writeStrings(out, openStatusValues);
+		RepositoryConfigurationStore.writeStrings(out, closedStatusValues);
+		RepositoryConfigurationStore.writeStrings(out, resolutionValues);
+		RepositoryConfigurationStore.writeStrings(out, keywords);
+		RepositoryConfigurationStore.writeStrings(out, versions);
+		RepositoryConfigurationStore.writeStrings(out, components);
+		RepositoryConfigurationStore.writeStrings(out, milestones);
+		out.writeInt(customFields.size());
+		for (BugzillaCustomField customField : customFields) {
+			customField.write(out);
+		}
+		out.writeInt(flags.size());
+		for (BugzillaFlag flag : flags) {
+			flag.write(out);
+		}
+		RepositoryConfigurationStore.writeString(out, (version != null) ? version.toString() : null);
+		out.writeBoolean(validTransitions != null);
+		if (validTransitions != null) {
+			validTransitions.write(out);
+		}
+		RepositoryConfigurationStore.writeString(out, encoding);
+		RepositoryConfigurationStore.writeString(out, eTagValue);
+		out.writeLong((lastModifiedHeader != null) ? lastModifiedHeader.getTime() : -1);
+	}
+
+	/**
+	 * Reads a configuration that was written by {@link #write(DataOutput)}.
+	 */
+	static RepositoryConfiguration read(DataInput in) throws IOException {
+		RepositoryConfiguration configuration = new RepositoryConfiguration();
+		configuration.repositoryUrl = RepositoryConfigurationStore.readString(in);
+		int size = in.readInt();
+		for (int i = 0; i < size; i++) {
+			String name = RepositoryConfigurationStore.readString(in);
+			configuration.products.put(name, ProductEntry.read(in));
+		}
+		RepositoryConfigurationStore.readStrings(in, configuration.platforms);
+		RepositoryConfigurationStore.readStrings(in, configuration.operatingSystems);
+		RepositoryConfigurationStore.readStrings(in, configuration.priorities);
+		RepositoryConfigurationStore.readStrings(in, configuration.severities);
+		RepositoryConfigurationStore.readStrings(in, configuration.bugStatus);
+		RepositoryConfigurationStore.readStrings(in, configuration.openStatusValues);
+		RepositoryConfigurationStore.readStrings(in, configuration.closedStatusValues);
+		RepositoryConfigurationStore.readStrings(in, configuration.resolutionValues);
+		RepositoryConfigurationStore.readStrings(in, configuration.keywords);
+		RepositoryConfigurationStore.readStrings(in, configuration.versions);
+		RepositoryConfigurationStore.readStrings(in, configuration.components);
+		RepositoryConfigurationStore.readStrings(in, configuration.milestones);
+		size = in.readInt();
+		for (int i = 0; i < size; i++) {
+			configuration.customFields.add(BugzillaCustomField.read(in));
+		}
+		size = in.readInt();
+		for (int i = 0; i < size; i++) {
+			configuration.flags.add(BugzillaFlag.read(in));
+		}
+		String version = RepositoryConfigurationStore.readString(in);
+		configuration.version = (version != null) ? new BugzillaVersion(version) : null;
+		if (in.readBoolean()) {
+			configuration.validTransitions = CustomTransitionManager.read(in);
+		}
+		configuration.encoding = RepositoryConfigurationStore.readString(in);
+		configuration.eTagValue = RepositoryConfigurationStore.readString(in);
+		long lastModifiedHeader = in.readLong();
+		configuration.lastModifiedHeader = (lastModifiedHeader != -1) ? new Date(lastModifiedHeader) : null;
+		configuration.updateIndex();
+		return configuration;
+	}
+
 }
@@ -0,0 +1,234 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Tasktop Technologies and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Tasktop Technologies - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.mylyn.internal.bugzilla.core;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.eclipse.core.runtime.Assert;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.mylyn.commons.core.StatusHandler;
+
+/**
+ * Caches repository configurations on disk. Each configuration is stored in a separate file in a compact binary format
+ * that starts with a format version. Files are only read when the configuration of the corresponding repository is
+ * requested. Files that were written in an unsupported format are discarded.
+ */
+public class RepositoryConfigurationStore {
+
+	private static final int MAGIC = 0x425A4346; // "BZCF"
+
+	/**
+	 * The version of the file format. Needs to be incremented when the format changes in an incompatible way.
+	 */
+	static final int FORMAT_VERSION = 1;
+
+	private static final String FILE_EXTENSION = ".config"; //$NON-NLS-1$
+
+	private static final String TEMP_FILE_EXTENSION = ".tmp"; //$NON-NLS-1$
+
+	private static final String ENCODING = "UTF-8"; //$NON-NLS-1$
+
+	private static final String ERROR_INCOMPATIBLE_CONFIGURATION = "Reset Bugzilla repository configuration cache due to format change"; //$NON-NLS-1$
+
+	private static final String ERROR_DELETING_CONFIGURATION = "Error removing corrupt repository configuration file."; //$NON-NLS-1$
+
+	private final File directory;
+
+	private boolean initialized;
+
+	public RepositoryConfigurationStore(File directory) {
+		Assert.isNotNull(directory);
+		this.directory = directory;
+	}
+
+	/**
+	 * Returns the cached configuration for <code>repositoryUrl</code> or <code>null</code>, if no configuration was
+	 * cached or the cache file could not be read.
+	 */
+	public RepositoryConfiguration read(String repositoryUrl) {
+		Assert.isNotNull(repositoryUrl);
+		initialize();
+		File file = getFile(repositoryUrl);
+		if (!file.exists()) {
+			return null;
+		}
+		RepositoryConfiguration configuration = read(file);
+		if (configuration != null && !repositoryUrl.equals(configuration.getRepositoryUrl())) {
+			// file name collision
+			return null;
+		}
+		return configuration;
+	}
+
+	/**
+	 * Reads all cached configurations.
+	 */
+	public Collection<RepositoryConfiguration> readAll() {
+		initialize();
+		List<RepositoryConfiguration> configurations = new ArrayList<RepositoryConfiguration>();
+		File[] files = directory.listFiles();
+		if (files != null) {
+			for (File file : files) {
+				if (file.getName().endsWith(FILE_EXTENSION)) {
+					RepositoryConfiguration configuration = read(file);
+					if (configuration != null) {
+						configurations.add(configuration);
+					}
+				}
+			}
+		}
+		return configurations;
+	}
+
+	/**
+	 * Writes <code>configuration</code> to the file of its repository replacing a previously cached configuration.
+	 */
+	public synchronized void write(RepositoryConfiguration configuration) throws IOException {
+		Assert.isNotNull(configuration);
+		initialize();
+		if (!directory.exists() && !directory.mkdirs()) {
+			throw new IOException("Failed to create directory " + directory); //$NON-NLS-1$
+		}
+		File file = getFile(configuration.getRepositoryUrl());
+		File tempFile = new File(directory, file.getName() + TEMP_FILE_EXTENSION);
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)));
+		try {
+			out.writeInt(MAGIC);
+			out.writeInt(FORMAT_VERSION);
+			configuration.write(out);
+		} finally {
+			out.close();
+		}
+		// replace the previous file only after the new configuration was written completely
+		try {
+			move(tempFile, file);
+		} catch (IOException e) {
+			tempFile.delete();
+			throw e;
+		}
+	}
+
+	private void move(File source, File target) throws IOException {
+		try {
+			Files.move(source.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE,
+					StandardCopyOption.REPLACE_EXISTING);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	private synchronized void initialize() {
+		if (!initialized) {
+			initialized = true;
+			if (directory.isFile()) {
+				// previous versions serialized all configurations into a single file
+				StatusHandler.log(new Status(IStatus.INFO, BugzillaCorePlugin.ID_PLUGIN,
+						ERROR_INCOMPATIBLE_CONFIGURATION));
+				delete(directory);
+			}
+		}
+	}
+
+	private RepositoryConfiguration read(File file) {
+		try {
+			DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+			try {
+				if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+					StatusHandler.log(new Status(IStatus.INFO, BugzillaCorePlugin.ID_PLUGIN,
+							ERROR_INCOMPATIBLE_CONFIGURATION));
+				} else {
+					return RepositoryConfiguration.read(in);
+				}
+			} finally {
+				in.close();
+			}
+		} catch (Exception e) {
+			StatusHandler.log(new Status(IStatus.INFO, BugzillaCorePlugin.ID_PLUGIN, ERROR_INCOMPATIBLE_CONFIGURATION,
+					e));
+		}
+		delete(file);
+		return null;
+	}
+
+	private void delete(File file) {
+		if (file.exists() && !file.delete()) {
+			StatusHandler.log(new Status(IStatus.ERROR, BugzillaCorePlugin.ID_PLUGIN, ERROR_DELETING_CONFIGURATION
+					+ " " + file)); //$NON-NLS-1$
+		}
+	}
+
+	private File getFile(String repositoryUrl) {
+		String name;
+		try {
+			name = URLEncoder.encode(repositoryUrl, ENCODING);
+		} catch (UnsupportedEncodingException e) {
+			throw new IllegalStateException(e);
+		}
+		return new File(directory, name + FILE_EXTENSION);
+	}
+
+	static void writeString(DataOutput out, String value) throws IOException {
+		if (value == null) {
+			out.writeInt(-1);
+		} else {
+			// writeUTF() is limited to strings of 64k bytes
+			byte[] bytes = value.getBytes(ENCODING);
+			out.writeInt(bytes.length);
+			out.write(bytes);
+		}
+	}
+
+	static String readString(DataInput in) throws IOException {
+		int length = in.readInt();
+		if (length == -1) {
+			return null;
+		} else if (length < 0) {
+			throw new IOException("Invalid string length " + length); //$NON-NLS-1$
+		}
+		byte[] bytes = new byte[length];
+		in.readFully(bytes);
+		return new String(bytes, ENCODING);
+	}
+
+	static void writeStrings(DataOutput out, List<String> values) throws IOException {
+		out.writeInt(values.size());
+		for (String value : values) {
+			writeString(out, value);
+		}
+	}
+
+	static void readStrings(DataInput in, List<String> values) throws IOException {
+		int size = in.readInt();
+		for (int i = 0; i < size; i++) {
+			values.add(readString(in));
+		}
+	}
+
+}
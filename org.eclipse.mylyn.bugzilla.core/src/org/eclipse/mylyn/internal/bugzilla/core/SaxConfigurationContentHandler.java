@@ -623,6 +623,8 @@ public class SaxConfigurationContentHandler extends DefaultHandler {
 			}
 		}
 
+		configuration.updateIndex();
+
 		super.endDocument();
 	}
 }
@@ -11,11 +11,6 @@
 
 package org.eclipse.mylyn.internal.bugzilla.core;
 
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
-import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.io.Reader;
 import java.text.ParseException;
@@ -33,39 +28,95 @@ import org.eclipse.mylyn.commons.core.HtmlTag;
  */
 public class XmlCleaner {
 
-	public static BufferedReader clean(Reader in, File tempFile) {
-
-		HtmlStreamTokenizer tokenizer = new HtmlStreamTokenizer(in, null);
-		try {
-			BufferedWriter content = new BufferedWriter(new FileWriter(tempFile));
-			// Hack since HtmlStreamTokenizer not familiar with xml tag.
-			content.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>"); //$NON-NLS-1$
-			for (Token token = tokenizer.nextToken(); token.getType() != Token.EOF; token = tokenizer.nextToken()) {
-
-				if (token.getType() == Token.TAG) {
-					HtmlTag tag = (HtmlTag) token.getValue();
-					if (tag.getAttribute("resource") != null) { //$NON-NLS-1$
-						String resourceID = tag.getAttribute("resource"); //$NON-NLS-1$
-						tag.setAttribute("resource", resourceID.replace("&", "&amp;")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
-					}
-					if (tag.getAttribute("rdf:about") != null) { //$NON-NLS-1$
-						String resourceID = tag.getAttribute("rdf:about"); //$NON-NLS-1$
-						tag.setAttribute("rdf:about", resourceID.replace("&", "&amp;")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
-					}
-				}
-				if (!token.toString().startsWith("<?xml")) { //$NON-NLS-1$
-					content.append(token.toString());
+	private static final String XML_DECLARATION = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"; //$NON-NLS-1$
+
+	/**
+	 * Cleans the content of <code>in</code> while it is read from the returned reader.
+	 */
+	public static Reader clean(Reader in) {
+		return new CleaningReader(in);
+	}
+
+	/**
+	 * Returns the cleaned text of <code>token</code> or <code>null</code>, if the token should be skipped.
+	 */
+	private static String cleanToken(Token token) {
+		if (token.getType() == Token.TAG) {
+			HtmlTag tag = (HtmlTag) token.getValue();
+			if (tag.getAttribute("resource") != null) { //$NON-NLS-1$
+				String resourceID = tag.getAttribute("resource"); //$NON-NLS-1$
+				tag.setAttribute("resource", resourceID.replace("&", "&amp;")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			}
+			if (tag.getAttribute("rdf:about") != null) { //$NON-NLS-1$
+				String resourceID = tag.getAttribute("rdf:about"); //$NON-NLS-1$
+				tag.setAttribute("rdf:about", resourceID.replace("&", "&amp;")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			}
+		}
+		String value = token.toString();
+		return (value.startsWith("<?xml")) ? null : value; //$NON-NLS-1$
+	}
+
+	/**
+	 * Tokenizes the underlying reader on demand and only holds the text of the current token in memory.
+	 */
+	private static class CleaningReader extends Reader {
+
+		private final Reader in;
+
+		private final HtmlStreamTokenizer tokenizer;
+
+		private final StringBuilder buffer = new StringBuilder(XML_DECLARATION);
+
+		private int position;
+
+		private boolean eof;
+
+		public CleaningReader(Reader in) {
+			this.in = in;
+			this.tokenizer = new HtmlStreamTokenizer(in, null);
+		}
+
+		@Override
+		public int read(char[] cbuf, int off, int len) throws IOException {
+			if (len == 0) {
+				return 0;
+			}
+			while (position == buffer.length()) {
+				if (eof) {
+					return -1;
 				}
+				buffer.setLength(0);
+				position = 0;
+				fill();
 			}
-			content.flush();
-			content.close();
-			return new BufferedReader(new FileReader(tempFile));
-		} catch (IOException e) {
+			int count = Math.min(len, buffer.length() - position);
+			buffer.getChars(position, position + count, cbuf, off);
+			position += count;
+			return count;
+		}
 
-		} catch (ParseException e) {
+		private void fill() throws IOException {
+			Token token;
+			try {
+				token = tokenizer.nextToken();
+			} catch (ParseException e) {
+				throw new IOException(e.getMessage());
+			}
+			if (token.getType() == Token.EOF) {
+				eof = true;
+			} else {
+				String value = cleanToken(token);
+				if (value != null) {
+					buffer.append(value);
+				}
+			}
+		}
 
+		@Override
+		public void close() throws IOException {
+			in.close();
 		}
-		return null;
+
 	}
 
 }
@@ -0,0 +1,198 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Tasktop Technologies and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Tasktop Technologies - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.mylyn.bugzilla.tests.core;
+
+import java.io.File;
+import java.net.URLDecoder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.TestCase;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.mylyn.internal.bugzilla.core.BugzillaCorePlugin;
+import org.eclipse.mylyn.internal.bugzilla.core.BugzillaRepositoryConnector;
+import org.eclipse.mylyn.internal.bugzilla.core.IBugzillaConstants;
+import org.eclipse.mylyn.internal.tasks.core.TaskTask;
+import org.eclipse.mylyn.internal.tasks.core.sync.SynchronizationSession;
+import org.eclipse.mylyn.tasks.core.IRepositoryQuery;
+import org.eclipse.mylyn.tasks.core.ITask;
+import org.eclipse.mylyn.tasks.core.TaskRepository;
+import org.eclipse.mylyn.tasks.core.data.TaskAttributeMapper;
+import org.eclipse.mylyn.tasks.core.data.TaskData;
+import org.eclipse.mylyn.tasks.core.data.TaskDataCollector;
+import org.eclipse.mylyn.tasks.core.sync.ISynchronizationSession;
+
+/**
+ * Tests the detection of changed tasks in
+ * {@link BugzillaRepositoryConnector#preSynchronization(ISynchronizationSession, IProgressMonitor)} without a
+ * repository.
+ */
+public class BugzillaChangedTasksTest extends TestCase {
+
+	private static final String LIMIT = "&limit=";
+
+	private static final String BUG_ID = "&bug_id=";
+
+	private static final int TASK_COUNT = 2000;
+
+	/**
+	 * Returns the changed bugs of {@link #changedIds} for queries instead of searching a repository.
+	 */
+	private class StubConnector extends BugzillaRepositoryConnector {
+
+		private final List<String> queryUrls = new ArrayList<String>();
+
+		private final AtomicInteger runningQueries = new AtomicInteger();
+
+		private int maxRunningQueries;
+
+		public StubConnector(File repositoryConfigurationDirectory) {
+			super(repositoryConfigurationDirectory);
+		}
+
+		@Override
+		public IStatus performQuery(TaskRepository repository, IRepositoryQuery query,
+				TaskDataCollector resultCollector, ISynchronizationSession event, IProgressMonitor monitor) {
+			int running = runningQueries.incrementAndGet();
+			try {
+				synchronized (this) {
+					queryUrls.add(query.getUrl());
+					maxRunningQueries = Math.max(maxRunningQueries, running);
+				}
+				String url = query.getUrl();
+				List<String> ids = new ArrayList<String>();
+				if (url.contains(BUG_ID)) {
+					String idList = URLDecoder.decode(url.substring(url.indexOf(BUG_ID) + BUG_ID.length()), "UTF-8");
+					for (String id : idList.split(",")) {
+						if (changedIds.contains(id)) {
+							ids.add(id);
+						}
+					}
+				} else {
+					int limit = Integer.parseInt(url.substring(url.indexOf(LIMIT) + LIMIT.length()));
+					ids.addAll(changedIds.subList(0, Math.min(limit, changedIds.size())));
+				}
+				for (String id : ids) {
+					resultCollector.accept(new TaskData(new TaskAttributeMapper(repository),
+							repository.getConnectorKind(), repository.getRepositoryUrl(), id));
+				}
+				return Status.OK_STATUS;
+			} catch (Exception e) {
+				return new Status(IStatus.ERROR, BugzillaCorePlugin.ID_PLUGIN, "Unexpected error", e);
+			} finally {
+				runningQueries.decrementAndGet();
+			}
+		}
+
+		private List<String> getQueryUrls(boolean bulk) {
+			List<String> result = new ArrayList<String>();
+			for (String url : queryUrls) {
+				if (url.contains(BUG_ID) != bulk) {
+					result.add(url);
+				}
+			}
+			return result;
+		}
+
+	}
+
+	private final List<String> changedIds = new ArrayList<String>();
+
+	private StubConnector connector;
+
+	private TaskRepository repository;
+
+	private SynchronizationSession session;
+
+	@Override
+	protected void setUp() throws Exception {
+		// avoid registering the connector with the plug-in
+		connector = new StubConnector(new File(System.getProperty("java.io.tmpdir"), getClass().getName()));
+		repository = new TaskRepository(BugzillaCorePlugin.CONNECTOR_KIND, "http://mylyn.eclipse.org/bugzilla");
+		repository.setSynchronizationTimeStamp("2016-03-15 00:00:00");
+		Set<ITask> tasks = new HashSet<ITask>();
+		for (int i = 1; i <= TASK_COUNT; i++) {
+			tasks.add(new TaskTask(repository.getConnectorKind(), repository.getRepositoryUrl(), Integer.toString(i)));
+		}
+		session = new SynchronizationSession();
+		session.setTaskRepository(repository);
+		session.setTasks(tasks);
+	}
+
+	public void testBulkQuery() throws Exception {
+		// bugs that are not in the session are ignored
+		changedIds.addAll(Arrays.asList("5", "1500", "999999"));
+		connector.preSynchronization(session, new NullProgressMonitor());
+
+		assertEquals(1, connector.queryUrls.size());
+		assertTrue(connector.queryUrls.get(0).endsWith(LIMIT + 1000));
+		assertEquals(new HashSet<String>(Arrays.asList("5", "1500")), getStaleTaskIds());
+	}
+
+	public void testBulkQueryLimitReached() throws Exception {
+		for (int i = 0; i < 1000; i++) {
+			changedIds.add(Integer.toString(TASK_COUNT + i + 1));
+		}
+		changedIds.add("7");
+		connector.preSynchronization(session, new NullProgressMonitor());
+
+		// the results of the bulk query are incomplete, each chunk of task ids is queried instead
+		assertEquals(1, connector.getQueryUrls(true).size());
+		assertTrue(connector.getQueryUrls(false).size() > 1);
+		assertEquals(1, connector.maxRunningQueries);
+		assertEquals(new HashSet<String>(Arrays.asList("7")), getStaleTaskIds());
+	}
+
+	public void testBulkQueryMaxSearchResults() throws Exception {
+		repository.setProperty(IBugzillaConstants.BUGZILLA_PARAM_MAX_SEARCH_RESULTS, "100");
+		for (int i = 0; i < 100; i++) {
+			changedIds.add(Integer.toString(TASK_COUNT + i + 1));
+		}
+		changedIds.add("7");
+		connector.preSynchronization(session, new NullProgressMonitor());
+
+		// the repository returns at most max_search_results bugs which is less than the default limit
+		List<String> bulkUrls = connector.getQueryUrls(true);
+		assertEquals(1, bulkUrls.size());
+		assertTrue(bulkUrls.get(0).endsWith(LIMIT + 100));
+		assertTrue(connector.getQueryUrls(false).size() > 1);
+		assertEquals(new HashSet<String>(Arrays.asList("7")), getStaleTaskIds());
+	}
+
+	public void testBulkQueryMaxSearchResultsInvalid() throws Exception {
+		repository.setProperty(IBugzillaConstants.BUGZILLA_PARAM_MAX_SEARCH_RESULTS, "invalid");
+		connector.preSynchronization(session, new NullProgressMonitor());
+		assertTrue(connector.queryUrls.get(0).endsWith(LIMIT + 1000));
+
+		repository.setProperty(IBugzillaConstants.BUGZILLA_PARAM_MAX_SEARCH_RESULTS, "10000");
+		connector.queryUrls.clear();
+		connector.preSynchronization(session, new NullProgressMonitor());
+		assertTrue(connector.queryUrls.get(0).endsWith(LIMIT + 1000));
+	}
+
+	private Set<String> getStaleTaskIds() {
+		Set<String> taskIds = new HashSet<String>();
+		for (ITask task : session.getStaleTasks()) {
+			taskIds.add(task.getTaskId());
+		}
+		return taskIds;
+	}
+
+}
@@ -13,18 +13,31 @@ package org.eclipse.mylyn.bugzilla.tests.core;
 
 import java.io.BufferedReader;
 import java.io.File;
+import java.io.FileWriter;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Date;
 
 import junit.framework.TestCase;
 
+import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.mylyn.bugzilla.tests.support.BugzillaFixture;
 import org.eclipse.mylyn.commons.core.CoreUtil;
 import org.eclipse.mylyn.internal.bugzilla.core.BugzillaAttribute;
+import org.eclipse.mylyn.internal.bugzilla.core.BugzillaCorePlugin;
+import org.eclipse.mylyn.internal.bugzilla.core.BugzillaCustomField;
+import org.eclipse.mylyn.internal.bugzilla.core.BugzillaFlag;
 import org.eclipse.mylyn.internal.bugzilla.core.BugzillaRepositoryConnector;
 import org.eclipse.mylyn.internal.bugzilla.core.RepositoryConfiguration;
 import org.eclipse.mylyn.internal.bugzilla.core.SaxConfigurationContentHandler;
 import org.eclipse.mylyn.internal.bugzilla.core.XmlCleaner;
+import org.eclipse.mylyn.tasks.core.TaskRepository;
+import org.eclipse.mylyn.tasks.core.data.TaskAttribute;
+import org.eclipse.mylyn.tasks.core.data.TaskAttributeMapper;
+import org.eclipse.mylyn.tasks.core.data.TaskData;
 import org.xml.sax.ErrorHandler;
 import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
@@ -36,11 +49,27 @@ import org.xml.sax.XMLReader;
  */
 public class BugzillaConfigurationTest extends TestCase {
 
-	public void testRepositoryConfigurationCachePersistance() throws Exception {
-		File file = File.createTempFile("bugzilla", null);
-		file.deleteOnExit();
+	private File directory;
+
+	@Override
+	protected void setUp() throws Exception {
+		directory = File.createTempFile("bugzilla", null);
+		directory.delete();
+	}
 
-		BugzillaRepositoryConnector connector = new BugzillaRepositoryConnector(file);
+	@Override
+	protected void tearDown() throws Exception {
+		File[] files = directory.listFiles();
+		if (files != null) {
+			for (File file : files) {
+				file.delete();
+			}
+		}
+		directory.delete();
+	}
+
+	public void testRepositoryConfigurationCachePersistance() throws Exception {
+		BugzillaRepositoryConnector connector = new BugzillaRepositoryConnector(directory);
 		RepositoryConfiguration configuration1 = new RepositoryConfiguration();
 		configuration1.setRepositoryUrl("url1");
 		configuration1.addProduct("Test Product 1");
@@ -62,7 +91,7 @@ public class BugzillaConfigurationTest extends TestCase {
 		assertNull(connector.getRepositoryConfiguration(configuration1.getRepositoryUrl()));
 		assertNull(connector.getRepositoryConfiguration(configuration2.getRepositoryUrl()));
 
-		connector = new BugzillaRepositoryConnector(file);
+		connector = new BugzillaRepositoryConnector(directory);
 		connector.readRepositoryConfigurationFile();
 		assertNotNull(connector.getRepositoryConfiguration(configuration1.getRepositoryUrl()));
 		assertNotNull(connector.getRepositoryConfiguration(configuration2.getRepositoryUrl()));
@@ -72,6 +101,163 @@ public class BugzillaConfigurationTest extends TestCase {
 				testLoadedConfig.getOptionValues(BugzillaAttribute.PRODUCT).get(0));
 	}
 
+	public void testRepositoryConfigurationCacheReadLazily() throws Exception {
+		BugzillaRepositoryConnector connector = new BugzillaRepositoryConnector(directory);
+		RepositoryConfiguration configuration = new RepositoryConfiguration();
+		configuration.setRepositoryUrl("http://mylyn.org/bugzilla?a=b");
+		configuration.addProduct("Product");
+		connector.addRepositoryConfiguration(configuration);
+		connector.writeRepositoryConfigFile();
+		assertEquals(1, directory.listFiles().length);
+
+		connector = new BugzillaRepositoryConnector(directory);
+		assertNull(connector.getRepositoryConfiguration("http://mylyn.org/other"));
+		RepositoryConfiguration loadedConfiguration = connector.getRepositoryConfiguration(configuration.getRepositoryUrl());
+		assertNotNull(loadedConfiguration);
+		assertEquals(Arrays.asList("Product"), loadedConfiguration.getProducts());
+	}
+
+	public void testRepositoryConfigurationCacheReplace() throws Exception {
+		BugzillaRepositoryConnector connector = new BugzillaRepositoryConnector(directory);
+		RepositoryConfiguration configuration = new RepositoryConfiguration();
+		configuration.setRepositoryUrl("http://mylyn.org/bugzilla");
+		configuration.addProduct("Product");
+		connector.addRepositoryConfiguration(configuration);
+		connector.writeRepositoryConfigFile();
+
+		RepositoryConfiguration changedConfiguration = new RepositoryConfiguration();
+		changedConfiguration.setRepositoryUrl("http://mylyn.org/bugzilla");
+		changedConfiguration.addProduct("Changed Product");
+		connector.addRepositoryConfiguration(changedConfiguration);
+		connector.writeRepositoryConfigFile();
+		// the temporary file replaces the previous file
+		assertEquals(1, directory.listFiles().length);
+
+		connector = new BugzillaRepositoryConnector(directory);
+		RepositoryConfiguration loadedConfiguration = connector.getRepositoryConfiguration("http://mylyn.org/bugzilla");
+		assertEquals(Arrays.asList("Changed Product"), loadedConfiguration.getProducts());
+	}
+
+	public void testRepositoryConfigurationCacheAllFields() throws Exception {
+		RepositoryConfiguration configuration = new RepositoryConfiguration();
+		configuration.setRepositoryUrl("url1");
+		configuration.setInstallVersion("4.4.2");
+		configuration.setEncoding("UTF-8");
+		configuration.setETagValue("etag");
+		configuration.setLastModifiedHeader(new Date(1000));
+		configuration.addProduct("Product");
+		configuration.addItem2ProductConfiguration(BugzillaAttribute.COMPONENT, "Product", "Component");
+		configuration.addItem2ProductConfiguration(BugzillaAttribute.VERSION, "Product", "1.0");
+		configuration.addItem2ProductConfiguration(BugzillaAttribute.TARGET_MILESTONE, "Product", "M1");
+		configuration.setDefaultMilestone("Product", "M1");
+		configuration.addUnconfirmedAllowed("Product", true);
+		configuration.addItem(BugzillaAttribute.BUG_SEVERITY, "major");
+		configuration.addItem(BugzillaAttribute.PRIORITY, "P1");
+		configuration.addItem(BugzillaAttribute.KEYWORDS, "helpwanted");
+		configuration.addOpenStatusValue("NEW");
+		BugzillaCustomField field = new BugzillaCustomField("Description", "cf_field", "2", "1");
+		field.addOption("one");
+		configuration.addCustomField(field);
+		BugzillaFlag flag = new BugzillaFlag("review", "Review", "bug", "1", "0", "1", 7);
+		flag.addUsed("Product", "Component");
+		configuration.addFlag(flag);
+		File transitionsFile = new File(directory.getParentFile(), directory.getName() + ".transitions");
+		Writer writer = new FileWriter(transitionsFile);
+		try {
+			writer.write("DuplicateStatus=VERIFIED\n");
+			writer.write("ClosedCustomStatus=VERIFIED\n");
+			writer.write("<transitions>\n");
+			writer.write("status:NEW:transitions:ASSIGNED,VERIFIED\n");
+			writer.write("status:VERIFIED:transitions:NEW\n");
+		} finally {
+			writer.close();
+		}
+		try {
+			configuration.setValidTransitions(new NullProgressMonitor(), transitionsFile.getAbsolutePath(), null);
+		} finally {
+			transitionsFile.delete();
+		}
+		assertEquals("VERIFIED", configuration.getDuplicateStatus());
+
+		BugzillaRepositoryConnector connector = new BugzillaRepositoryConnector(directory);
+		connector.addRepositoryConfiguration(configuration);
+		connector.writeRepositoryConfigFile();
+
+		connector = new BugzillaRepositoryConnector(directory);
+		RepositoryConfiguration loaded = connector.getRepositoryConfiguration("url1");
+		assertEquals("4.4.2", loaded.getInstallVersion().toString());
+		assertEquals("UTF-8", loaded.getEncoding());
+		assertEquals("etag", loaded.getETagValue());
+		assertEquals(new Date(1000), loaded.getLastModifiedHeader());
+		assertEquals(Arrays.asList("Component"), loaded.getComponents("Product"));
+		assertEquals(Arrays.asList("1.0"), loaded.getVersions("Product"));
+		assertEquals(Arrays.asList("M1"), loaded.getTargetMilestones("Product"));
+		assertEquals("M1", loaded.getDefaultMilestones("Product"));
+		assertTrue(loaded.getUnconfirmedAllowed("Product"));
+		assertEquals(Arrays.asList("major"), loaded.getSeverities());
+		assertEquals(Arrays.asList("P1"), loaded.getPriorities());
+		assertEquals(Arrays.asList("helpwanted"), loaded.getKeywords());
+		assertEquals(Arrays.asList("NEW"), loaded.getOpenStatusValues());
+		assertEquals(1, loaded.getCustomFields().size());
+		BugzillaCustomField loadedField = loaded.getCustomFields().get(0);
+		assertEquals("cf_field", loadedField.getName());
+		assertEquals("Description", loadedField.getDescription());
+		assertEquals(BugzillaCustomField.FieldType.DropDown, loadedField.getFieldType());
+		assertTrue(loadedField.isEnterBug());
+		assertEquals(Arrays.asList("one"), loadedField.getOptions());
+		BugzillaFlag loadedFlag = loaded.getFlagWithId(7);
+		assertEquals("review", loadedFlag.getName());
+		assertTrue(loadedFlag.isRequestable());
+		assertFalse(loadedFlag.isSpecifically_requestable());
+		assertTrue(loadedFlag.isMultiplicable());
+		assertTrue(loadedFlag.isUsedIn("Product", "Component"));
+		assertEquals("VERIFIED", loaded.getDuplicateStatus());
+		assertEquals(Arrays.asList("VERIFIED"), loaded.getClosedStatusValues());
+	}
+
+	public void testRepositoryConfigurationCacheDiscardsLegacyFile() throws Exception {
+		assertTrue(directory.createNewFile());
+
+		BugzillaRepositoryConnector connector = new BugzillaRepositoryConnector(directory);
+		assertNull(connector.getRepositoryConfiguration("url1"));
+		RepositoryConfiguration configuration = new RepositoryConfiguration();
+		configuration.setRepositoryUrl("url1");
+		connector.addRepositoryConfiguration(configuration);
+		connector.writeRepositoryConfigFile();
+		assertTrue(directory.isDirectory());
+	}
+
+	public void testAttributeOptionsOfCustomFieldsAndFlags() {
+		RepositoryConfiguration configuration = new RepositoryConfiguration();
+		BugzillaCustomField field = new BugzillaCustomField("Description", "cf_field", "2", "1");
+		field.addOption("one");
+		field.addOption("two");
+		configuration.addCustomField(field);
+		BugzillaFlag review = new BugzillaFlag("review", "Review", "bug", "1", "0", "1", 7);
+		configuration.addFlag(review);
+
+		TaskRepository repository = new TaskRepository(BugzillaCorePlugin.CONNECTOR_KIND, "http://url");
+		TaskData taskData = new TaskData(new TaskAttributeMapper(repository), BugzillaCorePlugin.CONNECTOR_KIND,
+				repository.getRepositoryUrl(), "1");
+		TaskAttribute fieldAttribute = taskData.getRoot().createAttribute("cf_field");
+		assertEquals(Arrays.asList("one", "two"), configuration.getAttributeOptions("Product", fieldAttribute));
+		TaskAttribute reviewAttribute = taskData.getRoot().createAttribute(BugzillaAttribute.KIND_FLAG + "1");
+		reviewAttribute.createAttribute("state").getMetaData().setLabel("review");
+		assertEquals(Arrays.asList("", "?", "+", "-"), configuration.getAttributeOptions("Product", reviewAttribute));
+		assertSame(review, configuration.getFlagWithId(7));
+
+		// lookups reflect fields and flags that are added later
+		configuration.addCustomField(new BugzillaCustomField("Other", "cf_other", "2", "1"));
+		BugzillaFlag approval = new BugzillaFlag("approval", "Approval", "bug", "0", "0", "1", 8);
+		configuration.addFlag(approval);
+		TaskAttribute otherAttribute = taskData.getRoot().createAttribute("cf_other");
+		assertTrue(configuration.getAttributeOptions("Product", otherAttribute).isEmpty());
+		TaskAttribute approvalAttribute = taskData.getRoot().createAttribute(BugzillaAttribute.KIND_FLAG + "2");
+		approvalAttribute.createAttribute("state").getMetaData().setLabel("approval");
+		assertEquals(Arrays.asList("", "+", "-"), configuration.getAttributeOptions("Product", approvalAttribute));
+		assertSame(approval, configuration.getFlagWithId(8));
+	}
+
 	public void testNullCacheFile() {
 		BugzillaRepositoryConnector connector = new BugzillaRepositoryConnector();
 		connector.readRepositoryConfigurationFile();
@@ -109,22 +295,9 @@ public class BugzillaConfigurationTest extends TestCase {
 	 * included (rdfconfig218.txt) is from mylyn.eclipse.org/bugs218
 	 */
 	public void testRepositoryConfigurationFromFile() throws Exception {
-		BufferedReader inCleaned = null;
+		InputStream stream = BugzillaFixture.getResource("testdata/configuration/rdfconfig218.txt");
+		Reader inCleaned = XmlCleaner.clean(new BufferedReader(new InputStreamReader(stream)));
 		try {
-			File tempFile = File.createTempFile("XmlCleaner-", "tmp");
-			tempFile.deleteOnExit();
-
-			InputStream stream = BugzillaFixture.getResource("testdata/configuration/rdfconfig218.txt");
-			BufferedReader in = new BufferedReader(new InputStreamReader(stream));
-			try {
-				inCleaned = XmlCleaner.clean(in, tempFile);
-				if (tempFile != null) {
-					tempFile.delete();
-				}
-			} finally {
-				in.close();
-			}
-
 			SaxConfigurationContentHandler contentHandler = new SaxConfigurationContentHandler();
 			final XMLReader reader = CoreUtil.newXmlReader();
 			reader.setContentHandler(contentHandler);
@@ -149,9 +322,7 @@ public class BugzillaConfigurationTest extends TestCase {
 			assertTrue(config.getOptionValues(BugzillaAttribute.PRODUCT).contains(
 					"Test-Long-Named-Product-AAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAA"));
 		} finally {
-			if (inCleaned != null) {
-				inCleaned.close();
-			}
+			inCleaned.close();
 		}
 	}
 }
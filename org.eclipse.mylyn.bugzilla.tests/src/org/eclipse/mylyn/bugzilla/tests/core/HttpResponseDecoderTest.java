@@ -0,0 +1,113 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Tasktop Technologies and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Tasktop Technologies - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.mylyn.bugzilla.tests.core;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import junit.framework.TestCase;
+
+import org.eclipse.mylyn.internal.bugzilla.core.HttpResponseDecoder;
+
+public class HttpResponseDecoderTest extends TestCase {
+
+	private static final String XML = "<?xml version=\"1.0\" encoding=\"UTF-8\"?><rdf:RDF></rdf:RDF>";
+
+	public void testDecodeUncompressed() throws Exception {
+		assertEquals(XML, read(HttpResponseDecoder.decode(stream(XML.getBytes("UTF-8")), null, "text/xml")));
+	}
+
+	public void testDecodeGzip() throws Exception {
+		byte[] compressed = gzip(XML.getBytes("UTF-8"));
+		assertEquals(XML, read(HttpResponseDecoder.decode(stream(compressed), "gzip", "text/xml")));
+		assertEquals(XML, read(HttpResponseDecoder.decode(stream(compressed), null, "application/x-gzip")));
+	}
+
+	public void testDecodeGzipNotCompressed() throws Exception {
+		assertEquals(XML, read(HttpResponseDecoder.decode(stream(XML.getBytes("UTF-8")), "gzip", "text/xml")));
+	}
+
+	public void testDecodeDeflate() throws Exception {
+		byte[] compressed = deflate(XML.getBytes("UTF-8"), false);
+		assertEquals(XML, read(HttpResponseDecoder.decode(stream(compressed), "deflate", "text/xml")));
+	}
+
+	public void testDecodeRawDeflate() throws Exception {
+		byte[] compressed = deflate(XML.getBytes("UTF-8"), true);
+		assertEquals(XML, read(HttpResponseDecoder.decode(stream(compressed), "deflate", "text/xml")));
+	}
+
+	public void testSniffContentType() throws Exception {
+		InputStream in = HttpResponseDecoder.decode(stream(gzip(XML.getBytes("UTF-8"))), "gzip", null);
+		assertEquals(HttpResponseDecoder.CONTENT_TYPE_XML, HttpResponseDecoder.sniffContentType(in));
+		// the look-ahead does not consume the content
+		assertEquals(XML, read(in));
+
+		assertEquals(HttpResponseDecoder.CONTENT_TYPE_HTML,
+				sniff("\n  <!DOCTYPE html PUBLIC \"-//W3C//DTD HTML 4.01//EN\"><html></html>"));
+		assertEquals(HttpResponseDecoder.CONTENT_TYPE_HTML,
+				sniff("<?xml version=\"1.0\"?>\n<!DOCTYPE html><html></html>"));
+		assertEquals(HttpResponseDecoder.CONTENT_TYPE_XML, sniff("\u00ef\u00bb\u00bf<bugzilla version=\"4.4\">"));
+		assertNull(sniff("plain text"));
+		assertNull(sniff(""));
+	}
+
+	public void testGetCharset() {
+		assertEquals("UTF-8", HttpResponseDecoder.getCharset("text/html; charset=UTF-8"));
+		assertEquals("ISO-8859-1", HttpResponseDecoder.getCharset("text/xml;Charset=\"ISO-8859-1\""));
+		assertNull(HttpResponseDecoder.getCharset("text/xml"));
+		assertNull(HttpResponseDecoder.getCharset("text/xml; charset=unknown-charset"));
+		assertNull(HttpResponseDecoder.getCharset(null));
+	}
+
+	private String sniff(String content) throws IOException {
+		return HttpResponseDecoder.sniffContentType(
+				HttpResponseDecoder.decode(stream(content.getBytes("ISO-8859-1")), null, null));
+	}
+
+	private InputStream stream(byte[] data) {
+		return new ByteArrayInputStream(data);
+	}
+
+	private byte[] gzip(byte[] data) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		GZIPOutputStream gzip = new GZIPOutputStream(out);
+		gzip.write(data);
+		gzip.close();
+		return out.toByteArray();
+	}
+
+	private byte[] deflate(byte[] data, boolean raw) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		DeflaterOutputStream deflate = new DeflaterOutputStream(out, new Deflater(Deflater.DEFAULT_COMPRESSION, raw));
+		deflate.write(data);
+		deflate.close();
+		return out.toByteArray();
+	}
+
+	private String read(InputStream in) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		byte[] buffer = new byte[1024];
+		int count;
+		while ((count = in.read(buffer)) != -1) {
+			out.write(buffer, 0, count);
+		}
+		in.close();
+		return out.toString("UTF-8");
+	}
+
+}
@@ -0,0 +1,125 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Tasktop Technologies and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Tasktop Technologies - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.mylyn.bugzilla.tests.core;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.parsers.SAXParserFactory;
+
+import junit.framework.TestCase;
+
+import org.eclipse.mylyn.internal.bugzilla.core.XmlCleaner;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+public class XmlCleanerTest extends TestCase {
+
+	private static final String XML_DECLARATION = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>";
+
+	private static final String RDF = "<?xml version=\"1.0\" encoding=\"ISO-8859-1\"?>" //
+			+ "<rdf:RDF>" //
+			+ "<products><li><product rdf:about=\"http://mylyn.org/product.cgi?id=1&name=One\">" //
+			+ "<name>Product \u00fcnicode</name></product></li></products>" //
+			+ "<components><li><component resource=\"http://mylyn.org/component.cgi?id=2&name=Two\"/></li>" //
+			+ "</components></rdf:RDF>";
+
+	private static class TrackingReader extends StringReader {
+
+		private boolean closed;
+
+		public TrackingReader(String s) {
+			super(s);
+		}
+
+		@Override
+		public void close() {
+			closed = true;
+			super.close();
+		}
+
+	}
+
+	public void testCleanEscapesAttributes() throws Exception {
+		final List<String> values = new ArrayList<String>();
+		final StringBuilder text = new StringBuilder();
+		SAXParserFactory.newInstance().newSAXParser().parse(new InputSource(XmlCleaner.clean(new StringReader(RDF))),
+				new DefaultHandler() {
+					@Override
+					public void startElement(String uri, String localName, String qName, Attributes attributes)
+							throws SAXException {
+						for (int i = 0; i < attributes.getLength(); i++) {
+							values.add(attributes.getValue(i));
+						}
+					}
+
+					@Override
+					public void characters(char[] ch, int start, int length) throws SAXException {
+						text.append(ch, start, length);
+					}
+				});
+		// the unescaped ampersands would cause the parser to fail
+		assertTrue(values.toString(), values.contains("http://mylyn.org/product.cgi?id=1&name=One"));
+		assertTrue(values.toString(), values.contains("http://mylyn.org/component.cgi?id=2&name=Two"));
+		assertEquals("Product \u00fcnicode", text.toString());
+	}
+
+	public void testCleanReplacesDeclaration() throws Exception {
+		String cleaned = read(XmlCleaner.clean(new StringReader(RDF)), 8192);
+		assertTrue(cleaned, cleaned.startsWith(XML_DECLARATION));
+		assertEquals(cleaned, cleaned.indexOf("<?xml"), cleaned.lastIndexOf("<?xml"));
+	}
+
+	public void testCleanEmpty() throws Exception {
+		assertEquals(XML_DECLARATION, read(XmlCleaner.clean(new StringReader("")), 8192));
+	}
+
+	public void testReadSingleCharacters() throws Exception {
+		// the result does not depend on how much is read at a time
+		assertEquals(read(XmlCleaner.clean(new StringReader(RDF)), 8192),
+				read(XmlCleaner.clean(new StringReader(RDF)), 1));
+	}
+
+	public void testReadZeroLength() throws Exception {
+		Reader reader = XmlCleaner.clean(new StringReader(RDF));
+		assertEquals(0, reader.read(new char[1], 0, 0));
+		assertEquals('<', reader.read());
+	}
+
+	public void testCloseClosesReader() throws Exception {
+		TrackingReader in = new TrackingReader(RDF);
+		XmlCleaner.clean(in).close();
+		assertTrue(in.closed);
+	}
+
+	private String read(Reader reader, int bufferSize) throws IOException {
+		try {
+			StringBuilder sb = new StringBuilder();
+			char[] buffer = new char[bufferSize];
+			int count;
+			while ((count = reader.read(buffer)) != -1) {
+				sb.append(buffer, 0, count);
+			}
+			// end of stream is reported consistently
+			assertEquals(-1, reader.read(buffer));
+			return sb.toString();
+		} finally {
+			reader.close();
+		}
+	}
+
+}
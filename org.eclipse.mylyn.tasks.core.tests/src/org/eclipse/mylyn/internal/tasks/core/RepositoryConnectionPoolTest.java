@@ -0,0 +1,102 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Tasktop Technologies and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Tasktop Technologies - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.mylyn.internal.tasks.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.httpclient.HttpConnectionManager;
+import org.eclipse.mylyn.internal.tasks.core.RepositoryConnectionPool.Statistics;
+import org.junit.After;
+import org.junit.Test;
+
+public class RepositoryConnectionPoolTest {
+
+	private static final String URL_1 = "http://one";
+
+	private static final String URL_2 = "http://two";
+
+	private final RepositoryConnectionPool pool = new RepositoryConnectionPool();
+
+	@After
+	public void tearDown() {
+		pool.dispose();
+	}
+
+	@Test
+	public void testConnectionManagerIsSharedPerRepository() {
+		assertSame(pool.getConnectionManager(URL_1), pool.getConnectionManager(URL_1));
+		assertNotSame(pool.getConnectionManager(URL_1), pool.getConnectionManager(URL_2));
+	}
+
+	@Test
+	public void testConfigure() {
+		assertEquals(RepositoryConnectionPool.DEFAULT_MAX_CONNECTIONS, pool.getMaxConnections(URL_1));
+
+		pool.configure(URL_1, Collections.singletonMap(IRepositoryConstants.PROPERTY_MAX_CONNECTIONS, "3"));
+		assertEquals(3, pool.getMaxConnections(URL_1));
+		assertEquals(RepositoryConnectionPool.DEFAULT_MAX_CONNECTIONS, pool.getMaxConnections(URL_2));
+
+		pool.configure(URL_1, Collections.singletonMap(IRepositoryConstants.PROPERTY_MAX_CONNECTIONS, "0"));
+		assertEquals(1, pool.getMaxConnections(URL_1));
+
+		pool.configure(URL_1, Collections.singletonMap(IRepositoryConstants.PROPERTY_MAX_CONNECTIONS, "invalid"));
+		assertEquals(RepositoryConnectionPool.DEFAULT_MAX_CONNECTIONS, pool.getMaxConnections(URL_1));
+	}
+
+	@Test
+	public void testGetStatistics() {
+		assertNull(pool.getStatistics(URL_1));
+
+		pool.setMaxConnections(URL_2, 2);
+		pool.getConnectionManager(URL_1);
+		List<Statistics> statistics = pool.getStatistics();
+		assertEquals(2, statistics.size());
+		assertEquals(URL_1, statistics.get(0).getRepositoryUrl());
+		assertEquals(RepositoryConnectionPool.DEFAULT_MAX_CONNECTIONS, statistics.get(0).getMaxConnections());
+		assertEquals(0, statistics.get(0).getOpenConnections());
+		assertEquals(0, statistics.get(0).getRequests());
+		assertEquals(URL_2, statistics.get(1).getRepositoryUrl());
+		assertEquals(2, statistics.get(1).getMaxConnections());
+	}
+
+	@Test
+	public void testRemove() {
+		pool.setMaxConnections(URL_1, 3);
+		HttpConnectionManager manager = pool.getConnectionManager(URL_1);
+		pool.getConnectionManager(URL_2);
+
+		pool.remove(URL_1);
+		assertNull(pool.getStatistics(URL_1));
+		assertEquals(1, pool.getStatistics().size());
+		// a new manager with default settings is created on demand
+		assertNotSame(manager, pool.getConnectionManager(URL_1));
+		assertEquals(RepositoryConnectionPool.DEFAULT_MAX_CONNECTIONS, pool.getMaxConnections(URL_1));
+
+		// removing an unknown repository has no effect
+		pool.remove("http://unknown");
+		assertEquals(2, pool.getStatistics().size());
+	}
+
+	@Test
+	public void testSetIdleTimeout() {
+		pool.setIdleTimeout(1000);
+		pool.getConnectionManager(URL_1);
+		assertEquals(1000, pool.getIdleTimeout());
+	}
+
+}
@@ -14,9 +14,13 @@ package org.eclipse.mylyn.internal.tasks.core.data;
 import static java.lang.String.format;
 import static java.util.stream.Collectors.toList;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
@@ -31,14 +35,18 @@ import java.util.concurrent.CyclicBarrier;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
 import java.util.zip.ZipOutputStream;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.mylyn.internal.tasks.core.TaskRepositoryManager;
+import org.eclipse.mylyn.tasks.core.AbstractRepositoryConnector;
+import org.eclipse.mylyn.tasks.core.IRepositoryManager;
 import org.eclipse.mylyn.tasks.core.TaskRepository;
 import org.eclipse.mylyn.tasks.core.data.ITaskDataWorkingCopy;
 import org.eclipse.mylyn.tasks.core.data.TaskAttributeMapper;
@@ -172,7 +180,189 @@ public class TaskDataStoreTest {
 		assertNoFailures(failures);
 	}
 
+	@Test
+	public void prefetchedStateIsReadOnce() throws Exception {
+		File file = newTaskDataZipFile();
+		AtomicInteger reads = new AtomicInteger();
+		TaskDataStore store = newTaskDataStore(reads);
+
+		assertTrue(store.prefetch(file));
+		assertTrue(store.isPrefetched(file));
+		assertFalse(store.prefetch(file));
+		assertEquals(1, reads.get());
+
+		assertEquals(TEST_STATE, store.getTaskDataState(file));
+		assertEquals(1, reads.get());
+		assertFalse(store.isPrefetched(file));
+		assertEquals(0, store.getPrefetchedSize());
+
+		// prefetched states are handed out once since callers modify them
+		store.getTaskDataState(file);
+		assertEquals(2, reads.get());
+	}
+
+	@Test
+	public void prefetchedStateIsDiscardedOnWrite() throws Exception {
+		File file = newTaskDataZipFile();
+		AtomicInteger reads = new AtomicInteger();
+		TaskDataStore store = newTaskDataStore(reads);
+
+		assertTrue(store.prefetch(file));
+		store.putTaskData(file, TEST_STATE);
+		assertFalse(store.isPrefetched(file));
+
+		store.getTaskDataState(file);
+		assertEquals(2, reads.get());
+	}
+
+	@Test
+	public void prefetchedStateIsDiscardedOnDelete() throws Exception {
+		File file = newTaskDataZipFile();
+		TaskDataStore store = newTaskDataStore();
+
+		assertTrue(store.prefetch(file));
+		store.deleteTaskData(file);
+		assertFalse(store.isPrefetched(file));
+		assertEquals(null, store.getTaskDataState(file));
+	}
+
+	@Test
+	public void prefetchWithinBudget() throws Exception {
+		File file = newTaskDataZipFile();
+		TaskDataStore store = newTaskDataStore();
+
+		store.setPrefetchBudget(0);
+		assertFalse(store.prefetch(file));
+
+		store.setPrefetchBudget(1024);
+		assertTrue(store.prefetch(file));
+		assertTrue(store.getPrefetchedSize() > 0);
+
+		store.setPrefetchBudget(1);
+		assertFalse(store.isPrefetched(file));
+		assertEquals(0, store.getPrefetchedSize());
+	}
+
+	@Test
+	public void fingerprintReflectsContent() throws Exception {
+		TaskDataStore store = new TaskDataStore(new TaskDataExternalizer(null));
+		TaskData data = newTaskData();
+		data.getRoot().createAttribute("summary").setValue("Summary");
+		TaskData copy = newTaskData();
+		copy.getRoot().createAttribute("summary").setValue("Summary");
+
+		assertEquals(store.getFingerprint(data), store.getFingerprint(copy));
+
+		copy.getRoot().getAttribute("summary").setValue("Changed");
+		assertFalse(store.getFingerprint(data) == store.getFingerprint(copy));
+	}
+
+	@Test
+	public void hasRepositoryData() throws Exception {
+		File file = new File(folder.getRoot(), "data.zip");
+		TaskDataStore store = new TaskDataStore(new TaskDataExternalizer(newRepositoryManager()));
+		TaskData data = newTaskData();
+		data.getRoot().createAttribute("summary").setValue("Summary");
+		long fingerprint = store.getFingerprint(data);
+
+		assertFalse(store.hasRepositoryData(file, fingerprint));
+
+		store.putTaskData(file, data, fingerprint, false, false);
+		assertTrue(store.hasRepositoryData(file, fingerprint));
+
+		// the fingerprint is read from the file if not known
+		assertTrue(new TaskDataStore(new TaskDataExternalizer(newRepositoryManager())).hasRepositoryData(file,
+				fingerprint));
+
+		TaskData changedData = newTaskData();
+		changedData.getRoot().createAttribute("summary").setValue("Changed");
+		store.putTaskData(file, changedData, false, false);
+		assertFalse(store.hasRepositoryData(file, fingerprint));
+		assertTrue(store.hasRepositoryData(file, store.getFingerprint(changedData)));
+
+		store.deleteTaskData(file);
+		assertFalse(store.hasRepositoryData(file, store.getFingerprint(changedData)));
+	}
+
+	@Test
+	public void fingerprintIsStoredWithTaskData() throws Exception {
+		File file = new File(folder.getRoot(), "data.zip");
+		TaskDataStore store = new TaskDataStore(new TaskDataExternalizer(newRepositoryManager()));
+		TaskData data = newTaskData();
+		data.getRoot().createAttribute("summary").setValue("Summary");
+		long fingerprint = store.getFingerprint(data);
+		store.putTaskData(file, data, fingerprint, false, false);
+
+		// the fingerprint is read from the start of the file without parsing the task data
+		TaskDataStore otherStore = new TaskDataStore(new TaskDataExternalizer(newRepositoryManager()) {
+			@Override
+			public TaskDataState readState(InputStream in) throws IOException, SAXException {
+				throw new AssertionError("Unexpected read of task data");
+			}
+		});
+		assertTrue(otherStore.hasRepositoryData(file, fingerprint));
+		assertFalse(otherStore.hasRepositoryData(file, fingerprint + 1));
+
+		TaskData changedData = newTaskData();
+		changedData.getRoot().createAttribute("summary").setValue("Changed");
+		store.putTaskData(file, changedData, false, false);
+		try (InputStream in = newZipEntryStream(file)) {
+			assertEquals(null, new TaskDataExternalizer(null).readFingerprint(in));
+		}
+	}
+
+	@Test
+	public void fingerprintIsResetWhenRepositoryDataChanges() {
+		TaskDataState state = new TaskDataState("connectorKind", "repositoryUrl", "taskId");
+		state.setRepositoryData(newTaskData());
+		state.setRepositoryDataFingerprint(1L);
+		state.setEditsData(newTaskData());
+		assertEquals(Long.valueOf(1L), state.getRepositoryDataFingerprint());
+
+		state.setRepositoryData(newTaskData());
+		assertEquals(null, state.getRepositoryDataFingerprint());
+	}
+
+	@Test
+	public void putTaskDataOfDifferentTasksInParallel() throws Exception {
+		// each write waits for the other one, this only completes if both files are written at the same time
+		CyclicBarrier writers = new CyclicBarrier(2);
+		TaskDataStore store = new TaskDataStore(new TaskDataExternalizer(new TaskRepositoryManager()) {
+			@Override
+			public void writeState(OutputStream out, ITaskDataWorkingCopy state) throws IOException {
+				try {
+					writers.await(10, TimeUnit.SECONDS);
+				} catch (Exception e) {
+					throw new IOException(e);
+				}
+				out.write(DATA_XML_CONTENT.getBytes(Charsets.UTF_8));
+			}
+		});
+		File file1 = new File(folder.getRoot(), "1.zip");
+		File file2 = newFileWithDifferentLock(store, file1);
+
+		List<Throwable> failures = runConcurrently(store, s -> s.putTaskData(file1, TASK_DATA, false, false),
+				s -> s.putTaskData(file2, TASK_DATA, false, false));
+
+		assertNoFailures(failures);
+		assertTrue(file1.exists());
+		assertTrue(file2.exists());
+	}
+
+	private File newFileWithDifferentLock(TaskDataStore store, File file) {
+		for (int i = 2;; i++) {
+			File otherFile = new File(folder.getRoot(), i + ".zip");
+			if (store.getLock(otherFile) != store.getLock(file)) {
+				return otherFile;
+			}
+		}
+	}
+
 	private static TaskDataStore newTaskDataStore() {
+		return newTaskDataStore(new AtomicInteger());
+	}
+
+	private static TaskDataStore newTaskDataStore(AtomicInteger reads) {
 		TaskRepositoryManager manager = new TaskRepositoryManager();
 		TaskDataExternalizer externalizer = new TaskDataExternalizer(manager) {
 			@Override
@@ -182,6 +372,7 @@ public class TaskDataStoreTest {
 				in.close();
 				// pretend that reading state takes more than the blink of an eye
 				sleep();
+				reads.incrementAndGet();
 				return TEST_STATE;
 			};
 
@@ -216,6 +407,21 @@ public class TaskDataStoreTest {
 		return file;
 	}
 
+	private static IRepositoryManager newRepositoryManager() {
+		IRepositoryManager manager = mock(IRepositoryManager.class);
+		AbstractRepositoryConnector connector = mock(AbstractRepositoryConnector.class);
+		when(manager.getRepositoryConnector("connectorKind")).thenReturn(connector);
+		when(manager.getRepository("connectorKind", "repositoryUrl"))
+				.thenReturn(new TaskRepository("connectorKind", "repositoryUrl"));
+		return manager;
+	}
+
+	private static InputStream newZipEntryStream(File file) throws IOException {
+		ZipInputStream in = new ZipInputStream(new FileInputStream(file));
+		in.getNextEntry();
+		return in;
+	}
+
 	private static TaskData newTaskData() {
 		TaskRepository repository = new TaskRepository("connectorKind", "repositoryUrl");
 		TaskAttributeMapper mapper = new TaskAttributeMapper(repository);
@@ -272,7 +478,12 @@ public class TaskDataStoreTest {
 	@SafeVarargs
 	private static List<Throwable> runConcurrently(ConsumerWithCoreException<TaskDataStore>... consumers)
 			throws Exception {
-		TaskDataStore store = newTaskDataStore();
+		return runConcurrently(newTaskDataStore(), consumers);
+	}
+
+	@SafeVarargs
+	private static List<Throwable> runConcurrently(TaskDataStore store,
+			ConsumerWithCoreException<TaskDataStore>... consumers) throws Exception {
 		CyclicBarrier barrier = new CyclicBarrier(consumers.length + 1);
 		List<Throwable> failures = new ArrayList<>(consumers.length);
 
@@ -0,0 +1,58 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Tasktop Technologies and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Tasktop Technologies - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.mylyn.internal.tasks.core.sync;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.util.Date;
+
+import org.eclipse.mylyn.tasks.core.ITask;
+import org.junit.Test;
+
+public class SynchronizationSessionTest {
+
+	private final SynchronizationSession session = new SynchronizationSession();
+
+	private final ITask task = mock(ITask.class);
+
+	@Test
+	public void testIsIngestedNotMarked() {
+		assertFalse(session.isIngested(task, new Date(1), true));
+		assertFalse(session.isIngested(task, new Date(1), false));
+	}
+
+	@Test
+	public void testIsIngestedPartial() {
+		session.markIngested(task, new Date(1), true);
+		assertTrue(session.isIngested(task, new Date(1), true));
+		assertFalse(session.isIngested(task, new Date(1), false));
+		assertFalse(session.isIngested(task, new Date(2), true));
+	}
+
+	@Test
+	public void testIsIngestedFull() {
+		session.markIngested(task, new Date(1), false);
+		assertTrue(session.isIngested(task, new Date(1), true));
+		assertTrue(session.isIngested(task, new Date(1), false));
+		assertFalse(session.isIngested(task, new Date(2), false));
+		assertFalse(session.isIngested(mock(ITask.class), new Date(1), false));
+	}
+
+	@Test
+	public void testIsIngestedWithoutModificationDate() {
+		session.markIngested(task, null, false);
+		assertFalse(session.isIngested(task, null, false));
+	}
+
+}
@@ -0,0 +1,119 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Tasktop Technologies and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Tasktop Technologies - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.mylyn.internal.tasks.core.sync;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.mylyn.internal.tasks.core.IRepositoryConstants;
+import org.eclipse.mylyn.internal.tasks.core.RepositoryQuery;
+import org.eclipse.mylyn.internal.tasks.core.TaskList;
+import org.eclipse.mylyn.internal.tasks.core.data.TaskDataManager;
+import org.eclipse.mylyn.tasks.core.AbstractRepositoryConnector;
+import org.eclipse.mylyn.tasks.core.IRepositoryModel;
+import org.eclipse.mylyn.tasks.core.IRepositoryQuery;
+import org.eclipse.mylyn.tasks.core.TaskRepository;
+import org.eclipse.mylyn.tasks.core.data.TaskDataCollector;
+import org.eclipse.mylyn.tasks.core.sync.ISynchronizationSession;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+public class SynchronizeQueriesJobTest {
+
+	private AbstractRepositoryConnector connector;
+
+	private TaskRepository repository;
+
+	private Set<RepositoryQuery> queries;
+
+	@Before
+	public void setUp() {
+		connector = mock(AbstractRepositoryConnector.class);
+		when(connector.getConnectorKind()).thenReturn("mock");
+		repository = new TaskRepository("mock", "http://mock");
+		queries = new LinkedHashSet<RepositoryQuery>();
+		queries.add(new RepositoryQuery("mock", "1"));
+		queries.add(new RepositoryQuery("mock", "2"));
+	}
+
+	@Test
+	public void testQueriesAreSequentialByDefault() {
+		when(connector.getMaxConcurrentQueries(repository)).thenReturn(1);
+		assertEquals(1, createJob().getMaxConcurrentQueries());
+
+		// mocks return 0 which is not a valid value
+		when(connector.getMaxConcurrentQueries(repository)).thenReturn(0);
+		assertEquals(1, createJob().getMaxConcurrentQueries());
+	}
+
+	@Test
+	public void testMaxConcurrentQueriesFromConnectorOrProperty() {
+		when(connector.getMaxConcurrentQueries(repository)).thenReturn(3);
+		assertEquals(3, createJob().getMaxConcurrentQueries());
+
+		repository.setProperty(IRepositoryConstants.PROPERTY_MAX_CONCURRENT_QUERIES, "2");
+		assertEquals(2, createJob().getMaxConcurrentQueries());
+
+		repository.setProperty(IRepositoryConstants.PROPERTY_MAX_CONCURRENT_QUERIES, "invalid");
+		assertEquals(3, createJob().getMaxConcurrentQueries());
+	}
+
+	@Test
+	public void testQueriesRunConcurrently() {
+		when(connector.getMaxConcurrentQueries(repository)).thenReturn(2);
+		// each query waits for the other one, this only completes if both queries run at the same time
+		final CyclicBarrier barrier = new CyclicBarrier(2);
+		final AtomicInteger completedQueries = new AtomicInteger();
+		when(connector.performQuery(any(TaskRepository.class), any(IRepositoryQuery.class),
+				any(TaskDataCollector.class), any(ISynchronizationSession.class), any(IProgressMonitor.class)))
+						.thenAnswer(new Answer<IStatus>() {
+							public IStatus answer(InvocationOnMock invocation) throws Throwable {
+								barrier.await(10, TimeUnit.SECONDS);
+								completedQueries.incrementAndGet();
+								return Status.OK_STATUS;
+							}
+						});
+
+		SynchronizeQueriesJob job = createJob();
+		assertEquals(Status.OK_STATUS, job.run(new NullProgressMonitor()));
+
+		assertEquals(2, completedQueries.get());
+		assertTrue(job.getStatuses().isEmpty());
+		for (RepositoryQuery query : queries) {
+			assertNotNull(query.getLastSynchronizedTimeStamp());
+			assertNull(query.getStatus());
+		}
+	}
+
+	private SynchronizeQueriesJob createJob() {
+		return new SynchronizeQueriesJob(new TaskList(), mock(TaskDataManager.class), mock(IRepositoryModel.class),
+				connector, repository, queries);
+	}
+
+}
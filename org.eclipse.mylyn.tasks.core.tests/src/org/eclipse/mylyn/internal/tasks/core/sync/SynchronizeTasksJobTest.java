@@ -0,0 +1,288 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Tasktop Technologies and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Tasktop Technologies - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.mylyn.internal.tasks.core.sync;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anySetOf;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.mylyn.internal.tasks.core.IRepositoryConstants;
+import org.eclipse.mylyn.internal.tasks.core.TaskList;
+import org.eclipse.mylyn.internal.tasks.core.TaskTask;
+import org.eclipse.mylyn.internal.tasks.core.data.TaskDataManager;
+import org.eclipse.mylyn.tasks.core.AbstractRepositoryConnector;
+import org.eclipse.mylyn.tasks.core.IRepositoryModel;
+import org.eclipse.mylyn.tasks.core.ITask;
+import org.eclipse.mylyn.tasks.core.TaskRepository;
+import org.eclipse.mylyn.tasks.core.data.AbstractTaskDataHandler;
+import org.eclipse.mylyn.tasks.core.data.TaskAttributeMapper;
+import org.eclipse.mylyn.tasks.core.data.TaskData;
+import org.eclipse.mylyn.tasks.core.data.TaskDataCollector;
+import org.eclipse.mylyn.tasks.core.data.TaskRelation;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+public class SynchronizeTasksJobTest {
+
+	private AbstractRepositoryConnector connector;
+
+	private TaskRepository repository;
+
+	private TaskList taskList;
+
+	private TaskTask parentTask;
+
+	/**
+	 * The subtasks of each task on the repository.
+	 */
+	private final Map<String, List<String>> subtasksById = new HashMap<String, List<String>>();
+
+	/**
+	 * The task ids of each request in the order that requests were performed.
+	 */
+	private final List<Set<String>> requests = Collections.synchronizedList(new ArrayList<Set<String>>());
+
+	@Before
+	public void setUp() throws Exception {
+		repository = new TaskRepository("mock", "http://mock");
+		taskList = new TaskList();
+		parentTask = new TaskTask("mock", repository.getRepositoryUrl(), "1");
+		taskList.addTask(parentTask);
+
+		connector = mock(AbstractRepositoryConnector.class);
+		when(connector.getConnectorKind()).thenReturn("mock");
+		when(connector.getMaxRelationDepth(repository)).thenReturn(1);
+		when(connector.getMaxConcurrentTaskDataRequests(repository)).thenReturn(1);
+		when(connector.getTaskData(any(TaskRepository.class), anyString(), any(IProgressMonitor.class)))
+				.thenAnswer(new Answer<TaskData>() {
+					public TaskData answer(InvocationOnMock invocation) throws Throwable {
+						String taskId = (String) invocation.getArguments()[1];
+						requests.add(Collections.singleton(taskId));
+						return createTaskData(taskId);
+					}
+				});
+		when(connector.getTaskRelations(any(TaskData.class))).thenAnswer(new Answer<Collection<TaskRelation>>() {
+			public Collection<TaskRelation> answer(InvocationOnMock invocation) throws Throwable {
+				return getRelations(((TaskData) invocation.getArguments()[0]).getTaskId());
+			}
+		});
+	}
+
+	@Test
+	public void testMaxRelationDepthFromConnectorOrProperty() {
+		assertEquals(1, createJob().getMaxRelationDepth());
+
+		when(connector.getMaxRelationDepth(repository)).thenReturn(3);
+		assertEquals(3, createJob().getMaxRelationDepth());
+
+		repository.setProperty(IRepositoryConstants.PROPERTY_MAX_RELATION_DEPTH, "0");
+		assertEquals(0, createJob().getMaxRelationDepth());
+
+		repository.setProperty(IRepositoryConstants.PROPERTY_MAX_RELATION_DEPTH, "invalid");
+		assertEquals(3, createJob().getMaxRelationDepth());
+	}
+
+	@Test
+	public void testMaxConcurrentRequestsFromConnectorOrProperty() {
+		assertEquals(1, createJob().getMaxConcurrentRequests());
+
+		// mocks return 0 which is not a valid value
+		when(connector.getMaxConcurrentTaskDataRequests(repository)).thenReturn(0);
+		assertEquals(1, createJob().getMaxConcurrentRequests());
+
+		when(connector.getMaxConcurrentTaskDataRequests(repository)).thenReturn(4);
+		assertEquals(4, createJob().getMaxConcurrentRequests());
+
+		repository.setProperty(IRepositoryConstants.PROPERTY_MAX_CONCURRENT_TASK_DATA_REQUESTS, "2");
+		assertEquals(2, createJob().getMaxConcurrentRequests());
+	}
+
+	@Test
+	public void testDefaultDepthRetrievesDirectSubtasks() {
+		subtasksById.put("1", Arrays.asList("2", "3"));
+		subtasksById.put("2", Arrays.asList("4"));
+
+		synchronizeRelations(createJob());
+
+		assertEquals(Arrays.asList(ids("2"), ids("3")), requests);
+		assertEquals(ids("2", "3"), getChildIds(parentTask));
+		assertNotNull(getTask("2"));
+		assertEquals(ids(), getChildIds(getTask("2")));
+		assertNull(getTask("4"));
+	}
+
+	@Test
+	public void testBreadthFirstUpToMaxDepth() {
+		subtasksById.put("1", Arrays.asList("2", "3"));
+		subtasksById.put("2", Arrays.asList("4"));
+		subtasksById.put("3", Arrays.asList("5"));
+		subtasksById.put("4", Arrays.asList("6"));
+		subtasksById.put("6", Arrays.asList("7"));
+
+		SynchronizeTasksJob job = createJob();
+		job.setMaxRelationDepth(3);
+		synchronizeRelations(job);
+
+		// each level is retrieved before the next one, the subtasks of the last level are not followed
+		assertEquals(Arrays.asList(ids("2"), ids("3"), ids("4"), ids("5"), ids("6")), requests);
+		assertEquals(ids("2", "3"), getChildIds(parentTask));
+		assertEquals(ids("4"), getChildIds(getTask("2")));
+		assertEquals(ids("5"), getChildIds(getTask("3")));
+		assertEquals(ids("6"), getChildIds(getTask("4")));
+		assertEquals(ids(), getChildIds(getTask("6")));
+		assertNull(getTask("7"));
+	}
+
+	@Test
+	public void testDepthZeroRetrievesNoSubtasks() {
+		TaskTask existingTask = new TaskTask("mock", repository.getRepositoryUrl(), "3");
+		taskList.addTask(existingTask);
+		subtasksById.put("1", Arrays.asList("2", "3"));
+
+		SynchronizeTasksJob job = createJob();
+		job.setMaxRelationDepth(0);
+		synchronizeRelations(job);
+
+		// subtasks that are already in the task list are still added
+		assertEquals(0, requests.size());
+		assertEquals(ids("3"), getChildIds(parentTask));
+		assertNull(getTask("2"));
+	}
+
+	@Test
+	public void testMultiTaskDataBatches() throws Exception {
+		List<String> subtaskIds = new ArrayList<String>();
+		for (int i = 0; i < 250; i++) {
+			subtaskIds.add(Integer.toString(100 + i));
+		}
+		subtasksById.put("1", subtaskIds);
+		AbstractTaskDataHandler taskDataHandler = mock(AbstractTaskDataHandler.class);
+		when(taskDataHandler.canGetMultiTaskData(repository)).thenReturn(true);
+		doAnswer(new Answer<Void>() {
+			public Void answer(InvocationOnMock invocation) throws Throwable {
+				@SuppressWarnings("unchecked")
+				Set<String> taskIds = (Set<String>) invocation.getArguments()[1];
+				TaskDataCollector collector = (TaskDataCollector) invocation.getArguments()[2];
+				requests.add(taskIds);
+				for (String taskId : taskIds) {
+					collector.accept(createTaskData(taskId));
+				}
+				return null;
+			}
+		})
+				.when(taskDataHandler)
+				.getMultiTaskData(any(TaskRepository.class), anySetOf(String.class), any(TaskDataCollector.class),
+						any(IProgressMonitor.class));
+		when(connector.getTaskDataHandler()).thenReturn(taskDataHandler);
+
+		synchronizeRelations(createJob());
+
+		assertEquals(3, requests.size());
+		assertEquals(new HashSet<String>(subtaskIds.subList(0, 100)), requests.get(0));
+		assertEquals(new HashSet<String>(subtaskIds.subList(100, 200)), requests.get(1));
+		assertEquals(new HashSet<String>(subtaskIds.subList(200, 250)), requests.get(2));
+		assertEquals(new HashSet<String>(subtaskIds), getChildIds(parentTask));
+	}
+
+	@Test
+	public void testRequestsRunConcurrently() throws Exception {
+		subtasksById.put("1", Arrays.asList("2", "3"));
+		when(connector.getMaxConcurrentTaskDataRequests(repository)).thenReturn(2);
+		// each request waits for the other one, this only completes if both requests run at the same time
+		final CyclicBarrier barrier = new CyclicBarrier(2);
+		when(connector.getTaskData(any(TaskRepository.class), anyString(), any(IProgressMonitor.class)))
+				.thenAnswer(new Answer<TaskData>() {
+					public TaskData answer(InvocationOnMock invocation) throws Throwable {
+						String taskId = (String) invocation.getArguments()[1];
+						barrier.await(10, TimeUnit.SECONDS);
+						requests.add(Collections.singleton(taskId));
+						return createTaskData(taskId);
+					}
+				});
+
+		synchronizeRelations(createJob());
+
+		assertEquals(2, requests.size());
+		assertEquals(ids("2", "3"), getChildIds(parentTask));
+	}
+
+	private void synchronizeRelations(SynchronizeTasksJob job) {
+		Map<String, TaskRelation[]> relationsByTaskId = new HashMap<String, TaskRelation[]>();
+		relationsByTaskId.put(parentTask.getTaskId(), getRelations(parentTask.getTaskId()).toArray(new TaskRelation[0]));
+		job.synchronizedTaskRelations(new NullProgressMonitor(), relationsByTaskId);
+	}
+
+	private SynchronizeTasksJob createJob() {
+		IRepositoryModel tasksModel = mock(IRepositoryModel.class);
+		when(tasksModel.createTask(any(TaskRepository.class), anyString())).thenAnswer(new Answer<ITask>() {
+			public ITask answer(InvocationOnMock invocation) throws Throwable {
+				return new TaskTask("mock", repository.getRepositoryUrl(), (String) invocation.getArguments()[1]);
+			}
+		});
+		return new SynchronizeTasksJob(taskList, mock(TaskDataManager.class), tasksModel, connector, repository,
+				Collections.<ITask> emptySet());
+	}
+
+	private TaskData createTaskData(String taskId) {
+		return new TaskData(new TaskAttributeMapper(repository), "mock", repository.getRepositoryUrl(), taskId);
+	}
+
+	private List<TaskRelation> getRelations(String taskId) {
+		List<TaskRelation> relations = new ArrayList<TaskRelation>();
+		List<String> subtaskIds = subtasksById.get(taskId);
+		if (subtaskIds != null) {
+			for (String subtaskId : subtaskIds) {
+				relations.add(TaskRelation.subtask(subtaskId));
+			}
+		}
+		return relations;
+	}
+
+	private ITask getTask(String taskId) {
+		return taskList.getTask(repository.getRepositoryUrl(), taskId);
+	}
+
+	private Set<String> getChildIds(ITask task) {
+		Set<String> taskIds = new HashSet<String>();
+		for (ITask child : ((TaskTask) task).getChildren()) {
+			taskIds.add(child.getTaskId());
+		}
+		return taskIds;
+	}
+
+	private Set<String> ids(String... taskIds) {
+		return new HashSet<String>(Arrays.asList(taskIds));
+	}
+
+}
@@ -0,0 +1,211 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Tasktop Technologies and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Tasktop Technologies - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.mylyn.internal.tasks.core.sync;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.mylyn.internal.tasks.core.ITaskJobFactory;
+import org.eclipse.mylyn.tasks.core.AbstractRepositoryConnector;
+import org.eclipse.mylyn.tasks.core.ITask;
+import org.eclipse.mylyn.tasks.core.sync.SynchronizationJob;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+public class TaskSynchronizationQueueTest {
+
+	private final CountDownLatch release = new CountDownLatch(1);
+
+	private class MockSynchronizationJob extends SynchronizationJob {
+
+		private final AbstractRepositoryConnector connector;
+
+		private final Set<ITask> tasks;
+
+		public MockSynchronizationJob(AbstractRepositoryConnector connector, Set<ITask> tasks) {
+			super("Mock Synchronization");
+			this.connector = connector;
+			this.tasks = new HashSet<ITask>(tasks);
+		}
+
+		@Override
+		protected IStatus run(IProgressMonitor monitor) {
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				return Status.CANCEL_STATUS;
+			}
+			return Status.OK_STATUS;
+		}
+
+	}
+
+	private final List<MockSynchronizationJob> jobs = Collections.synchronizedList(new ArrayList<MockSynchronizationJob>());
+
+	private final AbstractRepositoryConnector connector1 = mock(AbstractRepositoryConnector.class);
+
+	private final AbstractRepositoryConnector connector2 = mock(AbstractRepositoryConnector.class);
+
+	private final ITask task1 = mock(ITask.class);
+
+	private final ITask task2 = mock(ITask.class);
+
+	private final ITask task3 = mock(ITask.class);
+
+	private TaskSynchronizationQueue queue;
+
+	@Before
+	@SuppressWarnings("unchecked")
+	public void setUp() {
+		ITaskJobFactory taskJobFactory = mock(ITaskJobFactory.class);
+		when(taskJobFactory.createSynchronizeTasksJob(any(AbstractRepositoryConnector.class), any(Set.class)))
+				.thenAnswer(new Answer<SynchronizationJob>() {
+					public SynchronizationJob answer(InvocationOnMock invocation) throws Throwable {
+						MockSynchronizationJob job = new MockSynchronizationJob(
+								(AbstractRepositoryConnector) invocation.getArguments()[0],
+								(Set<ITask>) invocation.getArguments()[1]);
+						jobs.add(job);
+						return job;
+					}
+				});
+		// the delay ensures that dispatch is only triggered by the tests
+		queue = new TaskSynchronizationQueue(taskJobFactory, 60 * 60 * 1000);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		queue.dispose();
+		release.countDown();
+		for (MockSynchronizationJob job : jobs) {
+			job.join();
+		}
+	}
+
+	@Test
+	public void testRequestsAreBatchedPerConnector() {
+		queue.add(connector1, Collections.singleton(task1));
+		queue.add(connector2, Collections.singleton(task2));
+		queue.add(connector1, Collections.singleton(task3));
+		queue.dispatch();
+
+		assertEquals(2, jobs.size());
+		assertEquals(connector1, jobs.get(0).connector);
+		assertEquals(new HashSet<ITask>(Arrays.asList(task1, task3)), jobs.get(0).tasks);
+		assertEquals(connector2, jobs.get(1).connector);
+		assertEquals(Collections.singleton(task2), jobs.get(1).tasks);
+	}
+
+	@Test
+	public void testDuplicateRequestsAreMerged() {
+		assertEquals(Collections.singleton(task1), queue.add(connector1, Collections.singleton(task1)));
+		assertEquals(Collections.singleton(task2), queue.add(connector1, Arrays.asList(task1, task2)));
+		queue.dispatch();
+
+		assertEquals(1, jobs.size());
+		assertEquals(new HashSet<ITask>(Arrays.asList(task1, task2)), jobs.get(0).tasks);
+	}
+
+	@Test
+	public void testBackgroundPriority() {
+		queue.add(connector1, Collections.singleton(task1));
+		queue.dispatch();
+
+		assertEquals(1, jobs.size());
+		assertFalse(jobs.get(0).isUser());
+		assertTrue(jobs.get(0).isSystem());
+		assertEquals(Job.DECORATE, jobs.get(0).getPriority());
+	}
+
+	@Test
+	public void testRequestsForTasksInFlightAreDeferred() throws Exception {
+		queue.add(connector1, Collections.singleton(task1));
+		queue.dispatch();
+		assertFalse(queue.isQueued(task1));
+		assertTrue(queue.isInFlight(task1));
+		assertTrue(queue.add(connector1, Collections.singleton(task1)).isEmpty());
+		assertFalse(queue.isQueued(task1));
+
+		release.countDown();
+		jobs.get(0).join();
+		waitUntilCompleted(task1);
+		// the deferred request is queued once the synchronization completes
+		assertTrue(queue.isQueued(task1));
+		queue.dispatch();
+		assertEquals(2, jobs.size());
+		assertEquals(Collections.singleton(task1), jobs.get(1).tasks);
+	}
+
+	@Test
+	public void testCompletedWithoutDeferredRequests() {
+		queue.add(connector1, Collections.singleton(task1));
+		queue.dispatch();
+		queue.completed(Collections.singleton(task1));
+		assertFalse(queue.isInFlight(task1));
+		assertFalse(queue.isQueued(task1));
+	}
+
+	@Test
+	public void testDispose() {
+		queue.add(connector1, Collections.singleton(task1));
+		queue.dispose();
+		assertFalse(queue.isQueued(task1));
+		assertTrue(queue.add(connector1, Collections.singleton(task2)).isEmpty());
+		queue.dispatch();
+		assertTrue(jobs.isEmpty());
+	}
+
+	@Test
+	public void testTrack() throws Exception {
+		queue.add(connector1, Arrays.asList(task1, task2));
+		MockSynchronizationJob job = new MockSynchronizationJob(connector1, Collections.singleton(task1));
+		queue.track(job, Collections.singleton(task1));
+		assertFalse(queue.isQueued(task1));
+		assertTrue(queue.isQueued(task2));
+		assertTrue(queue.isInFlight(task1));
+		assertTrue(queue.add(connector1, Collections.singleton(task1)).isEmpty());
+
+		release.countDown();
+		job.schedule();
+		job.join();
+		waitUntilCompleted(task1);
+		// the request for the tracked task is queued once the job completes
+		assertTrue(queue.isQueued(task1));
+	}
+
+	private void waitUntilCompleted(ITask task) throws InterruptedException {
+		// job listeners may be notified after join() returns
+		for (int i = 0; i < 100 && queue.isInFlight(task); i++) {
+			Thread.sleep(50);
+		}
+		assertFalse(queue.isInFlight(task));
+	}
+
+}
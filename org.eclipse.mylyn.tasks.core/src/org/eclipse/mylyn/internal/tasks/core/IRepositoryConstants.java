@@ -37,6 +37,37 @@ public interface IRepositoryConstants {
 
 	public static final String PROPERTY_LABEL = "label"; //$NON-NLS-1$
 
+	/**
+	 * Maximum number of queries of a repository that are performed concurrently during synchronization. Overrides the
+	 * value provided by the connector.
+	 *
+	 * @see org.eclipse.mylyn.tasks.core.AbstractRepositoryConnector#getMaxConcurrentQueries(TaskRepository)
+	 */
+	public static final String PROPERTY_MAX_CONCURRENT_QUERIES = "sync.maxConcurrentQueries"; //$NON-NLS-1$
+
+	/**
+	 * Number of levels of missing subtasks that are retrieved during synchronization. Overrides the value provided by
+	 * the connector.
+	 *
+	 * @see org.eclipse.mylyn.tasks.core.AbstractRepositoryConnector#getMaxRelationDepth(TaskRepository)
+	 */
+	public static final String PROPERTY_MAX_RELATION_DEPTH = "sync.maxRelationDepth"; //$NON-NLS-1$
+
+	/**
+	 * Maximum number of requests for missing subtasks of a repository that are performed concurrently during
+	 * synchronization. Overrides the value provided by the connector.
+	 *
+	 * @see org.eclipse.mylyn.tasks.core.AbstractRepositoryConnector#getMaxConcurrentTaskDataRequests(TaskRepository)
+	 */
+	public static final String PROPERTY_MAX_CONCURRENT_TASK_DATA_REQUESTS = "sync.maxConcurrentTaskDataRequests"; //$NON-NLS-1$
+
+	/**
+	 * Maximum number of concurrent HTTP connections to a repository.
+	 *
+	 * @see RepositoryConnectionPool
+	 */
+	public static final String PROPERTY_MAX_CONNECTIONS = "net.maxConnections"; //$NON-NLS-1$
+
 	public static final String PROPERTY_DELIM = ":"; //$NON-NLS-1$
 
 	public static final String KIND_UNKNOWN = "<unknown>"; //$NON-NLS-1$
@@ -0,0 +1,296 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Tasktop Technologies and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Tasktop Technologies - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.mylyn.internal.tasks.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.httpclient.ConnectionPoolTimeoutException;
+import org.apache.commons.httpclient.HostConfiguration;
+import org.apache.commons.httpclient.HttpConnection;
+import org.apache.commons.httpclient.HttpConnectionManager;
+import org.apache.commons.httpclient.MultiThreadedHttpConnectionManager;
+import org.apache.commons.httpclient.util.IdleConnectionTimeoutThread;
+import org.eclipse.core.runtime.Assert;
+import org.eclipse.mylyn.commons.net.WebUtil;
+
+/**
+ * Provides a pool of HTTP connections for each repository that is shared by all clients of the repository. Connections
+ * are kept alive between requests and closed after they have been idle for {@link #getIdleTimeout()} milliseconds.
+ * The number of concurrent connections to a repository is limited by the
+ * {@link IRepositoryConstants#PROPERTY_MAX_CONNECTIONS} property of the repository.
+ */
+public class RepositoryConnectionPool {
+
+	/**
+	 * Statistics of the connection pool of a single repository.
+	 */
+	public static class Statistics {
+
+		private final String repositoryUrl;
+
+		private final int maxConnections;
+
+		private final int openConnections;
+
+		private final long requests;
+
+		private final long reusedConnections;
+
+		private final long waitTime;
+
+		private Statistics(String repositoryUrl, RepositoryConnectionManager manager) {
+			this.repositoryUrl = repositoryUrl;
+			this.maxConnections = manager.getParams().getDefaultMaxConnectionsPerHost();
+			this.openConnections = manager.getConnectionsInPool();
+			this.requests = manager.requests.get();
+			this.reusedConnections = manager.reusedConnections.get();
+			this.waitTime = manager.waitTime.get() / 1000000;
+		}
+
+		public String getRepositoryUrl() {
+			return repositoryUrl;
+		}
+
+		public int getMaxConnections() {
+			return maxConnections;
+		}
+
+		/**
+		 * Returns the number of connections that are currently open, including connections that are idle.
+		 */
+		public int getOpenConnections() {
+			return openConnections;
+		}
+
+		/**
+		 * Returns the number of times a connection was requested from the pool.
+		 */
+		public long getRequests() {
+			return requests;
+		}
+
+		/**
+		 * Returns the number of requests that were served by an already open connection.
+		 */
+		public long getReusedConnections() {
+			return reusedConnections;
+		}
+
+		/**
+		 * Returns the total time in milliseconds requests waited for a connection to become available.
+		 */
+		public long getWaitTime() {
+			return waitTime;
+		}
+
+		@Override
+		public String toString() {
+			return repositoryUrl + ": open=" + openConnections + "/" + maxConnections + ", requests=" + requests //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+					+ ", reused=" + reusedConnections + ", waitTime=" + waitTime + "ms"; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		}
+
+	}
+
+	private static class RepositoryConnectionManager extends MultiThreadedHttpConnectionManager {
+
+		private final AtomicLong requests = new AtomicLong();
+
+		private final AtomicLong reusedConnections = new AtomicLong();
+
+		private final AtomicLong waitTime = new AtomicLong();
+
+		@Override
+		public HttpConnection getConnectionWithTimeout(HostConfiguration hostConfiguration, long timeout)
+				throws ConnectionPoolTimeoutException {
+			long start = System.nanoTime();
+			HttpConnection connection = super.getConnectionWithTimeout(hostConfiguration, timeout);
+			waitTime.addAndGet(System.nanoTime() - start);
+			requests.incrementAndGet();
+			if (connection.isOpen()) {
+				reusedConnections.incrementAndGet();
+			}
+			return connection;
+		}
+
+	}
+
+	public static final int DEFAULT_MAX_CONNECTIONS = 8;
+
+	public static final long DEFAULT_IDLE_TIMEOUT = 60 * 1000;
+
+	private static final long IDLE_CHECK_INTERVAL = 15 * 1000;
+
+	private static RepositoryConnectionPool instance;
+
+	// guarded by this
+	private final Map<String, RepositoryConnectionManager> managerByRepositoryUrl = new HashMap<String, RepositoryConnectionManager>();
+
+	// guarded by this
+	private IdleConnectionTimeoutThread idleConnectionThread;
+
+	private volatile long idleTimeout = DEFAULT_IDLE_TIMEOUT;
+
+	public static synchronized RepositoryConnectionPool getDefault() {
+		if (instance == null) {
+			instance = new RepositoryConnectionPool();
+		}
+		return instance;
+	}
+
+	/**
+	 * Returns the connection manager for <code>repositoryUrl</code>. The same instance is returned for all invocations
+	 * with the same URL.
+	 */
+	public synchronized HttpConnectionManager getConnectionManager(String repositoryUrl) {
+		return getManager(repositoryUrl);
+	}
+
+	/**
+	 * Applies the connection settings in <code>properties</code>, typically the properties of a task repository, to
+	 * the connections of <code>repositoryUrl</code>.
+	 */
+	public void configure(String repositoryUrl, Map<String, String> properties) {
+		setMaxConnections(repositoryUrl, getMaxConnections(properties));
+	}
+
+	/**
+	 * Sets the maximum number of concurrent connections to <code>repositoryUrl</code>. Requests that exceed the limit
+	 * wait for a connection to be released.
+	 */
+	public synchronized void setMaxConnections(String repositoryUrl, int maxConnections) {
+		maxConnections = Math.max(1, maxConnections);
+		RepositoryConnectionManager manager = getManager(repositoryUrl);
+		manager.getParams().setDefaultMaxConnectionsPerHost(maxConnections);
+		manager.getParams().setMaxTotalConnections(maxConnections);
+	}
+
+	public synchronized int getMaxConnections(String repositoryUrl) {
+		return getManager(repositoryUrl).getParams().getDefaultMaxConnectionsPerHost();
+	}
+
+	/**
+	 * Sets the time in milliseconds after which connections that have not been used are closed.
+	 */
+	public synchronized void setIdleTimeout(long idleTimeout) {
+		Assert.isLegal(idleTimeout > 0);
+		this.idleTimeout = idleTimeout;
+		if (idleConnectionThread != null) {
+			idleConnectionThread.setConnectionTimeout(idleTimeout);
+		}
+	}
+
+	public long getIdleTimeout() {
+		return idleTimeout;
+	}
+
+	/**
+	 * Returns the statistics of all connection pools ordered by repository URL.
+	 */
+	public synchronized List<Statistics> getStatistics() {
+		List<Statistics> statistics = new ArrayList<Statistics>(managerByRepositoryUrl.size());
+		for (Map.Entry<String, RepositoryConnectionManager> entry : managerByRepositoryUrl.entrySet()) {
+			statistics.add(new Statistics(entry.getKey(), entry.getValue()));
+		}
+		Collections.sort(statistics, new Comparator<Statistics>() {
+			public int compare(Statistics o1, Statistics o2) {
+				return o1.getRepositoryUrl().compareTo(o2.getRepositoryUrl());
+			}
+		});
+		return statistics;
+	}
+
+	/**
+	 * Returns the statistics of the connection pool for <code>repositoryUrl</code> or <code>null</code>, if no
+	 * connections have been requested for the repository.
+	 */
+	public synchronized Statistics getStatistics(String repositoryUrl) {
+		RepositoryConnectionManager manager = managerByRepositoryUrl.get(repositoryUrl);
+		return (manager != null) ? new Statistics(repositoryUrl, manager) : null;
+	}
+
+	/**
+	 * Closes the connections of <code>repositoryUrl</code> and discards its connection manager, e.g. when the
+	 * repository is removed or its URL changes. Clients that still reference the previous connection manager need to
+	 * be recreated.
+	 */
+	public synchronized void remove(String repositoryUrl) {
+		RepositoryConnectionManager manager = managerByRepositoryUrl.remove(repositoryUrl);
+		if (manager != null) {
+			if (idleConnectionThread != null) {
+				idleConnectionThread.removeConnectionManager(manager);
+			}
+			manager.shutdown();
+		}
+	}
+
+	/**
+	 * Closes all connections and stops the thread that closes idle connections. Invoked when the plug-in is stopped,
+	 * connection managers that are still referenced by clients can not be used afterwards.
+	 */
+	public synchronized void dispose() {
+		if (idleConnectionThread != null) {
+			idleConnectionThread.shutdown();
+			idleConnectionThread = null;
+		}
+		for (RepositoryConnectionManager manager : managerByRepositoryUrl.values()) {
+			manager.shutdown();
+		}
+		managerByRepositoryUrl.clear();
+	}
+
+	static int getMaxConnections(Map<String, String> properties) {
+		String value = properties.get(IRepositoryConstants.PROPERTY_MAX_CONNECTIONS);
+		if (value != null) {
+			try {
+				return Math.max(1, Integer.parseInt(value));
+			} catch (NumberFormatException e) {
+				// use default
+			}
+		}
+		return DEFAULT_MAX_CONNECTIONS;
+	}
+
+	private RepositoryConnectionManager getManager(String repositoryUrl) {
+		Assert.isNotNull(repositoryUrl);
+		RepositoryConnectionManager manager = managerByRepositoryUrl.get(repositoryUrl);
+		if (manager == null) {
+			manager = new RepositoryConnectionManager();
+			manager.getParams().setDefaultMaxConnectionsPerHost(DEFAULT_MAX_CONNECTIONS);
+			manager.getParams().setMaxTotalConnections(DEFAULT_MAX_CONNECTIONS);
+			manager.getParams().setConnectionTimeout(WebUtil.getConnectionTimeout());
+			manager.getParams().setSoTimeout(WebUtil.getSocketTimeout());
+			// connections that were closed by the server while idle are detected before they are reused
+			manager.getParams().setStaleCheckingEnabled(true);
+			managerByRepositoryUrl.put(repositoryUrl, manager);
+			getIdleConnectionThread().addConnectionManager(manager);
+		}
+		return manager;
+	}
+
+	private IdleConnectionTimeoutThread getIdleConnectionThread() {
+		if (idleConnectionThread == null) {
+			idleConnectionThread = new IdleConnectionTimeoutThread();
+			idleConnectionThread.setName("Repository Connection Pool Idle Timeout"); //$NON-NLS-1$
+			idleConnectionThread.setTimeoutInterval(IDLE_CHECK_INTERVAL);
+			idleConnectionThread.setConnectionTimeout(idleTimeout);
+			idleConnectionThread.start();
+		}
+		return idleConnectionThread;
+	}
+
+}
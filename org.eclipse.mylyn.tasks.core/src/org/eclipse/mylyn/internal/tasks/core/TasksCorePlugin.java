@@ -0,0 +1,31 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Tasktop Technologies and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Tasktop Technologies - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.mylyn.internal.tasks.core;
+
+import org.eclipse.core.runtime.Plugin;
+import org.osgi.framework.BundleContext;
+
+/**
+ * The headless tasks plug-in class. Releases resources that are shared by all connectors when the plug-in is stopped.
+ */
+public class TasksCorePlugin extends Plugin {
+
+	@Override
+	public void stop(BundleContext context) throws Exception {
+		try {
+			RepositoryConnectionPool.getDefault().dispose();
+		} finally {
+			super.stop(context);
+		}
+	}
+
+}
@@ -63,6 +63,12 @@ public interface ITaskDataConstants {
 
 	static final String ELEMENT_OPTIONS = "options"; //$NON-NLS-1$
 
+	static final String ELEMENT_OPTION_TABLE = "optionTable"; //$NON-NLS-1$
+
+	static final String ELEMENT_OPTION_TABLES = "optionTables"; //$NON-NLS-1$
+
+	static final String ATTRIBUTE_OPTION_TABLE = "table"; //$NON-NLS-1$
+
 	static final String ELEMENT_META_DATA = "MetaData"; //$NON-NLS-1$
 
 	static final String ELEMENT_OPERATION = "Operation"; //$NON-NLS-1$
@@ -97,6 +103,8 @@ public interface ITaskDataConstants {
 
 	static final String ATTRIBUTE_TASK_ID = "taskId"; //$NON-NLS-1$
 
+	static final String ATTRIBUTE_FINGERPRINT = "fingerprint"; //$NON-NLS-1$
+
 	static final String ELEMENT_ATTRIBUTES = "Attributes"; //$NON-NLS-1$
 
 }
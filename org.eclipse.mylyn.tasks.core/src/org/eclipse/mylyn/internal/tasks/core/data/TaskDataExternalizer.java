@@ -34,9 +34,11 @@ import org.eclipse.mylyn.tasks.core.TaskRepository;
 import org.eclipse.mylyn.tasks.core.data.AbstractTaskDataHandler;
 import org.eclipse.mylyn.tasks.core.data.ITaskDataWorkingCopy;
 import org.eclipse.mylyn.tasks.core.data.TaskData;
+import org.xml.sax.Attributes;
 import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
 import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
 
 /**
  * @author Steffen Pingel
@@ -127,6 +129,12 @@ public class TaskDataExternalizer {
 
 	}
 
+	private static class StopParsingException extends SAXException {
+
+		private static final long serialVersionUID = 1L;
+
+	}
+
 	private final IRepositoryManager taskRepositoryManager;
 
 	public TaskDataExternalizer(IRepositoryManager taskRepositoryManager) {
@@ -188,6 +196,34 @@ public class TaskDataExternalizer {
 		return taskDataState;
 	}
 
+	/**
+	 * Reads the fingerprint of the repository data that was recorded in the task data state in <code>in</code>. Only
+	 * the start of the state is parsed.
+	 *
+	 * @return the fingerprint or <code>null</code>, if no fingerprint was recorded
+	 * @see TaskDataState#getRepositoryDataFingerprint()
+	 */
+	public Long readFingerprint(InputStream in) throws IOException, SAXException {
+		final Long[] fingerprint = new Long[1];
+		XMLReader parser = XmlReaderUtil.createXmlReader();
+		parser.setContentHandler(new DefaultHandler() {
+			@Override
+			public void startElement(String uri, String localName, String name, Attributes attributes)
+					throws SAXException {
+				if (ITaskDataConstants.ELEMENT_TASK_STATE.equals(name)) {
+					fingerprint[0] = TaskDataStateReader.parseFingerprint(attributes);
+				}
+				throw new StopParsingException();
+			}
+		});
+		try {
+			parser.parse(new InputSource(in));
+		} catch (StopParsingException e) {
+			// the state element was read
+		}
+		return fingerprint[0];
+	}
+
 	public void writeState(OutputStream out, ITaskDataWorkingCopy state) throws IOException {
 		try {
 			SAXTransformerFactory transformerFactory = (SAXTransformerFactory) TransformerFactory.newInstance();
@@ -17,6 +17,7 @@ import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.Lock;
 
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.CoreException;
@@ -44,6 +45,8 @@ import org.eclipse.mylyn.tasks.core.data.ITaskDataWorkingCopy;
 import org.eclipse.mylyn.tasks.core.data.TaskAttribute;
 import org.eclipse.mylyn.tasks.core.data.TaskData;
 
+import com.google.common.util.concurrent.Striped;
+
 /**
  * Encapsulates synchronization policy.
  *
@@ -67,6 +70,13 @@ public class TaskDataManager implements ITaskDataManager {
 
 	private final TaskDataFileManager fileManager = new TaskDataFileManager();
 
+	/**
+	 * Serializes operations on the task data of a task. Disk access and diffing happen while holding the lock of the
+	 * task, the task list lock is only acquired to update the in-memory state of the task. To avoid dead locks the lock
+	 * of a task must never be acquired while holding the task list lock.
+	 */
+	private final Striped<Lock> taskLocks = Striped.lock(64);
+
 	public TaskDataManager(TaskDataStore taskDataStore, IRepositoryManager repositoryManager, TaskList taskList,
 			TaskActivityManager taskActivityManager, SynchronizationManger synchronizationManager) {
 		this.taskDataStore = taskDataStore;
@@ -104,42 +114,46 @@ public class TaskDataManager implements ITaskDataManager {
 		final AbstractTask task = (AbstractTask) itask;
 		Assert.isNotNull(task);
 		final String kind = task.getConnectorKind();
-		final TaskDataState[] result = new TaskDataState[1];
 		final boolean[] changed = new boolean[1];
-		taskList.run(new ITaskListRunnable() {
-			public void execute(IProgressMonitor monitor) throws CoreException {
-				final File file = getMigratedFile(task, kind);
-				final TaskDataState state = taskDataStore.getTaskDataState(file);
-				if (state == null) {
-					throw new CoreException(new Status(IStatus.ERROR, ITasksCoreConstants.ID_PLUGIN, "Task data at \"" //$NON-NLS-1$
-							+ file + "\" not found")); //$NON-NLS-1$
-				}
-				if (task.isMarkReadPending()) {
-					state.setLastReadData(state.getRepositoryData());
-				}
-				state.init(TaskDataManager.this, task);
-				state.revert();
-				if (markRead) {
-					switch (task.getSynchronizationState()) {
-					case INCOMING:
-					case INCOMING_NEW:
-						task.setSynchronizationState(SynchronizationState.SYNCHRONIZED);
-						changed[0] = true;
-						break;
-					case CONFLICT:
-						task.setSynchronizationState(SynchronizationState.OUTGOING);
-						changed[0] = true;
-						break;
+		final TaskDataState state;
+		Lock taskLock = lockTask(task);
+		try {
+			final File file = getMigratedFile(task, kind);
+			state = taskDataStore.getTaskDataState(file);
+			if (state == null) {
+				throw new CoreException(new Status(IStatus.ERROR, ITasksCoreConstants.ID_PLUGIN, "Task data at \"" //$NON-NLS-1$
+						+ file + "\" not found")); //$NON-NLS-1$
+			}
+			if (task.isMarkReadPending()) {
+				state.setLastReadData(state.getRepositoryData());
+			}
+			state.init(TaskDataManager.this, task);
+			state.revert();
+			if (markRead) {
+				taskList.run(new ITaskListRunnable() {
+					public void execute(IProgressMonitor monitor) throws CoreException {
+						switch (task.getSynchronizationState()) {
+						case INCOMING:
+						case INCOMING_NEW:
+							task.setSynchronizationState(SynchronizationState.SYNCHRONIZED);
+							changed[0] = true;
+							break;
+						case CONFLICT:
+							task.setSynchronizationState(SynchronizationState.OUTGOING);
+							changed[0] = true;
+							break;
+						}
+						task.setMarkReadPending(true);
 					}
-					task.setMarkReadPending(true);
-				}
-				result[0] = state;
+				}, null, true);
 			}
-		}, null, true);
+		} finally {
+			taskLock.unlock();
+		}
 		if (changed[0]) {
 			taskList.notifyElementChanged(task);
 		}
-		return result[0];
+		return state;
 	}
 
 	public void saveWorkingCopy(final ITask itask, final TaskDataState state) throws CoreException {
@@ -147,19 +161,24 @@ public class TaskDataManager implements ITaskDataManager {
 		Assert.isNotNull(task);
 		final String kind = task.getConnectorKind();
 		final boolean[] changed = new boolean[1];
-		taskList.run(new ITaskListRunnable() {
-			public void execute(IProgressMonitor monitor) throws CoreException {
-				final File file = fileManager.getFile(task, kind);
-				taskDataStore.putTaskData(ensurePathExists(file), state);
-				switch (task.getSynchronizationState()) {
-				case SYNCHRONIZED:
-					task.setSynchronizationState(SynchronizationState.OUTGOING);
-					changed[0] = true;
-					break;
+		Lock taskLock = lockTask(task);
+		try {
+			final File file = fileManager.getFile(task, kind);
+			taskDataStore.putTaskData(ensurePathExists(file), state);
+			taskList.run(new ITaskListRunnable() {
+				public void execute(IProgressMonitor monitor) throws CoreException {
+					switch (task.getSynchronizationState()) {
+					case SYNCHRONIZED:
+						task.setSynchronizationState(SynchronizationState.OUTGOING);
+						changed[0] = true;
+						break;
+					}
+					taskList.addTask(task);
 				}
-				taskList.addTask(task);
-			}
-		});
+			});
+		} finally {
+			taskLock.unlock();
+		}
 		if (changed[0]) {
 			taskList.notifyElementChanged(task);
 		}
@@ -185,65 +204,93 @@ public class TaskDataManager implements ITaskDataManager {
 				task.getRepositoryUrl());
 		final boolean taskDataChanged = connector.hasTaskChanged(repository, task, taskData);
 		final TaskDataManagerEvent event = new TaskDataManagerEvent(this, itask, taskData, token);
-		event.setTaskDataChanged(taskDataChanged);
 		IDelegatingProgressMonitor delegatingMonitor = DelegatingProgressMonitor.getMonitorFrom(monitor);
 		if (delegatingMonitor != null) {
 			event.setData(delegatingMonitor.getData());
 		}
 		final boolean[] synchronizationStateChanged = new boolean[1];
-		if (taskDataChanged || user) {
-			taskList.run(new ITaskListRunnable() {
-				public void execute(IProgressMonitor monitor) throws CoreException {
-					TaskDataState state = null;
-					if (!taskData.isPartial()) {
-						File file = getMigratedFile(task, task.getConnectorKind());
-						state = taskDataStore.putTaskData(ensurePathExists(file), taskData, task.isMarkReadPending(),
-								user);
-						task.setMarkReadPending(false);
-						event.setTaskDataUpdated(true);
+		Lock taskLock = (taskDataChanged || user) ? lockTask(task) : null;
+		try {
+			File file = null;
+			long fingerprint = 0;
+			boolean contentUnchanged = false;
+			if (taskLock != null) {
+				file = getMigratedFile(task, task.getConnectorKind());
+				if (!taskData.isPartial()) {
+					fingerprint = taskDataStore.getFingerprint(taskData);
+					// time stamps may differ while the content is identical, e.g. on a forced synchronization
+					contentUnchanged = !task.isMarkReadPending()
+							&& taskDataStore.hasRepositoryData(file, fingerprint);
+				}
+			}
+			event.setTaskDataChanged(taskDataChanged && !contentUnchanged);
+			if (taskLock != null && !contentUnchanged) {
+				// persist task data and determine whether to show an incoming before acquiring the task list lock
+				TaskDataState state = null;
+				if (!taskData.isPartial()) {
+					state = taskDataStore.putTaskData(ensurePathExists(file), taskData, fingerprint,
+							task.isMarkReadPending(), user);
+					event.setTaskDataUpdated(true);
+				}
+				final String suppressIncoming;
+				if (taskDataChanged) {
+					if (state == null) {
+						state = taskDataStore.getTaskDataState(ensurePathExists(file));
 					}
+					TaskData lastReadData = (state != null) ? state.getLastReadData() : null;
+					TaskDataDiff diff = synchronizationManager.createDiff(taskData, lastReadData, monitor);
+					suppressIncoming = Boolean.toString(!diff.hasChanged());
+				} else {
+					suppressIncoming = null;
+				}
 
-					boolean taskChanged = updateTaskFromTaskData(taskData, task, connector, repository);
-					event.setTaskChanged(taskChanged);
-
-					if (taskDataChanged) {
-						String suppressIncoming = null;
-						// determine whether to show an incoming
-						if (state == null) {
-							File file = getMigratedFile(task, task.getConnectorKind());
-							state = taskDataStore.getTaskDataState(ensurePathExists(file));
+				taskList.run(new ITaskListRunnable() {
+					public void execute(IProgressMonitor monitor) throws CoreException {
+						if (event.getTaskDataUpdated()) {
+							task.setMarkReadPending(false);
 						}
-						TaskData lastReadData = (state != null) ? state.getLastReadData() : null;
-						TaskDataDiff diff = synchronizationManager.createDiff(taskData, lastReadData, monitor);
-						suppressIncoming = Boolean.toString(!diff.hasChanged());
 
-						switch (task.getSynchronizationState()) {
-						case OUTGOING:
-							task.setSynchronizationState(SynchronizationState.CONFLICT);
-							break;
-						case SYNCHRONIZED:
-							task.setSynchronizationState(SynchronizationState.INCOMING);
-							break;
+						boolean taskChanged = updateTaskFromTaskData(taskData, task, connector, repository);
+						event.setTaskChanged(taskChanged);
+
+						if (taskDataChanged) {
+							switch (task.getSynchronizationState()) {
+							case OUTGOING:
+								task.setSynchronizationState(SynchronizationState.CONFLICT);
+								break;
+							case SYNCHRONIZED:
+								task.setSynchronizationState(SynchronizationState.INCOMING);
+								break;
+							}
+
+							// if an incoming was previously suppressed it may need to show now
+							task.setAttribute(ITasksCoreConstants.ATTRIBUTE_TASK_SUPPRESS_INCOMING, suppressIncoming);
+						}
+						if (task.isSynchronizing()) {
+							task.setSynchronizing(false);
+							synchronizationStateChanged[0] = true;
 						}
-
-						// if an incoming was previously suppressed it may need to show now
-						task.setAttribute(ITasksCoreConstants.ATTRIBUTE_TASK_SUPPRESS_INCOMING, suppressIncoming);
-					}
-					if (task.isSynchronizing()) {
-						task.setSynchronizing(false);
-						synchronizationStateChanged[0] = true;
 					}
-				}
-			});
-		} else {
-			taskList.run(new ITaskListRunnable() {
-				public void execute(IProgressMonitor monitor) throws CoreException {
-					if (task.isSynchronizing()) {
-						task.setSynchronizing(false);
-						synchronizationStateChanged[0] = true;
+				});
+			} else {
+				final boolean updateTask = contentUnchanged;
+				taskList.run(new ITaskListRunnable() {
+					public void execute(IProgressMonitor monitor) throws CoreException {
+						if (updateTask) {
+							// the stored task data is current, only make sure the task reflects it
+							event.setTaskChanged(updateTaskFromTaskData(taskData, task, connector, repository));
+						}
+						if (task.isSynchronizing()) {
+							task.setSynchronizing(false);
+							synchronizationStateChanged[0] = true;
+						}
 					}
-				}
-			});
+				});
+			}
+		} finally {
+			if (taskLock != null) {
+				taskLock.unlock();
+			}
 		}
 		if (event.getTaskChanged() || event.getTaskDataChanged()) {
 			taskList.notifyElementChanged(task);
@@ -272,6 +319,12 @@ public class TaskDataManager implements ITaskDataManager {
 		return task.isChanged();
 	}
 
+	private Lock lockTask(ITask task) {
+		Lock lock = taskLocks.get(task.getHandleIdentifier());
+		lock.lock();
+		return lock;
+	}
+
 	private File ensurePathExists(File file) {
 		if (!file.getParentFile().exists()) {
 			file.getParentFile().mkdirs();
@@ -299,24 +352,29 @@ public class TaskDataManager implements ITaskDataManager {
 		Assert.isNotNull(task);
 		final String kind = task.getConnectorKind();
 		final TaskDataManagerEvent event = new TaskDataManagerEvent(this, itask);
-		taskList.run(new ITaskListRunnable() {
-			public void execute(IProgressMonitor monitor) throws CoreException {
-				File dataFile = fileManager.getFile(task, kind);
-				if (dataFile.exists()) {
-					taskDataStore.discardEdits(dataFile);
-				}
-				switch (task.getSynchronizationState()) {
-				case OUTGOING:
-					task.setSynchronizationState(SynchronizationState.SYNCHRONIZED);
-					event.setTaskChanged(true);
-					break;
-				case CONFLICT:
-					task.setSynchronizationState(SynchronizationState.INCOMING);
-					event.setTaskChanged(true);
-					break;
-				}
+		Lock taskLock = lockTask(task);
+		try {
+			File dataFile = fileManager.getFile(task, kind);
+			if (dataFile.exists()) {
+				taskDataStore.discardEdits(dataFile);
 			}
-		});
+			taskList.run(new ITaskListRunnable() {
+				public void execute(IProgressMonitor monitor) throws CoreException {
+					switch (task.getSynchronizationState()) {
+					case OUTGOING:
+						task.setSynchronizationState(SynchronizationState.SYNCHRONIZED);
+						event.setTaskChanged(true);
+						break;
+					case CONFLICT:
+						task.setSynchronizationState(SynchronizationState.INCOMING);
+						event.setTaskChanged(true);
+						break;
+					}
+				}
+			});
+		} finally {
+			taskLock.unlock();
+		}
 		if (event.getTaskChanged()) {
 			taskList.notifyElementChanged(task);
 		}
@@ -364,6 +422,25 @@ public class TaskDataManager implements ITaskDataManager {
 		return state.getRepositoryData();
 	}
 
+	/**
+	 * Reads the task data of <code>task</code> ahead of time to speed up a subsequent invocation of
+	 * {@link #getWorkingCopy(ITask)}. Unlike the other read operations this does not lock the task list.
+	 *
+	 * @return true, if the task data was read
+	 * @see TaskDataStore#prefetch(File)
+	 */
+	public boolean prefetchTaskData(ITask task) throws CoreException {
+		Assert.isNotNull(task);
+		final String kind = task.getConnectorKind();
+		return taskDataStore.prefetch(findFile(task, kind));
+	}
+
+	public boolean isPrefetched(ITask task) {
+		Assert.isNotNull(task);
+		final String kind = task.getConnectorKind();
+		return taskDataStore.isPrefetched(findFile(task, kind));
+	}
+
 	public boolean hasTaskData(ITask task) {
 		Assert.isNotNull(task);
 		final String kind = task.getConnectorKind();
@@ -381,22 +458,29 @@ public class TaskDataManager implements ITaskDataManager {
 		final TaskDataManagerEvent event = new TaskDataManagerEvent(this, itask, taskData, null);
 		event.setTaskDataChanged(true);
 		event.setData(((DelegatingProgressMonitor) monitor).getData());
-		taskList.run(new ITaskListRunnable() {
-			public void execute(IProgressMonitor monitor) throws CoreException {
-				if (!taskData.isPartial()) {
-					File file = getMigratedFile(task, task.getConnectorKind());
-					taskDataStore.setTaskData(ensurePathExists(file), taskData);
-					task.setMarkReadPending(false);
-					event.setTaskDataUpdated(true);
-				}
+		Lock taskLock = lockTask(task);
+		try {
+			if (!taskData.isPartial()) {
+				File file = getMigratedFile(task, task.getConnectorKind());
+				taskDataStore.setTaskData(ensurePathExists(file), taskData);
+				event.setTaskDataUpdated(true);
+			}
+			taskList.run(new ITaskListRunnable() {
+				public void execute(IProgressMonitor monitor) throws CoreException {
+					if (event.getTaskDataUpdated()) {
+						task.setMarkReadPending(false);
+					}
 
-				boolean taskChanged = updateTaskFromTaskData(taskData, task, connector, repository);
-				event.setTaskChanged(taskChanged);
+					boolean taskChanged = updateTaskFromTaskData(taskData, task, connector, repository);
+					event.setTaskChanged(taskChanged);
 
-				task.setSynchronizationState(SynchronizationState.SYNCHRONIZED);
-				task.setSynchronizing(false);
-			}
-		});
+					task.setSynchronizationState(SynchronizationState.SYNCHRONIZED);
+					task.setSynchronizing(false);
+				}
+			});
+		} finally {
+			taskLock.unlock();
+		}
 		taskList.notifyElementChanged(task);
 		fireTaskDataUpdated(event);
 	}
@@ -431,6 +515,7 @@ public class TaskDataManager implements ITaskDataManager {
 		final AbstractTask task = (AbstractTask) itask;
 		Assert.isNotNull(task);
 		final boolean changed[] = new boolean[1];
+		Lock taskLock = lockTask(task);
 		try {
 			taskList.run(new ITaskListRunnable() {
 				public void execute(IProgressMonitor monitor) throws CoreException {
@@ -465,6 +550,8 @@ public class TaskDataManager implements ITaskDataManager {
 		} catch (CoreException e) {
 			StatusHandler.log(new Status(IStatus.ERROR, ITasksCoreConstants.ID_PLUGIN,
 					"Unexpected error while marking task read", e)); //$NON-NLS-1$
+		} finally {
+			taskLock.unlock();
 		}
 		if (changed[0]) {
 			taskList.notifyElementChanged(task);
@@ -478,23 +565,28 @@ public class TaskDataManager implements ITaskDataManager {
 		final String kind = task.getConnectorKind();
 		Assert.isNotNull(editsData);
 		final boolean[] changed = new boolean[1];
-		taskList.run(new ITaskListRunnable() {
-			public void execute(IProgressMonitor monitor) throws CoreException {
-				taskDataStore.putEdits(fileManager.getFile(task, kind), editsData);
-				switch (task.getSynchronizationState()) {
-				case INCOMING:
-				case INCOMING_NEW:
-					// TODO throw exception instead?
-					task.setSynchronizationState(SynchronizationState.CONFLICT);
-					changed[0] = true;
-					break;
-				case SYNCHRONIZED:
-					task.setSynchronizationState(SynchronizationState.OUTGOING);
-					changed[0] = true;
-					break;
+		Lock taskLock = lockTask(task);
+		try {
+			taskDataStore.putEdits(fileManager.getFile(task, kind), editsData);
+			taskList.run(new ITaskListRunnable() {
+				public void execute(IProgressMonitor monitor) throws CoreException {
+					switch (task.getSynchronizationState()) {
+					case INCOMING:
+					case INCOMING_NEW:
+						// TODO throw exception instead?
+						task.setSynchronizationState(SynchronizationState.CONFLICT);
+						changed[0] = true;
+						break;
+					case SYNCHRONIZED:
+						task.setSynchronizationState(SynchronizationState.OUTGOING);
+						changed[0] = true;
+						break;
+					}
 				}
-			}
-		});
+			});
+		} finally {
+			taskLock.unlock();
+		}
 		if (changed[0]) {
 			taskList.notifySynchronizationStateChanged(task);
 		}
@@ -46,6 +46,8 @@ public class TaskDataState implements ITaskDataWorkingCopy {
 
 	private TaskData repositoryTaskData;
 
+	private Long repositoryDataFingerprint;
+
 	private final String repositoryUrl;
 
 	private ITask task;
@@ -199,6 +201,25 @@ public class TaskDataState implements ITaskDataWorkingCopy {
 	 */
 	public void setRepositoryData(TaskData newTaskData) {
 		this.repositoryTaskData = newTaskData;
+		this.repositoryDataFingerprint = null;
+	}
+
+	/**
+	 * Returns the fingerprint of the repository data that was recorded when the data was stored or <code>null</code>,
+	 * if the fingerprint is not known. The fingerprint is reset when the repository data is replaced or modified
+	 * through this state.
+	 *
+	 * @see TaskDataStore#getFingerprint(TaskData)
+	 */
+	public Long getRepositoryDataFingerprint() {
+		return repositoryDataFingerprint;
+	}
+
+	/**
+	 * @see #getRepositoryDataFingerprint()
+	 */
+	public void setRepositoryDataFingerprint(Long repositoryDataFingerprint) {
+		this.repositoryDataFingerprint = repositoryDataFingerprint;
 	}
 
 	public void merge(TaskDataState oldState) {
@@ -210,6 +231,7 @@ public class TaskDataState implements ITaskDataWorkingCopy {
 	public void changeAttributeValues(Map<TaskAttribute, Collection<String>> newValues) {
 		changeAttributeValues(localTaskData, newValues);
 		changeAttributeValues(repositoryTaskData, newValues);
+		repositoryDataFingerprint = null;
 		changeAttributeValues(editsTaskData, newValues);
 		changeAttributeValues(lastReadTaskData, newValues);
 	}
@@ -248,6 +270,7 @@ public class TaskDataState implements ITaskDataWorkingCopy {
 	public void refactorAttribute(TaskAttribute attribute) throws CoreException {
 		refactorAttribute(localTaskData, attribute);
 		refactorAttribute(repositoryTaskData, attribute);
+		repositoryDataFingerprint = null;
 		refactorAttribute(editsTaskData, attribute);
 		refactorAttribute(lastReadTaskData, attribute);
 	}
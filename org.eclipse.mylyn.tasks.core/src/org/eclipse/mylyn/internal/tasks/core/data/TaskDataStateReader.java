@@ -11,12 +11,17 @@
 
 package org.eclipse.mylyn.internal.tasks.core.data;
 
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 import org.eclipse.mylyn.tasks.core.AbstractRepositoryConnector;
 import org.eclipse.mylyn.tasks.core.IRepositoryManager;
 import org.eclipse.mylyn.tasks.core.TaskRepository;
 import org.eclipse.mylyn.tasks.core.data.AbstractTaskDataHandler;
 import org.eclipse.mylyn.tasks.core.data.TaskAttribute;
 import org.eclipse.mylyn.tasks.core.data.TaskAttributeMapper;
+import org.eclipse.mylyn.tasks.core.data.TaskAttributeOptionTable;
 import org.eclipse.mylyn.tasks.core.data.TaskData;
 import org.xml.sax.Attributes;
 import org.xml.sax.SAXException;
@@ -145,7 +150,7 @@ public class TaskDataStateReader extends DefaultHandler {
 			attribute = parentAttribute.createAttribute(id);
 
 			addElementHandler(new ValueHandler20(this, attribute));
-			addElementHandler(new MapHandler20(this, attribute, ITaskDataConstants.ELEMENT_OPTION));
+			addElementHandler(new OptionsHandler20(this, attribute));
 			addElementHandler(new MapHandler20(this, attribute, ITaskDataConstants.ELEMENT_META));
 			addElementHandler(new AttributeHandler20(this, attribute));
 		}
@@ -372,6 +377,14 @@ public class TaskDataStateReader extends DefaultHandler {
 
 	}
 
+	/**
+	 * Returns true, if <code>version</code> uses the format of version 2.0. Version 2.1 adds option tables and the
+	 * fingerprint of the repository data which are both optional.
+	 */
+	private static boolean isVersion20(String version) {
+		return "2.0".equals(version) || "2.1".equals(version); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
 	private class TaskStateHandler extends ElementHandler {
 
 		private TaskAttributeMapper attributeMapper;
@@ -380,6 +393,8 @@ public class TaskDataStateReader extends DefaultHandler {
 
 		private final String version;
 
+		private Long fingerprint;
+
 		public TaskStateHandler(String version) {
 			super(null, ITaskDataConstants.ELEMENT_TASK_STATE);
 			this.version = version;
@@ -388,10 +403,11 @@ public class TaskDataStateReader extends DefaultHandler {
 				addElementHandler(new TaskDataHandler10(this, ITaskDataConstants.ELEMENT_NEW_DATA));
 				addElementHandler(new TaskDataHandler10(this, ITaskDataConstants.ELEMENT_OLD_DATA));
 				addElementHandler(new TaskDataHandler10(this, ITaskDataConstants.ELEMENT_EDITS_DATA));
-			} else if ("2.0".equals(version)) { //$NON-NLS-1$
+			} else if (isVersion20(version)) {
 				addElementHandler(new TaskDataHandler20(this, ITaskDataConstants.ELEMENT_NEW_DATA));
 				addElementHandler(new TaskDataHandler20(this, ITaskDataConstants.ELEMENT_OLD_DATA));
 				addElementHandler(new TaskDataHandler20(this, ITaskDataConstants.ELEMENT_EDITS_DATA));
+				addElementHandler(new OptionTableHandler20(this));
 			}
 		}
 
@@ -416,6 +432,11 @@ public class TaskDataStateReader extends DefaultHandler {
 
 		@Override
 		public void done(ElementHandler elementHandler) {
+			if (elementHandler instanceof OptionTableHandler20) {
+				super.done(elementHandler);
+				return;
+			}
+
 			TaskData taskData;
 			if (elementHandler instanceof TaskDataHandler10) {
 				TaskDataHandler10 taskDataHandler = (TaskDataHandler10) elementHandler;
@@ -445,12 +466,21 @@ public class TaskDataStateReader extends DefaultHandler {
 
 		@Override
 		protected void start(String uri, String localName, String name, Attributes attributes) throws SAXException {
-			if ("2.0".equals(version)) { //$NON-NLS-1$
+			if (isVersion20(version)) {
 				String connectorKind = getValue(attributes, ITaskDataConstants.ATTRIBUTE_CONNECTOR_KIND);
 				String repositoryUrl = getValue(attributes, ITaskDataConstants.ATTRIBUTE_REPOSITORY_URL);
 				String taskId = getValue(attributes, ITaskDataConstants.ATTRIBUTE_TASK_ID);
 				attributeMapper = getAttributeMapper(connectorKind, repositoryUrl);
 				state = new TaskDataState(connectorKind, repositoryUrl, taskId);
+				fingerprint = parseFingerprint(attributes);
+			}
+		}
+
+		@Override
+		protected void end(String uri, String localName, String name) {
+			// the fingerprint is reset while the repository data is set
+			if (state != null && state.getRepositoryData() != null) {
+				state.setRepositoryDataFingerprint(fingerprint);
 			}
 		}
 	}
@@ -501,6 +531,8 @@ public class TaskDataStateReader extends DefaultHandler {
 
 		private final TaskAttribute attribute;
 
+		private final Map<String, String> map;
+
 		private String key = ""; //$NON-NLS-1$
 
 		private String value = ""; //$NON-NLS-1$
@@ -508,11 +540,20 @@ public class TaskDataStateReader extends DefaultHandler {
 		public MapHandler20(ElementHandler parent, TaskAttribute attribute, String elementName) {
 			super(parent, elementName);
 			this.attribute = attribute;
+			this.map = null;
+		}
+
+		public MapHandler20(ElementHandler parent, Map<String, String> map, String elementName) {
+			super(parent, elementName);
+			this.attribute = null;
+			this.map = map;
 		}
 
 		@Override
 		public void end(String uri, String localName, String name) {
-			if (ITaskDataConstants.ELEMENT_OPTION.equals(getElementName())) {
+			if (map != null) {
+				map.put(key, value);
+			} else if (ITaskDataConstants.ELEMENT_OPTION.equals(getElementName())) {
 				attribute.putOption(key, value);
 			} else if (ITaskDataConstants.ELEMENT_META.equals(getElementName())) {
 				attribute.getMetaData().putValue(key, value);
@@ -539,6 +580,54 @@ public class TaskDataStateReader extends DefaultHandler {
 
 	}
 
+	private class OptionsHandler20 extends ElementHandler {
+
+		private final TaskAttribute attribute;
+
+		public OptionsHandler20(ElementHandler parent, TaskAttribute attribute) {
+			super(parent, ITaskDataConstants.ELEMENT_OPTIONS);
+			this.attribute = attribute;
+			addElementHandler(new MapHandler20(this, attribute, ITaskDataConstants.ELEMENT_OPTION));
+		}
+
+		@Override
+		protected void start(String uri, String localName, String name, Attributes attributes) throws SAXException {
+			String tableId = attributes.getValue(ITaskDataConstants.ATTRIBUTE_OPTION_TABLE);
+			if (tableId != null) {
+				TaskAttributeOptionTable optionTable = optionTableById.get(tableId);
+				if (optionTable == null) {
+					throw new SAXException("Option table \"" + tableId + "\" not found"); //$NON-NLS-1$ //$NON-NLS-2$
+				}
+				attribute.setOptionTable(optionTable);
+			}
+		}
+
+	}
+
+	private class OptionTableHandler20 extends ElementHandler {
+
+		private final Map<String, String> options = new LinkedHashMap<String, String>();
+
+		private String id;
+
+		public OptionTableHandler20(ElementHandler parent) {
+			super(parent, ITaskDataConstants.ELEMENT_OPTION_TABLE);
+			addElementHandler(new MapHandler20(this, options, ITaskDataConstants.ELEMENT_OPTION));
+		}
+
+		@Override
+		protected void start(String uri, String localName, String name, Attributes attributes) throws SAXException {
+			id = getValue(attributes, ITaskDataConstants.ATTRIBUTE_ID);
+			options.clear();
+		}
+
+		@Override
+		protected void end(String uri, String localName, String name) {
+			optionTableById.put(id, TaskAttributeOptionTable.of(options));
+		}
+
+	}
+
 	private class TextHandler20 extends ElementHandler {
 
 		public TextHandler20(ElementHandler parent, String elementName) {
@@ -554,6 +643,8 @@ public class TaskDataStateReader extends DefaultHandler {
 
 	private TaskStateHandler handler;
 
+	private final Map<String, TaskAttributeOptionTable> optionTableById = new HashMap<String, TaskAttributeOptionTable>();
+
 	private final IRepositoryManager repositoryManager;
 
 	private TaskDataState result;
@@ -611,6 +702,18 @@ public class TaskDataStateReader extends DefaultHandler {
 		return result;
 	}
 
+	static Long parseFingerprint(Attributes attributes) {
+		String value = attributes.getValue(ITaskDataConstants.ATTRIBUTE_FINGERPRINT);
+		if (value != null) {
+			try {
+				return Long.valueOf(value);
+			} catch (NumberFormatException e) {
+				// ignore, the fingerprint is computed again
+			}
+		}
+		return null;
+	}
+
 	@Override
 	public void startElement(String uri, String localName, String name, Attributes attributes) throws SAXException {
 		if (handler != null) {
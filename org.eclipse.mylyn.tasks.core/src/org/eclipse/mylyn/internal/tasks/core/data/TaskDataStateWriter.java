@@ -11,6 +11,7 @@
 
 package org.eclipse.mylyn.internal.tasks.core.data;
 
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -18,6 +19,7 @@ import javax.xml.transform.sax.TransformerHandler;
 
 import org.eclipse.mylyn.tasks.core.data.ITaskDataWorkingCopy;
 import org.eclipse.mylyn.tasks.core.data.TaskAttribute;
+import org.eclipse.mylyn.tasks.core.data.TaskAttributeOptionTable;
 import org.eclipse.mylyn.tasks.core.data.TaskData;
 import org.xml.sax.SAXException;
 import org.xml.sax.helpers.AttributesImpl;
@@ -27,12 +29,15 @@ import org.xml.sax.helpers.AttributesImpl;
  */
 public class TaskDataStateWriter {
 
-	private static final String TASK_DATA_STATE_VERSION = "2.0"; //$NON-NLS-1$
+	private static final String TASK_DATA_STATE_VERSION = "2.1"; //$NON-NLS-1$
 
 	private static final String CDATA = "CDATA"; //$NON-NLS-1$
 
 	private final TransformerHandler handler;
 
+	// option tables are written once per state and referenced by attributes
+	private final Map<TaskAttributeOptionTable, String> optionTableIds = new LinkedHashMap<TaskAttributeOptionTable, String>();
+
 	public TaskDataStateWriter(TransformerHandler handler) {
 		this.handler = handler;
 	}
@@ -44,7 +49,19 @@ public class TaskDataStateWriter {
 		atts.addAttribute("", "", ITaskDataConstants.ATTRIBUTE_REPOSITORY_URL, CDATA, state.getRepositoryUrl()); //$NON-NLS-1$ //$NON-NLS-2$
 		atts.addAttribute("", "", ITaskDataConstants.ATTRIBUTE_TASK_ID, CDATA, state.getTaskId()); //$NON-NLS-1$ //$NON-NLS-2$
 		atts.addAttribute("", "", ITaskDataConstants.ATTRIBUTE_VERSION, CDATA, TASK_DATA_STATE_VERSION); //$NON-NLS-1$ //$NON-NLS-2$
+		if (state instanceof TaskDataState && state.getRepositoryData() != null
+				&& ((TaskDataState) state).getRepositoryDataFingerprint() != null) {
+			atts.addAttribute("", "", ITaskDataConstants.ATTRIBUTE_FINGERPRINT, CDATA, //$NON-NLS-1$ //$NON-NLS-2$
+					((TaskDataState) state).getRepositoryDataFingerprint().toString());
+		}
 		handler.startElement("", "", ITaskDataConstants.ELEMENT_TASK_STATE, atts); //$NON-NLS-1$ //$NON-NLS-2$
+		optionTableIds.clear();
+		collectOptionTables(state.getRepositoryData());
+		collectOptionTables(state.getLastReadData());
+		collectOptionTables(state.getEditsData());
+		if (!optionTableIds.isEmpty()) {
+			writeOptionTables();
+		}
 		if (state.getRepositoryData() != null) {
 			writeTaskData(state.getRepositoryData(), ITaskDataConstants.ELEMENT_NEW_DATA);
 		}
@@ -58,6 +75,35 @@ public class TaskDataStateWriter {
 		handler.endDocument();
 	}
 
+	private void collectOptionTables(TaskData taskData) {
+		if (taskData != null) {
+			collectOptionTables(taskData.getRoot());
+		}
+	}
+
+	private void collectOptionTables(TaskAttribute attribute) {
+		TaskAttributeOptionTable optionTable = attribute.getOptionTable();
+		if (optionTable != null && !optionTableIds.containsKey(optionTable)) {
+			optionTableIds.put(optionTable, Integer.toString(optionTableIds.size() + 1));
+		}
+		for (TaskAttribute child : attribute.getAttributes().values()) {
+			collectOptionTables(child);
+		}
+	}
+
+	private void writeOptionTables() throws SAXException {
+		AttributesImpl atts = new AttributesImpl();
+		handler.startElement("", "", ITaskDataConstants.ELEMENT_OPTION_TABLES, atts); //$NON-NLS-1$ //$NON-NLS-2$
+		for (Map.Entry<TaskAttributeOptionTable, String> entry : optionTableIds.entrySet()) {
+			atts.addAttribute("", "", ITaskDataConstants.ATTRIBUTE_ID, CDATA, entry.getValue()); //$NON-NLS-1$ //$NON-NLS-2$
+			handler.startElement("", "", ITaskDataConstants.ELEMENT_OPTION_TABLE, atts); //$NON-NLS-1$ //$NON-NLS-2$
+			atts.clear();
+			writeMap(atts, entry.getKey().getOptions(), ITaskDataConstants.ELEMENT_OPTION);
+			handler.endElement("", "", ITaskDataConstants.ELEMENT_OPTION_TABLE); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		handler.endElement("", "", ITaskDataConstants.ELEMENT_OPTION_TABLES); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
 	private void writeTaskData(TaskData taskData, String elementName) throws SAXException {
 		AttributesImpl atts = new AttributesImpl();
 		atts.addAttribute("", "", ITaskDataConstants.ATTRIBUTE_CONNECTOR_KIND, CDATA, taskData.getConnectorKind()); //$NON-NLS-1$ //$NON-NLS-2$
@@ -89,8 +135,16 @@ public class TaskDataStateWriter {
 		}
 		handler.endElement("", "", ITaskDataConstants.ELEMENT_VALUES); //$NON-NLS-1$ //$NON-NLS-2$
 
-		handler.startElement("", "", ITaskDataConstants.ELEMENT_OPTIONS, atts); //$NON-NLS-1$ //$NON-NLS-2$
-		writeMap(atts, attribute.getOptions(), ITaskDataConstants.ELEMENT_OPTION);
+		TaskAttributeOptionTable optionTable = attribute.getOptionTable();
+		if (optionTable != null) {
+			atts.addAttribute("", "", ITaskDataConstants.ATTRIBUTE_OPTION_TABLE, CDATA, //$NON-NLS-1$ //$NON-NLS-2$
+					optionTableIds.get(optionTable));
+			handler.startElement("", "", ITaskDataConstants.ELEMENT_OPTIONS, atts); //$NON-NLS-1$ //$NON-NLS-2$
+			atts.clear();
+		} else {
+			handler.startElement("", "", ITaskDataConstants.ELEMENT_OPTIONS, atts); //$NON-NLS-1$ //$NON-NLS-2$
+			writeMap(atts, attribute.getOptions(), ITaskDataConstants.ELEMENT_OPTION);
+		}
 		handler.endElement("", "", ITaskDataConstants.ELEMENT_OPTIONS); //$NON-NLS-1$ //$NON-NLS-2$
 
 		handler.startElement("", "", ITaskDataConstants.ELEMENT_META_DATA, atts); //$NON-NLS-1$ //$NON-NLS-2$
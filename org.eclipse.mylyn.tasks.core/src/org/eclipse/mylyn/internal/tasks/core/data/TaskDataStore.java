@@ -16,9 +16,14 @@ import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 import java.util.zip.ZipOutputStream;
@@ -33,6 +38,12 @@ import org.eclipse.mylyn.tasks.core.IRepositoryManager;
 import org.eclipse.mylyn.tasks.core.data.TaskData;
 import org.xml.sax.SAXException;
 
+import com.google.common.hash.Funnels;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.Striped;
+
 /**
  * @author Steffen Pingel
  */
@@ -42,7 +53,106 @@ public class TaskDataStore {
 
 	private final TaskDataExternalizer externalizer;
 
-	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+	// guards the files, operations on different files only contend if the files map to the same stripe
+	private final Striped<ReadWriteLock> fileLocks = Striped.readWriteLock(64);
+
+	/**
+	 * Approximate ratio between the memory retained by a parsed task data state and the size of its XML representation.
+	 */
+	private static final int PARSED_SIZE_FACTOR = 3;
+
+	private static final long DEFAULT_PREFETCH_BUDGET = 8 * 1024 * 1024;
+
+	private static class PrefetchedState {
+
+		private final TaskDataState state;
+
+		private final long lastModified;
+
+		private final long length;
+
+		private final long size;
+
+		public PrefetchedState(TaskDataState state, long lastModified, long length, long size) {
+			this.state = state;
+			this.lastModified = lastModified;
+			this.length = length;
+			this.size = size;
+		}
+
+	}
+
+	private static class CountingInputStream extends FilterInputStream {
+
+		private long count;
+
+		public CountingInputStream(InputStream in) {
+			super(in);
+		}
+
+		@Override
+		public int read() throws IOException {
+			int b = super.read();
+			if (b != -1) {
+				count++;
+			}
+			return b;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			int n = super.read(b, off, len);
+			if (n > 0) {
+				count += n;
+			}
+			return n;
+		}
+
+		public long getCount() {
+			return count;
+		}
+
+	}
+
+	/**
+	 * A task data state and the number of uncompressed bytes that were parsed to read it.
+	 */
+	private static class ReadResult {
+
+		private final TaskDataState state;
+
+		private final long size;
+
+		public ReadResult(TaskDataState state, long size) {
+			this.state = state;
+			this.size = size;
+		}
+
+	}
+
+	// access ordered to evict the least recently prefetched states first, guarded by itself
+	private final Map<File, PrefetchedState> prefetchedStates = new LinkedHashMap<File, PrefetchedState>(16, 0.75f,
+			true);
+
+	private long prefetchedSize;
+
+	private long prefetchBudget = DEFAULT_PREFETCH_BUDGET;
+
+	private static final HashFunction FINGERPRINT_FUNCTION = Hashing.murmur3_128();
+
+	private static final int MAX_CACHED_FINGERPRINTS = 1024;
+
+	// recently used fingerprints of the repository data stored in files, guarded by itself
+	private final Map<File, Long> fingerprints = new LinkedHashMap<File, Long>(16, 0.75f, true) {
+
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<File, Long> eldest) {
+			return size() > MAX_CACHED_FINGERPRINTS;
+		}
+
+	};
 
 	public TaskDataStore(IRepositoryManager taskRepositoryManager) {
 		this(new TaskDataExternalizer(taskRepositoryManager));
@@ -53,51 +163,260 @@ public class TaskDataStore {
 	}
 
 	public TaskDataState discardEdits(File file) throws CoreException {
-		TaskDataState state = readState(file);
-		if (state != null) {
-			state.setEditsData(null);
+		// hold the write lock of the file while reading to make the update atomic
+		ReadWriteLock lock = getLock(file);
+		lock.writeLock().lock();
+		try {
+			TaskDataState state = readState(file);
+			if (state != null) {
+				state.setEditsData(null);
+			}
+			writeState(file, state);
+			return state;
+		} finally {
+			lock.writeLock().unlock();
 		}
-		writeState(file, state);
-		return state;
 	}
 
 	public TaskDataState getTaskDataState(File file) throws CoreException {
 		return readState(file);
 	}
 
+	/**
+	 * Reads and parses the task data state stored in <code>file</code> ahead of time so that a subsequent invocation of
+	 * {@link #getTaskDataState(File)} does not need to access the disk. Each prefetched state is handed out only once
+	 * since callers modify the returned state. Prefetched states are discarded when the file is written or deleted and
+	 * least recently prefetched states are evicted when the prefetch budget is exceeded.
+	 *
+	 * @return true, if the state was read; false, if the file does not exist, is already prefetched or exceeds the
+	 *         budget
+	 */
+	public boolean prefetch(File file) throws CoreException {
+		Assert.isNotNull(file);
+		synchronized (prefetchedStates) {
+			if (prefetchBudget <= 0 || prefetchedStates.containsKey(file)) {
+				return false;
+			}
+		}
+		ReadWriteLock lock = getLock(file);
+		lock.readLock().lock();
+		try {
+			long lastModified = file.lastModified();
+			long length = file.length();
+			if (!file.exists() || length * PARSED_SIZE_FACTOR > prefetchBudget) {
+				return false;
+			}
+			ReadResult result = readStateInternal(file);
+			TaskDataState state = result.state;
+			if (state == null) {
+				return false;
+			}
+			long size = result.size * PARSED_SIZE_FACTOR;
+			synchronized (prefetchedStates) {
+				if (size > prefetchBudget) {
+					return false;
+				}
+				PrefetchedState previous = prefetchedStates.put(file,
+						new PrefetchedState(state, lastModified, length, size));
+				if (previous != null) {
+					prefetchedSize -= previous.size;
+				}
+				prefetchedSize += size;
+				evict();
+			}
+			return true;
+		} catch (IOException e) {
+			throw new CoreException(new Status(IStatus.ERROR, ITasksCoreConstants.ID_PLUGIN, "Error reading task data", //$NON-NLS-1$
+					e));
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Sets the maximum number of bytes that may be retained by prefetched task data states. A budget of 0 disables
+	 * prefetching.
+	 */
+	public void setPrefetchBudget(long prefetchBudget) {
+		synchronized (prefetchedStates) {
+			this.prefetchBudget = prefetchBudget;
+			evict();
+		}
+	}
+
+	public long getPrefetchBudget() {
+		synchronized (prefetchedStates) {
+			return prefetchBudget;
+		}
+	}
+
+	public long getPrefetchedSize() {
+		synchronized (prefetchedStates) {
+			return prefetchedSize;
+		}
+	}
+
+	public boolean isPrefetched(File file) {
+		synchronized (prefetchedStates) {
+			return prefetchedStates.containsKey(file);
+		}
+	}
+
+	private void evict() {
+		Iterator<PrefetchedState> it = prefetchedStates.values().iterator();
+		while (prefetchedSize > prefetchBudget && it.hasNext()) {
+			prefetchedSize -= it.next().size;
+			it.remove();
+		}
+	}
+
+	private PrefetchedState takePrefetchedState(File file) {
+		synchronized (prefetchedStates) {
+			PrefetchedState prefetched = prefetchedStates.remove(file);
+			if (prefetched != null) {
+				prefetchedSize -= prefetched.size;
+			}
+			return prefetched;
+		}
+	}
+
 	public void putEdits(File file, TaskData data) throws CoreException {
 		Assert.isNotNull(file);
 		Assert.isNotNull(data);
-		TaskDataState state = readState(file);
-		if (state == null) {
-			state = new TaskDataState(data.getConnectorKind(), data.getRepositoryUrl(), data.getTaskId());
+		ReadWriteLock lock = getLock(file);
+		lock.writeLock().lock();
+		try {
+			TaskDataState state = readState(file);
+			if (state == null) {
+				state = new TaskDataState(data.getConnectorKind(), data.getRepositoryUrl(), data.getTaskId());
+			}
+			state.setEditsData(data);
+			writeState(file, state);
+		} finally {
+			lock.writeLock().unlock();
 		}
-		state.setEditsData(data);
-		writeState(file, state);
 	}
 
 	public TaskDataState putTaskData(File file, TaskData data, boolean setLastRead, boolean user) throws CoreException {
+		return putTaskDataInternal(file, data, null, setLastRead, user);
+	}
+
+	/**
+	 * Stores <code>data</code> as the repository data of the state in <code>file</code> and records
+	 * <code>fingerprint</code> as the fingerprint of the stored repository data.
+	 *
+	 * @see #getFingerprint(TaskData)
+	 */
+	public TaskDataState putTaskData(File file, TaskData data, long fingerprint, boolean setLastRead, boolean user)
+			throws CoreException {
+		return putTaskDataInternal(file, data, fingerprint, setLastRead, user);
+	}
+
+	private TaskDataState putTaskDataInternal(File file, TaskData data, Long fingerprint, boolean setLastRead,
+			boolean user) throws CoreException {
 		Assert.isNotNull(file);
 		Assert.isNotNull(data);
-		TaskDataState state = null;
+		ReadWriteLock lock = getLock(file);
+		lock.writeLock().lock();
 		try {
-			state = readState(file);
-		} catch (CoreException e) {
-			if (!user) {
-				throw new CoreException(new Status(IStatus.ERROR, ITasksCoreConstants.ID_PLUGIN,
-						"Reading of existing task data failed. Forcing synchronization will override outgoing changes.", //$NON-NLS-1$
-						e));
+			TaskDataState state = null;
+			try {
+				state = readState(file);
+			} catch (CoreException e) {
+				if (!user) {
+					throw new CoreException(new Status(IStatus.ERROR, ITasksCoreConstants.ID_PLUGIN,
+							"Reading of existing task data failed. Forcing synchronization will override outgoing changes.", //$NON-NLS-1$
+							e));
+				}
+			}
+			if (state == null) {
+				state = new TaskDataState(data.getConnectorKind(), data.getRepositoryUrl(), data.getTaskId());
+			}
+			if (setLastRead) {
+				state.setLastReadData(state.getRepositoryData());
+			}
+			state.setRepositoryData(data);
+			state.setRepositoryDataFingerprint(fingerprint);
+			writeState(file, state);
+			if (fingerprint != null) {
+				synchronized (fingerprints) {
+					fingerprints.put(file, fingerprint);
+				}
 			}
+			return state;
+		} finally {
+			lock.writeLock().unlock();
 		}
-		if (state == null) {
-			state = new TaskDataState(data.getConnectorKind(), data.getRepositoryUrl(), data.getTaskId());
+	}
+
+	/**
+	 * Computes a fingerprint of the content of <code>data</code> from its serialized representation. Task data with
+	 * identical content has the same fingerprint.
+	 */
+	public long getFingerprint(TaskData data) throws CoreException {
+		Assert.isNotNull(data);
+		TaskDataState state = new TaskDataState(data.getConnectorKind(), data.getRepositoryUrl(), data.getTaskId());
+		state.setRepositoryData(data);
+		Hasher hasher = FINGERPRINT_FUNCTION.newHasher();
+		try (OutputStream out = Funnels.asOutputStream(hasher)) {
+			externalizer.writeState(out, state);
+		} catch (IOException e) {
+			throw new CoreException(new Status(IStatus.ERROR, ITasksCoreConstants.ID_PLUGIN,
+					"Error computing task data fingerprint", e)); //$NON-NLS-1$
 		}
-		if (setLastRead) {
-			state.setLastReadData(state.getRepositoryData());
+		return hasher.hash().asLong();
+	}
+
+	/**
+	 * Returns true, if the repository data stored in <code>file</code> has <code>fingerprint</code>. Fingerprints are
+	 * recorded in the file when task data is stored through
+	 * {@link #putTaskData(File, TaskData, long, boolean, boolean)} and kept while the repository data is not modified.
+	 * The most recently used fingerprints are cached. If the file has no fingerprint, e.g. since it was written by an
+	 * earlier version, the file is read to compute it.
+	 */
+	public boolean hasRepositoryData(File file, long fingerprint) throws CoreException {
+		Assert.isNotNull(file);
+		Long storedFingerprint;
+		synchronized (fingerprints) {
+			storedFingerprint = fingerprints.get(file);
+		}
+		if (storedFingerprint == null) {
+			// holding the read lock ensures that the file is not modified before the fingerprint is recorded
+			ReadWriteLock lock = getLock(file);
+			lock.readLock().lock();
+			try {
+				if (!file.exists()) {
+					return false;
+				}
+				storedFingerprint = readFingerprint(file);
+				if (storedFingerprint == null) {
+					TaskDataState state = readStateInternal(file).state;
+					if (state == null || state.getRepositoryData() == null) {
+						return false;
+					}
+					storedFingerprint = getFingerprint(state.getRepositoryData());
+				}
+				synchronized (fingerprints) {
+					fingerprints.put(file, storedFingerprint);
+				}
+			} catch (IOException e) {
+				throw new CoreException(new Status(IStatus.ERROR, ITasksCoreConstants.ID_PLUGIN,
+						"Error reading task data", e)); //$NON-NLS-1$
+			} finally {
+				lock.readLock().unlock();
+			}
+		}
+		return storedFingerprint.longValue() == fingerprint;
+	}
+
+	ReadWriteLock getLock(File file) {
+		return fileLocks.get(file.getAbsoluteFile());
+	}
+
+	private void invalidateFingerprint(File file) {
+		synchronized (fingerprints) {
+			fingerprints.remove(file);
 		}
-		state.setRepositoryData(data);
-		writeState(file, state);
-		return state;
 	}
 
 	public TaskDataState setTaskData(File file, TaskData data) throws CoreException {
@@ -114,41 +433,64 @@ public class TaskDataStore {
 		return state;
 	}
 
-	private TaskDataState readStateInternal(File file, boolean xml11) throws IOException, SAXException {
-		try (ZipInputStream in = new ZipInputStream(new BufferedInputStream(new FileInputStream(file)))) {
-			in.getNextEntry();
+	private ReadResult readStateInternal(File file, boolean xml11) throws IOException, SAXException {
+		try (ZipInputStream zipIn = new ZipInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+			zipIn.getNextEntry();
+			CountingInputStream in = new CountingInputStream(zipIn);
 			// bug 268456: When TaskData that contains C0 control characters is written to disk using XML 1.0 reading it back
 			// in fails with a SAXException. The XML 1.1 standard allows C0 entities but fails if C1 entities. If C0 control
 			// characters are detected while parsing file as XML 1.0 a second attempt is made using XML 1.1. If the file contains
 			// C0 and C1 control characters reading will fail regardless.
+			TaskDataState state;
 			if (xml11) {
-				return externalizer.readState(new Xml11InputStream(in));
+				state = externalizer.readState(new Xml11InputStream(in));
 			} else {
-				return externalizer.readState(in);
+				state = externalizer.readState(in);
 			}
+			return new ReadResult(state, in.getCount());
+		}
+	}
+
+	private Long readFingerprint(File file) throws IOException {
+		try (ZipInputStream zipIn = new ZipInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+			zipIn.getNextEntry();
+			return externalizer.readFingerprint(zipIn);
+		} catch (SAXException e) {
+			// fall back to computing the fingerprint from the parsed state
+			return null;
+		}
+	}
+
+	private ReadResult readStateInternal(File file) throws IOException {
+		try {
+			try {
+				return readStateInternal(file, false);
+			} catch (SAXException e) {
+				// bug 268456: if reading fails, try again using a different XML version
+				if (e.getMessage() != null && (e.getMessage().contains("invalid XML character") //$NON-NLS-1$
+						|| e.getMessage().contains(" \"&#"))) { //$NON-NLS-1$
+					return readStateInternal(file, true);
+				} else {
+					throw e;
+				}
+			}
+
+		} catch (SAXException e) {
+			throw new IOException("Error parsing task data: " + e.getMessage(), e); //$NON-NLS-1$
 		}
 	}
 
 	private TaskDataState readState(File file) throws CoreException {
+		ReadWriteLock lock = getLock(file);
 		lock.readLock().lock();
 		try {
+			PrefetchedState prefetched = takePrefetchedState(file);
 			if (file.exists()) {
-				try {
-					try {
-						return readStateInternal(file, false);
-					} catch (SAXException e) {
-						// bug 268456: if reading fails, try again using a different XML version
-						if (e.getMessage() != null && (e.getMessage().contains("invalid XML character") //$NON-NLS-1$
-								|| e.getMessage().contains(" \"&#"))) { //$NON-NLS-1$
-							return readStateInternal(file, true);
-						} else {
-							throw e;
-						}
-					}
-
-				} catch (SAXException e) {
-					throw new IOException("Error parsing task data: " + e.getMessage(), e); //$NON-NLS-1$
+				if (prefetched != null && prefetched.lastModified == file.lastModified()
+						&& prefetched.length == file.length()) {
+					return prefetched.state;
 				}
+				return readStateInternal(file).state;
 			}
 			return null;
 		} catch (IOException e) {
@@ -160,8 +502,11 @@ public class TaskDataStore {
 	}
 
 	private void writeState(File file, TaskDataState state) throws CoreException {
+		ReadWriteLock lock = getLock(file);
 		lock.writeLock().lock();
 		try {
+			takePrefetchedState(file);
+			invalidateFingerprint(file);
 			try (ZipOutputStream out = new ZipOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
 				out.setMethod(ZipOutputStream.DEFLATED);
 
@@ -183,8 +528,11 @@ public class TaskDataStore {
 	}
 
 	public boolean deleteTaskData(File file) {
+		ReadWriteLock lock = getLock(file);
 		lock.writeLock().lock();
 		try {
+			takePrefetchedState(file);
+			invalidateFingerprint(file);
 			return file.delete();
 		} finally {
 			lock.writeLock().unlock();
@@ -12,7 +12,10 @@
 package org.eclipse.mylyn.internal.tasks.core.sync;
 
 import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 
 import org.eclipse.core.runtime.CoreException;
@@ -29,19 +32,25 @@ import org.eclipse.mylyn.tasks.core.sync.ISynchronizationSession;
  */
 public class SynchronizationSession implements ISynchronizationSession {
 
+	// mutable fields are guarded by this since queries of a session may be performed concurrently
+
 	private Set<ITask> changedTasks;
 
 	private Object data;
 
 	private boolean fullSynchronization;
 
+	private Map<ITask, Date> fullyIngestedTasks;
+
+	private Map<ITask, Date> partiallyIngestedTasks;
+
 	private boolean performQueries;
 
 	private Set<ITask> staleTasks;
 
 	private IStatus status;
 
-	private TaskDataManager taskDataManager;
+	private final TaskDataManager taskDataManager;
 
 	private TaskRepository taskRepository;
 
@@ -50,29 +59,34 @@ public class SynchronizationSession implements ISynchronizationSession {
 	private boolean user;
 
 	public SynchronizationSession() {
+		this(null);
 	}
 
 	public SynchronizationSession(TaskDataManager taskDataManager) {
 		this.taskDataManager = taskDataManager;
 	}
 
-	public Set<ITask> getChangedTasks() {
+	public synchronized Set<ITask> getChangedTasks() {
 		return changedTasks;
 	}
 
-	public Object getData() {
+	public synchronized Object getData() {
 		return data;
 	}
 
-	public Set<ITask> getStaleTasks() {
+	/**
+	 * Returns a snapshot of the tasks that were marked stale. Tasks may be marked stale concurrently, e.g. by queries
+	 * that are performed in parallel.
+	 */
+	public synchronized Set<ITask> getStaleTasks() {
 		if (staleTasks == null) {
 			return Collections.emptySet();
 		} else {
-			return staleTasks;
+			return new HashSet<ITask>(staleTasks);
 		}
 	}
 
-	public IStatus getStatus() {
+	public synchronized IStatus getStatus() {
 		return status;
 	}
 
@@ -80,30 +94,68 @@ public class SynchronizationSession implements ISynchronizationSession {
 		return taskDataManager;
 	}
 
-	public TaskRepository getTaskRepository() {
+	public synchronized TaskRepository getTaskRepository() {
 		return taskRepository;
 	}
 
-	public Set<ITask> getTasks() {
+	public synchronized Set<ITask> getTasks() {
 		return tasks;
 	}
 
-	public boolean isFullSynchronization() {
+	/**
+	 * Returns true, if task data for <code>task</code> with the given modification date has already been processed in
+	 * this session, e.g. because the task was returned by several queries. Partial task data is considered ingested if
+	 * either partial or full task data was processed before, full task data only if full task data was processed.
+	 *
+	 * @see #markIngested(ITask, Date, boolean)
+	 */
+	public synchronized boolean isIngested(ITask task, Date modificationDate, boolean partial) {
+		if (modificationDate == null) {
+			return false;
+		}
+		if (fullyIngestedTasks != null && modificationDate.equals(fullyIngestedTasks.get(task))) {
+			return true;
+		}
+		return partial && partiallyIngestedTasks != null
+				&& modificationDate.equals(partiallyIngestedTasks.get(task));
+	}
+
+	/**
+	 * Records that task data for <code>task</code> with the given modification date has been processed in this session.
+	 */
+	public synchronized void markIngested(ITask task, Date modificationDate, boolean partial) {
+		if (modificationDate == null) {
+			return;
+		}
+		if (partial) {
+			if (partiallyIngestedTasks == null) {
+				partiallyIngestedTasks = new HashMap<ITask, Date>();
+			}
+			partiallyIngestedTasks.put(task, modificationDate);
+		} else {
+			if (fullyIngestedTasks == null) {
+				fullyIngestedTasks = new HashMap<ITask, Date>();
+			}
+			fullyIngestedTasks.put(task, modificationDate);
+		}
+	}
+
+	public synchronized boolean isFullSynchronization() {
 		return fullSynchronization;
 	}
 
-	public boolean isUser() {
+	public synchronized boolean isUser() {
 		return user;
 	}
 
-	public void markStale(ITask task) {
+	public synchronized void markStale(ITask task) {
 		if (staleTasks == null) {
 			staleTasks = new HashSet<ITask>();
 		}
 		staleTasks.add(task);
 	}
 
-	public boolean needsPerformQueries() {
+	public synchronized boolean needsPerformQueries() {
 		return performQueries;
 	}
 
@@ -113,35 +165,35 @@ public class SynchronizationSession implements ISynchronizationSession {
 		}
 	}
 
-	public void setChangedTasks(Set<ITask> changedTasks) {
+	public synchronized void setChangedTasks(Set<ITask> changedTasks) {
 		this.changedTasks = changedTasks;
 	}
 
-	public void setData(Object data) {
+	public synchronized void setData(Object data) {
 		this.data = data;
 	}
 
-	public void setFullSynchronization(boolean fullSynchronization) {
+	public synchronized void setFullSynchronization(boolean fullSynchronization) {
 		this.fullSynchronization = fullSynchronization;
 	}
 
-	public void setNeedsPerformQueries(boolean performQueries) {
+	public synchronized void setNeedsPerformQueries(boolean performQueries) {
 		this.performQueries = performQueries;
 	}
 
-	public void setStatus(IStatus status) {
+	public synchronized void setStatus(IStatus status) {
 		this.status = status;
 	}
 
-	public void setTaskRepository(TaskRepository taskRepository) {
+	public synchronized void setTaskRepository(TaskRepository taskRepository) {
 		this.taskRepository = taskRepository;
 	}
 
-	public void setTasks(Set<ITask> tasks) {
+	public synchronized void setTasks(Set<ITask> tasks) {
 		this.tasks = tasks;
 	}
 
-	public void setUser(boolean user) {
+	public synchronized void setUser(boolean user) {
 		this.user = user;
 	}
 
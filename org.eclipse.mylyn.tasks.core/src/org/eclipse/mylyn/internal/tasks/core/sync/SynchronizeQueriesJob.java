@@ -17,16 +17,25 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.MultiStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.SubProgressMonitor;
@@ -34,6 +43,7 @@ import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.mylyn.commons.core.StatusHandler;
 import org.eclipse.mylyn.commons.net.Policy;
 import org.eclipse.mylyn.internal.tasks.core.AbstractTask;
+import org.eclipse.mylyn.internal.tasks.core.IRepositoryConstants;
 import org.eclipse.mylyn.internal.tasks.core.ITasksCoreConstants;
 import org.eclipse.mylyn.internal.tasks.core.ITasksCoreConstants.ObjectSchedulingRule;
 import org.eclipse.mylyn.internal.tasks.core.RepositoryQuery;
@@ -51,6 +61,8 @@ import org.eclipse.mylyn.tasks.core.sync.ISynchronizationSession;
 import org.eclipse.mylyn.tasks.core.sync.SynchronizationJob;
 import org.eclipse.osgi.util.NLS;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
 /**
  * @author Mik Kersten
  * @author Rob Elves
@@ -58,6 +70,8 @@ import org.eclipse.osgi.util.NLS;
  */
 public class SynchronizeQueriesJob extends SynchronizationJob {
 
+	private static final long POLL_INTERVAL = 500;
+
 	private class TaskCollector extends TaskDataCollector {
 
 		private final Set<ITask> removedQueryResults;
@@ -74,19 +88,29 @@ public class SynchronizeQueriesJob extends SynchronizationJob {
 
 		@Override
 		public void accept(TaskData taskData) {
-			ITask task = taskList.getTask(taskData.getRepositoryUrl(), taskData.getTaskId());
-			if (task == null) {
-				task = tasksModel.createTask(repository, taskData.getTaskId());
-				((AbstractTask) task).setSynchronizationState(SynchronizationState.INCOMING_NEW);
-				if (taskData.isPartial() && connector.canSynchronizeTask(repository, task)) {
-					session.markStale(task);
+			ITask task;
+			// queries may run concurrently, make sure that a new task is only created once
+			synchronized (taskCreationLock) {
+				task = taskList.getTask(taskData.getRepositoryUrl(), taskData.getTaskId());
+				if (task == null) {
+					task = tasksModel.createTask(repository, taskData.getTaskId());
+					((AbstractTask) task).setSynchronizationState(SynchronizationState.INCOMING_NEW);
+					if (taskData.isPartial() && connector.canSynchronizeTask(repository, task)) {
+						session.markStale(task);
+					}
+				} else {
+					removedQueryResults.remove(task);
 				}
-			} else {
-				removedQueryResults.remove(task);
+				taskList.addTask(task, repositoryQuery);
+			}
+			// the task may have been returned by an overlapping query already, avoid updating it again
+			Date modificationDate = connector.getTaskMapping(taskData).getModificationDate();
+			if (session.isIngested(task, modificationDate, taskData.isPartial())) {
+				return;
 			}
-			taskList.addTask(task, repositoryQuery);
 			try {
 				session.putTaskData(task, taskData);
+				session.markIngested(task, modificationDate, taskData.isPartial());
 			} catch (CoreException e) {
 				StatusHandler.log(new Status(IStatus.ERROR, ITasksCoreConstants.ID_PLUGIN, "Failed to save task", e)); //$NON-NLS-1$
 			}
@@ -125,6 +149,10 @@ public class SynchronizeQueriesJob extends SynchronizationJob {
 
 	private final List<IStatus> statuses;
 
+	private final Object taskCreationLock = new Object();
+
+	private int maxConcurrentQueries;
+
 	public SynchronizeQueriesJob(TaskList taskList, TaskDataManager taskDataManager, IRepositoryModel tasksModel,
 			AbstractRepositoryConnector connector, TaskRepository repository, Set<RepositoryQuery> queries) {
 		super(Messages.SynchronizeQueriesJob_Synchronizing_Queries + " (" + repository.getRepositoryLabel() + ")"); //$NON-NLS-1$//$NON-NLS-2$
@@ -134,7 +162,33 @@ public class SynchronizeQueriesJob extends SynchronizationJob {
 		this.connector = connector;
 		this.repository = repository;
 		this.queries = queries;
-		this.statuses = new ArrayList<IStatus>();
+		this.statuses = Collections.synchronizedList(new ArrayList<IStatus>());
+		this.maxConcurrentQueries = getMaxConcurrentQueries(connector, repository);
+	}
+
+	private static int getMaxConcurrentQueries(AbstractRepositoryConnector connector, TaskRepository repository) {
+		String value = repository.getProperty(IRepositoryConstants.PROPERTY_MAX_CONCURRENT_QUERIES);
+		if (value != null) {
+			try {
+				return Math.max(1, Integer.parseInt(value));
+			} catch (NumberFormatException e) {
+				// use default
+			}
+		}
+		return Math.max(1, connector.getMaxConcurrentQueries(repository));
+	}
+
+	/**
+	 * Sets the maximum number of queries that are performed concurrently. The default is read from the
+	 * {@link IRepositoryConstants#PROPERTY_MAX_CONCURRENT_QUERIES} property of the repository or provided by the
+	 * connector and is 1 unless the connector opts in to concurrent queries.
+	 */
+	public void setMaxConcurrentQueries(int maxConcurrentQueries) {
+		this.maxConcurrentQueries = Math.max(1, maxConcurrentQueries);
+	}
+
+	public int getMaxConcurrentQueries() {
+		return maxConcurrentQueries;
 	}
 
 	@Override
@@ -159,7 +213,7 @@ public class SynchronizeQueriesJob extends SynchronizationJob {
 				try {
 					Job.getJobManager().beginRule(rule, monitor);
 
-					final Map<String, TaskRelation[]> relationsByTaskId = new HashMap<String, TaskRelation[]>();
+					final Map<String, TaskRelation[]> relationsByTaskId = new ConcurrentHashMap<String, TaskRelation[]>();
 					SynchronizationSession session = new SynchronizationSession(taskDataManager) {
 						@Override
 						public void putTaskData(ITask task, TaskData taskData) throws CoreException {
@@ -254,11 +308,84 @@ public class SynchronizeQueriesJob extends SynchronizationJob {
 	}
 
 	private void synchronizeQueries(IProgressMonitor monitor, SynchronizationSession session) {
-		for (RepositoryQuery repositoryQuery : queries) {
-			Policy.checkCanceled(monitor);
-			monitor.subTask(MessageFormat.format(Messages.SynchronizeQueriesJob_Synchronizing_query_X,
-					repositoryQuery.getSummary()));
-			synchronizeQuery(repositoryQuery, session, new SubProgressMonitor(monitor, 20));
+		int threadCount = Math.min(maxConcurrentQueries, queries.size());
+		if (threadCount <= 1) {
+			for (RepositoryQuery repositoryQuery : queries) {
+				Policy.checkCanceled(monitor);
+				monitor.subTask(MessageFormat.format(Messages.SynchronizeQueriesJob_Synchronizing_query_X,
+						repositoryQuery.getSummary()));
+				synchronizeQuery(repositoryQuery, session, new SubProgressMonitor(monitor, 20));
+			}
+		} else {
+			synchronizeQueriesConcurrently(monitor, session, threadCount);
+		}
+	}
+
+	/**
+	 * Performs queries on a pool of threads. Progress is reported from the calling thread as queries complete since
+	 * progress monitors are not thread-safe, the monitors passed to the connector only propagate cancellation.
+	 */
+	private void synchronizeQueriesConcurrently(final IProgressMonitor monitor, final SynchronizationSession session,
+			int threadCount) {
+		final IProgressMonitor queryMonitor = new NullProgressMonitor() {
+			@Override
+			public boolean isCanceled() {
+				return super.isCanceled() || monitor.isCanceled();
+			}
+		};
+		ExecutorService executor = Executors.newFixedThreadPool(threadCount,
+				new ThreadFactoryBuilder().setNameFormat("Synchronize Queries (" //$NON-NLS-1$
+						+ repository.getRepositoryLabel() + ") %d") //$NON-NLS-1$
+						.setDaemon(true)
+						.build());
+		try {
+			CompletionService<RepositoryQuery> completionService = new ExecutorCompletionService<RepositoryQuery>(
+					executor);
+			for (final RepositoryQuery repositoryQuery : queries) {
+				completionService.submit(new Callable<RepositoryQuery>() {
+					public RepositoryQuery call() throws Exception {
+						Policy.checkCanceled(queryMonitor);
+						synchronizeQuery(repositoryQuery, session, queryMonitor);
+						return repositoryQuery;
+					}
+				});
+			}
+			for (int i = 0; i < queries.size(); i++) {
+				Future<RepositoryQuery> future = take(completionService, monitor);
+				try {
+					RepositoryQuery repositoryQuery = future.get();
+					monitor.subTask(MessageFormat.format(Messages.SynchronizeQueriesJob_Synchronizing_query_X,
+							repositoryQuery.getSummary()));
+					monitor.worked(20);
+				} catch (ExecutionException e) {
+					if (e.getCause() instanceof OperationCanceledException) {
+						throw (OperationCanceledException) e.getCause();
+					} else if (e.getCause() instanceof RuntimeException) {
+						throw (RuntimeException) e.getCause();
+					} else if (e.getCause() instanceof Error) {
+						throw (Error) e.getCause();
+					}
+					throw new RuntimeException(e.getCause());
+				} catch (InterruptedException e) {
+					throw new OperationCanceledException();
+				}
+			}
+		} finally {
+			queryMonitor.setCanceled(true);
+			executor.shutdownNow();
+		}
+	}
+
+	private Future<RepositoryQuery> take(CompletionService<RepositoryQuery> completionService,
+			IProgressMonitor monitor) {
+		try {
+			Future<RepositoryQuery> future;
+			while ((future = completionService.poll(POLL_INTERVAL, TimeUnit.MILLISECONDS)) == null) {
+				Policy.checkCanceled(monitor);
+			}
+			return future;
+		} catch (InterruptedException e) {
+			throw new OperationCanceledException();
 		}
 	}
 
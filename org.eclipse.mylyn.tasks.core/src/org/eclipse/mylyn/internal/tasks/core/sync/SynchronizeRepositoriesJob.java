@@ -32,6 +32,7 @@ import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.mylyn.commons.core.StatusHandler;
 import org.eclipse.mylyn.commons.net.Policy;
 import org.eclipse.mylyn.internal.tasks.core.ITasksCoreConstants;
+import org.eclipse.mylyn.internal.tasks.core.RepositoryConnectionPool;
 import org.eclipse.mylyn.internal.tasks.core.RepositoryQuery;
 import org.eclipse.mylyn.internal.tasks.core.TaskList;
 import org.eclipse.mylyn.internal.tasks.core.data.TaskDataManager;
@@ -143,6 +144,10 @@ public class SynchronizeRepositoriesJob extends SynchronizationJob {
 				}
 				if (TRACE_ENABLED) {
 					trace("Completed repository synchronization"); //$NON-NLS-1$
+					for (RepositoryConnectionPool.Statistics statistics : RepositoryConnectionPool.getDefault()
+							.getStatistics()) {
+						trace("Connection pool " + statistics); //$NON-NLS-1$
+					}
 				}
 				// it's better to remove the job from the progress view instead of having it blocked until all child jobs finish
 //			if (isUser()) {
@@ -17,13 +17,24 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.SubProgressMonitor;
@@ -31,6 +42,7 @@ import org.eclipse.mylyn.commons.core.StatusHandler;
 import org.eclipse.mylyn.commons.net.Policy;
 import org.eclipse.mylyn.internal.tasks.core.AbstractTask;
 import org.eclipse.mylyn.internal.tasks.core.AbstractTaskContainer;
+import org.eclipse.mylyn.internal.tasks.core.IRepositoryConstants;
 import org.eclipse.mylyn.internal.tasks.core.ITasksCoreConstants;
 import org.eclipse.mylyn.internal.tasks.core.ITasksCoreConstants.MutexSchedulingRule;
 import org.eclipse.mylyn.internal.tasks.core.TaskList;
@@ -49,6 +61,10 @@ import org.eclipse.mylyn.tasks.core.data.TaskRelation;
 import org.eclipse.mylyn.tasks.core.sync.SynchronizationJob;
 import org.eclipse.osgi.util.NLS;
 
+import com.google.common.collect.Iterables;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
 /**
  * @author Mik Kersten
  * @author Rob Elves
@@ -56,6 +72,10 @@ import org.eclipse.osgi.util.NLS;
  */
 public class SynchronizeTasksJob extends SynchronizationJob {
 
+	private static final int MULTI_TASK_DATA_BATCH_SIZE = 100;
+
+	private static final long POLL_INTERVAL = 500;
+
 	private final AbstractRepositoryConnector connector;
 
 	private final TaskDataManager taskDataManager;
@@ -78,6 +98,10 @@ public class SynchronizeTasksJob extends SynchronizationJob {
 
 	private final List<IStatus> statuses;
 
+	private Integer maxRelationDepth;
+
+	private Integer maxConcurrentRequests;
+
 	public SynchronizeTasksJob(TaskList taskList, TaskDataManager synchronizationManager, IRepositoryModel tasksModel,
 			AbstractRepositoryConnector connector, TaskRepository taskRepository, Set<ITask> tasks) {
 		this(taskList, synchronizationManager, tasksModel, connector, (IRepositoryManager) null, tasks);
@@ -152,8 +176,51 @@ public class SynchronizeTasksJob extends SynchronizationJob {
 		synchronizedTaskRelations(monitor, relationsByTaskId);
 	}
 
+	/**
+	 * Adds the children of the tasks in <code>relationsByTaskId</code> to their parents. Missing subtasks are
+	 * retrieved breadth-first up to {@link #getMaxRelationDepth()} levels, each level with as few requests as possible.
+	 * The relations of tasks that are retrieved on the last level are not followed.
+	 */
 	public void synchronizedTaskRelations(IProgressMonitor monitor, Map<String, TaskRelation[]> relationsByTaskId) {
 		updateRelations = false;
+		int maxRelationDepth = getMaxRelationDepth();
+		Map<String, ITask> createdTasks = new HashMap<String, ITask>();
+		Set<String> visitedTaskIds = new HashSet<String>(relationsByTaskId.keySet());
+		Map<String, TaskRelation[]> level = relationsByTaskId;
+		for (int depth = 0; !level.isEmpty(); depth++) {
+			Map<String, TaskRelation[]> nextLevel = new LinkedHashMap<String, TaskRelation[]>();
+			if (getFetchSubtasks() && depth < maxRelationDepth) {
+				Set<String> missingTaskIds = new LinkedHashSet<String>();
+				for (TaskRelation[] relations : level.values()) {
+					for (TaskRelation relation : relations) {
+						if (relation.isChildRelation()
+								&& taskList.getTask(taskRepository.getRepositoryUrl(), relation.getTaskId()) == null
+								&& visitedTaskIds.add(relation.getTaskId())) {
+							missingTaskIds.add(relation.getTaskId());
+						}
+					}
+				}
+				for (TaskData taskData : getTaskData(missingTaskIds, monitor)) {
+					try {
+						ITask task = createFromTaskData(taskRepository, taskData.getTaskId(), taskData, monitor);
+						createdTasks.put(task.getTaskId(), task);
+						if (depth + 1 < maxRelationDepth) {
+							Collection<TaskRelation> relations = connector.getTaskRelations(taskData);
+							if (relations != null) {
+								nextLevel.put(task.getTaskId(), relations.toArray(new TaskRelation[0]));
+							}
+						}
+					} catch (CoreException e) {
+						logRelationFailed(taskData.getTaskId(), e);
+					}
+				}
+			}
+			updateChildren(level, createdTasks);
+			level = nextLevel;
+		}
+	}
+
+	private void updateChildren(Map<String, TaskRelation[]> relationsByTaskId, Map<String, ITask> createdTasks) {
 		for (String taskId : relationsByTaskId.keySet()) {
 			ITask parentTask = taskList.getTask(taskRepository.getRepositoryUrl(), taskId);
 			if (parentTask instanceof ITaskContainer) {
@@ -164,18 +231,7 @@ public class SynchronizeTasksJob extends SynchronizationJob {
 					if (relation.isChildRelation()) {
 						ITask task = taskList.getTask(taskRepository.getRepositoryUrl(), relation.getTaskId());
 						if (task == null) {
-							if (getFetchSubtasks()) {
-								try {
-									task = synchronizeTask(monitor, relation.getTaskId());
-								} catch (CoreException e) {
-									StatusHandler.log(new Status(
-											IStatus.ERROR,
-											ITasksCoreConstants.ID_PLUGIN,
-											NLS.bind(
-													Messages.SynchronizeTasksJob_Synchronization_of_task_ID_REPOSITORY_failed,
-													relation.getTaskId(), taskRepository.getRepositoryLabel()), e));
-								}
-							}
+							task = createdTasks.get(relation.getTaskId());
 						} else {
 							removedChildTasks.remove(task);
 						}
@@ -193,6 +249,188 @@ public class SynchronizeTasksJob extends SynchronizationJob {
 		}
 	}
 
+	/**
+	 * Retrieves the task data for <code>taskIds</code>. Tasks are retrieved in batches if the connector supports it,
+	 * and up to {@link #getMaxConcurrentRequests()} requests run concurrently. Failures are logged.
+	 */
+	private Collection<TaskData> getTaskData(Set<String> taskIds, final IProgressMonitor monitor) {
+		if (taskIds.isEmpty()) {
+			return Collections.emptyList();
+		}
+		monitor.subTask(MessageFormat.format(Messages.SynchronizeTasksJob_Receiving_X_tasks_from_X, taskIds.size(),
+				taskRepository.getRepositoryLabel()));
+
+		final Map<String, TaskData> taskDataById = new ConcurrentHashMap<String, TaskData>();
+		final IProgressMonitor requestMonitor = new NullProgressMonitor() {
+			@Override
+			public boolean isCanceled() {
+				return super.isCanceled() || monitor.isCanceled();
+			}
+		};
+		List<Callable<Void>> requests = new ArrayList<Callable<Void>>();
+		if (canGetMultiTaskData(taskRepository)) {
+			for (final List<String> batch : Iterables.partition(taskIds, MULTI_TASK_DATA_BATCH_SIZE)) {
+				requests.add(new Callable<Void>() {
+					public Void call() throws Exception {
+						TaskDataCollector collector = new TaskDataCollector() {
+							@Override
+							public void accept(TaskData taskData) {
+								taskDataById.put(taskData.getTaskId(), taskData);
+							}
+
+							@Override
+							public void failed(String taskId, IStatus status) {
+								logRelationFailed(taskId, new CoreException(status));
+							}
+						};
+						try {
+							connector.getTaskDataHandler().getMultiTaskData(taskRepository,
+									Collections.unmodifiableSet(new HashSet<String>(batch)), collector,
+									backgroundMonitorFor(requestMonitor));
+						} catch (CoreException e) {
+							for (String taskId : batch) {
+								logRelationFailed(taskId, e);
+							}
+						}
+						return null;
+					}
+				});
+			}
+		} else {
+			for (final String taskId : taskIds) {
+				requests.add(new Callable<Void>() {
+					public Void call() throws Exception {
+						try {
+							TaskData taskData = connector.getTaskData(taskRepository, taskId,
+									backgroundMonitorFor(requestMonitor));
+							if (taskData == null) {
+								throw new CoreException(new Status(IStatus.ERROR, ITasksCoreConstants.ID_PLUGIN,
+										"Connector failed to return task data for task \"" + taskId + "\"")); //$NON-NLS-1$ //$NON-NLS-2$
+							}
+							taskDataById.put(taskId, taskData);
+						} catch (CoreException e) {
+							logRelationFailed(taskId, e);
+						}
+						return null;
+					}
+				});
+			}
+		}
+
+		int threadCount = Math.min(getMaxConcurrentRequests(), requests.size());
+		ExecutorService executor = (threadCount > 1)
+				? Executors.newFixedThreadPool(threadCount,
+						new ThreadFactoryBuilder().setNameFormat("Synchronize Task Relations (" //$NON-NLS-1$
+								+ taskRepository.getRepositoryLabel() + ") %d") //$NON-NLS-1$
+								.setDaemon(true)
+								.build())
+				: MoreExecutors.newDirectExecutorService();
+		try {
+			List<Future<Void>> futures = new ArrayList<Future<Void>>();
+			for (Callable<Void> request : requests) {
+				futures.add(executor.submit(request));
+			}
+			for (Future<Void> future : futures) {
+				waitFor(future, monitor);
+			}
+		} finally {
+			requestMonitor.setCanceled(true);
+			executor.shutdownNow();
+		}
+
+		// preserve the order of the requested tasks
+		List<TaskData> result = new ArrayList<TaskData>(taskDataById.size());
+		for (String taskId : taskIds) {
+			TaskData taskData = taskDataById.get(taskId);
+			if (taskData != null) {
+				result.add(taskData);
+			}
+		}
+		return result;
+	}
+
+	private IProgressMonitor backgroundMonitorFor(IProgressMonitor monitor) {
+		return (isUser()) ? monitor : Policy.backgroundMonitorFor(monitor);
+	}
+
+	private void waitFor(Future<Void> future, IProgressMonitor monitor) {
+		try {
+			while (true) {
+				Policy.checkCanceled(monitor);
+				try {
+					future.get(POLL_INTERVAL, TimeUnit.MILLISECONDS);
+					return;
+				} catch (TimeoutException e) {
+					// check for cancellation
+				}
+			}
+		} catch (InterruptedException e) {
+			throw new OperationCanceledException();
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof OperationCanceledException) {
+				throw (OperationCanceledException) e.getCause();
+			} else if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			} else if (e.getCause() instanceof Error) {
+				throw (Error) e.getCause();
+			}
+			throw new RuntimeException(e.getCause());
+		}
+	}
+
+	private void logRelationFailed(String taskId, CoreException e) {
+		StatusHandler.log(new Status(IStatus.ERROR, ITasksCoreConstants.ID_PLUGIN,
+				NLS.bind(Messages.SynchronizeTasksJob_Synchronization_of_task_ID_REPOSITORY_failed, taskId,
+						taskRepository.getRepositoryLabel()),
+				e));
+	}
+
+	/**
+	 * Sets the number of levels of missing subtasks that are retrieved when task relations are updated. The default is
+	 * read from the {@link IRepositoryConstants#PROPERTY_MAX_RELATION_DEPTH} property of the repository or provided by
+	 * the connector and is 1 unless the connector opts in to retrieving subtasks of subtasks.
+	 */
+	public void setMaxRelationDepth(int maxRelationDepth) {
+		this.maxRelationDepth = Math.max(0, maxRelationDepth);
+	}
+
+	public int getMaxRelationDepth() {
+		if (maxRelationDepth != null) {
+			return maxRelationDepth;
+		}
+		return getRepositorySetting(IRepositoryConstants.PROPERTY_MAX_RELATION_DEPTH,
+				connector.getMaxRelationDepth(taskRepository), 0);
+	}
+
+	/**
+	 * Sets the maximum number of requests for missing subtasks that are performed concurrently. The default is read from
+	 * the {@link IRepositoryConstants#PROPERTY_MAX_CONCURRENT_TASK_DATA_REQUESTS} property of the repository or
+	 * provided by the connector and is 1 unless the connector opts in to concurrent requests.
+	 */
+	public void setMaxConcurrentRequests(int maxConcurrentRequests) {
+		this.maxConcurrentRequests = Math.max(1, maxConcurrentRequests);
+	}
+
+	public int getMaxConcurrentRequests() {
+		if (maxConcurrentRequests != null) {
+			return maxConcurrentRequests;
+		}
+		return getRepositorySetting(IRepositoryConstants.PROPERTY_MAX_CONCURRENT_TASK_DATA_REQUESTS,
+				connector.getMaxConcurrentTaskDataRequests(taskRepository), 1);
+	}
+
+	private int getRepositorySetting(String key, int defaultValue, int minValue) {
+		String value = taskRepository.getProperty(key);
+		if (value != null) {
+			try {
+				return Math.max(minValue, Integer.parseInt(value));
+			} catch (NumberFormatException e) {
+				// use default
+			}
+		}
+		return Math.max(minValue, defaultValue);
+	}
+
 	private void runInternal(Set<ITask> tasks, IProgressMonitor monitor) {
 		if (!isUser()) {
 			monitor = Policy.backgroundMonitorFor(monitor);
@@ -251,21 +489,6 @@ public class SynchronizeTasksJob extends SynchronizationJob {
 				"Connector failed to return task data for task \"" + task + "\"")); //$NON-NLS-1$ //$NON-NLS-2$
 	}
 
-	private ITask synchronizeTask(IProgressMonitor monitor, String taskId) throws CoreException {
-		monitor.subTask(MessageFormat.format(Messages.SynchronizeTasksJob_Receiving_task_X, taskId));
-		if (!isUser()) {
-			monitor = Policy.backgroundMonitorFor(monitor);
-		}
-
-		TaskData taskData = connector.getTaskData(taskRepository, taskId, monitor);
-		if (taskData != null) {
-			return createFromTaskData(taskRepository, taskId, taskData, monitor);
-		}
-
-		throw new CoreException(new Status(IStatus.ERROR, ITasksCoreConstants.ID_PLUGIN,
-				"Connector failed to return task data for task \"" + taskId + "\"")); //$NON-NLS-1$ //$NON-NLS-2$
-	}
-
 	private void resetStatus(ITask task) {
 		if (((AbstractTask) task).getStatus() != null) {
 			((AbstractTask) task).setStatus(null);
@@ -0,0 +1,206 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Tasktop Technologies and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Tasktop Technologies - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.mylyn.internal.tasks.core.sync;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.core.runtime.Assert;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.IJobChangeEvent;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.core.runtime.jobs.JobChangeAdapter;
+import org.eclipse.mylyn.internal.tasks.core.ITaskJobFactory;
+import org.eclipse.mylyn.tasks.core.AbstractRepositoryConnector;
+import org.eclipse.mylyn.tasks.core.ITask;
+import org.eclipse.mylyn.tasks.core.sync.SynchronizationJob;
+
+/**
+ * Merges requests to synchronize tasks in the background from different callers. Requests that arrive within a short
+ * delay are synchronized by a single job per connector which retrieves the task data of each repository in a single
+ * request if the connector supports it. Requests for tasks that are already queued are merged. Requests for tasks that
+ * are being synchronized are queued again once the synchronization completes.
+ */
+public class TaskSynchronizationQueue {
+
+	public static final long DEFAULT_DELAY = 500;
+
+	private final ITaskJobFactory taskJobFactory;
+
+	private final long delay;
+
+	// guarded by this
+	private final Map<ITask, AbstractRepositoryConnector> pendingRequests = new LinkedHashMap<ITask, AbstractRepositoryConnector>();
+
+	// requests for tasks in flight that are queued when the synchronization completes, guarded by this
+	private final Map<ITask, AbstractRepositoryConnector> deferredRequests = new HashMap<ITask, AbstractRepositoryConnector>();
+
+	// guarded by this
+	private final Set<ITask> tasksInFlight = new HashSet<ITask>();
+
+	// guarded by this
+	private boolean disposed;
+
+	private final Job dispatchJob;
+
+	public TaskSynchronizationQueue(ITaskJobFactory taskJobFactory) {
+		this(taskJobFactory, DEFAULT_DELAY);
+	}
+
+	public TaskSynchronizationQueue(ITaskJobFactory taskJobFactory, long delay) {
+		Assert.isNotNull(taskJobFactory);
+		this.taskJobFactory = taskJobFactory;
+		this.delay = delay;
+		this.dispatchJob = new Job("Task Synchronization Queue") { //$NON-NLS-1$
+			@Override
+			protected IStatus run(IProgressMonitor monitor) {
+				dispatch();
+				return Status.OK_STATUS;
+			}
+		};
+		this.dispatchJob.setSystem(true);
+	}
+
+	/**
+	 * Requests synchronization of <code>tasks</code>. Tasks that are already queued are skipped. Tasks that are being
+	 * synchronized are queued once their synchronization completes.
+	 *
+	 * @return the tasks that were added to the queue
+	 */
+	public Set<ITask> add(AbstractRepositoryConnector connector, Collection<ITask> tasks) {
+		Assert.isNotNull(connector);
+		Set<ITask> addedTasks = new LinkedHashSet<ITask>();
+		synchronized (this) {
+			if (disposed) {
+				return addedTasks;
+			}
+			for (ITask task : tasks) {
+				if (tasksInFlight.contains(task)) {
+					deferredRequests.put(task, connector);
+				} else if (!pendingRequests.containsKey(task)) {
+					pendingRequests.put(task, connector);
+					addedTasks.add(task);
+				}
+			}
+			if (addedTasks.isEmpty()) {
+				return addedTasks;
+			}
+		}
+		dispatchJob.schedule(delay);
+		return addedTasks;
+	}
+
+	/**
+	 * Removes queued requests for <code>tasks</code> and defers further requests until <code>job</code>, which
+	 * synchronizes <code>tasks</code> outside of the queue, completes.
+	 */
+	public void track(Job job, final Collection<ITask> tasks) {
+		final Set<ITask> trackedTasks = new HashSet<ITask>();
+		synchronized (this) {
+			for (ITask task : tasks) {
+				pendingRequests.remove(task);
+				if (tasksInFlight.add(task)) {
+					trackedTasks.add(task);
+				}
+			}
+		}
+		job.addJobChangeListener(new JobChangeAdapter() {
+			@Override
+			public void done(IJobChangeEvent event) {
+				event.getJob().removeJobChangeListener(this);
+				completed(trackedTasks);
+			}
+		});
+	}
+
+	public synchronized boolean isQueued(ITask task) {
+		return pendingRequests.containsKey(task);
+	}
+
+	public synchronized boolean isInFlight(ITask task) {
+		return tasksInFlight.contains(task);
+	}
+
+	/**
+	 * Discards queued requests and stops dispatching. Jobs that have already been scheduled are not affected.
+	 */
+	public void dispose() {
+		synchronized (this) {
+			disposed = true;
+			pendingRequests.clear();
+			deferredRequests.clear();
+		}
+		dispatchJob.cancel();
+	}
+
+	void dispatch() {
+		Map<AbstractRepositoryConnector, Set<ITask>> batches = new LinkedHashMap<AbstractRepositoryConnector, Set<ITask>>();
+		synchronized (this) {
+			if (disposed) {
+				return;
+			}
+			for (Map.Entry<ITask, AbstractRepositoryConnector> entry : pendingRequests.entrySet()) {
+				Set<ITask> batch = batches.get(entry.getValue());
+				if (batch == null) {
+					batch = new LinkedHashSet<ITask>();
+					batches.put(entry.getValue(), batch);
+				}
+				batch.add(entry.getKey());
+				tasksInFlight.add(entry.getKey());
+			}
+			pendingRequests.clear();
+		}
+		for (Map.Entry<AbstractRepositoryConnector, Set<ITask>> entry : batches.entrySet()) {
+			schedule(entry.getKey(), entry.getValue());
+		}
+	}
+
+	private void schedule(AbstractRepositoryConnector connector, final Set<ITask> tasks) {
+		SynchronizationJob job = taskJobFactory.createSynchronizeTasksJob(connector, tasks);
+		job.setUser(false);
+		job.setSystem(true);
+		job.setPriority(Job.DECORATE);
+		job.addJobChangeListener(new JobChangeAdapter() {
+			@Override
+			public void done(IJobChangeEvent event) {
+				event.getJob().removeJobChangeListener(this);
+				completed(tasks);
+			}
+		});
+		job.schedule();
+	}
+
+	void completed(Set<ITask> tasks) {
+		boolean requeued = false;
+		synchronized (this) {
+			tasksInFlight.removeAll(tasks);
+			for (ITask task : tasks) {
+				AbstractRepositoryConnector connector = deferredRequests.remove(task);
+				if (connector != null && !disposed) {
+					pendingRequests.put(task, connector);
+					requeued = true;
+				}
+			}
+		}
+		if (requeued) {
+			dispatchJob.schedule(delay);
+		}
+	}
+
+}
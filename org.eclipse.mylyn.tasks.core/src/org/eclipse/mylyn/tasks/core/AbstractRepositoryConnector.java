@@ -152,6 +152,43 @@ public abstract class AbstractRepositoryConnector {
 		return true;
 	}
 
+	/**
+	 * Returns the maximum number of queries of <code>repository</code> that may be performed concurrently during
+	 * synchronization. Connectors that support concurrent invocations of
+	 * {@link #performQuery(TaskRepository, IRepositoryQuery, TaskDataCollector, ISynchronizationSession, IProgressMonitor)}
+	 * may override this method. The default implementation returns 1 which performs queries one after another.
+	 * 
+	 * @since 3.25
+	 */
+	public int getMaxConcurrentQueries(@NonNull TaskRepository repository) {
+		return 1;
+	}
+
+	/**
+	 * Returns the number of levels of missing subtasks of <code>repository</code> that are retrieved when task
+	 * relations are updated during synchronization. The default implementation returns 1 which retrieves missing
+	 * subtasks of synchronized tasks but not their subtasks.
+	 * 
+	 * @see #getTaskRelations(TaskData)
+	 * @since 3.25
+	 */
+	public int getMaxRelationDepth(@NonNull TaskRepository repository) {
+		return 1;
+	}
+
+	/**
+	 * Returns the maximum number of requests for missing subtasks of <code>repository</code> that may be performed
+	 * concurrently during synchronization. Connectors that support concurrent invocations of
+	 * {@link #getTaskData(TaskRepository, String, IProgressMonitor)} and
+	 * {@link AbstractTaskDataHandler#getMultiTaskData(TaskRepository, java.util.Set, TaskDataCollector, IProgressMonitor)}
+	 * may override this method. The default implementation returns 1 which performs requests one after another.
+	 * 
+	 * @since 3.25
+	 */
+	public int getMaxConcurrentTaskDataRequests(@NonNull TaskRepository repository) {
+		return 1;
+	}
+
 	/**
 	 * Returns true, if the connectors support retrieving full task data for <code>task</code>.
 	 * 
@@ -404,6 +404,11 @@ public final class TaskAttribute {
 
 	private Map<String, String> optionByKey;
 
+	/**
+	 * Shared options, set if {@link #optionByKey} is null.
+	 */
+	private TaskAttributeOptionTable optionTable;
+
 	private final TaskAttribute parentAttribute;
 
 	private final TaskData taskData;
@@ -456,6 +461,7 @@ public final class TaskAttribute {
 
 	public void clearOptions() {
 		optionByKey = null;
+		optionTable = null;
 	}
 
 	public void clearValues() {
@@ -475,6 +481,7 @@ public final class TaskAttribute {
 		if (source.optionByKey != null) {
 			target.optionByKey = new LinkedHashMap<String, String>(source.optionByKey);
 		}
+		target.optionTable = source.optionTable;
 		if (source.attributeById != null) {
 			for (TaskAttribute child : source.attributeById.values()) {
 				target.deepAddCopy(child);
@@ -552,17 +559,33 @@ public final class TaskAttribute {
 	}
 
 	public String getOption(String key) {
+		if (optionTable != null) {
+			return optionTable.getOption(key);
+		}
 		return (optionByKey != null) ? optionByKey.get(key) : null;
 	}
 
 	public Map<String, String> getOptions() {
-		if (optionByKey != null) {
+		if (optionTable != null) {
+			return optionTable.getOptions();
+		} else if (optionByKey != null) {
 			return Collections.unmodifiableMap(optionByKey);
 		} else {
 			return Collections.emptyMap();
 		}
 	}
 
+	/**
+	 * Returns the shared options of this attribute.
+	 *
+	 * @return the option table or <code>null</code>, if the options of this attribute are not shared
+	 * @see #setOptionTable(TaskAttributeOptionTable)
+	 * @since 3.25
+	 */
+	public TaskAttributeOptionTable getOptionTable() {
+		return optionTable;
+	}
+
 	public TaskAttribute getParentAttribute() {
 		return parentAttribute;
 	}
@@ -644,12 +667,30 @@ public final class TaskAttribute {
 	public void putOption(String key, String value) {
 		Assert.isNotNull(key);
 		Assert.isNotNull(value);
-		if (optionByKey == null) {
+		if (optionTable != null) {
+			// copy shared options before modifying them
+			optionByKey = new LinkedHashMap<String, String>(optionTable.getOptions());
+			optionTable = null;
+		} else if (optionByKey == null) {
 			optionByKey = new LinkedHashMap<String, String>();
 		}
 		optionByKey.put(key.intern(), value);
 	}
 
+	/**
+	 * Replaces the options of this attribute by <code>optionTable</code>. The table is shared with other attributes
+	 * and not copied. Subsequent invocations of {@link #putOption(String, String)} create a copy of the options for
+	 * this attribute.
+	 *
+	 * @param optionTable
+	 *            the options or <code>null</code> to clear the options
+	 * @since 3.25
+	 */
+	public void setOptionTable(TaskAttributeOptionTable optionTable) {
+		this.optionByKey = null;
+		this.optionTable = (optionTable != null && optionTable.size() > 0) ? optionTable : null;
+	}
+
 	public void removeAttribute(String attributeId) {
 		if (attributeById != null) {
 			attributeById.remove(attributeId);
@@ -695,7 +736,7 @@ public final class TaskAttribute {
 		sb.append(",values="); //$NON-NLS-1$
 		sb.append(values);
 		sb.append(",options="); //$NON-NLS-1$
-		sb.append(optionByKey);
+		sb.append((optionTable != null) ? optionTable : optionByKey);
 		sb.append(",metaData="); //$NON-NLS-1$
 		sb.append(metaData);
 		sb.append("]"); //$NON-NLS-1$
@@ -0,0 +1,104 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Tasktop Technologies and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Tasktop Technologies - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.mylyn.tasks.core.data;
+
+import java.util.Map;
+
+import org.eclipse.core.runtime.Assert;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+
+/**
+ * An immutable table of attribute options that is shared by all attributes with the same options. Connectors should
+ * use option tables for options that are derived from the repository configuration, e.g. products, components or
+ * keywords, to avoid keeping a copy of the options for each attribute of each task.
+ *
+ * @see TaskAttribute#setOptionTable(TaskAttributeOptionTable)
+ * @since 3.25
+ */
+public final class TaskAttributeOptionTable {
+
+	private static final Interner<TaskAttributeOptionTable> INTERNER = Interners.newWeakInterner();
+
+	private static final TaskAttributeOptionTable EMPTY = INTERNER
+			.intern(new TaskAttributeOptionTable(ImmutableMap.<String, String> of()));
+
+	/**
+	 * Returns a table that contains <code>options</code> in the iteration order of <code>options</code>. Tables with
+	 * equal options are shared.
+	 *
+	 * @param options
+	 *            maps the option keys to the values displayed to the user
+	 */
+	public static TaskAttributeOptionTable of(Map<String, String> options) {
+		Assert.isNotNull(options);
+		if (options.isEmpty()) {
+			return EMPTY;
+		}
+		ImmutableMap.Builder<String, String> builder = ImmutableMap.builder();
+		for (Map.Entry<String, String> entry : options.entrySet()) {
+			builder.put(entry.getKey().intern(), entry.getValue());
+		}
+		return INTERNER.intern(new TaskAttributeOptionTable(builder.build()));
+	}
+
+	private final ImmutableMap<String, String> optionByKey;
+
+	private final int hashCode;
+
+	private TaskAttributeOptionTable(ImmutableMap<String, String> optionByKey) {
+		this.optionByKey = optionByKey;
+		this.hashCode = optionByKey.entrySet().asList().hashCode();
+	}
+
+	public String getOption(String key) {
+		return optionByKey.get(key);
+	}
+
+	/**
+	 * Returns an unmodifiable map of the options.
+	 */
+	public Map<String, String> getOptions() {
+		return optionByKey;
+	}
+
+	public int size() {
+		return optionByKey.size();
+	}
+
+	@Override
+	public int hashCode() {
+		return hashCode;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof TaskAttributeOptionTable)) {
+			return false;
+		}
+		TaskAttributeOptionTable other = (TaskAttributeOptionTable) obj;
+		// the order of options is significant
+		return hashCode == other.hashCode
+				&& optionByKey.entrySet().asList().equals(other.optionByKey.entrySet().asList());
+	}
+
+	@Override
+	public String toString() {
+		return optionByKey.toString();
+	}
+
+}
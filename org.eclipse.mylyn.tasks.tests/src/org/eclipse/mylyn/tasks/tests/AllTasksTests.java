@@ -36,9 +36,11 @@ import org.eclipse.mylyn.tasks.tests.data.Xml11InputStreamTest;
 import org.eclipse.mylyn.tasks.tests.ui.AbstractRepositoryConnectorUiTest;
 import org.eclipse.mylyn.tasks.tests.ui.AttributeEditorTest;
 import org.eclipse.mylyn.tasks.tests.ui.MultipleTaskHyperlinkDetectorTest;
+import org.eclipse.mylyn.tasks.tests.ui.RepositorySynchronizationPlannerTest;
 import org.eclipse.mylyn.tasks.tests.ui.ScheduledTaskContainerTest;
 import org.eclipse.mylyn.tasks.tests.ui.TaskAttachmentPropertyTesterTest;
 import org.eclipse.mylyn.tasks.tests.ui.TaskHyperlinkDetectorTest;
+import org.eclipse.mylyn.tasks.tests.ui.TaskListLazyContentProviderTest;
 import org.eclipse.mylyn.tasks.tests.ui.TaskListSynchronizationSchedulerTest;
 import org.eclipse.mylyn.tasks.tests.ui.TaskListViewTest;
 import org.eclipse.mylyn.tasks.tests.ui.TaskRelationHyperlinkDetectorTest;
@@ -47,6 +49,7 @@ import org.eclipse.mylyn.tasks.tests.ui.editor.EditorUtilTest;
 import org.eclipse.mylyn.tasks.tests.ui.editor.PlanningPartTest;
 import org.eclipse.mylyn.tasks.tests.ui.editor.RegionComparatorTest;
 import org.eclipse.mylyn.tasks.tests.ui.editor.RepositoryCompletionProcessorTest;
+import org.eclipse.mylyn.tasks.tests.ui.editor.TaskEditorBloatMonitorTest;
 import org.eclipse.mylyn.tasks.tests.ui.editor.TaskEditorExtensionsTest;
 import org.eclipse.mylyn.tasks.tests.ui.editor.TaskEditorPartDescriptorTest;
 import org.eclipse.mylyn.tasks.tests.ui.editor.TaskMigratorTest;
@@ -109,6 +112,7 @@ public class AllTasksTests {
 		suite.addTestSuite(TaskDataStoreTest.class);
 		suite.addTestSuite(TaskExportImportTest.class);
 		suite.addTestSuite(PersonProposalProviderTest.class);
+		suite.addTestSuite(PersonIndexTest.class);
 		suite.addTestSuite(OptionsProposalProviderTest.class);
 		suite.addTestSuite(TaskRepositoryLocationTest.class);
 		suite.addTestSuite(TaskRepositoryTest.class);
@@ -130,6 +134,7 @@ public class AllTasksTests {
 		suite.addTestSuite(TaskRelationHyperlinkDetectorTest.class);
 		suite.addTestSuite(TaskUrlHyperlinkDetectorTest.class);
 		suite.addTestSuite(TaskEditorPartDescriptorTest.class);
+		suite.addTestSuite(TaskEditorBloatMonitorTest.class);
 		suite.addTestSuite(TaskAttachmentPropertyTesterTest.class);
 		suite.addTestSuite(CommentGroupStrategyTest.class);
 		suite.addTestSuite(ITasksCoreConstantsTest.class);
@@ -138,6 +143,7 @@ public class AllTasksTests {
 		suite.addTestSuite(EditorUtilTest.class);
 		suite.addTestSuite(FileTaskAttachmentSourceTest.class);
 		suite.addTestSuite(TaskListSynchronizationSchedulerTest.class);
+		suite.addTestSuite(RepositorySynchronizationPlannerTest.class);
 		suite.addTestSuite(PlanningPartTest.class);
 		suite.addTestSuite(RepositoryCompletionProcessorTest.class);
 		suite.addTestSuite(TaskDiffUtilTest.class);
@@ -145,6 +151,7 @@ public class AllTasksTests {
 		//suite.addTestSuite(ServiceMessageManagerTest.class);
 		suite.addTestSuite(TaskMigratorTest.class);
 		suite.addTestSuite(TaskListViewTest.class);
+		suite.addTestSuite(TaskListLazyContentProviderTest.class);
 		suite.addTestSuite(AttachmentTableLabelProviderTest.class);
 		suite.addTestSuite(TaskDataExternalizerTest.class);
 		suite.addTestSuite(Xml11InputStreamTest.class);
@@ -0,0 +1,199 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Tasktop Technologies and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Tasktop Technologies - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.mylyn.tasks.tests;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.mylyn.internal.tasks.core.TaskList;
+import org.eclipse.mylyn.internal.tasks.core.TaskTask;
+import org.eclipse.mylyn.internal.tasks.ui.PersonIndex;
+import org.eclipse.mylyn.internal.tasks.ui.TasksUiPlugin;
+import org.eclipse.mylyn.tasks.core.data.TaskAttribute;
+import org.eclipse.mylyn.tasks.core.data.TaskAttributeMapper;
+import org.eclipse.mylyn.tasks.core.data.TaskData;
+import org.eclipse.mylyn.tasks.tests.connector.MockRepositoryConnector;
+
+public class PersonIndexTest extends TestCase {
+
+	private TaskList taskList;
+
+	private PersonIndex index;
+
+	@Override
+	protected void setUp() throws Exception {
+		taskList = new TaskList();
+		index = new PersonIndex(taskList);
+		taskList.addChangeListener(index);
+	}
+
+	public void testPrefixQuery() {
+		index.index(createTaskData("1", "alice", "bob"));
+
+		assertEquals(Arrays.asList("alice", "bob"), sorted(index.getPeople(MockRepositoryConnector.REPOSITORY_URL, "")));
+		assertEquals(Arrays.asList("alice"), sorted(index.getPeople(MockRepositoryConnector.REPOSITORY_URL, "AL")));
+		assertEquals(0, index.getPeople(MockRepositoryConnector.REPOSITORY_URL, "c").size());
+		assertEquals(0, index.getPeople("http://other", "").size());
+	}
+
+	public void testRankByParticipation() {
+		index.index(createTaskData("1", "alice", "bob"));
+		index.index(createTaskData("2", "bob"));
+		index.index(createTaskData("3", "bob", "alice2"));
+
+		ArrayList<String> people = new ArrayList<String>(
+				index.getPeople(MockRepositoryConnector.REPOSITORY_URL, "").keySet());
+		assertEquals("bob", people.get(0));
+		assertEquals(3, people.size());
+	}
+
+	public void testReindexReplacesPeople() {
+		index.index(createTaskData("1", "alice"));
+		index.index(createTaskData("1", "bob"));
+
+		assertEquals(Arrays.asList("bob"), sorted(index.getPeople(MockRepositoryConnector.REPOSITORY_URL, "")));
+		assertTrue(index.containsTask(MockRepositoryConnector.REPOSITORY_URL, "1"));
+	}
+
+	public void testOwners() {
+		TaskTask task = new TaskTask(MockRepositoryConnector.CONNECTOR_KIND, MockRepositoryConnector.REPOSITORY_URL,
+				"1");
+		task.setOwner("Joel User");
+		task.setOwnerId("joel");
+		taskList.addTask(task);
+
+		Map<String, String> people = index.getPeople(MockRepositoryConnector.REPOSITORY_URL, "user");
+		assertEquals(1, people.size());
+		assertEquals("Joel User", people.get("joel"));
+
+		task.setOwnerId("joel.user");
+		taskList.notifyElementChanged(task);
+		assertEquals(Arrays.asList("joel.user"), sorted(index.getPeople(MockRepositoryConnector.REPOSITORY_URL, "")));
+
+		taskList.deleteTask(task);
+		assertEquals(0, index.getPeople(MockRepositoryConnector.REPOSITORY_URL, "").size());
+	}
+
+	public void testOwnersReindexedOnTaskListReload() {
+		TaskTask task = new TaskTask(MockRepositoryConnector.CONNECTOR_KIND, MockRepositoryConnector.REPOSITORY_URL,
+				"1");
+		task.setOwnerId("joel");
+		taskList.addTask(task);
+		assertEquals(Arrays.asList("joel"), sorted(index.getPeople(MockRepositoryConnector.REPOSITORY_URL, "")));
+
+		// lookups do not read the task list
+		task.setOwnerId("joel.user");
+		assertEquals(Arrays.asList("joel"), sorted(index.getPeople(MockRepositoryConnector.REPOSITORY_URL, "")));
+
+		taskList.notifyElementsChanged(null);
+		assertEquals(Arrays.asList("joel.user"), sorted(index.getPeople(MockRepositoryConnector.REPOSITORY_URL, "")));
+	}
+
+	public void testSeedIndexesOwners() {
+		TaskTask task = new TaskTask(MockRepositoryConnector.CONNECTOR_KIND, MockRepositoryConnector.REPOSITORY_URL,
+				"1");
+		task.setOwnerId("joel");
+		taskList.addTask(task);
+
+		PersonIndex seededIndex = new PersonIndex(taskList);
+		assertEquals(0, seededIndex.getPeople(MockRepositoryConnector.REPOSITORY_URL, "").size());
+		seededIndex.seed(TasksUiPlugin.getTaskDataManager(), new NullProgressMonitor());
+		assertEquals(Arrays.asList("joel"), sorted(seededIndex.getPeople(MockRepositoryConnector.REPOSITORY_URL, "")));
+	}
+
+	public void testTaskWithoutPeople() throws Exception {
+		index.index(createTaskData("1"));
+		assertTrue(index.containsTask(MockRepositoryConnector.REPOSITORY_URL, "1"));
+		assertEquals(0, index.getPeople(MockRepositoryConnector.REPOSITORY_URL, "").size());
+
+		File file = File.createTempFile("people", ".txt");
+		file.deleteOnExit();
+		index.save(file);
+		PersonIndex loadedIndex = new PersonIndex(new TaskList());
+		loadedIndex.load(file);
+		assertTrue(loadedIndex.containsTask(MockRepositoryConnector.REPOSITORY_URL, "1"));
+
+		TaskTask task = new TaskTask(MockRepositoryConnector.CONNECTOR_KIND, MockRepositoryConnector.REPOSITORY_URL,
+				"1");
+		taskList.addTask(task);
+		taskList.deleteTask(task);
+		assertFalse(index.containsTask(MockRepositoryConnector.REPOSITORY_URL, "1"));
+	}
+
+	public void testSeed() throws Exception {
+		TaskTestUtil.resetTaskListAndRepositories();
+		try {
+			TaskTask task = TaskTestUtil.createMockTask("1");
+			TasksUiPlugin.getTaskList().addTask(task);
+			TasksUiPlugin.getTaskDataManager().putUpdatedTaskData(task, createTaskData("1", "alice"), true);
+			TaskTask task2 = TaskTestUtil.createMockTask("2");
+			TasksUiPlugin.getTaskList().addTask(task2);
+			TaskTask task3 = TaskTestUtil.createMockTask("3");
+			TasksUiPlugin.getTaskList().addTask(task3);
+			TasksUiPlugin.getTaskDataManager().putUpdatedTaskData(task3, createTaskData("3"), true);
+
+			PersonIndex seededIndex = new PersonIndex(TasksUiPlugin.getTaskList());
+			assertFalse(seededIndex.containsTask(MockRepositoryConnector.REPOSITORY_URL, "1"));
+			seededIndex.seed(TasksUiPlugin.getTaskDataManager(), new NullProgressMonitor());
+			assertTrue(seededIndex.containsTask(MockRepositoryConnector.REPOSITORY_URL, "1"));
+			assertFalse(seededIndex.containsTask(MockRepositoryConnector.REPOSITORY_URL, "2"));
+			// tasks without people are not read again on the next seed
+			assertTrue(seededIndex.containsTask(MockRepositoryConnector.REPOSITORY_URL, "3"));
+			assertEquals(Arrays.asList("alice"),
+					sorted(seededIndex.getPeople(MockRepositoryConnector.REPOSITORY_URL, "a")));
+
+			// already indexed tasks are not replaced
+			seededIndex.index(createTaskData("1", "bob"));
+			seededIndex.seed(TasksUiPlugin.getTaskDataManager(), new NullProgressMonitor());
+			assertEquals(Arrays.asList("bob"), sorted(seededIndex.getPeople(MockRepositoryConnector.REPOSITORY_URL, "")));
+		} finally {
+			TaskTestUtil.resetTaskListAndRepositories();
+		}
+	}
+
+	public void testSaveAndLoad() throws Exception {
+		index.index(createTaskData("1", "alice", "bob"));
+		index.index(createTaskData("2", "bob"));
+
+		File file = File.createTempFile("people", ".txt");
+		file.deleteOnExit();
+		index.save(file);
+
+		PersonIndex loadedIndex = new PersonIndex(new TaskList());
+		loadedIndex.load(file);
+		assertEquals(new ArrayList<String>(index.getPeople(MockRepositoryConnector.REPOSITORY_URL, "").keySet()),
+				new ArrayList<String>(loadedIndex.getPeople(MockRepositoryConnector.REPOSITORY_URL, "").keySet()));
+		assertTrue(loadedIndex.containsTask(MockRepositoryConnector.REPOSITORY_URL, "2"));
+	}
+
+	private TaskData createTaskData(String taskId, String... cc) {
+		TaskData taskData = new TaskData(new TaskAttributeMapper(TaskTestUtil.createMockRepository()),
+				MockRepositoryConnector.CONNECTOR_KIND, MockRepositoryConnector.REPOSITORY_URL, taskId);
+		TaskAttribute attribute = taskData.getRoot().createMappedAttribute(TaskAttribute.USER_CC);
+		attribute.getMetaData().setReadOnly(true);
+		attribute.setValues(Arrays.asList(cc));
+		return taskData;
+	}
+
+	private static ArrayList<String> sorted(Map<String, String> people) {
+		ArrayList<String> ids = new ArrayList<String>(people.keySet());
+		Collections.sort(ids);
+		return ids;
+	}
+
+}
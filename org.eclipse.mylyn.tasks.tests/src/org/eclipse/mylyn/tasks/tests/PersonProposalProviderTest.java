@@ -27,6 +27,7 @@ import org.eclipse.mylyn.internal.tasks.core.TaskTask;
 import org.eclipse.mylyn.internal.tasks.ui.PersonContentProposal;
 import org.eclipse.mylyn.internal.tasks.ui.PersonProposalProvider;
 import org.eclipse.mylyn.internal.tasks.ui.TasksUiPlugin;
+import org.eclipse.mylyn.tasks.core.IRepositoryPerson;
 import org.eclipse.mylyn.tasks.core.TaskRepository;
 import org.eclipse.mylyn.tasks.core.data.TaskAttribute;
 import org.eclipse.mylyn.tasks.core.data.TaskAttributeMapper;
@@ -51,11 +52,13 @@ public class PersonProposalProviderTest extends TestCase {
 	@Override
 	protected void setUp() throws Exception {
 		TaskTestUtil.resetTaskListAndRepositories();
+		TasksUiPlugin.getDefault().getPersonIndex().clear();
 	}
 
 	@Override
 	protected void tearDown() throws Exception {
 		TaskTestUtil.resetTaskListAndRepositories();
+		TasksUiPlugin.getDefault().getPersonIndex().clear();
 	}
 
 	public void testGetProposalsNullParameters() {
@@ -352,6 +355,7 @@ public class PersonProposalProviderTest extends TestCase {
 		assertEquals("Joel User", result[0].getContent());
 
 		task.setOwnerId("joel.user@mylyn.org");
+		TasksUiPlugin.getTaskList().notifyElementChanged(task);
 		provider = new PersonProposalProvider(MockRepositoryConnector.REPOSITORY_URL,
 				MockRepositoryConnector.CONNECTOR_KIND);
 		result = provider.getProposals("joel", 1);
@@ -361,9 +365,36 @@ public class PersonProposalProviderTest extends TestCase {
 
 		task.setOwnerId("");
 		task.setOwner("");
+		TasksUiPlugin.getTaskList().notifyElementChanged(task);
 		provider = new PersonProposalProvider(MockRepositoryConnector.REPOSITORY_URL,
 				MockRepositoryConnector.CONNECTOR_KIND);
 		result = provider.getProposals("joel", 1);
 		assertEquals(0, result.length);
 	}
+
+	public void testGetProposalsFromIndexedTaskData() throws Exception {
+		TaskData taskData = createMockTaskData();
+		TaskAttribute reporter = taskData.getRoot().createMappedAttribute(TaskAttribute.USER_REPORTER);
+		reporter.getMetaData().setReadOnly(true).setType(TaskAttribute.TYPE_PERSON);
+		taskData.getAttributeMapper().setRepositoryPerson(reporter, createPerson("joel.user@mylyn.org", "Joel User"));
+		TasksUiPlugin.getDefault().getPersonIndex().index(taskData);
+
+		PersonProposalProvider provider = new PersonProposalProvider(MockRepositoryConnector.REPOSITORY_URL,
+				MockRepositoryConnector.CONNECTOR_KIND);
+		IContentProposal[] result = provider.getProposals("user", 4);
+		assertEquals(1, result.length);
+		assertEquals("Joel User <joel.user@mylyn.org>", result[0].getLabel());
+		assertEquals("joel.user@mylyn.org", result[0].getContent());
+
+		result = provider.getProposals("jo", 2);
+		assertEquals(1, result.length);
+		result = provider.getProposals("x", 1);
+		assertEquals(0, result.length);
+	}
+
+	private IRepositoryPerson createPerson(String id, String name) {
+		IRepositoryPerson person = TaskTestUtil.createMockRepository().createPerson(id);
+		person.setName(name);
+		return person;
+	}
 }
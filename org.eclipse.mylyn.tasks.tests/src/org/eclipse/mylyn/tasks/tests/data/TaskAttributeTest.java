@@ -13,12 +13,15 @@ package org.eclipse.mylyn.tasks.tests.data;
 
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import junit.framework.TestCase;
 
 import org.eclipse.mylyn.tasks.core.TaskRepository;
 import org.eclipse.mylyn.tasks.core.data.TaskAttribute;
 import org.eclipse.mylyn.tasks.core.data.TaskAttributeMapper;
+import org.eclipse.mylyn.tasks.core.data.TaskAttributeOptionTable;
 import org.eclipse.mylyn.tasks.core.data.TaskData;
 
 /**
@@ -103,4 +106,33 @@ public class TaskAttributeTest extends TestCase {
 		}
 	}
 
+	public void testSetOptionTable() {
+		Map<String, String> options = new LinkedHashMap<String, String>();
+		options.put("b", "B");
+		options.put("a", "A");
+		TaskAttributeOptionTable optionTable = TaskAttributeOptionTable.of(options);
+		assertSame(optionTable, TaskAttributeOptionTable.of(new LinkedHashMap<String, String>(options)));
+
+		attribute.setOptionTable(optionTable);
+		assertSame(optionTable, attribute.getOptionTable());
+		assertEquals(Arrays.asList("b", "a"), Arrays.asList(attribute.getOptions().keySet().toArray()));
+		assertEquals("A", attribute.getOption("a"));
+
+		TaskData data = new TaskData(attribute.getTaskData().getAttributeMapper(), "kind", "repository", "id2");
+		data.getRoot().deepAddCopy(attribute);
+		assertSame(optionTable, data.getRoot().getAttribute("test").getOptionTable());
+	}
+
+	public void testPutOptionCopiesOptionTable() {
+		TaskAttributeOptionTable optionTable = TaskAttributeOptionTable.of(Collections.singletonMap("a", "A"));
+		attribute.setOptionTable(optionTable);
+		attribute.putOption("b", "B");
+		assertNull(attribute.getOptionTable());
+		assertEquals(2, attribute.getOptions().size());
+		assertEquals(1, optionTable.size());
+
+		attribute.clearOptions();
+		assertTrue(attribute.getOptions().isEmpty());
+	}
+
 }
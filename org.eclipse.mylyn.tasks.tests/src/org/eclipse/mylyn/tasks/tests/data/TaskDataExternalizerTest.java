@@ -13,6 +13,8 @@ package org.eclipse.mylyn.tasks.tests.data;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.zip.ZipInputStream;
 
 import junit.framework.TestCase;
@@ -24,7 +26,9 @@ import org.eclipse.mylyn.internal.tasks.core.data.TaskDataExternalizer.Xml11Inpu
 import org.eclipse.mylyn.internal.tasks.core.data.TaskDataState;
 import org.eclipse.mylyn.tasks.core.TaskRepository;
 import org.eclipse.mylyn.tasks.core.data.ITaskDataWorkingCopy;
+import org.eclipse.mylyn.tasks.core.data.TaskAttribute;
 import org.eclipse.mylyn.tasks.core.data.TaskAttributeMapper;
+import org.eclipse.mylyn.tasks.core.data.TaskAttributeOptionTable;
 import org.eclipse.mylyn.tasks.core.data.TaskData;
 import org.eclipse.mylyn.tasks.tests.connector.MockRepositoryConnector;
 import org.xml.sax.SAXParseException;
@@ -98,4 +102,57 @@ public class TaskDataExternalizerTest extends TestCase {
 		assertEquals("\u0001\u001F", state2.getRepositoryData().getRoot().getAttribute("attribute").getValue());
 	}
 
+	public void testReadWriteOptionTables() throws Exception {
+		Map<String, String> options = new LinkedHashMap<String, String>();
+		options.put("component2", "Component 2");
+		options.put("component1", "Component 1");
+		TaskAttributeOptionTable optionTable = TaskAttributeOptionTable.of(options);
+
+		TaskData data = new TaskData(new TaskAttributeMapper(repository), repository.getConnectorKind(),
+				repository.getRepositoryUrl(), "1");
+		data.getRoot().createAttribute("shared1").setOptionTable(optionTable);
+		data.getRoot().createAttribute("shared2").setOptionTable(optionTable);
+		data.getRoot().createAttribute("copy").putOption("key", "value");
+		TaskData lastReadData = new TaskData(new TaskAttributeMapper(repository), repository.getConnectorKind(),
+				repository.getRepositoryUrl(), "1");
+		lastReadData.getRoot().deepAddCopy(data.getRoot().getAttribute("shared1"));
+
+		TaskDataState state = new TaskDataState(repository.getConnectorKind(), repository.getRepositoryUrl(), "1");
+		state.setRepositoryData(data);
+		state.setLastReadData(lastReadData);
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		externalizer.writeState(out, state);
+		String xml = out.toString("UTF-8");
+		assertEquals("option table should be written once", xml.indexOf("Component 2"), xml.lastIndexOf("Component 2"));
+
+		TaskDataState state2 = externalizer.readState(new ByteArrayInputStream(out.toByteArray()));
+		assertEquals(state.getRepositoryData().getRoot().toString(), state2.getRepositoryData().getRoot().toString());
+		TaskAttribute root = state2.getRepositoryData().getRoot();
+		assertSame(optionTable, root.getAttribute("shared1").getOptionTable());
+		assertSame(optionTable, root.getAttribute("shared2").getOptionTable());
+		assertSame(optionTable, state2.getLastReadData().getRoot().getAttribute("shared1").getOptionTable());
+		assertNull(root.getAttribute("copy").getOptionTable());
+		assertEquals("value", root.getAttribute("copy").getOption("key"));
+	}
+
+	public void testReadVersion20() throws Exception {
+		TaskData data = new TaskData(new TaskAttributeMapper(repository), repository.getConnectorKind(),
+				repository.getRepositoryUrl(), "1");
+		data.getRoot().createAttribute("attribute").setValue("value");
+		TaskDataState state = new TaskDataState(repository.getConnectorKind(), repository.getRepositoryUrl(), "1");
+		state.setRepositoryData(data);
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		externalizer.writeState(out, state);
+		String xml = out.toString("UTF-8");
+		assertTrue(xml.contains("version=\"2.1\""));
+
+		// files that were written before option tables and fingerprints were added are still read
+		xml = xml.replaceFirst("version=\"2.1\"", "version=\"2.0\"");
+		TaskDataState state2 = externalizer.readState(new ByteArrayInputStream(xml.getBytes("UTF-8")));
+		assertEquals(state.getRepositoryData().getRoot().toString(), state2.getRepositoryData().getRoot().toString());
+		assertNull(state2.getRepositoryDataFingerprint());
+	}
+
 }
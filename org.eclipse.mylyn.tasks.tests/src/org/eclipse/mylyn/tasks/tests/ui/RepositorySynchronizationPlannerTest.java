@@ -0,0 +1,132 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Tasktop Technologies and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Tasktop Technologies - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.mylyn.tasks.tests.ui;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+import org.eclipse.mylyn.internal.tasks.ui.RepositorySynchronizationPlanner;
+import org.eclipse.mylyn.internal.tasks.ui.RepositorySynchronizationPlanner.RepositorySchedule;
+
+public class RepositorySynchronizationPlannerTest extends TestCase {
+
+	private static final long MINUTE = 60 * 1000;
+
+	private static final long BASE_INTERVAL = 20 * MINUTE;
+
+	private static final String URL_BUSY = "http://busy";
+
+	private static final String URL_QUIET = "http://quiet";
+
+	private RepositorySynchronizationPlanner planner;
+
+	private long now;
+
+	@Override
+	protected void setUp() throws Exception {
+		planner = new RepositorySynchronizationPlanner(new Random(0));
+		planner.setBaseInterval(BASE_INTERVAL);
+		now = 1000 * MINUTE;
+	}
+
+	public void testNewRepositoryUsesBaseInterval() {
+		assertEquals(BASE_INTERVAL, planner.getInterval(URL_BUSY, now));
+		assertWithinJitter(now + BASE_INTERVAL, planner.getNextSynchronization(URL_BUSY, now), BASE_INTERVAL);
+	}
+
+	public void testBusyRepositoryIsSynchronizedMoreOften() {
+		record(URL_BUSY, 5, 1000, false);
+		record(URL_BUSY, 5, 1000, false);
+		assertTrue(planner.getInterval(URL_BUSY, now) < BASE_INTERVAL);
+		assertEquals(BASE_INTERVAL / 4, planner.getInterval(URL_BUSY, now));
+	}
+
+	public void testQuietRepositoryIsBackedOff() {
+		record(URL_QUIET, 0, 1000, false);
+		assertEquals(2 * BASE_INTERVAL, planner.getInterval(URL_QUIET, now));
+		record(URL_QUIET, 0, 1000, false);
+		assertEquals(4 * BASE_INTERVAL, planner.getInterval(URL_QUIET, now));
+		for (int i = 0; i < 5; i++) {
+			record(URL_QUIET, 0, 1000, false);
+		}
+		assertEquals(8 * BASE_INTERVAL, planner.getInterval(URL_QUIET, now));
+
+		record(URL_QUIET, 3, 1000, false);
+		assertTrue(planner.getInterval(URL_QUIET, now) < BASE_INTERVAL);
+	}
+
+	public void testSlowRepositoryIsBackedOff() {
+		record(URL_BUSY, 5, 2 * MINUTE, false);
+		assertEquals(40 * MINUTE, planner.getInterval(URL_BUSY, now));
+	}
+
+	public void testFailingRepositoryIsBackedOff() {
+		record(URL_BUSY, 5, 1000, true);
+		assertEquals(2 * BASE_INTERVAL, planner.getInterval(URL_BUSY, now));
+		record(URL_BUSY, 5, 1000, true);
+		assertEquals(4 * BASE_INTERVAL, planner.getInterval(URL_BUSY, now));
+		assertTrue(planner.getSchedules().get(0).getErrorRate() > 0.5);
+
+		record(URL_BUSY, 5, 1000, false);
+		assertTrue(planner.getInterval(URL_BUSY, now) < BASE_INTERVAL);
+	}
+
+	public void testNextSynchronizationIsJittered() {
+		long first = -1;
+		boolean jittered = false;
+		for (int i = 0; i < 10; i++) {
+			planner.schedule(URL_BUSY, BASE_INTERVAL, now);
+			long next = planner.getNextSynchronization(URL_BUSY, now);
+			assertWithinJitter(now + BASE_INTERVAL, next, BASE_INTERVAL);
+			if (first == -1) {
+				first = next;
+			} else if (first != next) {
+				jittered = true;
+			}
+		}
+		assertTrue(jittered);
+	}
+
+	public void testGetSchedules() {
+		planner.schedule(URL_BUSY, MINUTE, now);
+		planner.schedule(URL_QUIET, 10 * MINUTE, now);
+		record(URL_BUSY, 2, 500, false);
+
+		List<RepositorySchedule> schedules = planner.getSchedules();
+		assertEquals(2, schedules.size());
+		assertTrue(schedules.get(0).getNextSynchronization() <= schedules.get(1).getNextSynchronization());
+		RepositorySchedule busy = (schedules.get(0).getRepositoryUrl().equals(URL_BUSY))
+				? schedules.get(0)
+				: schedules.get(1);
+		assertEquals(now, busy.getLastSynchronization());
+		assertEquals(2.0, busy.getChangeRate());
+		assertEquals(500, busy.getLatency());
+
+		planner.retainAll(Arrays.asList(URL_QUIET));
+		assertEquals(1, planner.getSchedules().size());
+		assertEquals(URL_QUIET, planner.getSchedules().get(0).getRepositoryUrl());
+	}
+
+	private void record(String repositoryUrl, int changedTasks, long latency, boolean failed) {
+		now += planner.getInterval(repositoryUrl, now);
+		planner.recordSynchronization(repositoryUrl, changedTasks, latency, failed, now);
+	}
+
+	private void assertWithinJitter(long expected, long actual, long interval) {
+		assertTrue("Expected " + actual + " to be close to " + expected,
+				Math.abs(expected - actual) <= interval * 0.15 + 1);
+	}
+
+}
@@ -0,0 +1,189 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Tasktop Technologies and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Tasktop Technologies - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.mylyn.tasks.tests.ui;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+import org.eclipse.jface.viewers.LabelProvider;
+import org.eclipse.jface.viewers.TreePath;
+import org.eclipse.jface.viewers.TreeViewer;
+import org.eclipse.jface.viewers.Viewer;
+import org.eclipse.jface.viewers.ViewerComparator;
+import org.eclipse.jface.viewers.ViewerFilter;
+import org.eclipse.mylyn.internal.tasks.ui.views.AbstractTaskListContentProvider;
+import org.eclipse.mylyn.internal.tasks.ui.views.TaskListLazyContentProvider;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.Shell;
+import org.eclipse.swt.widgets.TreeItem;
+
+public class TaskListLazyContentProviderTest extends TestCase {
+
+	private static final Object INPUT = new Object();
+
+	private static class MapContentProvider extends AbstractTaskListContentProvider {
+
+		private final Map<Object, Object[]> childrenByParent = new HashMap<Object, Object[]>();
+
+		private final List<Object> requestedParents = new ArrayList<Object>();
+
+		public MapContentProvider() {
+			super(null);
+		}
+
+		void setChildren(Object parent, Object... children) {
+			childrenByParent.put(parent, children);
+		}
+
+		public Object[] getElements(Object inputElement) {
+			return getChildren(inputElement);
+		}
+
+		public Object[] getChildren(Object parentElement) {
+			requestedParents.add(parentElement);
+			Object[] children = childrenByParent.get(parentElement);
+			return (children != null) ? children.clone() : new Object[0];
+		}
+
+		public Object getParent(Object element) {
+			return null;
+		}
+
+		public boolean hasChildren(Object element) {
+			return childrenByParent.containsKey(element);
+		}
+
+		public Object[] getChildren(TreePath parentPath) {
+			return getChildren(parentPath.getLastSegment());
+		}
+
+		public boolean hasChildren(TreePath path) {
+			return hasChildren(path.getLastSegment());
+		}
+
+		public TreePath[] getParents(Object element) {
+			return new TreePath[0];
+		}
+
+		public void dispose() {
+		}
+
+		public void inputChanged(Viewer viewer, Object oldInput, Object newInput) {
+		}
+
+	}
+
+	private Shell shell;
+
+	private TreeViewer viewer;
+
+	private MapContentProvider provider;
+
+	@Override
+	protected void setUp() throws Exception {
+		shell = new Shell(Display.getDefault());
+		viewer = new TreeViewer(shell, SWT.VIRTUAL);
+		viewer.setUseHashlookup(true);
+		viewer.setLabelProvider(new LabelProvider());
+		provider = new MapContentProvider();
+		provider.setChildren(INPUT, "a", "b", "c");
+		provider.setChildren("a", "a1", "a2");
+		viewer.setContentProvider(new TaskListLazyContentProvider(viewer, provider));
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		shell.dispose();
+	}
+
+	public void testChildCountIsComputedLazily() {
+		viewer.setInput(INPUT);
+		assertEquals(3, viewer.getTree().getItemCount());
+		assertFalse(provider.requestedParents.contains("a"));
+
+		viewer.setExpandedState(new TreePath(new Object[] { "a" }), true);
+		assertTrue(provider.requestedParents.contains("a"));
+		assertEquals(2, getItem("a").getItemCount());
+		assertFalse(provider.requestedParents.contains("b"));
+	}
+
+	public void testElementsAreSorted() {
+		viewer.setComparator(new ViewerComparator() {
+			@Override
+			public int compare(Viewer viewer, Object e1, Object e2) {
+				return ((String) e2).compareTo((String) e1);
+			}
+		});
+		viewer.setInput(INPUT);
+		assertEquals("c", viewer.getTree().getItem(0).getText());
+		assertEquals("a", viewer.getTree().getItem(2).getText());
+	}
+
+	public void testFilter() {
+		viewer.setInput(INPUT);
+		assertEquals(3, viewer.getTree().getItemCount());
+
+		viewer.addFilter(new ViewerFilter() {
+			@Override
+			public boolean select(Viewer viewer, Object parentElement, Object element) {
+				return !"b".equals(element);
+			}
+		});
+		assertEquals(2, viewer.getTree().getItemCount());
+		assertEquals("a", viewer.getTree().getItem(0).getText());
+		assertEquals("c", viewer.getTree().getItem(1).getText());
+
+		viewer.resetFilters();
+		assertEquals(3, viewer.getTree().getItemCount());
+	}
+
+	public void testRefresh() {
+		viewer.setInput(INPUT);
+		assertEquals(3, viewer.getTree().getItemCount());
+
+		provider.setChildren(INPUT, "a", "b", "c", "d");
+		viewer.refresh();
+		assertEquals(4, viewer.getTree().getItemCount());
+		assertEquals("d", viewer.getTree().getItem(3).getText());
+
+		provider.setChildren(INPUT, "a");
+		viewer.refresh();
+		assertEquals(1, viewer.getTree().getItemCount());
+	}
+
+	public void testRefreshChildren() {
+		viewer.setInput(INPUT);
+		TreePath path = new TreePath(new Object[] { "a" });
+		viewer.setExpandedState(path, true);
+		assertEquals(2, getItem("a").getItemCount());
+
+		provider.setChildren("a", "a1", "a2", "a3");
+		viewer.refresh("a");
+		assertEquals(3, getItem("a").getItemCount());
+	}
+
+	private TreeItem getItem(String text) {
+		for (TreeItem item : viewer.getTree().getItems()) {
+			if (text.equals(item.getText())) {
+				return item;
+			}
+		}
+		fail("Expected item '" + text + "'");
+		return null;
+	}
+
+}
@@ -0,0 +1,57 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Tasktop Technologies and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Tasktop Technologies - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.mylyn.tasks.tests.ui.editor;
+
+import org.eclipse.mylyn.internal.tasks.ui.TaskEditorBloatMonitor;
+import org.eclipse.mylyn.tasks.core.TaskRepository;
+import org.eclipse.mylyn.tasks.core.data.TaskAttribute;
+import org.eclipse.mylyn.tasks.core.data.TaskAttributeMapper;
+import org.eclipse.mylyn.tasks.core.data.TaskData;
+
+import junit.framework.TestCase;
+
+public class TaskEditorBloatMonitorTest extends TestCase {
+
+	private TaskData taskData;
+
+	@Override
+	protected void setUp() throws Exception {
+		TaskRepository repository = new TaskRepository("kind", "http://url");
+		taskData = new TaskData(new TaskAttributeMapper(repository), "kind", "http://url", "1");
+	}
+
+	public void testEstimateSizeGrowsWithValues() {
+		long emptySize = TaskEditorBloatMonitor.estimateSize(taskData);
+		assertTrue(emptySize > 0);
+
+		TaskAttribute attribute = taskData.getRoot().createAttribute(TaskAttribute.SUMMARY);
+		long attributeSize = TaskEditorBloatMonitor.estimateSize(taskData);
+		assertTrue(attributeSize > emptySize);
+
+		attribute.setValue("summary");
+		long valueSize = TaskEditorBloatMonitor.estimateSize(taskData);
+		assertTrue(valueSize > attributeSize);
+
+		attribute.setValue("a much longer summary");
+		assertTrue(TaskEditorBloatMonitor.estimateSize(taskData) > valueSize);
+	}
+
+	public void testEstimateSizeIncludesOptions() {
+		TaskAttribute attribute = taskData.getRoot().createAttribute(TaskAttribute.PRODUCT);
+		long size = TaskEditorBloatMonitor.estimateSize(taskData);
+		for (int i = 0; i < 100; i++) {
+			attribute.putOption("option" + i, "Option " + i);
+		}
+		assertTrue(TaskEditorBloatMonitor.estimateSize(taskData) > size + 100 * 2 * "option".length());
+	}
+
+}
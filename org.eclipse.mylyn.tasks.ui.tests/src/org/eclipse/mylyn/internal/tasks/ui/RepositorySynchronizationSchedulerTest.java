@@ -0,0 +1,169 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Tasktop Technologies and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Tasktop Technologies - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.mylyn.internal.tasks.ui;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anySetOf;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.mylyn.internal.tasks.core.ITaskJobFactory;
+import org.eclipse.mylyn.internal.tasks.core.TaskList;
+import org.eclipse.mylyn.internal.tasks.core.data.TaskDataManager;
+import org.eclipse.mylyn.internal.tasks.ui.RepositorySynchronizationPlanner.RepositorySchedule;
+import org.eclipse.mylyn.tasks.core.IRepositoryManager;
+import org.eclipse.mylyn.tasks.core.TaskRepository;
+import org.eclipse.mylyn.tasks.core.sync.SynchronizationJob;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+public class RepositorySynchronizationSchedulerTest {
+
+	private static final long INTERVAL = 20 * 60 * 1000;
+
+	private final TaskRepository repository1 = new TaskRepository("mock", "http://mock1");
+
+	private final TaskRepository repository2 = new TaskRepository("mock", "http://mock2");
+
+	private final CountDownLatch release = new CountDownLatch(1);
+
+	private final List<SynchronizationJob> jobs = new ArrayList<SynchronizationJob>();
+
+	private RepositorySynchronizationPlanner planner;
+
+	private RepositorySynchronizationScheduler scheduler;
+
+	@Before
+	public void setUp() {
+		IRepositoryManager repositoryManager = mock(IRepositoryManager.class);
+		when(repositoryManager.getAllRepositories()).thenReturn(Arrays.asList(repository1, repository2));
+		ITaskJobFactory taskJobFactory = mock(ITaskJobFactory.class);
+		when(taskJobFactory.createSynchronizeRepositoriesJob(anySetOf(TaskRepository.class)))
+				.thenAnswer(new Answer<SynchronizationJob>() {
+					public SynchronizationJob answer(InvocationOnMock invocation) throws Throwable {
+						SynchronizationJob job = new SynchronizationJob("Synchronize "
+								+ ((Set<?>) invocation.getArguments()[0]).iterator().next()) {
+							@Override
+							protected IStatus run(IProgressMonitor monitor) {
+								try {
+									release.await(10, TimeUnit.SECONDS);
+								} catch (InterruptedException e) {
+									return Status.CANCEL_STATUS;
+								}
+								return Status.OK_STATUS;
+							}
+						};
+						synchronized (jobs) {
+							jobs.add(job);
+						}
+						return job;
+					}
+				});
+		planner = new RepositorySynchronizationPlanner(new Random(0));
+		planner.setBaseInterval(INTERVAL);
+		// the scheduler is not enabled through setInterval() to avoid dispatching from a background job
+		scheduler = new RepositorySynchronizationScheduler(taskJobFactory, repositoryManager, new TaskList(),
+				mock(TaskDataManager.class), planner);
+	}
+
+	@After
+	public void tearDown() {
+		release.countDown();
+		scheduler.dispose();
+	}
+
+	@Test
+	public void testRepositoriesAreSynchronizedIndependently() throws Exception {
+		long now = System.currentTimeMillis();
+		planner.schedule(repository1.getRepositoryUrl(), 0, now);
+		planner.schedule(repository2.getRepositoryUrl(), 0, now);
+
+		// the dispatch does not wait for the synchronization of the first repository to complete
+		assertEquals(Status.OK_STATUS, scheduler.synchronizeDueRepositories(new NullProgressMonitor()));
+		assertEquals(2, jobs.size());
+
+		// repositories that are being synchronized are not synchronized again
+		scheduler.synchronizeDueRepositories(new NullProgressMonitor());
+		assertEquals(2, jobs.size());
+
+		release.countDown();
+		for (SynchronizationJob job : jobs) {
+			job.join();
+		}
+		// the next synchronization is planned by a job listener once a job is done
+		long timeout = System.currentTimeMillis() + 10 * 1000;
+		while (!isPlanned(now) && System.currentTimeMillis() < timeout) {
+			Thread.sleep(50);
+		}
+		for (RepositorySchedule schedule : planner.getSchedules()) {
+			assertTrue(schedule.getLastSynchronization() >= now);
+			assertTrue(schedule.getNextSynchronization() > now);
+		}
+	}
+
+	@Test
+	public void testInactiveFactorIsAppliedPerRepository() {
+		String url1 = repository1.getRepositoryUrl();
+		String url2 = repository2.getRepositoryUrl();
+		scheduler.userAttentionLost();
+
+		scheduler.synchronizationDone(url1, 1, System.currentTimeMillis());
+		assertDelay(3, url1);
+
+		// synchronizations of other repositories do not back off the repository further
+		scheduler.synchronizationDone(url2, 1, System.currentTimeMillis());
+		scheduler.synchronizationDone(url2, 1, System.currentTimeMillis());
+		assertDelay(9, url2);
+
+		scheduler.synchronizationDone(url1, 1, System.currentTimeMillis());
+		assertDelay(9, url1);
+
+		scheduler.userAttentionGained();
+		scheduler.synchronizationDone(url1, 1, System.currentTimeMillis());
+		assertDelay(1, url1);
+	}
+
+	private boolean isPlanned(long time) {
+		for (RepositorySchedule schedule : planner.getSchedules()) {
+			if (schedule.getLastSynchronization() < time) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private void assertDelay(int factor, String repositoryUrl) {
+		long now = System.currentTimeMillis();
+		long delay = planner.getNextSynchronization(repositoryUrl, now) - now;
+		long expected = factor * planner.getInterval(repositoryUrl, now);
+		// allow for the random jitter of the planner
+		assertTrue("Expected delay of about " + expected + "ms, got " + delay + "ms",
+				delay > expected * 0.8 && delay < expected * 1.2);
+	}
+
+}
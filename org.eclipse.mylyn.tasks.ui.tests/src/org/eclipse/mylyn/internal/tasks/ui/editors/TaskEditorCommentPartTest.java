@@ -0,0 +1,160 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Tasktop Technologies and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Tasktop Technologies - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.mylyn.internal.tasks.ui.editors;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.mylyn.internal.tasks.ui.editors.CommentGroupStrategy.CommentGroup;
+import org.eclipse.mylyn.internal.tasks.ui.editors.TaskEditorCommentPart.CommentGroupViewer;
+import org.eclipse.mylyn.internal.tasks.ui.editors.TaskEditorCommentPart.CommentViewer;
+import org.eclipse.mylyn.tasks.core.ITaskComment;
+import org.eclipse.mylyn.tasks.core.TaskRepository;
+import org.eclipse.mylyn.tasks.core.data.TaskAttribute;
+import org.eclipse.mylyn.tasks.core.data.TaskCommentMapper;
+import org.eclipse.mylyn.tasks.core.data.TaskData;
+import org.eclipse.mylyn.tasks.core.data.TaskDataModel;
+import org.eclipse.mylyn.tasks.tests.TaskTestUtil;
+import org.eclipse.mylyn.tasks.ui.editors.AbstractTaskEditorPage;
+import org.eclipse.mylyn.tasks.ui.editors.AttributeEditorFactory;
+import org.eclipse.mylyn.tasks.ui.editors.AttributeEditorToolkit;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.custom.CTabFolder;
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.Shell;
+import org.eclipse.ui.IEditorSite;
+import org.eclipse.ui.forms.IManagedForm;
+import org.eclipse.ui.forms.widgets.FormToolkit;
+import org.eclipse.ui.forms.widgets.ScrolledForm;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TaskEditorCommentPartTest {
+
+	private static final int COMMENT_COUNT = TaskEditorCommentPart.CHUNK_SIZE + 10;
+
+	private Shell shell;
+
+	private TaskEditorCommentPart part;
+
+	private CommentGroupViewer groupViewer;
+
+	private List<CommentViewer> commentViewers;
+
+	@Before
+	public void setUp() {
+		TaskRepository repository = TaskTestUtil.createMockRepository();
+		TaskData taskData = TaskTestUtil.createMockTaskData("1");
+		for (int i = 1; i <= COMMENT_COUNT; i++) {
+			TaskCommentMapper mapper = new TaskCommentMapper();
+			mapper.setNumber(i);
+			mapper.setText("comment " + i);
+			mapper.applyTo(taskData.getRoot().createAttribute(TaskAttribute.PREFIX_COMMENT + i));
+		}
+		TaskDataModel model = mock(TaskDataModel.class);
+		when(model.getTaskData()).thenReturn(taskData);
+		when(model.getTaskRepository()).thenReturn(repository);
+		when(model.getTask()).thenReturn(TaskTestUtil.createMockTask("1"));
+
+		shell = new Shell(Display.getDefault());
+		// the comment layout is computed relative to the tab folder of the editor
+		CTabFolder tabFolder = new CTabFolder(shell, SWT.NONE);
+		Composite editorComposite = new Composite(tabFolder, SWT.NONE);
+		FormToolkit toolkit = new FormToolkit(shell.getDisplay());
+		ScrolledForm form = toolkit.createScrolledForm(editorComposite);
+		IManagedForm managedForm = mock(IManagedForm.class);
+		when(managedForm.getForm()).thenReturn(form);
+
+		AbstractTaskEditorPage page = mock(AbstractTaskEditorPage.class);
+		when(page.getModel()).thenReturn(model);
+		when(page.getTaskRepository()).thenReturn(repository);
+		when(page.getManagedForm()).thenReturn(managedForm);
+		when(page.getEditorComposite()).thenReturn(editorComposite);
+		when(page.getEditorSite()).thenReturn(mock(IEditorSite.class));
+		when(page.getAttributeEditorFactory()).thenReturn(mock(AttributeEditorFactory.class));
+		when(page.getAttributeEditorToolkit()).thenReturn(mock(AttributeEditorToolkit.class));
+
+		part = new TaskEditorCommentPart();
+		part.setCommentGroupStrategy(new CommentGroupStrategy() {
+			@Override
+			public List<CommentGroup> groupComments(List<ITaskComment> comments, String currentPersonId) {
+				return Collections.singletonList(new CommentGroup(CommentGroup.CURRENT, comments, false));
+			}
+		});
+		part.initialize(page);
+		part.createControl(form.getBody(), toolkit);
+		groupViewer = part.getCommentGroupViewers().get(0);
+		commentViewers = groupViewer.getCommentViewers();
+	}
+
+	@After
+	public void tearDown() {
+		if (shell != null) {
+			shell.dispose();
+		}
+	}
+
+	@Test
+	public void testExpandCreatesFirstChunk() {
+		assertNull(commentViewers.get(0).getControl());
+
+		part.expandAllComments(false);
+		assertNotNull(commentViewers.get(TaskEditorCommentPart.CHUNK_SIZE - 1).getControl());
+		assertNull(commentViewers.get(TaskEditorCommentPart.CHUNK_SIZE).getControl());
+
+		groupViewer.ensureControlCreated(commentViewers.get(COMMENT_COUNT - 1));
+		assertNotNull(commentViewers.get(COMMENT_COUNT - 1).getControl());
+		assertFalse(commentViewers.get(COMMENT_COUNT - 1).isExpanded());
+	}
+
+	@Test
+	public void testExpandAllWithPendingChunk() {
+		assertFalse(groupViewer.isFullyExpanded());
+
+		part.expandAllComments(true);
+		assertNull(commentViewers.get(TaskEditorCommentPart.CHUNK_SIZE).getControl());
+		assertTrue(groupViewer.isFullyExpanded());
+
+		// comments of chunks created later are expanded as well
+		groupViewer.ensureControlCreated(commentViewers.get(COMMENT_COUNT - 1));
+		assertTrue(commentViewers.get(COMMENT_COUNT - 1).isExpanded());
+		assertTrue(groupViewer.isFullyExpanded());
+	}
+
+	@Test
+	public void testCollapseAllWithPendingChunk() {
+		part.expandAllComments(true);
+		groupViewer.setFullyExpanded(false);
+		assertFalse(groupViewer.isFullyExpanded());
+		assertFalse(commentViewers.get(0).isExpanded());
+
+		groupViewer.ensureControlCreated(commentViewers.get(COMMENT_COUNT - 1));
+		assertFalse(commentViewers.get(COMMENT_COUNT - 1).isExpanded());
+	}
+
+	@Test
+	public void testCollapsedCommentIsNotFullyExpanded() {
+		part.expandAllComments(true);
+		commentViewers.get(0).setExpanded(false);
+		assertFalse(groupViewer.isFullyExpanded());
+	}
+
+}
@@ -11,14 +11,24 @@
 
 package org.eclipse.mylyn.tasks.ui.editors;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.lang.reflect.Field;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicReference;
+
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.mylyn.internal.tasks.ui.TaskEditorBloatMonitor;
 import org.eclipse.mylyn.tasks.core.ITask;
 import org.eclipse.mylyn.tasks.core.TaskRepository;
 import org.eclipse.mylyn.tasks.core.data.ITaskDataWorkingCopy;
@@ -26,9 +36,19 @@ import org.eclipse.mylyn.tasks.core.data.TaskAttribute;
 import org.eclipse.mylyn.tasks.core.data.TaskData;
 import org.eclipse.mylyn.tasks.core.data.TaskDataModel;
 import org.eclipse.mylyn.tasks.tests.TaskTestUtil;
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.Shell;
+import org.eclipse.ui.IEditorPart;
+import org.eclipse.ui.IEditorReference;
 import org.eclipse.ui.IEditorSite;
+import org.eclipse.ui.IWorkbenchPage;
+import org.eclipse.ui.forms.IFormPart;
 import org.eclipse.ui.forms.IManagedForm;
+import org.eclipse.ui.forms.widgets.FormToolkit;
+import org.eclipse.ui.forms.widgets.ScrolledForm;
 import org.eclipse.ui.handlers.IHandlerService;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -40,8 +60,9 @@ public class AbstractTaskEditorPageTest {
 
 		@Override
 		protected TaskDataModel createModel(final TaskEditorInput input) throws CoreException {
-			TaskDataModel model = spy(
-					new TaskDataModel(input.getTaskRepository(), input.getTask(), mock(ITaskDataWorkingCopy.class)));
+			ITaskDataWorkingCopy workingCopy = mock(ITaskDataWorkingCopy.class);
+			when(workingCopy.isSaved()).thenReturn(true);
+			TaskDataModel model = spy(new TaskDataModel(input.getTaskRepository(), input.getTask(), workingCopy));
 			when(model.getTaskData()).thenReturn(taskData);
 			return model;
 		}
@@ -59,6 +80,8 @@ public class AbstractTaskEditorPageTest {
 
 	private TaskAttribute attribute;
 
+	private Shell shell;
+
 	@SuppressWarnings("restriction")
 	@Before
 	public void setUp() {
@@ -72,6 +95,13 @@ public class AbstractTaskEditorPageTest {
 		page.init(createSite(), new TaskEditorInput(repository, task));
 	}
 
+	@After
+	public void tearDown() {
+		if (shell != null) {
+			shell.dispose();
+		}
+	}
+
 	private IEditorSite createSite() {
 		IEditorSite site = mock(IEditorSite.class);
 		IHandlerService service = mock(IHandlerService.class);
@@ -92,4 +122,109 @@ public class AbstractTaskEditorPageTest {
 		verify(form, never()).dirtyStateChanged();
 	}
 
+	@Test
+	public void testHibernate() throws Exception {
+		Composite editorComposite = createEditorContents();
+
+		assertTrue(page.hibernate());
+		assertTrue(page.isHibernated());
+		assertNull(getField("model"));
+		// only the link for restoring the contents remains
+		assertEquals(1, editorComposite.getChildren().length);
+
+		assertFalse(page.hibernate());
+	}
+
+	@Test
+	public void testHibernateDirty() throws Exception {
+		createEditorContents();
+		page.getModel().attributeChanged(attribute);
+
+		assertFalse(page.hibernate());
+		assertFalse(page.isHibernated());
+	}
+
+	@Test
+	public void testGetModelRestoresHibernatedPage() throws Exception {
+		createEditorContents();
+		doNothing().when(page).refresh();
+		assertTrue(page.hibernate());
+
+		page.getModel();
+		verify(page).refresh();
+	}
+
+	@Test
+	public void testGetModelOutsideOfUiThread() throws Exception {
+		createEditorContents();
+		doNothing().when(page).refresh();
+		assertTrue(page.hibernate());
+
+		final AtomicReference<Object> model = new AtomicReference<Object>(this);
+		Thread thread = new Thread() {
+			@Override
+			public void run() {
+				model.set(page.getModel());
+			}
+		};
+		thread.start();
+		thread.join();
+
+		assertNull(model.get());
+		verify(page, never()).refresh();
+	}
+
+	@SuppressWarnings("restriction")
+	@Test
+	public void testBloatMonitorDoesNotRestoreHibernatedPage() throws Exception {
+		createEditorContents();
+		doNothing().when(page).refresh();
+		assertTrue(page.hibernate());
+
+		TaskEditor editor = page.getTaskEditor();
+		when(editor.getTaskEditorPages()).thenReturn(Collections.singletonList(page));
+		IEditorReference reference = mock(IEditorReference.class);
+		when(reference.getId()).thenReturn(TaskEditor.ID_EDITOR);
+		when(reference.getEditor(false)).thenReturn(editor);
+		IWorkbenchPage workbenchPage = mock(IWorkbenchPage.class);
+		when(workbenchPage.getEditorReferences()).thenReturn(new IEditorReference[] { reference });
+		IEditorSite site = mock(IEditorSite.class);
+		when(site.getPage()).thenReturn(workbenchPage);
+		IEditorPart openedEditor = mock(IEditorPart.class);
+		when(openedEditor.getSite()).thenReturn(site);
+
+		TaskEditorBloatMonitor.editorOpened(openedEditor);
+		assertEquals(0, TaskEditorBloatMonitor.estimateRetainedSize(editor));
+
+		assertTrue(page.isHibernated());
+		verify(page, never()).refresh();
+	}
+
+	private Composite createEditorContents() throws Exception {
+		shell = new Shell(Display.getDefault());
+		FormToolkit toolkit = new FormToolkit(shell.getDisplay());
+		ScrolledForm scrolledForm = toolkit.createScrolledForm(shell);
+		Composite editorComposite = toolkit.createComposite(scrolledForm.getBody());
+		toolkit.createLabel(editorComposite, "summary");
+		toolkit.createLabel(editorComposite, "description");
+		when(form.getForm()).thenReturn(scrolledForm);
+		when(form.getParts()).thenReturn(new IFormPart[0]);
+		setField("form", scrolledForm);
+		setField("toolkit", toolkit);
+		setField("editorComposite", editorComposite);
+		return editorComposite;
+	}
+
+	private Object getField(String name) throws Exception {
+		Field field = AbstractTaskEditorPage.class.getDeclaredField(name);
+		field.setAccessible(true);
+		return field.get(page);
+	}
+
+	private void setField(String name, Object value) throws Exception {
+		Field field = AbstractTaskEditorPage.class.getDeclaredField(name);
+		field.setAccessible(true);
+		field.set(page, value);
+	}
+
 }
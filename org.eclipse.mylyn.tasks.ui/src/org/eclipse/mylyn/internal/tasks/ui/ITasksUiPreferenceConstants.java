@@ -109,6 +109,18 @@ public interface ITasksUiPreferenceConstants {
 
 	public static final String TASK_LIST_TOOL_TIPS_ENABLED = "org.eclipse.mylyn.tasks.ui.task.list.tool.tip"; //$NON-NLS-1$
 
+	/**
+	 * If enabled the task list uses a virtual tree that only materializes visible rows. Takes effect when the view is
+	 * opened.
+	 */
+	public static final String TASK_LIST_VIRTUAL = "org.eclipse.mylyn.tasks.ui.task.list.virtual"; //$NON-NLS-1$
+
+	/**
+	 * Memory budget in megabytes for open task editors. Editors that have not been used recently are hibernated when
+	 * the budget is exceeded.
+	 */
+	public static final String TASK_EDITOR_MEMORY_BUDGET = "org.eclipse.mylyn.tasks.ui.editor.memory.budget"; //$NON-NLS-1$
+
 	// NOTE: legacy name, do not change
 	public static final String PREF_DATA_DIR = "org.eclipse.mylyn.data.dir"; //$NON-NLS-1$
 
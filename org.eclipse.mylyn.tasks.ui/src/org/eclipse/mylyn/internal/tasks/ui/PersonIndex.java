@@ -0,0 +1,561 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Tasktop Technologies and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Tasktop Technologies - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.mylyn.internal.tasks.ui;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.mylyn.commons.core.StatusHandler;
+import org.eclipse.mylyn.internal.tasks.core.AbstractTask;
+import org.eclipse.mylyn.internal.tasks.core.LocalRepositoryConnector;
+import org.eclipse.mylyn.internal.tasks.core.ITaskListChangeListener;
+import org.eclipse.mylyn.internal.tasks.core.TaskContainerDelta;
+import org.eclipse.mylyn.internal.tasks.core.TaskList;
+import org.eclipse.mylyn.internal.tasks.core.data.ITaskDataManagerListener;
+import org.eclipse.mylyn.internal.tasks.core.data.TaskDataManager;
+import org.eclipse.mylyn.internal.tasks.core.data.TaskDataManagerEvent;
+import org.eclipse.mylyn.tasks.core.IRepositoryPerson;
+import org.eclipse.mylyn.tasks.core.data.TaskAttachmentMapper;
+import org.eclipse.mylyn.tasks.core.data.TaskAttribute;
+import org.eclipse.mylyn.tasks.core.data.TaskAttributeMetaData;
+import org.eclipse.mylyn.tasks.core.data.TaskCommentMapper;
+import org.eclipse.mylyn.tasks.core.data.TaskData;
+
+import com.google.common.base.Strings;
+
+/**
+ * Maintains an index of the people that participate in tasks of each repository for proposing values of person
+ * fields. The index is updated incrementally from task data updates and changes to task owners and looked up by
+ * prefix of the person id or of any part of the name. People are ranked by the number of tasks they participate in
+ * with a bonus for recent participation.
+ * <p>
+ * The people collected from task data are persisted through {@link #save(File)} and {@link #load(File)}. Tasks with
+ * stored task data that are not in the index yet are added by {@link #seed(TaskDataManager, IProgressMonitor)}. Task
+ * owners are collected from the task list when the index is seeded or the task list is reloaded and kept current
+ * through task list change notifications. Lookups only read the index.
+ *
+ * @see PersonProposalProvider
+ */
+public class PersonIndex implements ITaskDataManagerListener, ITaskListChangeListener {
+
+	private static final long HALF_LIFE = 30L * 24 * 60 * 60 * 1000;
+
+	private static final char SEPARATOR = '\t';
+
+	private static final String PREFIX_PERSON = "P"; //$NON-NLS-1$
+
+	private static final String PREFIX_TASK = "T"; //$NON-NLS-1$
+
+	private static class Person {
+
+		private final String id;
+
+		private String name;
+
+		private int count;
+
+		private long lastSeen;
+
+		public Person(String id) {
+			this.id = id;
+		}
+
+	}
+
+	private class RepositoryIndex {
+
+		private final TreeMap<String, Person> personById = new TreeMap<String, Person>(String.CASE_INSENSITIVE_ORDER);
+
+		private final TreeMap<String, Set<String>> idsByNameToken = new TreeMap<String, Set<String>>();
+
+		private final Map<String, Set<String>> idsByTaskId = new HashMap<String, Set<String>>();
+
+		private final Map<String, String> ownerByTaskId = new HashMap<String, String>();
+
+		private void setPeople(String taskId, Set<String> ids, Map<String, String> names, long time) {
+			// tasks without people are recorded as well to avoid reading their task data again when seeding
+			Set<String> oldIds = idsByTaskId.put(taskId, ids);
+			update(oldIds, ids, names, time);
+		}
+
+		private void removeTask(String taskId) {
+			setOwner(taskId, null, null, 0);
+			Set<String> oldIds = idsByTaskId.remove(taskId);
+			update(oldIds, Collections.<String> emptySet(), Collections.<String, String> emptyMap(), 0);
+		}
+
+		private void setOwner(String taskId, String ownerId, String owner, long time) {
+			String oldOwnerId = (ownerId == null) ? ownerByTaskId.remove(taskId) : ownerByTaskId.put(taskId, ownerId);
+			Set<String> oldIds = (oldOwnerId != null) ? Collections.singleton(oldOwnerId) : null;
+			Set<String> ids = (ownerId != null) ? Collections.singleton(ownerId) : Collections.<String> emptySet();
+			Map<String, String> names = (ownerId != null && owner != null)
+					? Collections.singletonMap(ownerId, owner)
+					: Collections.<String, String> emptyMap();
+			update(oldIds, ids, names, time);
+		}
+
+		private void update(Set<String> oldIds, Set<String> ids, Map<String, String> names, long time) {
+			if (oldIds != null) {
+				for (String id : oldIds) {
+					if (!ids.contains(id)) {
+						Person person = personById.get(id);
+						if (person != null && --person.count <= 0) {
+							removePerson(person);
+						}
+					}
+				}
+			}
+			for (String id : ids) {
+				Person person = personById.get(id);
+				if (person == null) {
+					person = new Person(id);
+					personById.put(id, person);
+				}
+				if (oldIds == null || !oldIds.contains(id)) {
+					person.count++;
+				}
+				person.lastSeen = Math.max(person.lastSeen, time);
+				String name = names.get(id);
+				if (name != null && !name.equals(person.name)) {
+					setName(person, name);
+				}
+			}
+		}
+
+		private void setName(Person person, String name) {
+			if (person.name != null) {
+				for (String token : tokenize(person.name)) {
+					Set<String> ids = idsByNameToken.get(token);
+					if (ids != null && ids.remove(person.id) && ids.isEmpty()) {
+						idsByNameToken.remove(token);
+					}
+				}
+			}
+			person.name = name;
+			if (name != null) {
+				for (String token : tokenize(name)) {
+					Set<String> ids = idsByNameToken.get(token);
+					if (ids == null) {
+						ids = new HashSet<String>();
+						idsByNameToken.put(token, ids);
+					}
+					ids.add(person.id);
+				}
+			}
+		}
+
+		private void removePerson(Person person) {
+			setName(person, null);
+			personById.remove(person.id);
+		}
+
+	}
+
+	private final TaskList taskList;
+
+	private final Map<String, RepositoryIndex> indexByRepositoryUrl = new HashMap<String, RepositoryIndex>();
+
+	public PersonIndex(TaskList taskList) {
+		this.taskList = taskList;
+	}
+
+	/**
+	 * Returns the ids of people in <code>repositoryUrl</code> whose id or a part of whose name starts with
+	 * <code>prefix</code> mapped to their names. The ids are ordered by descending rank.
+	 */
+	public synchronized Map<String, String> getPeople(String repositoryUrl, String prefix) {
+		RepositoryIndex index = indexByRepositoryUrl.get(repositoryUrl);
+		if (index == null) {
+			return Collections.emptyMap();
+		}
+
+		Map<String, Person> matches = new HashMap<String, Person>();
+		if (prefix.length() == 0) {
+			matches.putAll(index.personById);
+		} else {
+			String lowerBound = prefix.toLowerCase();
+			String upperBound = getUpperBound(lowerBound);
+			matches.putAll(index.personById.subMap(lowerBound, true, upperBound, false));
+			for (Set<String> ids : index.idsByNameToken.subMap(lowerBound, true, upperBound, false).values()) {
+				for (String id : ids) {
+					matches.put(id, index.personById.get(id));
+				}
+			}
+		}
+
+		final long now = System.currentTimeMillis();
+		final Map<Person, Double> scores = new HashMap<Person, Double>();
+		for (Person person : matches.values()) {
+			scores.put(person, getScore(person, now));
+		}
+		List<Person> people = new ArrayList<Person>(scores.keySet());
+		Collections.sort(people, new Comparator<Person>() {
+			public int compare(Person o1, Person o2) {
+				int result = Double.compare(scores.get(o2), scores.get(o1));
+				return (result != 0) ? result : o1.id.compareToIgnoreCase(o2.id);
+			}
+		});
+		Map<String, String> result = new LinkedHashMap<String, String>();
+		for (Person person : people) {
+			result.put(person.id, person.name);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns true, if people from the task data of <code>taskId</code> have been indexed.
+	 */
+	public synchronized boolean containsTask(String repositoryUrl, String taskId) {
+		RepositoryIndex index = indexByRepositoryUrl.get(repositoryUrl);
+		return index != null && index.idsByTaskId.containsKey(taskId);
+	}
+
+	/**
+	 * Replaces the people that were previously indexed for the task of <code>taskData</code>.
+	 */
+	public void index(TaskData taskData) {
+		index(taskData, System.currentTimeMillis());
+	}
+
+	/**
+	 * Replaces the people that were previously indexed for the task of <code>taskData</code> and records
+	 * <code>time</code> as the time they were last seen.
+	 */
+	public synchronized void index(TaskData taskData, long time) {
+		if (Strings.isNullOrEmpty(taskData.getTaskId()) || taskData.isNew()) {
+			return;
+		}
+		Map<String, String> names = new HashMap<String, String>();
+		Set<String> ids = collectPeople(taskData, names);
+		getIndex(taskData.getRepositoryUrl()).setPeople(taskData.getTaskId(), ids, names, time);
+	}
+
+	/**
+	 * Indexes the owners of all tasks and the stored task data of all repository tasks that have not been indexed, e.g.
+	 * because the index was created after the task data was retrieved or the index file was lost. The task data is
+	 * read without holding the lock of the index.
+	 */
+	public void seed(TaskDataManager taskDataManager, IProgressMonitor monitor) {
+		List<AbstractTask> tasks = new ArrayList<AbstractTask>(taskList.getAllTasks());
+		synchronized (this) {
+			indexOwners(tasks);
+		}
+		monitor.beginTask("", tasks.size()); //$NON-NLS-1$
+		try {
+			for (AbstractTask task : tasks) {
+				if (monitor.isCanceled()) {
+					throw new OperationCanceledException();
+				}
+				if (!LocalRepositoryConnector.CONNECTOR_KIND.equals(task.getConnectorKind())
+						&& !containsTask(task.getRepositoryUrl(), task.getTaskId())
+						&& taskDataManager.hasTaskData(task)) {
+					try {
+						TaskData taskData = taskDataManager.getTaskData(task);
+						if (taskData != null) {
+							long time = (task.getModificationDate() != null) ? task.getModificationDate().getTime() : 0;
+							index(taskData, time);
+						}
+					} catch (CoreException e) {
+						StatusHandler.log(new Status(IStatus.WARNING, TasksUiPlugin.ID_PLUGIN,
+								"Failed to index people of task " + task.getHandleIdentifier(), e)); //$NON-NLS-1$
+					}
+				}
+				monitor.worked(1);
+			}
+		} finally {
+			monitor.done();
+		}
+	}
+
+	public synchronized void clear() {
+		indexByRepositoryUrl.clear();
+	}
+
+	public void taskDataUpdated(TaskDataManagerEvent event) {
+		if (event.getTaskDataUpdated() && event.getTaskData() != null) {
+			index(event.getTaskData());
+		}
+	}
+
+	public void editsDiscarded(TaskDataManagerEvent event) {
+		// ignore
+	}
+
+	public synchronized void containersChanged(Set<TaskContainerDelta> deltas) {
+		for (TaskContainerDelta delta : deltas) {
+			if (delta.getElement() instanceof AbstractTask) {
+				AbstractTask task = (AbstractTask) delta.getElement();
+				switch (delta.getKind()) {
+				case ADDED:
+				case CONTENT:
+					indexOwner(getIndex(task.getRepositoryUrl()), task, System.currentTimeMillis());
+					break;
+				case DELETED:
+					RepositoryIndex index = indexByRepositoryUrl.get(task.getRepositoryUrl());
+					if (index != null) {
+						index.removeTask(task.getTaskId());
+					}
+					break;
+				default:
+					break;
+				}
+			} else if (delta.getKind() == TaskContainerDelta.Kind.ROOT && delta.getElement() == null) {
+				// the task list was reloaded, collect owners again
+				for (RepositoryIndex index : indexByRepositoryUrl.values()) {
+					for (String taskId : new HashSet<String>(index.ownerByTaskId.keySet())) {
+						index.setOwner(taskId, null, null, 0);
+					}
+				}
+				indexOwners(taskList.getAllTasks());
+			}
+		}
+	}
+
+	private RepositoryIndex getIndex(String repositoryUrl) {
+		RepositoryIndex index = indexByRepositoryUrl.get(repositoryUrl);
+		if (index == null) {
+			index = new RepositoryIndex();
+			indexByRepositoryUrl.put(repositoryUrl, index);
+		}
+		return index;
+	}
+
+	private void indexOwners(Collection<AbstractTask> tasks) {
+		for (AbstractTask task : tasks) {
+			indexOwner(getIndex(task.getRepositoryUrl()), task, 0);
+		}
+	}
+
+	private void indexOwner(RepositoryIndex index, AbstractTask task, long time) {
+		String ownerId = trim(task.getOwnerId());
+		String owner = trim(task.getOwner());
+		if (ownerId == null) {
+			index.setOwner(task.getTaskId(), owner, null, time);
+		} else {
+			index.setOwner(task.getTaskId(), ownerId, owner, time);
+		}
+	}
+
+	private double getScore(Person person, long now) {
+		long age = Math.max(0, now - person.lastSeen);
+		// recently seen people rank up to twice as high as people that have not been seen for a long time
+		return person.count * (1 + Math.pow(0.5, (double) age / HALF_LIFE));
+	}
+
+	static String getUpperBound(String lowerBound) {
+		char[] nextWord = lowerBound.toCharArray();
+		nextWord[nextWord.length - 1]++;
+		return new String(nextWord);
+	}
+
+	private static Set<String> tokenize(String name) {
+		Set<String> tokens = new HashSet<String>();
+		for (String token : name.split("\\s")) { //$NON-NLS-1$
+			if (token.length() > 0) {
+				tokens.add(token.toLowerCase());
+			}
+		}
+		return tokens;
+	}
+
+	private static String trim(String value) {
+		return (value != null && value.trim().length() > 0) ? value.trim() : null;
+	}
+
+	/**
+	 * Collects the ids of the people that participate in <code>data</code> and puts their names into
+	 * <code>names</code>.
+	 */
+	static Set<String> collectPeople(TaskData data, Map<String, String> names) {
+		Set<String> ids = new HashSet<String>();
+		addPerson(data, ids, names, TaskAttribute.USER_REPORTER);
+		addPerson(data, ids, names, TaskAttribute.USER_ASSIGNED);
+		addPerson(data, ids, names, TaskAttribute.USER_CC);
+		List<TaskAttribute> comments = data.getAttributeMapper().getAttributesByType(data, TaskAttribute.TYPE_COMMENT);
+		for (TaskAttribute commentAttribute : comments) {
+			addPerson(data, ids, names, commentAttribute);
+		}
+		List<TaskAttribute> attachments = data.getAttributeMapper().getAttributesByType(data,
+				TaskAttribute.TYPE_ATTACHMENT);
+		for (TaskAttribute attachmentAttribute : attachments) {
+			addPerson(data, ids, names, attachmentAttribute);
+		}
+		return ids;
+	}
+
+	private static void addPerson(TaskData data, Set<String> ids, Map<String, String> names, String key) {
+		TaskAttribute attribute = data.getRoot().getMappedAttribute(key);
+		// ignore modifiable attributes which may have a value edited by the user which may not be a valid proposal
+		if (attribute != null && attribute.getMetaData().isReadOnly()) {
+			addPerson(data, ids, names, attribute);
+		}
+	}
+
+	private static void addPerson(TaskData data, Set<String> ids, Map<String, String> names,
+			TaskAttribute attribute) {
+		TaskAttributeMetaData metaData = attribute.getMetaData();
+		if (TaskAttribute.TYPE_COMMENT.equals(metaData.getType())) {
+			TaskCommentMapper mapper = TaskCommentMapper.createFrom(attribute);
+			addPerson(ids, names, mapper.getAuthor());
+		} else if (TaskAttribute.TYPE_ATTACHMENT.equals(metaData.getType())) {
+			TaskAttachmentMapper mapper = TaskAttachmentMapper.createFrom(attribute);
+			addPerson(ids, names, mapper.getAuthor());
+		} else if (TaskAttribute.TYPE_PERSON.equals(metaData.getType())) {
+			addPerson(ids, names, data.getAttributeMapper().getRepositoryPerson(attribute));
+		} else {
+			for (String value : attribute.getValues()) {
+				String address = trim(value);
+				if (address != null) {
+					ids.add(address);
+				}
+			}
+		}
+	}
+
+	private static void addPerson(Set<String> ids, Map<String, String> names, IRepositoryPerson repositoryPerson) {
+		if (repositoryPerson != null && trim(repositoryPerson.getPersonId()) != null) {
+			ids.add(repositoryPerson.getPersonId());
+			if (repositoryPerson.getName() != null) {
+				names.put(repositoryPerson.getPersonId(), repositoryPerson.getName());
+			}
+		}
+	}
+
+	/**
+	 * Writes the people collected from task data to <code>file</code>. Task owners are not persisted.
+	 */
+	public synchronized void save(File file) throws IOException {
+		try (Writer writer = new BufferedWriter(
+				new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8))) {
+			for (Map.Entry<String, RepositoryIndex> entry : indexByRepositoryUrl.entrySet()) {
+				String repositoryUrl = entry.getKey();
+				RepositoryIndex index = entry.getValue();
+				Set<String> ids = new HashSet<String>();
+				for (Map.Entry<String, Set<String>> task : index.idsByTaskId.entrySet()) {
+					StringBuilder sb = new StringBuilder(PREFIX_TASK);
+					append(sb, repositoryUrl);
+					append(sb, task.getKey());
+					for (String id : task.getValue()) {
+						append(sb, id);
+						ids.add(id);
+					}
+					writer.write(sb.append('\n').toString());
+				}
+				for (String id : ids) {
+					Person person = index.personById.get(id);
+					StringBuilder sb = new StringBuilder(PREFIX_PERSON);
+					append(sb, repositoryUrl);
+					append(sb, person.id);
+					append(sb, Long.toString(person.lastSeen));
+					if (person.name != null) {
+						append(sb, person.name);
+					}
+					writer.write(sb.append('\n').toString());
+				}
+			}
+		}
+	}
+
+	/**
+	 * Replaces the people collected from task data by the contents of <code>file</code>.
+	 */
+	public synchronized void load(File file) throws IOException {
+		indexByRepositoryUrl.clear();
+		Map<String, Map<String, String>> namesByRepositoryUrl = new HashMap<String, Map<String, String>>();
+		Map<String, Map<String, Long>> lastSeenByRepositoryUrl = new HashMap<String, Map<String, Long>>();
+		Map<String, Map<String, Set<String>>> tasksByRepositoryUrl = new HashMap<String, Map<String, Set<String>>>();
+		try (BufferedReader reader = new BufferedReader(
+				new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				String[] fields = line.split(String.valueOf(SEPARATOR));
+				if (PREFIX_TASK.equals(fields[0]) && fields.length >= 3) {
+					Map<String, Set<String>> tasks = tasksByRepositoryUrl.get(fields[1]);
+					if (tasks == null) {
+						tasks = new HashMap<String, Set<String>>();
+						tasksByRepositoryUrl.put(fields[1], tasks);
+					}
+					Set<String> ids = new HashSet<String>();
+					for (int i = 3; i < fields.length; i++) {
+						ids.add(fields[i]);
+					}
+					tasks.put(fields[2], ids);
+				} else if (PREFIX_PERSON.equals(fields[0]) && fields.length >= 4) {
+					Map<String, Long> lastSeen = lastSeenByRepositoryUrl.get(fields[1]);
+					Map<String, String> names = namesByRepositoryUrl.get(fields[1]);
+					if (lastSeen == null) {
+						lastSeen = new HashMap<String, Long>();
+						lastSeenByRepositoryUrl.put(fields[1], lastSeen);
+						names = new HashMap<String, String>();
+						namesByRepositoryUrl.put(fields[1], names);
+					}
+					try {
+						lastSeen.put(fields[2], Long.parseLong(fields[3]));
+					} catch (NumberFormatException e) {
+						// ignore
+					}
+					if (fields.length >= 5) {
+						names.put(fields[2], fields[4]);
+					}
+				}
+			}
+		}
+		for (Map.Entry<String, Map<String, Set<String>>> entry : tasksByRepositoryUrl.entrySet()) {
+			RepositoryIndex index = getIndex(entry.getKey());
+			Map<String, String> names = namesByRepositoryUrl.get(entry.getKey());
+			Map<String, Long> lastSeen = lastSeenByRepositoryUrl.get(entry.getKey());
+			for (Map.Entry<String, Set<String>> task : entry.getValue().entrySet()) {
+				index.setPeople(task.getKey(), task.getValue(),
+						(names != null) ? names : Collections.<String, String> emptyMap(), 0);
+			}
+			if (lastSeen != null) {
+				for (Map.Entry<String, Long> person : lastSeen.entrySet()) {
+					Person p = index.personById.get(person.getKey());
+					if (p != null) {
+						p.lastSeen = person.getValue();
+					}
+				}
+			}
+		}
+	}
+
+	private static void append(StringBuilder sb, String value) {
+		sb.append(SEPARATOR);
+		// values must not contain separators
+		sb.append(value.replaceAll("[\\t\\r\\n]", " ")); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+}
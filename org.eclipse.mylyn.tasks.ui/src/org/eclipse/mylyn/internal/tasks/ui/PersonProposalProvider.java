@@ -13,10 +13,8 @@
 package org.eclipse.mylyn.internal.tasks.ui;
 
 import java.util.Arrays;
-import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashMap;
-import java.util.HashSet;
-import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.SortedSet;
@@ -28,13 +26,8 @@ import org.eclipse.jface.fieldassist.IContentProposalProvider;
 import org.eclipse.mylyn.commons.net.AuthenticationCredentials;
 import org.eclipse.mylyn.commons.net.AuthenticationType;
 import org.eclipse.mylyn.internal.tasks.core.AbstractTask;
-import org.eclipse.mylyn.tasks.core.IRepositoryPerson;
 import org.eclipse.mylyn.tasks.core.ITask;
 import org.eclipse.mylyn.tasks.core.TaskRepository;
-import org.eclipse.mylyn.tasks.core.data.TaskAttachmentMapper;
-import org.eclipse.mylyn.tasks.core.data.TaskAttribute;
-import org.eclipse.mylyn.tasks.core.data.TaskAttributeMetaData;
-import org.eclipse.mylyn.tasks.core.data.TaskCommentMapper;
 import org.eclipse.mylyn.tasks.core.data.TaskData;
 import org.eclipse.mylyn.tasks.ui.TasksUi;
 import org.eclipse.osgi.util.NLS;
@@ -66,6 +59,8 @@ public class PersonProposalProvider implements IContentProposalProvider {
 
 	private final Map<String, String> proposals;
 
+	private final boolean useIndex;
+
 	private Map<String, String> errorProposals;
 
 	public PersonProposalProvider(AbstractTask task, TaskData taskData) {
@@ -83,6 +78,7 @@ public class PersonProposalProvider implements IContentProposalProvider {
 			connectorKind = taskData.getConnectorKind();
 		}
 		this.proposals = new HashMap<String, String>(proposals);
+		this.useIndex = proposals.isEmpty();
 	}
 
 	public PersonProposalProvider(String repositoryUrl, String repositoryKind) {
@@ -94,6 +90,7 @@ public class PersonProposalProvider implements IContentProposalProvider {
 		this.repositoryUrl = repositoryUrl;
 		this.connectorKind = repositoryKind;
 		this.proposals = new HashMap<String, String>(proposals);
+		this.useIndex = proposals.isEmpty();
 	}
 
 	protected String getRepositoryUrl() {
@@ -120,33 +117,70 @@ public class PersonProposalProvider implements IContentProposalProvider {
 
 		// retrieve subset of the tree set using key range
 		SortedSet<String> addressSet = getAddressSet();
+		final Map<String, Integer> rankByAddress = new HashMap<String, Integer>();
 		if (errorProposals == null || errorProposals.isEmpty()) {
 			if (!searchText.equals("")) { //$NON-NLS-1$
 				// lower bounds
 				searchText = searchText.toLowerCase();
 
-				// compute the upper bound
-				char[] nextWord = searchText.toCharArray();
-				nextWord[searchText.length() - 1]++;
-
 				// filter matching keys 
-				addressSet = new TreeSet<String>(addressSet.subSet(searchText, new String(nextWord)));
+				addressSet = new TreeSet<String>(
+						addressSet.subSet(searchText, PersonIndex.getUpperBound(searchText)));
 
 				// add matching keys based on pretty names 
 				addMatchingProposalsByPrettyName(addressSet, searchText);
 			}
+
+			// add matching people from the index of the repository ranked by participation
+			PersonIndex personIndex = getPersonIndex();
+			if (personIndex != null) {
+				addressSet = new TreeSet<String>(addressSet);
+				for (Map.Entry<String, String> person : personIndex.getPeople(repositoryUrl, searchText).entrySet()) {
+					addressSet.add(person.getKey());
+					if (person.getValue() != null && !proposals.containsKey(person.getKey())) {
+						proposals.put(person.getKey(), person.getValue());
+					}
+					rankByAddress.put(person.getKey(), rankByAddress.size());
+				}
+			}
 		}
 
-		IContentProposal[] result = new IContentProposal[addressSet.size()];
+		final IContentProposal[] result = new IContentProposal[addressSet.size()];
+		final Map<IContentProposal, Integer> rankByProposal = new HashMap<IContentProposal, Integer>();
 		int i = 0;
 		for (final String address : addressSet) {
-			result[i++] = createPersonProposal(address, address.equalsIgnoreCase(currentUser), resultPrefix + address
-					+ resultPostfix, resultPrefix.length() + address.length());
+			result[i] = createPersonProposal(address, address.equalsIgnoreCase(currentUser),
+					resultPrefix + address + resultPostfix, resultPrefix.length() + address.length());
+			Integer rank = rankByAddress.get(address);
+			rankByProposal.put(result[i], (rank != null) ? rank : Integer.MAX_VALUE);
+			i++;
 		}
 		Arrays.sort(result);
+		if (!rankByAddress.isEmpty()) {
+			// the current user stays first, indexed people are ordered by rank
+			Arrays.sort(result, new Comparator<IContentProposal>() {
+				public int compare(IContentProposal o1, IContentProposal o2) {
+					boolean currentUser1 = o1 instanceof PersonContentProposal
+							&& ((PersonContentProposal) o1).isCurrentUser();
+					boolean currentUser2 = o2 instanceof PersonContentProposal
+							&& ((PersonContentProposal) o2).isCurrentUser();
+					if (currentUser1 != currentUser2) {
+						return (currentUser1) ? -1 : 1;
+					}
+					return rankByProposal.get(o1).compareTo(rankByProposal.get(o2));
+				}
+			});
+		}
 		return result;
 	}
 
+	private PersonIndex getPersonIndex() {
+		if (useIndex && repositoryUrl != null && TasksUiPlugin.getDefault() != null) {
+			return TasksUiPlugin.getDefault().getPersonIndex();
+		}
+		return null;
+	}
+
 	private void addMatchingProposalsByPrettyName(SortedSet<String> addressSet, String searchText) {
 		if (proposals.size() > 0) {
 			for (Map.Entry<String, String> entry : proposals.entrySet()) {
@@ -229,31 +263,24 @@ public class PersonProposalProvider implements IContentProposalProvider {
 			addAddress(addressSet, currentTask.getOwner());
 		}
 
-		if (currentTaskData != null) {
-			addAddresses(currentTaskData, addressSet);
+		// people of indexed tasks are looked up in the index
+		PersonIndex personIndex = getPersonIndex();
+		if (currentTaskData != null && (personIndex == null
+				|| !personIndex.containsTask(currentTaskData.getRepositoryUrl(), currentTaskData.getTaskId()))) {
+			for (String address : PersonIndex.collectPeople(currentTaskData, proposals)) {
+				addAddress(addressSet, address);
+			}
 		}
 
 		if (repositoryUrl != null && connectorKind != null) {
-			Set<AbstractTask> tasks = new HashSet<AbstractTask>();
 			if (currentTask != null) {
-				tasks.add(currentTask);
+				addAddresses(currentTask, addressSet);
 			}
 
 			currentUser = getCurrentUser(repositoryUrl, connectorKind);
 			if (currentUser != null) {
 				addressSet.add(currentUser);
 			}
-
-			Collection<AbstractTask> allTasks = TasksUiPlugin.getTaskList().getAllTasks();
-			for (AbstractTask task : allTasks) {
-				if (repositoryUrl.equals(task.getRepositoryUrl())) {
-					tasks.add(task);
-				}
-			}
-
-			for (ITask task : tasks) {
-				addAddresses(task, addressSet);
-			}
 		}
 
 		return addressSet;
@@ -282,56 +309,6 @@ public class PersonProposalProvider implements IContentProposalProvider {
 		}
 	}
 
-	private void addAddresses(TaskData data, Set<String> addressSet) {
-		addPerson(data, addressSet, TaskAttribute.USER_REPORTER);
-		addPerson(data, addressSet, TaskAttribute.USER_ASSIGNED);
-		addPerson(data, addressSet, TaskAttribute.USER_CC);
-		List<TaskAttribute> comments = data.getAttributeMapper().getAttributesByType(data, TaskAttribute.TYPE_COMMENT);
-		for (TaskAttribute commentAttribute : comments) {
-			addPerson(data, addressSet, commentAttribute);
-		}
-		List<TaskAttribute> attachments = data.getAttributeMapper().getAttributesByType(data,
-				TaskAttribute.TYPE_ATTACHMENT);
-		for (TaskAttribute attachmentAttribute : attachments) {
-			addPerson(data, addressSet, attachmentAttribute);
-		}
-	}
-
-	private void addPerson(TaskData data, Set<String> addresses, String key) {
-		TaskAttribute attribute = data.getRoot().getMappedAttribute(key);
-		// ignore modifiable attributes which may have a value edited by the user which may not be a valid proposal 
-		if (attribute != null && attribute.getMetaData().isReadOnly()) {
-			addPerson(data, addresses, attribute);
-		}
-	}
-
-	private void addPerson(TaskData data, Set<String> addresses, TaskAttribute attribute) {
-		TaskAttributeMetaData metaData = attribute.getMetaData();
-		if (TaskAttribute.TYPE_COMMENT.equals(metaData.getType())) {
-			TaskCommentMapper mapper = TaskCommentMapper.createFrom(attribute);
-			addPerson(addresses, mapper.getAuthor());
-		} else if (TaskAttribute.TYPE_ATTACHMENT.equals(metaData.getType())) {
-			TaskAttachmentMapper mapper = TaskAttachmentMapper.createFrom(attribute);
-			addPerson(addresses, mapper.getAuthor());
-		} else if (TaskAttribute.TYPE_PERSON.equals(metaData.getType())) {
-			addPerson(addresses, data.getAttributeMapper().getRepositoryPerson(attribute));
-		} else {
-			List<String> values = attribute.getValues();
-			for (String value : values) {
-				addAddress(addresses, value);
-			}
-		}
-	}
-
-	private void addPerson(Set<String> addresses, IRepositoryPerson repositoryPerson) {
-		if (repositoryPerson != null) {
-			addresses.add(repositoryPerson.getPersonId());
-			if (repositoryPerson.getName() != null) {
-				proposals.put(repositoryPerson.getPersonId(), repositoryPerson.getName());
-			}
-		}
-	}
-
 	private void addAddress(Set<String> addresses, String address) {
 		if (address != null && address.trim().length() > 0) {
 			addresses.add(address.trim());
@@ -0,0 +1,315 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Tasktop Technologies and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Tasktop Technologies - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.mylyn.internal.tasks.ui;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.eclipse.core.runtime.Assert;
+
+/**
+ * Plans background synchronizations for each repository separately. The interval of a repository is derived from the
+ * configured base interval and statistics of previous synchronizations: repositories that frequently have changes are
+ * synchronized more often, repositories without changes, slow repositories and repositories that fail are backed off.
+ * Intervals are randomized to spread synchronizations of many clients of the same repository.
+ */
+public class RepositorySynchronizationPlanner {
+
+	/**
+	 * A snapshot of the plan for a repository.
+	 */
+	public static class RepositorySchedule {
+
+		private final String repositoryUrl;
+
+		private final long interval;
+
+		private final long nextSynchronization;
+
+		private final long lastSynchronization;
+
+		private final double changeRate;
+
+		private final long latency;
+
+		private final double errorRate;
+
+		RepositorySchedule(String repositoryUrl, long interval, long nextSynchronization, long lastSynchronization,
+				double changeRate, long latency, double errorRate) {
+			this.repositoryUrl = repositoryUrl;
+			this.interval = interval;
+			this.nextSynchronization = nextSynchronization;
+			this.lastSynchronization = lastSynchronization;
+			this.changeRate = changeRate;
+			this.latency = latency;
+			this.errorRate = errorRate;
+		}
+
+		public String getRepositoryUrl() {
+			return repositoryUrl;
+		}
+
+		/**
+		 * Returns the planned interval in milliseconds before jitter is applied.
+		 */
+		public long getInterval() {
+			return interval;
+		}
+
+		/**
+		 * Returns the absolute time in milliseconds of the next synchronization.
+		 */
+		public long getNextSynchronization() {
+			return nextSynchronization;
+		}
+
+		/**
+		 * Returns the absolute time in milliseconds when the last synchronization completed or 0.
+		 */
+		public long getLastSynchronization() {
+			return lastSynchronization;
+		}
+
+		/**
+		 * Returns the average number of changed tasks per synchronization.
+		 */
+		public double getChangeRate() {
+			return changeRate;
+		}
+
+		/**
+		 * Returns the average duration of a synchronization in milliseconds.
+		 */
+		public long getLatency() {
+			return latency;
+		}
+
+		/**
+		 * Returns the fraction of recent synchronizations that failed.
+		 */
+		public double getErrorRate() {
+			return errorRate;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%s: interval=%ds, next=%ds, changes=%.2f, latency=%dms, errors=%.2f", //$NON-NLS-1$
+					repositoryUrl, interval / 1000, (nextSynchronization - System.currentTimeMillis()) / 1000,
+					changeRate, latency, errorRate);
+		}
+
+	}
+
+	private static class Statistics {
+
+		double changeRate;
+
+		long latency;
+
+		double errorRate;
+
+		int quietSynchronizations;
+
+		int consecutiveFailures;
+
+		long interval;
+
+		long nextSynchronization;
+
+		long lastSynchronization;
+
+	}
+
+	/** Weight of the latest observation in the moving averages. */
+	private static final double ALPHA = 0.3;
+
+	/** Average number of changed tasks per synchronization above which a repository is considered busy. */
+	private static final double BUSY_THRESHOLD = 0.5;
+
+	/** Maximum factor by which the base interval is shortened for busy repositories. */
+	private static final int MAX_SPEED_UP = 4;
+
+	/** Maximum factor by which the base interval is extended for quiet, slow or failing repositories. */
+	private static final int MAX_BACK_OFF = 8;
+
+	/** Synchronizations should not take more than this fraction of the interval. */
+	private static final int LATENCY_FACTOR = 20;
+
+	private static final long MIN_INTERVAL = 60 * 1000;
+
+	private static final double JITTER = 0.15;
+
+	private final Map<String, Statistics> statisticsByRepositoryUrl = new HashMap<String, Statistics>();
+
+	private final Random random;
+
+	private long baseInterval;
+
+	public RepositorySynchronizationPlanner() {
+		this(new Random());
+	}
+
+	public RepositorySynchronizationPlanner(Random random) {
+		Assert.isNotNull(random);
+		this.random = random;
+	}
+
+	public synchronized long getBaseInterval() {
+		return baseInterval;
+	}
+
+	/**
+	 * Sets the interval that is used for repositories with an average rate of change.
+	 */
+	public synchronized void setBaseInterval(long baseInterval) {
+		this.baseInterval = baseInterval;
+		for (Statistics statistics : statisticsByRepositoryUrl.values()) {
+			statistics.interval = computeInterval(statistics);
+		}
+	}
+
+	/**
+	 * Plans the next synchronization of <code>repositoryUrl</code> to happen after <code>delay</code> milliseconds
+	 * with a random jitter.
+	 */
+	public synchronized void schedule(String repositoryUrl, long delay, long now) {
+		Statistics statistics = getStatistics(repositoryUrl, now);
+		statistics.nextSynchronization = now + jitter(delay);
+	}
+
+	/**
+	 * Records the outcome of a synchronization of <code>repositoryUrl</code> and plans the next synchronization.
+	 *
+	 * @param changedTasks
+	 *            the number of tasks that had incoming changes
+	 * @param latency
+	 *            the duration of the synchronization in milliseconds
+	 * @param failed
+	 *            true, if the synchronization failed
+	 * @param now
+	 *            the time in milliseconds the synchronization completed
+	 */
+	public synchronized void recordSynchronization(String repositoryUrl, int changedTasks, long latency,
+			boolean failed, long now) {
+		Statistics statistics = getStatistics(repositoryUrl, now);
+		if (statistics.lastSynchronization == 0) {
+			// initialize the averages with the first observation
+			statistics.changeRate = changedTasks;
+			statistics.latency = latency;
+			statistics.errorRate = failed ? 1 : 0;
+		} else {
+			statistics.changeRate = average(statistics.changeRate, changedTasks);
+			statistics.latency = (long) average(statistics.latency, latency);
+			statistics.errorRate = average(statistics.errorRate, failed ? 1 : 0);
+		}
+		if (failed) {
+			statistics.consecutiveFailures++;
+		} else {
+			statistics.consecutiveFailures = 0;
+			if (changedTasks == 0) {
+				statistics.quietSynchronizations++;
+			} else {
+				statistics.quietSynchronizations = 0;
+			}
+		}
+		statistics.lastSynchronization = now;
+		statistics.interval = computeInterval(statistics);
+		statistics.nextSynchronization = now + jitter(statistics.interval);
+	}
+
+	/**
+	 * Returns the absolute time in milliseconds of the next synchronization of <code>repositoryUrl</code>. A
+	 * repository that has not been planned before is planned for synchronization after the base interval.
+	 */
+	public synchronized long getNextSynchronization(String repositoryUrl, long now) {
+		return getStatistics(repositoryUrl, now).nextSynchronization;
+	}
+
+	/**
+	 * Returns the planned interval in milliseconds between synchronizations of <code>repositoryUrl</code>.
+	 */
+	public synchronized long getInterval(String repositoryUrl, long now) {
+		return getStatistics(repositoryUrl, now).interval;
+	}
+
+	/**
+	 * Discards the plans for repositories that are not in <code>repositoryUrls</code>.
+	 */
+	public synchronized void retainAll(Collection<String> repositoryUrls) {
+		statisticsByRepositoryUrl.keySet().retainAll(repositoryUrls);
+	}
+
+	/**
+	 * Returns the current plan of all repositories ordered by the time of the next synchronization.
+	 */
+	public synchronized List<RepositorySchedule> getSchedules() {
+		List<RepositorySchedule> schedules = new ArrayList<RepositorySchedule>(statisticsByRepositoryUrl.size());
+		for (Map.Entry<String, Statistics> entry : statisticsByRepositoryUrl.entrySet()) {
+			Statistics statistics = entry.getValue();
+			schedules.add(new RepositorySchedule(entry.getKey(), statistics.interval, statistics.nextSynchronization,
+					statistics.lastSynchronization, statistics.changeRate, statistics.latency, statistics.errorRate));
+		}
+		Collections.sort(schedules, new Comparator<RepositorySchedule>() {
+			public int compare(RepositorySchedule o1, RepositorySchedule o2) {
+				return Long.compare(o1.getNextSynchronization(), o2.getNextSynchronization());
+			}
+		});
+		return schedules;
+	}
+
+	private Statistics getStatistics(String repositoryUrl, long now) {
+		Assert.isNotNull(repositoryUrl);
+		Statistics statistics = statisticsByRepositoryUrl.get(repositoryUrl);
+		if (statistics == null) {
+			statistics = new Statistics();
+			statistics.interval = baseInterval;
+			statistics.nextSynchronization = now + jitter(baseInterval);
+			statisticsByRepositoryUrl.put(repositoryUrl, statistics);
+		}
+		return statistics;
+	}
+
+	private long computeInterval(Statistics statistics) {
+		if (baseInterval <= 0) {
+			return 0;
+		}
+		long minInterval = Math.min(baseInterval, Math.max(baseInterval / MAX_SPEED_UP, MIN_INTERVAL));
+		long maxInterval = baseInterval * MAX_BACK_OFF;
+		long interval;
+		if (statistics.changeRate >= BUSY_THRESHOLD) {
+			interval = (long) (baseInterval / (1 + statistics.changeRate));
+		} else {
+			// double the interval for each synchronization without changes
+			interval = baseInterval << Math.min(statistics.quietSynchronizations, 3);
+		}
+		if (statistics.consecutiveFailures > 0) {
+			interval = Math.max(interval, baseInterval << Math.min(statistics.consecutiveFailures, 3));
+		}
+		interval = Math.max(interval, statistics.latency * LATENCY_FACTOR);
+		return Math.min(Math.max(interval, minInterval), maxInterval);
+	}
+
+	private long jitter(long delay) {
+		return Math.max(0, (long) (delay * (1 + JITTER * (2 * random.nextDouble() - 1))));
+	}
+
+	private static double average(double average, double value) {
+		return ALPHA * value + (1 - ALPHA) * average;
+	}
+
+}
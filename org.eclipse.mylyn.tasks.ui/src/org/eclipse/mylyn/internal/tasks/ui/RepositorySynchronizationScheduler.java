@@ -0,0 +1,319 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Tasktop Technologies and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Tasktop Technologies - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.mylyn.internal.tasks.ui;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Platform;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.IJobChangeEvent;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.core.runtime.jobs.JobChangeAdapter;
+import org.eclipse.mylyn.internal.tasks.core.ITaskJobFactory;
+import org.eclipse.mylyn.internal.tasks.core.RepositoryQuery;
+import org.eclipse.mylyn.internal.tasks.core.TaskList;
+import org.eclipse.mylyn.internal.tasks.core.data.ITaskDataManagerListener;
+import org.eclipse.mylyn.internal.tasks.core.data.TaskDataManager;
+import org.eclipse.mylyn.internal.tasks.core.data.TaskDataManagerEvent;
+import org.eclipse.mylyn.internal.tasks.ui.RepositorySynchronizationPlanner.RepositorySchedule;
+import org.eclipse.mylyn.monitor.ui.IUserAttentionListener;
+import org.eclipse.mylyn.tasks.core.IRepositoryManager;
+import org.eclipse.mylyn.tasks.core.TaskRepository;
+import org.eclipse.mylyn.tasks.core.sync.SynchronizationJob;
+import org.eclipse.ui.PlatformUI;
+
+/**
+ * Synchronizes the queries of each repository in the background according to a plan computed by
+ * {@link RepositorySynchronizationPlanner} from the observed rate of changes, the duration of synchronizations and
+ * failures. Repositories are synchronized independently of each other. While the user is inactive the planned
+ * interval of a repository is tripled each time the repository is synchronized.
+ */
+public class RepositorySynchronizationScheduler implements IUserAttentionListener, ITaskDataManagerListener {
+
+	private static final boolean TRACE_ENABLED = Boolean
+			.valueOf(Platform.getDebugOption("org.eclipse.mylyn.tasks.ui/debug/synchronization")); //$NON-NLS-1$
+
+	private static final int INACTIVE_FACTOR = 3;
+
+	private static final int MAX_INACTIVE_FACTOR = 27;
+
+	private final ITaskJobFactory taskJobFactory;
+
+	private final IRepositoryManager repositoryManager;
+
+	private final TaskList taskList;
+
+	private final TaskDataManager taskDataManager;
+
+	private final RepositorySynchronizationPlanner planner;
+
+	private final Job dispatchJob;
+
+	// counts tasks with incoming changes of repositories that are being synchronized
+	private final ConcurrentMap<String, AtomicInteger> changesByRepositoryUrl = new ConcurrentHashMap<String, AtomicInteger>();
+
+	private long interval;
+
+	private boolean userActive;
+
+	// factors applied to the planned intervals of repositories that were synchronized while the user was inactive
+	private final Map<String, Integer> inactiveFactorByRepositoryUrl = new HashMap<String, Integer>();
+
+	private final Set<Job> synchronizationJobs = Collections.synchronizedSet(new HashSet<Job>());
+
+	private boolean disposed;
+
+	public RepositorySynchronizationScheduler(ITaskJobFactory taskJobFactory, IRepositoryManager repositoryManager,
+			TaskList taskList, TaskDataManager taskDataManager) {
+		this(taskJobFactory, repositoryManager, taskList, taskDataManager, new RepositorySynchronizationPlanner());
+	}
+
+	public RepositorySynchronizationScheduler(ITaskJobFactory taskJobFactory, IRepositoryManager repositoryManager,
+			TaskList taskList, TaskDataManager taskDataManager, RepositorySynchronizationPlanner planner) {
+		this.taskJobFactory = taskJobFactory;
+		this.repositoryManager = repositoryManager;
+		this.taskList = taskList;
+		this.taskDataManager = taskDataManager;
+		this.planner = planner;
+		this.userActive = true;
+		this.dispatchJob = new Job("Repository Synchronization Scheduler") { //$NON-NLS-1$
+			@Override
+			protected IStatus run(IProgressMonitor monitor) {
+				return synchronizeDueRepositories(monitor);
+			}
+		};
+		// do not show in progress view by default
+		this.dispatchJob.setSystem(true);
+		this.dispatchJob.setUser(false);
+		taskDataManager.addListener(this);
+	}
+
+	public synchronized void setInterval(long interval) {
+		setInterval(interval, interval);
+	}
+
+	/**
+	 * Sets the base interval for synchronizations and plans the first synchronization of all repositories after
+	 * <code>delay</code> milliseconds. An interval of 0 disables background synchronization.
+	 */
+	public synchronized void setInterval(long delay, long interval) {
+		if (this.interval != interval) {
+			this.interval = interval;
+			planner.setBaseInterval(interval);
+			dispatchJob.cancel();
+			if (interval > 0) {
+				long now = System.currentTimeMillis();
+				for (TaskRepository repository : repositoryManager.getAllRepositories()) {
+					planner.schedule(repository.getRepositoryUrl(), delay, now);
+				}
+				scheduleDispatch();
+			}
+		}
+	}
+
+	/**
+	 * Returns the current plan for background synchronizations ordered by the time of the next synchronization.
+	 */
+	public List<RepositorySchedule> getSchedules() {
+		return planner.getSchedules();
+	}
+
+	private synchronized void scheduleDispatch() {
+		if (interval <= 0) {
+			return;
+		}
+		long now = System.currentTimeMillis();
+		long next = Long.MAX_VALUE;
+		for (TaskRepository repository : repositoryManager.getAllRepositories()) {
+			// the next synchronization of a repository is planned when the current one completes
+			if (!isSynchronizing(repository.getRepositoryUrl())) {
+				next = Math.min(next, planner.getNextSynchronization(repository.getRepositoryUrl(), now));
+			}
+		}
+		if (next != Long.MAX_VALUE) {
+			long delay = Math.max(0, next - now);
+			if (TRACE_ENABLED) {
+				trace("Scheduling synchronization in " + delay / 1000 + "s"); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+			dispatchJob.schedule(delay);
+		}
+	}
+
+	IStatus synchronizeDueRepositories(IProgressMonitor monitor) {
+		List<TaskRepository> repositories = new ArrayList<TaskRepository>(repositoryManager.getAllRepositories());
+		Set<String> repositoryUrls = new HashSet<String>();
+		for (TaskRepository repository : repositories) {
+			repositoryUrls.add(repository.getRepositoryUrl());
+		}
+		planner.retainAll(repositoryUrls);
+		synchronized (this) {
+			inactiveFactorByRepositoryUrl.keySet().retainAll(repositoryUrls);
+		}
+
+		for (TaskRepository repository : repositories) {
+			if (monitor.isCanceled()) {
+				return Status.CANCEL_STATUS;
+			}
+			String repositoryUrl = repository.getRepositoryUrl();
+			long now = System.currentTimeMillis();
+			if (isSynchronizing(repositoryUrl) || planner.getNextSynchronization(repositoryUrl, now) > now) {
+				continue;
+			}
+			if (repository.isOffline()) {
+				planner.schedule(repositoryUrl, planner.getInterval(repositoryUrl, now), now);
+				continue;
+			}
+			synchronize(repository);
+		}
+
+		if (PlatformUI.isWorkbenchRunning()) {
+			scheduleDispatch();
+		}
+		return Status.OK_STATUS;
+	}
+
+	private boolean isSynchronizing(String repositoryUrl) {
+		return changesByRepositoryUrl.containsKey(repositoryUrl);
+	}
+
+	/**
+	 * Schedules a synchronization of <code>repository</code> and plans the next synchronization when it completes.
+	 * Synchronizations of different repositories run independently of each other.
+	 */
+	private void synchronize(TaskRepository repository) {
+		final String repositoryUrl = repository.getRepositoryUrl();
+		final AtomicInteger changes = new AtomicInteger();
+		changesByRepositoryUrl.put(repositoryUrl, changes);
+		final long start = System.currentTimeMillis();
+		final SynchronizationJob job = taskJobFactory
+				.createSynchronizeRepositoriesJob(Collections.singleton(repository));
+		job.setFullSynchronization(true);
+		job.setUser(false);
+		job.setSystem(true);
+		job.addJobChangeListener(new JobChangeAdapter() {
+			@Override
+			public void done(IJobChangeEvent event) {
+				synchronizationJobs.remove(job);
+				synchronizationDone(repositoryUrl, changes.get(), start);
+			}
+		});
+		synchronizationJobs.add(job);
+		job.schedule();
+	}
+
+	void synchronizationDone(String repositoryUrl, int changes, long start) {
+		changesByRepositoryUrl.remove(repositoryUrl);
+		long now = System.currentTimeMillis();
+		planner.recordSynchronization(repositoryUrl, changes, now - start, hasFailed(repositoryUrl), now);
+		synchronized (this) {
+			if (disposed) {
+				return;
+			}
+			if (!userActive) {
+				// back off from the planned interval of the repository, not from the previously postponed time
+				Integer previousFactor = inactiveFactorByRepositoryUrl.get(repositoryUrl);
+				int factor = Math.min(((previousFactor != null) ? previousFactor : 1) * INACTIVE_FACTOR,
+						MAX_INACTIVE_FACTOR);
+				inactiveFactorByRepositoryUrl.put(repositoryUrl, factor);
+				planner.schedule(repositoryUrl, factor * planner.getInterval(repositoryUrl, now), now);
+			}
+		}
+		if (TRACE_ENABLED) {
+			for (RepositorySchedule schedule : planner.getSchedules()) {
+				trace(schedule.toString());
+			}
+		}
+		if (PlatformUI.isWorkbenchRunning()) {
+			scheduleDispatch();
+		}
+	}
+
+	private boolean hasFailed(String repositoryUrl) {
+		for (RepositoryQuery query : taskList.getRepositoryQueries(repositoryUrl)) {
+			if (query.getAutoUpdate() && query.getStatus() != null && query.getStatus().getSeverity() == IStatus.ERROR) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	public void taskDataUpdated(TaskDataManagerEvent event) {
+		if (event.getTaskDataChanged()) {
+			AtomicInteger changes = changesByRepositoryUrl.get(event.getTask().getRepositoryUrl());
+			if (changes != null) {
+				changes.incrementAndGet();
+			}
+		}
+	}
+
+	public void editsDiscarded(TaskDataManagerEvent event) {
+	}
+
+	public void userAttentionGained() {
+		synchronized (this) {
+			if (!userActive) {
+				if (TRACE_ENABLED) {
+					trace("User activity detected"); //$NON-NLS-1$
+				}
+				this.userActive = true;
+				// reset inactive interval each time the user becomes active
+				inactiveFactorByRepositoryUrl.clear();
+				if (interval != 0) {
+					// move synchronizations that were postponed while the user was inactive back to the planned interval
+					long now = System.currentTimeMillis();
+					for (RepositorySchedule schedule : planner.getSchedules()) {
+						long due = Math.max(now, schedule.getLastSynchronization() + schedule.getInterval());
+						if (schedule.getNextSynchronization() > due) {
+							planner.schedule(schedule.getRepositoryUrl(), due - now, now);
+						}
+					}
+					scheduleDispatch();
+				}
+			}
+		}
+	}
+
+	public void userAttentionLost() {
+		synchronized (this) {
+			this.userActive = false;
+		}
+	}
+
+	private void trace(String message) {
+		System.err.println("[" + new Date() + "] " + message); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	public void dispose() {
+		synchronized (this) {
+			disposed = true;
+			interval = 0;
+		}
+		taskDataManager.removeListener(this);
+		dispatchJob.cancel();
+		for (Job job : synchronizationJobs.toArray(new Job[0])) {
+			job.cancel();
+		}
+	}
+
+}
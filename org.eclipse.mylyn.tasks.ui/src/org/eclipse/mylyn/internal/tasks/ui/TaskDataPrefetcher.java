@@ -0,0 +1,203 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Tasktop Technologies and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Tasktop Technologies - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.mylyn.internal.tasks.ui;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.mylyn.internal.tasks.core.AbstractTask;
+import org.eclipse.mylyn.internal.tasks.core.ITaskListChangeListener;
+import org.eclipse.mylyn.internal.tasks.core.LocalTask;
+import org.eclipse.mylyn.internal.tasks.core.TaskActivityManager;
+import org.eclipse.mylyn.internal.tasks.core.TaskContainerDelta;
+import org.eclipse.mylyn.internal.tasks.core.TaskList;
+import org.eclipse.mylyn.internal.tasks.core.data.TaskDataManager;
+import org.eclipse.mylyn.tasks.core.ITask;
+import org.eclipse.mylyn.tasks.core.ITask.SynchronizationState;
+import org.eclipse.mylyn.tasks.core.ITaskActivationListener;
+import org.eclipse.mylyn.tasks.core.TaskActivationAdapter;
+
+/**
+ * Reads task data of tasks that are likely to be opened next in the background so that opening a task editor does not
+ * need to wait for the task data to be read from disk. Candidates are the tasks selected in the Task List and their
+ * neighbours, recently activated tasks and tasks with incoming changes. Prefetched task data is retained by the task
+ * data store within a small memory budget.
+ */
+public class TaskDataPrefetcher extends Job {
+
+	private static final long SCHEDULE_DELAY = 250;
+
+	private static final int MAX_QUEUED_TASKS = 40;
+
+	private static final int MAX_RECENT_TASKS = 5;
+
+	private static final int MAX_INCOMING_TASKS = 20;
+
+	private final TaskDataManager taskDataManager;
+
+	private final TaskList taskList;
+
+	private final TaskActivityManager taskActivityManager;
+
+	// guarded by itself
+	private final LinkedHashSet<ITask> queue = new LinkedHashSet<ITask>();
+
+	private final ITaskActivationListener activationListener = new TaskActivationAdapter() {
+		@Override
+		public void taskActivated(ITask task) {
+			prefetchRecentTasks();
+		}
+	};
+
+	private final ITaskListChangeListener taskListListener = new ITaskListChangeListener() {
+		public void containersChanged(Set<TaskContainerDelta> deltas) {
+			List<ITask> tasks = new ArrayList<ITask>();
+			for (TaskContainerDelta delta : deltas) {
+				if (delta.getElement() instanceof ITask && isIncoming((ITask) delta.getElement())) {
+					tasks.add((ITask) delta.getElement());
+				}
+			}
+			if (!tasks.isEmpty()) {
+				enqueue(tasks, false);
+			}
+		}
+	};
+
+	public TaskDataPrefetcher(TaskDataManager taskDataManager, TaskList taskList,
+			TaskActivityManager taskActivityManager) {
+		super("Task Data Prefetcher"); //$NON-NLS-1$
+		this.taskDataManager = taskDataManager;
+		this.taskList = taskList;
+		this.taskActivityManager = taskActivityManager;
+		setPriority(Job.DECAY);
+		setSystem(true);
+		setUser(false);
+	}
+
+	public void start() {
+		taskActivityManager.addActivationListener(activationListener);
+		taskList.addChangeListener(taskListListener);
+		prefetchRecentTasks();
+		prefetchIncomingTasks();
+	}
+
+	public void stop() {
+		taskActivityManager.removeActivationListener(activationListener);
+		taskList.removeChangeListener(taskListListener);
+		synchronized (queue) {
+			queue.clear();
+		}
+		cancel();
+	}
+
+	/**
+	 * Schedules task data of <code>tasks</code> to be prefetched ahead of previously requested tasks.
+	 */
+	public void prefetch(Collection<? extends ITask> tasks) {
+		enqueue(tasks, true);
+	}
+
+	private void prefetchRecentTasks() {
+		List<AbstractTask> history = taskActivityManager.getTaskActivationHistory().getPreviousTasks();
+		List<ITask> tasks = new ArrayList<ITask>();
+		// the most recently activated task is last
+		for (int i = history.size() - 1; i >= 0 && tasks.size() < MAX_RECENT_TASKS; i--) {
+			tasks.add(history.get(i));
+		}
+		enqueue(tasks, false);
+	}
+
+	private void prefetchIncomingTasks() {
+		List<ITask> tasks = new ArrayList<ITask>();
+		for (AbstractTask task : taskList.getAllTasks()) {
+			if (isIncoming(task)) {
+				tasks.add(task);
+				if (tasks.size() == MAX_INCOMING_TASKS) {
+					break;
+				}
+			}
+		}
+		enqueue(tasks, false);
+	}
+
+	private boolean isIncoming(ITask task) {
+		SynchronizationState state = task.getSynchronizationState();
+		return state == SynchronizationState.INCOMING || state == SynchronizationState.CONFLICT;
+	}
+
+	private void enqueue(Collection<? extends ITask> tasks, boolean first) {
+		synchronized (queue) {
+			if (first) {
+				LinkedHashSet<ITask> pending = new LinkedHashSet<ITask>(queue);
+				queue.clear();
+				queue.addAll(tasks);
+				queue.addAll(pending);
+			} else {
+				queue.addAll(tasks);
+			}
+			// drop the least important requests
+			Iterator<ITask> it = queue.iterator();
+			for (int i = 0; it.hasNext(); i++) {
+				it.next();
+				if (i >= MAX_QUEUED_TASKS) {
+					it.remove();
+				}
+			}
+			if (queue.isEmpty()) {
+				return;
+			}
+		}
+		schedule(SCHEDULE_DELAY);
+	}
+
+	private ITask next() {
+		synchronized (queue) {
+			Iterator<ITask> it = queue.iterator();
+			if (it.hasNext()) {
+				ITask task = it.next();
+				it.remove();
+				return task;
+			}
+			return null;
+		}
+	}
+
+	@Override
+	protected IStatus run(IProgressMonitor monitor) {
+		ITask task;
+		while ((task = next()) != null) {
+			if (monitor.isCanceled()) {
+				return Status.CANCEL_STATUS;
+			}
+			if (task instanceof LocalTask || !taskDataManager.hasTaskData(task)
+					|| taskDataManager.isPrefetched(task)) {
+				continue;
+			}
+			try {
+				taskDataManager.prefetchTaskData(task);
+			} catch (CoreException e) {
+				// ignore, the error is reported when the task is opened
+			}
+		}
+		return Status.OK_STATUS;
+	}
+
+}
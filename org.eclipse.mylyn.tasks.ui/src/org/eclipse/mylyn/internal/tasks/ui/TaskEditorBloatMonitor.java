@@ -12,61 +12,197 @@
 package org.eclipse.mylyn.internal.tasks.ui;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.WeakHashMap;
 
+import org.eclipse.mylyn.tasks.core.data.TaskAttribute;
+import org.eclipse.mylyn.tasks.core.data.TaskData;
+import org.eclipse.mylyn.tasks.core.data.TaskDataModel;
+import org.eclipse.mylyn.tasks.ui.editors.AbstractTaskEditorPage;
 import org.eclipse.mylyn.tasks.ui.editors.TaskEditor;
-import org.eclipse.mylyn.tasks.ui.editors.TaskEditorInput;
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Control;
 import org.eclipse.ui.IEditorPart;
 import org.eclipse.ui.IEditorReference;
 import org.eclipse.ui.IWorkbenchPage;
-import org.eclipse.ui.PartInitException;
 
 /**
+ * Keeps the memory retained by open task editors within a configurable budget. When the budget is exceeded editors
+ * that have not been used recently are hibernated: their form contents and model are released but the editor tab is
+ * kept and restored when the editor is activated again.
+ *
  * @author Mik Kersten
  * @author Steffen Pingel
  */
 public class TaskEditorBloatMonitor {
 
-	private final static int MAX_EDITORS = 12;
+	private static final long MB = 1024 * 1024;
+
+	/** Approximate size of a task attribute including its maps and meta data. */
+	private static final int ATTRIBUTE_OVERHEAD = 320;
+
+	/** Approximate size of a string entry in a map or list in addition to its characters. */
+	private static final int ENTRY_OVERHEAD = 64;
+
+	/** Approximate size of a widget including its native resources, listeners and layout data. */
+	private static final int CONTROL_OVERHEAD = 2 * 1024;
+
+	/**
+	 * The editor model holds the repository, last read and edited state of the task data in addition to the displayed
+	 * copy.
+	 */
+	private static final int TASK_DATA_COPIES = 3;
+
+	private static final Map<TaskEditor, Long> lastActivationByEditor = new WeakHashMap<TaskEditor, Long>();
 
 	public static void editorOpened(IEditorPart editorPartOpened) {
+		if (editorPartOpened instanceof TaskEditor) {
+			editorActivated((TaskEditor) editorPartOpened);
+		}
 		IWorkbenchPage page = editorPartOpened.getSite().getPage();
-		List<IEditorReference> toClose = new ArrayList<IEditorReference>();
-		int totalTaskEditors = 0;
-		for (IEditorReference editorReference : page.getEditorReferences()) {
-			if (TaskEditor.ID_EDITOR.equals(editorReference.getId())) {
-				totalTaskEditors++;
+		long budget = getBudget();
+		long total = 0;
+		List<TaskEditor> candidates = new ArrayList<TaskEditor>();
+		for (TaskEditor taskEditor : getTaskEditors(page)) {
+			total += estimateRetainedSize(taskEditor);
+			if (taskEditor != editorPartOpened && taskEditor != page.getActiveEditor() && !taskEditor.isHibernated()
+					&& !taskEditor.isDirty()) {
+				candidates.add(taskEditor);
 			}
+		}
 
+		if (total > budget) {
+			// hibernate least recently used editors first
+			Collections.sort(candidates, new Comparator<TaskEditor>() {
+				public int compare(TaskEditor o1, TaskEditor o2) {
+					return Long.compare(getLastActivation(o1), getLastActivation(o2));
+				}
+			});
+			for (TaskEditor taskEditor : candidates) {
+				if (total <= budget) {
+					break;
+				}
+				long size = estimateRetainedSize(taskEditor);
+				if (taskEditor.hibernate()) {
+					total -= size;
+				}
+			}
+		}
+	}
+
+	public static void editorActivated(TaskEditor taskEditor) {
+		synchronized (lastActivationByEditor) {
+			lastActivationByEditor.put(taskEditor, System.currentTimeMillis());
+		}
+	}
+
+	private static long getLastActivation(TaskEditor taskEditor) {
+		synchronized (lastActivationByEditor) {
+			Long time = lastActivationByEditor.get(taskEditor);
+			return (time != null) ? time : 0;
 		}
+	}
+
+	/**
+	 * Returns the memory budget for open task editors in bytes.
+	 */
+	public static long getBudget() {
+		return TasksUiPlugin.getDefault()
+				.getPreferenceStore()
+				.getInt(ITasksUiPreferenceConstants.TASK_EDITOR_MEMORY_BUDGET) * MB;
+	}
 
-		if (totalTaskEditors > MAX_EDITORS) {
-			for (IEditorReference editorReference : page.getEditorReferences()) {
-				try {
-					if (editorPartOpened != editorReference.getPart(false)
-							&& TaskEditor.ID_EDITOR.equals(editorReference.getId())) {
-						TaskEditorInput taskEditorInput = (TaskEditorInput) editorReference.getEditorInput();
-						TaskEditor taskEditor = (TaskEditor) editorReference.getEditor(false);
-						if (taskEditor == null) {
-							toClose.add(editorReference);
-						} else if (!taskEditor.equals(editorPartOpened) && !taskEditor.isDirty()
-								&& taskEditorInput.getTask() != null
-								&& taskEditorInput.getTask().getSynchronizationState().isSynchronized()) {
-							toClose.add(editorReference);
-						}
-					}
-					if ((totalTaskEditors - toClose.size()) <= MAX_EDITORS) {
-						break;
-					}
-				} catch (PartInitException e) {
-					// ignore
+	/**
+	 * Returns the estimated memory in bytes retained by the task editors that are open in <code>page</code>.
+	 */
+	public static long getRetainedSize(IWorkbenchPage page) {
+		long total = 0;
+		for (TaskEditor taskEditor : getTaskEditors(page)) {
+			total += estimateRetainedSize(taskEditor);
+		}
+		return total;
+	}
+
+	/**
+	 * Returns a summary of the estimated memory retained by task editors in <code>page</code> and the budget in
+	 * megabytes.
+	 */
+	public static String getReport(IWorkbenchPage page) {
+		return (getRetainedSize(page) + MB - 1) / MB + " / " + getBudget() / MB + " MB"; //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	private static List<TaskEditor> getTaskEditors(IWorkbenchPage page) {
+		List<TaskEditor> taskEditors = new ArrayList<TaskEditor>();
+		for (IEditorReference editorReference : page.getEditorReferences()) {
+			if (TaskEditor.ID_EDITOR.equals(editorReference.getId())) {
+				// editors that have not been restored do not retain any memory
+				IEditorPart editor = editorReference.getEditor(false);
+				if (editor instanceof TaskEditor) {
+					taskEditors.add((TaskEditor) editor);
 				}
 			}
 		}
+		return taskEditors;
+	}
+
+	public static long estimateRetainedSize(TaskEditor taskEditor) {
+		long size = 0;
+		for (AbstractTaskEditorPage page : taskEditor.getTaskEditorPages()) {
+			if (page.isHibernated()) {
+				// only the link for restoring the page remains, accessing the model would restore it
+				continue;
+			}
+			TaskDataModel model = page.getModel();
+			if (model != null) {
+				size += TASK_DATA_COPIES * estimateSize(model.getTaskData());
+			}
+			if (page.getEditorComposite() != null) {
+				size += estimateSize(page.getEditorComposite());
+			}
+		}
+		return size;
+	}
+
+	public static long estimateSize(TaskData taskData) {
+		return estimateSize(taskData.getRoot());
+	}
+
+	private static long estimateSize(TaskAttribute attribute) {
+		long size = ATTRIBUTE_OVERHEAD + sizeOf(attribute.getId());
+		for (String value : attribute.getValues()) {
+			size += ENTRY_OVERHEAD + sizeOf(value);
+		}
+		for (Entry<String, String> option : attribute.getOptions().entrySet()) {
+			size += ENTRY_OVERHEAD + sizeOf(option.getKey()) + sizeOf(option.getValue());
+		}
+		for (Entry<String, String> metaData : attribute.getMetaData().getValues().entrySet()) {
+			size += ENTRY_OVERHEAD + sizeOf(metaData.getKey()) + sizeOf(metaData.getValue());
+		}
+		for (TaskAttribute child : attribute.getAttributes().values()) {
+			size += estimateSize(child);
+		}
+		return size;
+	}
 
-		if (toClose.size() > 0) {
-			page.closeEditors(toClose.toArray(new IEditorReference[toClose.size()]), true);
+	private static long estimateSize(Control control) {
+		if (control.isDisposed()) {
+			return 0;
+		}
+		long size = CONTROL_OVERHEAD;
+		if (control instanceof Composite) {
+			for (Control child : ((Composite) control).getChildren()) {
+				size += estimateSize(child);
+			}
 		}
+		return size;
+	}
+
+	private static long sizeOf(String value) {
+		return (value != null) ? 40 + 2 * value.length() : 0;
 	}
 
 }
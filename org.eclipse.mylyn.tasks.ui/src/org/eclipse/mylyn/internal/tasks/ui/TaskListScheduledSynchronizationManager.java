@@ -18,8 +18,10 @@ import org.eclipse.jface.util.PropertyChangeEvent;
 import org.eclipse.mylyn.internal.monitor.ui.MonitorUiPlugin;
 import org.eclipse.mylyn.internal.tasks.core.ITaskJobFactory;
 import org.eclipse.mylyn.internal.tasks.core.TaskActivityManager;
+import org.eclipse.mylyn.internal.tasks.core.TaskList;
+import org.eclipse.mylyn.internal.tasks.core.data.TaskDataManager;
+import org.eclipse.mylyn.internal.tasks.ui.RepositorySynchronizationPlanner.RepositorySchedule;
 import org.eclipse.mylyn.tasks.core.IRepositoryManager;
-import org.eclipse.mylyn.tasks.core.sync.SynchronizationJob;
 
 import com.google.common.collect.ImmutableList;
 
@@ -34,24 +36,20 @@ class TaskListScheduledSynchronizationManager {
 			ITasksUiPreferenceConstants.REPOSITORY_SYNCH_SCHEDULE_ENABLED,
 			ITasksUiPreferenceConstants.RELEVANT_SYNCH_SCHEDULE_ENABLED);
 
-	private final TaskListSynchronizationScheduler fullRefreshScheduler;
+	private final RepositorySynchronizationScheduler fullRefreshScheduler;
 
 	private final TaskListSynchronizationScheduler relevantTaskScheduler;
 
 	public TaskListScheduledSynchronizationManager(ITaskJobFactory taskJobFactory,
-			TaskActivityManager taskActivityManager, IRepositoryManager repositoryManager) {
-		SynchronizationJob refreshJob = taskJobFactory.createSynchronizeRepositoriesJob(null);
-		refreshJob.setFullSynchronization(true);
-
-		fullRefreshScheduler = new TaskListSynchronizationScheduler(refreshJob);
-		updateSynchronizationScheduler(fullRefreshScheduler, true,
-				ITasksUiPreferenceConstants.REPOSITORY_SYNCH_SCHEDULE_MILISECONDS, FULL_REFRESH_ENABLEMENT_KEYS);
+			TaskActivityManager taskActivityManager, IRepositoryManager repositoryManager, TaskList taskList,
+			TaskDataManager taskDataManager) {
+		fullRefreshScheduler = new RepositorySynchronizationScheduler(taskJobFactory, repositoryManager, taskList,
+				taskDataManager);
+		updateFullRefreshScheduler(true);
 
 		Job relevantJob = new SynchronizeRelevantTasksJob(taskActivityManager, repositoryManager, taskJobFactory);
 		relevantTaskScheduler = new TaskListSynchronizationScheduler(relevantJob);
-		updateSynchronizationScheduler(relevantTaskScheduler, true,
-				ITasksUiPreferenceConstants.RELEVANT_TASKS_SCHEDULE_MILISECONDS,
-				RELEVANT_TASKS_REFRESH_ENABLEMENT_KEYS);
+		updateRelevantTaskScheduler(true);
 
 		MonitorUiPlugin.getDefault().getActivityContextManager().addListener(fullRefreshScheduler);
 		MonitorUiPlugin.getDefault().getActivityContextManager().addListener(relevantTaskScheduler);
@@ -60,52 +58,72 @@ class TaskListScheduledSynchronizationManager {
 	public void processPreferenceChange(PropertyChangeEvent event) {
 		if (event.getProperty().equals(ITasksUiPreferenceConstants.REPOSITORY_SYNCH_SCHEDULE_MILISECONDS)
 				|| event.getProperty().equals(ITasksUiPreferenceConstants.REPOSITORY_SYNCH_SCHEDULE_ENABLED)) {
-			updateSynchronizationScheduler(fullRefreshScheduler, false,
-					ITasksUiPreferenceConstants.REPOSITORY_SYNCH_SCHEDULE_MILISECONDS, FULL_REFRESH_ENABLEMENT_KEYS);
+			updateFullRefreshScheduler(false);
 		}
 
 		if (event.getProperty().equals(ITasksUiPreferenceConstants.RELEVANT_TASKS_SCHEDULE_MILISECONDS)
 				|| event.getProperty().equals(ITasksUiPreferenceConstants.REPOSITORY_SYNCH_SCHEDULE_ENABLED)
 				|| event.getProperty().equals(ITasksUiPreferenceConstants.RELEVANT_SYNCH_SCHEDULE_ENABLED)) {
-			updateSynchronizationScheduler(relevantTaskScheduler, false,
-					ITasksUiPreferenceConstants.RELEVANT_TASKS_SCHEDULE_MILISECONDS,
-					RELEVANT_TASKS_REFRESH_ENABLEMENT_KEYS);
+			updateRelevantTaskScheduler(false);
+		}
+	}
+
+	/**
+	 * Stops background synchronization and removes all listeners.
+	 */
+	public void dispose() {
+		if (MonitorUiPlugin.getDefault() != null) {
+			MonitorUiPlugin.getDefault().getActivityContextManager().removeListener(fullRefreshScheduler);
+			MonitorUiPlugin.getDefault().getActivityContextManager().removeListener(relevantTaskScheduler);
+		}
+		fullRefreshScheduler.dispose();
+		relevantTaskScheduler.dispose();
+	}
+
+	/**
+	 * Returns the plan for background synchronization of repositories.
+	 */
+	public List<RepositorySchedule> getSchedules() {
+		return fullRefreshScheduler.getSchedules();
+	}
+
+	private void updateFullRefreshScheduler(boolean isInitialInvocation) {
+		long interval = getInterval(ITasksUiPreferenceConstants.REPOSITORY_SYNCH_SCHEDULE_MILISECONDS,
+				FULL_REFRESH_ENABLEMENT_KEYS);
+		if (isInitialInvocation && interval > 0) {
+			fullRefreshScheduler.setInterval(DELAY_QUERY_REFRESH_ON_STARTUP, interval);
+		} else {
+			fullRefreshScheduler.setInterval(interval);
+		}
+	}
+
+	private void updateRelevantTaskScheduler(boolean isInitialInvocation) {
+		long interval = getInterval(ITasksUiPreferenceConstants.RELEVANT_TASKS_SCHEDULE_MILISECONDS,
+				RELEVANT_TASKS_REFRESH_ENABLEMENT_KEYS);
+		if (isInitialInvocation && interval > 0) {
+			relevantTaskScheduler.setInterval(DELAY_QUERY_REFRESH_ON_STARTUP, interval);
+		} else {
+			relevantTaskScheduler.setInterval(interval);
 		}
 	}
 
 	/**
-	 * Updates the scheduler with the latest user-set preferences.
+	 * Returns the schedule interval set by the user.
 	 *
-	 * @param scheduler
-	 *            The scheduler to schedule refreshes.
-	 * @param isInitialInvocation
-	 *            {@code true} for the initial invocation; {@code false} for later invocations. When {@code true}, the
-	 *            scheduler interval is set to a fixed startup delay (typically 20 seconds).
 	 * @param intervalKey
 	 *            The key in the preferences which is used to retrieve the latest schedule interval time.
 	 * @param enabledKeys
 	 *            The keys of the preferences which must all be true to enable the given scheduler
+	 * @return the interval in milliseconds or 0, if scheduled synchronization is disabled
 	 */
-	private void updateSynchronizationScheduler(TaskListSynchronizationScheduler scheduler, boolean isInitialInvocation,
-			String intervalKey, List<String> enabledKeys) {
-		if (scheduler == null) {
-			return;
-		}
-
+	private long getInterval(String intervalKey, List<String> enabledKeys) {
 		boolean enabled = true;
 		for (String enabledKey : enabledKeys) {
 			enabled &= TasksUiPlugin.getDefault().getPreferenceStore().getBoolean(enabledKey);
 		}
-
 		if (enabled) {
-			long interval = TasksUiPlugin.getDefault().getPreferenceStore().getLong(intervalKey);
-			if (isInitialInvocation) {
-				scheduler.setInterval(DELAY_QUERY_REFRESH_ON_STARTUP, interval);
-			} else {
-				scheduler.setInterval(interval);
-			}
-		} else {
-			scheduler.setInterval(0);
+			return TasksUiPlugin.getDefault().getPreferenceStore().getLong(intervalKey);
 		}
+		return 0;
 	}
 }
@@ -12,12 +12,14 @@
 package org.eclipse.mylyn.internal.tasks.ui;
 
 import java.io.File;
+import java.io.IOException;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -87,10 +89,12 @@ import org.eclipse.mylyn.internal.tasks.core.externalization.IExternalizationPar
 import org.eclipse.mylyn.internal.tasks.core.externalization.TaskActivationExternalizationParticipant;
 import org.eclipse.mylyn.internal.tasks.core.externalization.TaskListExternalizationParticipant;
 import org.eclipse.mylyn.internal.tasks.core.externalization.TaskListExternalizer;
+import org.eclipse.mylyn.internal.tasks.core.sync.TaskSynchronizationQueue;
 import org.eclipse.mylyn.internal.tasks.core.util.RepositoryConnectorLoader;
 import org.eclipse.mylyn.internal.tasks.core.util.TaskRepositoryKeyringMigrator;
 import org.eclipse.mylyn.internal.tasks.core.util.TaskRepositorySecureStoreMigrator;
 import org.eclipse.mylyn.internal.tasks.core.util.TasksCoreExtensionReader;
+import org.eclipse.mylyn.internal.tasks.ui.RepositorySynchronizationPlanner.RepositorySchedule;
 import org.eclipse.mylyn.internal.tasks.ui.actions.ActivateTaskDialogAction;
 import org.eclipse.mylyn.internal.tasks.ui.actions.NewTaskAction;
 import org.eclipse.mylyn.internal.tasks.ui.notifications.TaskListNotificationReminder;
@@ -193,6 +197,16 @@ public class TasksUiPlugin extends AbstractUIPlugin {
 
 	private TaskJobFactory taskJobFactory;
 
+	private TaskSynchronizationQueue taskSynchronizationQueue;
+
+	private TaskDataPrefetcher taskDataPrefetcher;
+
+	private PersonIndex personIndex;
+
+	private File personIndexFile;
+
+	private Job personIndexSeedJob;
+
 	// shared colors for all forms
 	private FormColors formColors;
 
@@ -389,6 +403,8 @@ public class TasksUiPlugin extends AbstractUIPlugin {
 
 			initializeNotificationsAndSynchronization();
 
+			taskDataPrefetcher.start();
+
 			addSystemTaskBarActions();
 
 			try {
@@ -562,6 +578,36 @@ public class TasksUiPlugin extends AbstractUIPlugin {
 					synchronizationManger);
 
 			taskJobFactory = new TaskJobFactory(taskList, taskDataManager, repositoryManager, repositoryModel);
+			taskSynchronizationQueue = new TaskSynchronizationQueue(taskJobFactory);
+
+			taskDataPrefetcher = new TaskDataPrefetcher(taskDataManager, taskList, taskActivityManager);
+
+			personIndex = new PersonIndex(taskList);
+			personIndexFile = Platform.getStateLocation(getBundle()).append("people.txt").toFile(); //$NON-NLS-1$
+			if (personIndexFile.exists()) {
+				try {
+					personIndex.load(personIndexFile);
+				} catch (IOException e) {
+					StatusHandler.log(new Status(IStatus.WARNING, TasksUiPlugin.ID_PLUGIN,
+							"Failed to load people index, proposals will be collected again", e)); //$NON-NLS-1$
+				}
+			}
+			taskDataManager.addListener(personIndex);
+			taskList.addChangeListener(personIndex);
+			personIndexSeedJob = new Job("Indexing People") { //$NON-NLS-1$
+				@Override
+				protected IStatus run(IProgressMonitor monitor) {
+					try {
+						personIndex.seed(taskDataManager, monitor);
+					} catch (OperationCanceledException e) {
+						return Status.CANCEL_STATUS;
+					}
+					return Status.OK_STATUS;
+				}
+			};
+			personIndexSeedJob.setSystem(true);
+			personIndexSeedJob.setPriority(Job.DECORATE);
+			personIndexSeedJob.schedule();
 
 			taskActivityMonitor = TasksCoreExtensionReader.loadTaskActivityMonitor();
 			taskActivityMonitor.start(taskActivityManager);
@@ -778,7 +824,29 @@ public class TasksUiPlugin extends AbstractUIPlugin {
 	@Override
 	public void stop(BundleContext context) throws Exception {
 		try {
+			if (taskSynchronizationQueue != null) {
+				// stop dispatching before synchronization jobs are cancelled
+				taskSynchronizationQueue.dispose();
+			}
 			Job.getJobManager().cancel(ITasksCoreConstants.JOB_FAMILY_SYNCHRONIZATION);
+			if (synchronizationManager != null) {
+				synchronizationManager.dispose();
+				synchronizationManager = null;
+			}
+			if (taskDataPrefetcher != null) {
+				taskDataPrefetcher.stop();
+			}
+			if (personIndex != null) {
+				personIndexSeedJob.cancel();
+				taskDataManager.removeListener(personIndex);
+				taskList.removeChangeListener(personIndex);
+				try {
+					personIndex.save(personIndexFile);
+				} catch (IOException e) {
+					StatusHandler.log(new Status(IStatus.WARNING, TasksUiPlugin.ID_PLUGIN,
+							"Failed to save people index", e)); //$NON-NLS-1$
+				}
+			}
 			if (formColors != null) {
 				formColors.dispose();
 				formColors = null;
@@ -966,6 +1034,7 @@ public class TasksUiPlugin extends AbstractUIPlugin {
 		store.setDefault(ITasksUiPreferenceConstants.FILTER_PRIORITY, PriorityLevel.P5.toString());
 		store.setDefault(ITasksUiPreferenceConstants.EDITOR_TASKS_RICH, true);
 		store.setDefault(ITasksUiPreferenceConstants.EDITOR_CURRENT_LINE_HIGHLIGHT, false);
+		store.setDefault(ITasksUiPreferenceConstants.TASK_EDITOR_MEMORY_BUDGET, 64);
 		store.setDefault(ITasksUiPreferenceConstants.ACTIVATE_WHEN_OPENED, false);
 		store.setDefault(ITasksUiPreferenceConstants.SHOW_TRIM, false);
 		// remove preference
@@ -992,6 +1061,7 @@ public class TasksUiPlugin extends AbstractUIPlugin {
 
 		store.setDefault(ITasksUiPreferenceConstants.AUTO_EXPAND_TASK_LIST, true);
 		store.setDefault(ITasksUiPreferenceConstants.TASK_LIST_TOOL_TIPS_ENABLED, true);
+		store.setDefault(ITasksUiPreferenceConstants.TASK_LIST_VIRTUAL, false);
 
 		store.setDefault(ITasksUiPreferenceConstants.SERVICE_MESSAGE_URL, "http://eclipse.org/mylyn/updates.xml"); //$NON-NLS-1$
 	}
@@ -1171,6 +1241,30 @@ public class TasksUiPlugin extends AbstractUIPlugin {
 		return repositoryConnectorUiMap.get(kind);
 	}
 
+	/**
+	 * Returns the index of people that is used to propose values for person fields.
+	 */
+	public PersonIndex getPersonIndex() {
+		return personIndex;
+	}
+
+	/**
+	 * Returns the plan for background synchronization of repositories for inspection.
+	 */
+	public List<RepositorySchedule> getSynchronizationSchedules() {
+		if (synchronizationManager == null) {
+			return Collections.emptyList();
+		}
+		return synchronizationManager.getSchedules();
+	}
+
+	/**
+	 * Returns the job that reads task data of tasks that are likely to be opened next ahead of time.
+	 */
+	public TaskDataPrefetcher getTaskDataPrefetcher() {
+		return taskDataPrefetcher;
+	}
+
 	/**
 	 * @since 3.0
 	 */
@@ -1185,6 +1279,13 @@ public class TasksUiPlugin extends AbstractUIPlugin {
 		return INSTANCE.taskJobFactory;
 	}
 
+	/**
+	 * Returns the queue that merges requests to synchronize tasks.
+	 */
+	public static TaskSynchronizationQueue getTaskSynchronizationQueue() {
+		return INSTANCE.taskSynchronizationQueue;
+	}
+
 	public void addDuplicateDetector(AbstractDuplicateDetector duplicateDetector) {
 		Assert.isNotNull(duplicateDetector);
 		duplicateDetectors.add(duplicateDetector);
@@ -1425,7 +1526,7 @@ public class TasksUiPlugin extends AbstractUIPlugin {
 			getBackupManager();
 
 			synchronizationManager = new TaskListScheduledSynchronizationManager(taskJobFactory, taskActivityManager,
-					repositoryManager);
+					repositoryManager, taskList, taskDataManager);
 		} catch (Throwable t) {
 			StatusHandler.log(new Status(IStatus.ERROR, TasksUiPlugin.ID_PLUGIN,
 					"Could not initialize task list backup and synchronization", t)); //$NON-NLS-1$
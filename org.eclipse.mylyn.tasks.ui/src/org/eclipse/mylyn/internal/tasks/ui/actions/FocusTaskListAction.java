@@ -140,7 +140,7 @@ public class FocusTaskListAction implements IFilteredTreeListener, IViewActionDe
 					} else {
 						taskListView.getViewer().collapseAll();
 						// expand first element (Today) in scheduled mode
-						if (taskListView.getViewer().getContentProvider() instanceof TaskScheduleContentProvider
+						if (taskListView.getContentProvider() instanceof TaskScheduleContentProvider
 								&& taskListView.getViewer().getTree().getItemCount() > 0) {
 							TreeItem item = taskListView.getViewer().getTree().getItem(0);
 							if (item.getData() != null) {
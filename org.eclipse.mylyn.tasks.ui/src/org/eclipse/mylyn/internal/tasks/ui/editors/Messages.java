@@ -153,6 +153,8 @@ public class Messages extends NLS {
 
 	public static String TaskEditorCommentPart_Expand_Comments;
 
+	public static String TaskEditorCommentPart_Show_X_more_comments;
+
 	public static String TaskEditorDescriptionPart_Description;
 
 	public static String TaskEditorDescriptionPart_Detector;
@@ -255,6 +257,10 @@ public class Messages extends NLS {
 
 	public static String AbstractTaskEditorPage_Synchronize_to_retrieve_task_data;
 
+	public static String AbstractTaskEditorPage_Editor_contents_released;
+
+	public static String AbstractTaskEditorPage_Restore_editor_contents;
+
 	public static String AbstractTaskEditorPage_Synchronize_to_update_editor_contents;
 
 	public static String AbstractTaskEditorPage_Add_task_to_tasklist;
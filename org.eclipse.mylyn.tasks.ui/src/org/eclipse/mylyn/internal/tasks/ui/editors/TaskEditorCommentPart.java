@@ -42,13 +42,18 @@ import org.eclipse.mylyn.tasks.core.data.TaskDataModel;
 import org.eclipse.mylyn.tasks.ui.TasksUiImages;
 import org.eclipse.mylyn.tasks.ui.editors.AbstractAttributeEditor;
 import org.eclipse.mylyn.tasks.ui.editors.AbstractTaskEditorPart;
+import org.eclipse.osgi.util.NLS;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.custom.StyledText;
+import org.eclipse.swt.events.ControlAdapter;
+import org.eclipse.swt.events.ControlEvent;
+import org.eclipse.swt.events.ControlListener;
 import org.eclipse.swt.events.MouseAdapter;
 import org.eclipse.swt.events.MouseEvent;
 import org.eclipse.swt.events.PaintEvent;
 import org.eclipse.swt.events.PaintListener;
 import org.eclipse.swt.graphics.Point;
+import org.eclipse.swt.graphics.Rectangle;
 import org.eclipse.swt.layout.GridData;
 import org.eclipse.swt.layout.GridLayout;
 import org.eclipse.swt.layout.RowLayout;
@@ -64,7 +69,9 @@ import org.eclipse.ui.forms.events.HyperlinkAdapter;
 import org.eclipse.ui.forms.events.HyperlinkEvent;
 import org.eclipse.ui.forms.widgets.ExpandableComposite;
 import org.eclipse.ui.forms.widgets.FormToolkit;
+import org.eclipse.ui.forms.widgets.Hyperlink;
 import org.eclipse.ui.forms.widgets.ImageHyperlink;
+import org.eclipse.ui.forms.widgets.ScrolledForm;
 import org.eclipse.ui.forms.widgets.Section;
 
 import com.google.common.base.Strings;
@@ -88,24 +95,98 @@ public class TaskEditorCommentPart extends AbstractTaskEditorPart {
 
 		private boolean renderedInSubSection;
 
+		private Composite commentViewersComposite;
+
+		private FormToolkit toolkit;
+
+		/** The number of comment viewers for which controls have been created. */
+		private int createdCount;
+
+		private Hyperlink showMoreLink;
+
+		private boolean fullyExpanded;
+
 		public CommentGroupViewer(CommentGroup commentGroup) {
 			this.commentGroup = commentGroup;
 		}
 
 		private Composite createCommentViewers(Composite parent, FormToolkit toolkit) {
-			List<CommentViewer> viewers = getCommentViewers();
-			Composite composite = toolkit.createComposite(parent);
+			this.toolkit = toolkit;
+			commentViewersComposite = toolkit.createComposite(parent);
 
 			GridLayout contentLayout = new GridLayout();
 			contentLayout.marginHeight = 0;
 			contentLayout.marginWidth = 0;
-			composite.setLayout(contentLayout);
+			commentViewersComposite.setLayout(contentLayout);
+
+			createNextChunk();
+			return commentViewersComposite;
+		}
+
+		/**
+		 * Creates controls for the next {@link TaskEditorCommentPart#CHUNK_SIZE} comments. If comments remain a link to
+		 * show more comments is added that is also activated when it is scrolled into view.
+		 */
+		private void createNextChunk() {
+			if (commentViewersComposite == null || commentViewersComposite.isDisposed()) {
+				return;
+			}
+
+			if (showMoreLink != null) {
+				showMoreLink.dispose();
+				showMoreLink = null;
+			}
 
-			for (CommentViewer commentViewer : viewers) {
-				Control control = commentViewer.createControl(composite, toolkit);
+			List<CommentViewer> viewers = getCommentViewers();
+			int end = Math.min(createdCount + CHUNK_SIZE, viewers.size());
+			for (; createdCount < end; createdCount++) {
+				CommentViewer commentViewer = viewers.get(createdCount);
+				Control control = commentViewer.createControl(commentViewersComposite, toolkit);
 				GridDataFactory.fillDefaults().grab(true, false).applyTo(control);
+				if (fullyExpanded) {
+					commentViewer.setExpanded(true);
+				}
+			}
+
+			if (createdCount < viewers.size()) {
+				showMoreLink = toolkit.createHyperlink(commentViewersComposite,
+						NLS.bind(Messages.TaskEditorCommentPart_Show_X_more_comments, viewers.size() - createdCount),
+						SWT.NONE);
+				showMoreLink.addHyperlinkListener(new HyperlinkAdapter() {
+					@Override
+					public void linkActivated(HyperlinkEvent e) {
+						// the link is disposed when the chunk is created
+						showMoreLink.getDisplay().asyncExec(new Runnable() {
+							public void run() {
+								if (section != null && !section.isDisposed()) {
+									createChunk(CommentGroupViewer.this);
+								}
+							}
+						});
+					}
+				});
+				GridDataFactory.fillDefaults().indent(-INDENT, 0).applyTo(showMoreLink);
+			}
+		}
+
+		/**
+		 * Ensures that the control for <code>commentViewer</code> has been created.
+		 */
+		public void ensureControlCreated(CommentViewer commentViewer) {
+			int index = getCommentViewers().indexOf(commentViewer);
+			while (index >= createdCount && commentViewersComposite != null && !commentViewersComposite.isDisposed()) {
+				createNextChunk();
 			}
-			return composite;
+		}
+
+		private boolean isShowMoreLinkVisible() {
+			if (showMoreLink == null || showMoreLink.isDisposed() || !showMoreLink.isVisible()) {
+				return false;
+			}
+			ScrolledForm form = getTaskEditorPage().getManagedForm().getForm();
+			Rectangle bounds = form.getDisplay().map(showMoreLink.getParent(), form, showMoreLink.getBounds());
+			Rectangle clientArea = form.getClientArea();
+			return bounds.y < clientArea.y + clientArea.height && bounds.y + bounds.height > clientArea.y;
 		}
 
 		private Control createControl(Composite parent, FormToolkit toolkit) {
@@ -209,21 +290,23 @@ public class TaskEditorCommentPart extends AbstractTaskEditorPart {
 		}
 
 		/**
-		 * Returns true if this group and all comments in it are expanded.
+		 * Returns true if this group and all comments in it are expanded. Comments of chunks that have not been created
+		 * yet are considered expanded if they will be expanded when they are created.
 		 */
 		public boolean isFullyExpanded() {
 			if (groupSection != null && !groupSection.isExpanded()) {
 				return false;
 			}
-			if (commentViewers != null) {
-				for (CommentViewer commentViewer : commentViewers) {
-					if (!commentViewer.isExpanded()) {
-						return false;
-					}
+			List<CommentViewer> viewers = getCommentViewers();
+			if (createdCount < viewers.size() && !fullyExpanded) {
+				return false;
+			}
+			for (int i = 0; i < createdCount; i++) {
+				if (!viewers.get(i).isExpanded()) {
+					return false;
 				}
-				return true;
 			}
-			return false;
+			return true;
 		}
 
 		public boolean isRenderedInSubSection() {
@@ -240,6 +323,7 @@ public class TaskEditorCommentPart extends AbstractTaskEditorPart {
 		 * Expands this group and all comments in it.
 		 */
 		public void setFullyExpanded(boolean expanded) {
+			fullyExpanded = expanded;
 			if (groupSection != null && groupSection.isExpanded() != expanded) {
 				CommonFormUtil.setExpanded(groupSection, expanded);
 			}
@@ -601,6 +685,12 @@ public class TaskEditorCommentPart extends AbstractTaskEditorPart {
 
 	private static final String KEY_EDITOR = "viewer"; //$NON-NLS-1$
 
+	/**
+	 * The number of comments for which controls are created at once. Further comments are created when the user scrolls
+	 * to the end of the rendered comments to keep the time for opening an editor bounded.
+	 */
+	static final int CHUNK_SIZE = 50;
+
 	private List<TaskAttribute> commentAttributes;
 
 	private CommentGroupStrategy commentGroupStrategy;
@@ -630,6 +720,8 @@ public class TaskEditorCommentPart extends AbstractTaskEditorPart {
 
 	private boolean suppressExpandViewers;
 
+	private ControlListener scrollListener;
+
 	public TaskEditorCommentPart() {
 		this.commentGroupStrategy = new CommentGroupStrategy() {
 			@Override
@@ -712,6 +804,22 @@ public class TaskEditorCommentPart extends AbstractTaskEditorPart {
 		getTaskEditorPage().getEditorSite().registerContextMenu(ID_POPUP_MENU, menuManager, selectionProvider, false);
 		commentMenu = menuManager.createContextMenu(parent);
 
+		scrollListener = new ControlAdapter() {
+			@Override
+			public void controlMoved(ControlEvent e) {
+				createVisibleChunks();
+			}
+
+			@Override
+			public void controlResized(ControlEvent e) {
+				createVisibleChunks();
+			}
+		};
+		Control formContent = getTaskEditorPage().getManagedForm().getForm().getContent();
+		if (formContent != null) {
+			formContent.addControlListener(scrollListener);
+		}
+
 		section = createSection(parent, toolkit, hasIncoming);
 		section.setText(section.getText() + " (" + commentAttributes.size() + ")"); //$NON-NLS-1$ //$NON-NLS-2$
 
@@ -746,6 +854,13 @@ public class TaskEditorCommentPart extends AbstractTaskEditorPart {
 	@Override
 	public void dispose() {
 		super.dispose();
+		if (scrollListener != null) {
+			Control formContent = getTaskEditorPage().getManagedForm().getForm().getContent();
+			if (formContent != null && !formContent.isDisposed()) {
+				formContent.removeControlListener(scrollListener);
+			}
+			scrollListener = null;
+		}
 		if (actionGroup != null) {
 			actionGroup.dispose();
 		}
@@ -797,6 +912,39 @@ public class TaskEditorCommentPart extends AbstractTaskEditorPart {
 		}
 	}
 
+	private void createChunk(CommentGroupViewer groupViewer) {
+		try {
+			getTaskEditorPage().setReflow(false);
+			groupViewer.createNextChunk();
+		} finally {
+			getTaskEditorPage().setReflow(true);
+		}
+		reflow();
+	}
+
+	/**
+	 * Creates the next chunk of comments for groups where the link to show more comments has been scrolled into view.
+	 */
+	private void createVisibleChunks() {
+		if (commentGroupViewers == null) {
+			return;
+		}
+		for (CommentGroupViewer groupViewer : commentGroupViewers) {
+			if (groupViewer.isShowMoreLinkVisible()) {
+				final CommentGroupViewer viewer = groupViewer;
+				// defer creation to avoid modifying the form while it is being scrolled or laid out
+				section.getDisplay().asyncExec(new Runnable() {
+					public void run() {
+						if (section != null && !section.isDisposed() && viewer.isShowMoreLinkVisible()) {
+							createChunk(viewer);
+						}
+					}
+				});
+				return;
+			}
+		}
+	}
+
 	@Override
 	protected void fillToolBar(ToolBarManager barManager) {
 		Action collapseAllAction = new Action("") { //$NON-NLS-1$
@@ -897,6 +1045,7 @@ public class TaskEditorCommentPart extends AbstractTaskEditorPart {
 				if (viewer.getTaskAttribute().equals(commentAttribute)) {
 					// expand section
 					groupViewer.setExpanded(true);
+					groupViewer.ensureControlCreated(viewer);
 
 					// EditorUtil is consistent with behavior of outline
 					EditorUtil.reveal(getTaskEditorPage().getManagedForm().getForm(), commentAttribute.getId());
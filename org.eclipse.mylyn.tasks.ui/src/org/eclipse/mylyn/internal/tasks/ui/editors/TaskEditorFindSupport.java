@@ -239,6 +239,7 @@ public class TaskEditorFindSupport {
 			if (!group.isRenderedInSubSection() || group.isExpanded()) {
 				try {
 					part.setReflow(false);
+					ensureControlsCreated(group, matchingViewers);
 					gatherStyledTexts(matchingViewers, styledTexts);
 				} finally {
 					part.setReflow(true);
@@ -263,6 +264,7 @@ public class TaskEditorFindSupport {
 					taskEditorPage.setReflow(false);
 					part.setReflow(false);
 					group.setExpanded(true);
+					ensureControlsCreated(group, matchingViewers);
 					gatherStyledTexts(matchingViewers, commentStyledTexts);
 				} finally {
 					taskEditorPage.setReflow(true);
@@ -280,6 +282,13 @@ public class TaskEditorFindSupport {
 				NLS.bind(Messages.TaskEditorFindSupport_Show_X_more_results, matchingViewers.size()), listener);
 	}
 
+	private static void ensureControlsCreated(CommentGroupViewer group, List<CommentViewer> commentViewers) {
+		// comments are rendered in chunks, controls for matches may not have been created, yet
+		if (!commentViewers.isEmpty()) {
+			group.ensureControlCreated(commentViewers.get(commentViewers.size() - 1));
+		}
+	}
+
 	private static boolean anyCommentContains(List<TaskAttribute> commentAttributes, String text) {
 		for (TaskAttribute commentAttribute : commentAttributes) {
 			if (commentContains(commentAttribute, text)) {
@@ -310,8 +319,11 @@ public class TaskEditorFindSupport {
 		for (CommentViewer viewer : commentViewers) {
 			try {
 				ExpandableComposite composite = (ExpandableComposite) viewer.getControl();
+				if (composite == null) {
+					continue;
+				}
 				viewer.suppressSelectionChanged(true);
-				if (composite != null && !composite.isExpanded()) {
+				if (!composite.isExpanded()) {
 					CommonFormUtil.setExpanded(composite, true);
 				}
 				gatherStyledTextsInComposite(composite, styledTexts);
@@ -47,6 +47,10 @@ public class Messages extends NLS {
 
 	public static String TasksUiPreferencePage_Display_notifications_for_overdue_tasks_and_incoming_changes;
 
+	public static String TasksUiPreferencePage_Editor_memory_budget;
+
+	public static String TasksUiPreferencePage_Editor_memory_usage;
+
 	public static String TasksUiPreferencePage_Enable_inactivity_timeouts;
 
 	public static String TasksUiPreferencePage_Enable_Time_Tracking;
@@ -28,10 +28,12 @@ import org.eclipse.mylyn.commons.ui.compatibility.CommonColors;
 import org.eclipse.mylyn.internal.monitor.ui.ActivityContextManager;
 import org.eclipse.mylyn.internal.monitor.ui.MonitorUiPlugin;
 import org.eclipse.mylyn.internal.tasks.ui.ITasksUiPreferenceConstants;
+import org.eclipse.mylyn.internal.tasks.ui.TaskEditorBloatMonitor;
 import org.eclipse.mylyn.internal.tasks.ui.TasksUiPlugin;
 import org.eclipse.mylyn.internal.tasks.ui.actions.RestoreTaskListAction;
 import org.eclipse.mylyn.internal.tasks.ui.util.TasksUiInternal;
 import org.eclipse.mylyn.tasks.ui.editors.TaskEditor;
+import org.eclipse.osgi.util.NLS;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.events.ModifyEvent;
 import org.eclipse.swt.events.ModifyListener;
@@ -52,6 +54,8 @@ import org.eclipse.swt.widgets.Spinner;
 import org.eclipse.swt.widgets.Text;
 import org.eclipse.ui.IWorkbench;
 import org.eclipse.ui.IWorkbenchPreferencePage;
+import org.eclipse.ui.IWorkbenchWindow;
+import org.eclipse.ui.PlatformUI;
 import org.eclipse.ui.dialogs.PreferenceLinkArea;
 import org.eclipse.ui.forms.events.ExpansionAdapter;
 import org.eclipse.ui.forms.events.ExpansionEvent;
@@ -91,6 +95,8 @@ public class TasksUiPreferencePage extends PreferencePage implements IWorkbenchP
 
 	private Button editorHighlightsCurrentLine;
 
+	private Spinner editorMemoryBudget;
+
 	private Button useWebBrowser;
 
 	private Text fullSyncScheduleTime;
@@ -227,6 +233,8 @@ public class TasksUiPreferencePage extends PreferencePage implements IWorkbenchP
 		getPreferenceStore().setValue(ITasksUiPreferenceConstants.EDITOR_TASKS_RICH, useRichEditor.getSelection());
 		getPreferenceStore().setValue(ITasksUiPreferenceConstants.EDITOR_CURRENT_LINE_HIGHLIGHT,
 				editorHighlightsCurrentLine.getSelection());
+		getPreferenceStore().setValue(ITasksUiPreferenceConstants.TASK_EDITOR_MEMORY_BUDGET,
+				editorMemoryBudget.getSelection());
 
 		getPreferenceStore().setValue(ITasksUiPreferenceConstants.REPOSITORY_SYNCH_SCHEDULE_ENABLED,
 				enableFullTaskListSynch.getSelection());
@@ -309,6 +317,8 @@ public class TasksUiPreferencePage extends PreferencePage implements IWorkbenchP
 		useRichEditor.setSelection(getPreferenceStore().getBoolean(ITasksUiPreferenceConstants.EDITOR_TASKS_RICH));
 		editorHighlightsCurrentLine.setSelection(
 				getPreferenceStore().getBoolean(ITasksUiPreferenceConstants.EDITOR_CURRENT_LINE_HIGHLIGHT));
+		editorMemoryBudget
+				.setSelection(getPreferenceStore().getInt(ITasksUiPreferenceConstants.TASK_EDITOR_MEMORY_BUDGET));
 
 		String repositorySyncMinutes = toMinutesString(
 				getPreferenceStore().getLong(ITasksUiPreferenceConstants.REPOSITORY_SYNCH_SCHEDULE_MILISECONDS));
@@ -360,6 +370,8 @@ public class TasksUiPreferencePage extends PreferencePage implements IWorkbenchP
 				.setSelection(getPreferenceStore().getDefaultBoolean(ITasksUiPreferenceConstants.EDITOR_TASKS_RICH));
 		editorHighlightsCurrentLine.setSelection(
 				getPreferenceStore().getDefaultBoolean(ITasksUiPreferenceConstants.EDITOR_CURRENT_LINE_HIGHLIGHT));
+		editorMemoryBudget.setSelection(
+				getPreferenceStore().getDefaultInt(ITasksUiPreferenceConstants.TASK_EDITOR_MEMORY_BUDGET));
 
 		taskListTooltipEnabledButton.setSelection(
 				getPreferenceStore().getDefaultBoolean(ITasksUiPreferenceConstants.TASK_LIST_TOOL_TIPS_ENABLED));
@@ -491,6 +503,25 @@ public class TasksUiPreferencePage extends PreferencePage implements IWorkbenchP
 		editorHighlightsCurrentLine.setText(Messages.TasksUiPreferencePage_highlight_current_line);
 		editorHighlightsCurrentLine.setSelection(
 				getPreferenceStore().getBoolean(ITasksUiPreferenceConstants.EDITOR_CURRENT_LINE_HIGHLIGHT));
+		GridDataFactory.swtDefaults().span(2, 1).applyTo(editorHighlightsCurrentLine);
+
+		Label memoryBudgetLabel = new Label(container, SWT.NONE);
+		memoryBudgetLabel.setText(Messages.TasksUiPreferencePage_Editor_memory_budget);
+		editorMemoryBudget = new Spinner(container, SWT.BORDER);
+		editorMemoryBudget.setDigits(0);
+		editorMemoryBudget.setIncrement(16);
+		editorMemoryBudget.setMinimum(8);
+		editorMemoryBudget.setMaximum(4096);
+		editorMemoryBudget
+				.setSelection(getPreferenceStore().getInt(ITasksUiPreferenceConstants.TASK_EDITOR_MEMORY_BUDGET));
+
+		IWorkbenchWindow window = PlatformUI.getWorkbench().getActiveWorkbenchWindow();
+		if (window != null && window.getActivePage() != null) {
+			Label memoryUsageLabel = new Label(container, SWT.NONE);
+			memoryUsageLabel.setText(NLS.bind(Messages.TasksUiPreferencePage_Editor_memory_usage,
+					TaskEditorBloatMonitor.getReport(window.getActivePage())));
+			GridDataFactory.swtDefaults().span(2, 1).applyTo(memoryUsageLabel);
+		}
 	}
 
 	private void createTaskDataControl(Composite parent) {
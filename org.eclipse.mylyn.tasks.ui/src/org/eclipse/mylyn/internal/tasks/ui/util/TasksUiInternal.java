@@ -474,16 +474,7 @@ public class TasksUiInternal {
 	}
 
 	public static void synchronizeTaskInBackground(final AbstractRepositoryConnector connector, final ITask task) {
-		synchronizationScheduler.schedule(task, new Synchronizer<Job>() {
-			@Override
-			public Job createJob() {
-				SynchronizationJob job = TasksUiPlugin.getTaskJobFactory().createSynchronizeTasksJob(connector,
-						Collections.singleton(task));
-				job.setUser(false);
-				job.setSystem(true);
-				return job;
-			}
-		});
+		TasksUiPlugin.getTaskSynchronizationQueue().add(connector, Collections.singleton(task));
 	}
 
 	/**
@@ -507,7 +498,6 @@ public class TasksUiInternal {
 		ITaskList taskList = TasksUiInternal.getTaskList();
 		for (ITask task : tasks) {
 			((AbstractTask) task).setSynchronizing(true);
-			synchronizationScheduler.cancel(task);
 		}
 		((TaskList) taskList).notifySynchronizationStateChanged(tasks);
 		// TODO notify task list?
@@ -516,6 +506,8 @@ public class TasksUiInternal {
 		job.setUser(force);
 		job.setSystem(!force);
 		job.setPriority(Job.DECORATE);
+		// requests for the same tasks are deferred while the job is running
+		TasksUiPlugin.getTaskSynchronizationQueue().track(job, tasks);
 		if (listener != null) {
 			job.addJobChangeListener(listener);
 		}
@@ -0,0 +1,121 @@
+/*******************************************************************************
+ * Copyright (c) 2004, 2013 Tasktop Technologies and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Tasktop Technologies - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.mylyn.internal.tasks.ui.views;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.jface.viewers.ILazyTreePathContentProvider;
+import org.eclipse.jface.viewers.TreePath;
+import org.eclipse.jface.viewers.TreeViewer;
+import org.eclipse.jface.viewers.Viewer;
+import org.eclipse.jface.viewers.ViewerComparator;
+import org.eclipse.jface.viewers.ViewerFilter;
+
+/**
+ * Adapts a task list content provider to a viewer created with {@link org.eclipse.swt.SWT#VIRTUAL}. Only rows that
+ * become visible are materialized and labeled. Since the viewer does not sort or filter children that are supplied
+ * lazily the sorter and filters of the viewer are applied here when the children of a path are computed.
+ */
+public class TaskListLazyContentProvider implements ILazyTreePathContentProvider {
+
+	private static final Object[] EMPTY_ARRAY = new Object[0];
+
+	private final TreeViewer viewer;
+
+	private final AbstractTaskListContentProvider delegate;
+
+	private final Map<TreePath, Object[]> childrenByPath = new HashMap<TreePath, Object[]>();
+
+	private Object input;
+
+	public TaskListLazyContentProvider(TreeViewer viewer, AbstractTaskListContentProvider delegate) {
+		this.viewer = viewer;
+		this.delegate = delegate;
+	}
+
+	public AbstractTaskListContentProvider getDelegate() {
+		return delegate;
+	}
+
+	public void inputChanged(Viewer viewer, Object oldInput, Object newInput) {
+		this.input = newInput;
+		childrenByPath.clear();
+		delegate.inputChanged(viewer, oldInput, newInput);
+	}
+
+	public void dispose() {
+		childrenByPath.clear();
+		delegate.dispose();
+	}
+
+	public void updateElement(TreePath parentPath, int index) {
+		Object[] children = childrenByPath.get(parentPath);
+		if (children == null) {
+			children = computeChildren(parentPath);
+		}
+		if (index < children.length) {
+			Object child = children[index];
+			viewer.replace(parentPath, index, child);
+			TreePath childPath = parentPath.createChildPath(child);
+			// children are recomputed when the element is expanded
+			childrenByPath.remove(childPath);
+			viewer.setHasChildren(childPath, delegate.hasChildren(childPath));
+		}
+	}
+
+	public void updateChildCount(TreePath treePath, int currentChildCount) {
+		// the viewer requests the child count on every refresh, always recompute to pick up changes
+		Object[] children = computeChildren(treePath);
+		if (children.length != currentChildCount) {
+			viewer.setChildCount(treePath, children.length);
+		}
+	}
+
+	public void updateHasChildren(TreePath path) {
+		viewer.setHasChildren(path, delegate.hasChildren(path));
+	}
+
+	public TreePath[] getParents(Object element) {
+		return delegate.getParents(element);
+	}
+
+	private Object[] computeChildren(TreePath parentPath) {
+		Object[] children;
+		if (parentPath.getSegmentCount() == 0) {
+			if (input == null) {
+				return EMPTY_ARRAY;
+			}
+			children = delegate.getElements(input);
+		} else {
+			children = delegate.getChildren(parentPath);
+		}
+		children = filter(parentPath, children);
+		ViewerComparator comparator = viewer.getComparator();
+		if (comparator != null) {
+			comparator.sort(viewer, children);
+		}
+		childrenByPath.put(parentPath, children);
+		return children;
+	}
+
+	private Object[] filter(TreePath parentPath, Object[] children) {
+		ViewerFilter[] filters = viewer.getFilters();
+		if (filters != null) {
+			for (ViewerFilter filter : filters) {
+				children = filter.filter(viewer, parentPath, children);
+			}
+		}
+		return children;
+	}
+
+}
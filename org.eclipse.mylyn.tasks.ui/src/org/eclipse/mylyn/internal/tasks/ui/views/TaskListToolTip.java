@@ -631,8 +631,7 @@ public class TaskListToolTip extends GradientToolTip {
 					if (!taskListView.isFocusedMode() && TasksUiPlugin.getDefault()
 							.getPreferenceStore()
 							.getBoolean(ITasksUiPreferenceConstants.FILTER_COMPLETE_MODE)) {
-						Object[] children = ((TaskListContentProvider) taskListView.getViewer().getContentProvider())
-								.getChildren(element);
+						Object[] children = taskListView.getContentProvider().getChildren(element);
 						boolean hasIncoming = false;
 						for (Object child : children) {
 							if (child instanceof ITask) {
@@ -15,6 +15,7 @@
 package org.eclipse.mylyn.internal.tasks.ui.views;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
@@ -69,6 +70,7 @@ import org.eclipse.mylyn.internal.tasks.ui.MyTasksFilter;
 import org.eclipse.mylyn.internal.tasks.ui.ScheduledPresentation;
 import org.eclipse.mylyn.internal.tasks.ui.TaskArchiveFilter;
 import org.eclipse.mylyn.internal.tasks.ui.TaskCompletionFilter;
+import org.eclipse.mylyn.internal.tasks.ui.TaskDataPrefetcher;
 import org.eclipse.mylyn.internal.tasks.ui.TaskPriorityFilter;
 import org.eclipse.mylyn.internal.tasks.ui.TaskRepositoryUtil;
 import org.eclipse.mylyn.internal.tasks.ui.TaskReviewArtifactFilter;
@@ -203,6 +205,11 @@ public class TaskListView extends AbstractTaskListView implements IPropertyChang
 
 	private final static int SIZE_MAX_SELECTION_HISTORY = 10;
 
+	/**
+	 * Number of rows above and below the selection for which task data is prefetched.
+	 */
+	private final static int PREFETCH_NEIGHBOURS = 2;
+
 	static final String[] PRIORITY_LEVELS = { PriorityLevel.P1.toString(), PriorityLevel.P2.toString(),
 			PriorityLevel.P3.toString(), PriorityLevel.P4.toString(), PriorityLevel.P5.toString() };
 
@@ -295,6 +302,8 @@ public class TaskListView extends AbstractTaskListView implements IPropertyChang
 
 	private long lastExpansionTime;
 
+	private boolean virtual;
+
 	private final IPageListener PAGE_LISTENER = new IPageListener() {
 		public void pageActivated(IWorkbenchPage page) {
 			filteredTree.indicateActiveTaskWorkingSet();
@@ -581,9 +590,14 @@ public class TaskListView extends AbstractTaskListView implements IPropertyChang
 
 		searchHandler = SearchUtil.createSearchHandler();
 
-		filteredTree = new TaskListFilteredTree(body,
-				SWT.MULTI | SWT.VERTICAL | /* SWT.H_SCROLL | */SWT.V_SCROLL | SWT.NO_SCROLL | SWT.FULL_SELECTION,
-				searchHandler, getViewSite().getWorkbenchWindow());
+		int style = SWT.MULTI | SWT.VERTICAL | /* SWT.H_SCROLL | */SWT.V_SCROLL | SWT.NO_SCROLL | SWT.FULL_SELECTION;
+		virtual = TasksUiPlugin.getDefault()
+				.getPreferenceStore()
+				.getBoolean(ITasksUiPreferenceConstants.TASK_LIST_VIRTUAL);
+		if (virtual) {
+			style |= SWT.VIRTUAL;
+		}
+		filteredTree = new TaskListFilteredTree(body, style, searchHandler, getViewSite().getWorkbenchWindow());
 
 		// need to do initialize tooltip early for native tooltip disablement to take effect
 		taskListToolTip = new TaskListToolTip(getViewer().getControl());
@@ -594,6 +608,11 @@ public class TaskListView extends AbstractTaskListView implements IPropertyChang
 		filteredTree.setActiveTaskSelectionProvider(selectionProvider);
 
 		getViewer().addSelectionChangedListener(this.selectionProvider);
+		getViewer().addPostSelectionChangedListener(new ISelectionChangedListener() {
+			public void selectionChanged(SelectionChangedEvent event) {
+				prefetchSelection();
+			}
+		});
 		getViewer().getControl().addFocusListener(new FocusAdapter() {
 			@Override
 			public void focusGained(FocusEvent e) {
@@ -823,7 +842,11 @@ public class TaskListView extends AbstractTaskListView implements IPropertyChang
 				filteredTree.getFilterControl().setText(""); //$NON-NLS-1$
 			}
 			AbstractTaskListContentProvider contentProvider = presentation.getContentProvider(this);
-			getViewer().setContentProvider(contentProvider);
+			if (virtual) {
+				getViewer().setContentProvider(new TaskListLazyContentProvider(getViewer(), contentProvider));
+			} else {
+				getViewer().setContentProvider(contentProvider);
+			}
 			refresh(true);
 
 			currentPresentation = presentation;
@@ -853,6 +876,18 @@ public class TaskListView extends AbstractTaskListView implements IPropertyChang
 		return currentPresentation;
 	}
 
+	/**
+	 * Returns the content provider of the current presentation. If the view uses a virtual tree the provider is
+	 * wrapped by a {@link TaskListLazyContentProvider} and not directly set on the viewer.
+	 */
+	public AbstractTaskListContentProvider getContentProvider() {
+		Object contentProvider = getViewer().getContentProvider();
+		if (contentProvider instanceof TaskListLazyContentProvider) {
+			return ((TaskListLazyContentProvider) contentProvider).getDelegate();
+		}
+		return (AbstractTaskListContentProvider) contentProvider;
+	}
+
 	private void configureColumns(final String[] columnNames, final int[] columnWidths) {
 		TreeColumnLayout layout = (TreeColumnLayout) getViewer().getTree().getParent().getLayout();
 		getViewer().setColumnProperties(columnNames);
@@ -1496,6 +1531,39 @@ public class TaskListView extends AbstractTaskListView implements IPropertyChang
 		return false;
 	}
 
+	/**
+	 * Prefetches task data of the selected tasks and their neighbours since these are likely to be opened next.
+	 */
+	private void prefetchSelection() {
+		TaskDataPrefetcher prefetcher = TasksUiPlugin.getDefault().getTaskDataPrefetcher();
+		Tree tree = getViewer().getTree();
+		if (prefetcher == null || tree.isDisposed()) {
+			return;
+		}
+		List<ITask> tasks = new ArrayList<ITask>();
+		TreeItem[] selection = tree.getSelection();
+		for (TreeItem item : selection) {
+			if (item.getData() instanceof ITask) {
+				tasks.add((ITask) item.getData());
+			}
+		}
+		for (TreeItem item : selection) {
+			TreeItem[] siblings = (item.getParentItem() != null) ? item.getParentItem().getItems() : tree.getItems();
+			int index = Arrays.asList(siblings).indexOf(item);
+			for (int i = Math.max(0, index - PREFETCH_NEIGHBOURS); i <= index + PREFETCH_NEIGHBOURS
+					&& i < siblings.length; i++) {
+				// items of a virtual tree that have not been materialized have no data
+				Object data = siblings[i].getData();
+				if (data instanceof ITask && !tasks.contains(data)) {
+					tasks.add((ITask) data);
+				}
+			}
+		}
+		if (!tasks.isEmpty()) {
+			prefetcher.prefetch(tasks);
+		}
+	}
+
 	private void updateTooltipEnablement() {
 		// Set to empty string to disable native tooltips (windows only?)
 		// bug#160897
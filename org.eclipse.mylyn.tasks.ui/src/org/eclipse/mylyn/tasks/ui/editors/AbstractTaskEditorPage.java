@@ -143,6 +143,7 @@ import org.eclipse.ui.forms.events.HyperlinkAdapter;
 import org.eclipse.ui.forms.events.HyperlinkEvent;
 import org.eclipse.ui.forms.widgets.ExpandableComposite;
 import org.eclipse.ui.forms.widgets.FormToolkit;
+import org.eclipse.ui.forms.widgets.Hyperlink;
 import org.eclipse.ui.forms.widgets.ScrolledForm;
 import org.eclipse.ui.handlers.IHandlerService;
 import org.eclipse.ui.services.IDisposable;
@@ -271,7 +272,8 @@ public abstract class AbstractTaskEditorPage extends TaskFormPage
 		private void refresh(final ITask task) {
 			PlatformUI.getWorkbench().getDisplay().asyncExec(new Runnable() {
 				public void run() {
-					if (refreshDisabled || busy) {
+					if (refreshDisabled || busy || hibernated) {
+						// hibernated pages read the latest task data when restored
 						return;
 					}
 
@@ -470,6 +472,8 @@ public abstract class AbstractTaskEditorPage extends TaskFormPage
 
 	private TaskEditorFindSupport findSupport;
 
+	private boolean hibernated;
+
 	/**
 	 * @since 3.1
 	 */
@@ -1087,8 +1091,8 @@ public abstract class AbstractTaskEditorPage extends TaskFormPage
 				}
 			});
 		}
-		if (getModel() != null) {
-			TaskEditorOutlineNode node = TaskEditorOutlineNode.parse(getModel().getTaskData(), false);
+		if (model != null) {
+			TaskEditorOutlineNode node = TaskEditorOutlineNode.parse(model.getTaskData(), false);
 			outlinePage.setInput(getTaskRepository(), node);
 		} else {
 			outlinePage.setInput(null, null);
@@ -1126,7 +1130,14 @@ public abstract class AbstractTaskEditorPage extends TaskFormPage
 		return editorComposite;
 	}
 
+	/**
+	 * Returns the model of this page. If the page is hibernated its contents are restored first when invoked from the
+	 * UI thread, otherwise <code>null</code> is returned while the page is hibernated.
+	 */
 	public TaskDataModel getModel() {
+		if (hibernated && Display.getCurrent() != null) {
+			refresh();
+		}
 		return model;
 	}
 
@@ -1158,8 +1169,11 @@ public abstract class AbstractTaskEditorPage extends TaskFormPage
 	}
 
 	public TaskRepository getTaskRepository() {
-		// FIXME model can be null
-		return getModel().getTaskRepository();
+		if (model == null) {
+			// the page is hibernated or the model could not be created
+			return getTaskEditor().getTaskEditorInput().getTaskRepository();
+		}
+		return model.getTaskRepository();
 	}
 
 	/**
@@ -1395,6 +1409,8 @@ public abstract class AbstractTaskEditorPage extends TaskFormPage
 				doSave(new NullProgressMonitor());
 				refreshInput();
 			} else {
+				// reset first since the model may be accessed while it is initialized
+				hibernated = false;
 				initModel(getTaskEditor().getTaskEditorInput());
 			}
 
@@ -1444,6 +1460,80 @@ public abstract class AbstractTaskEditorPage extends TaskFormPage
 		reflow();
 	}
 
+	/**
+	 * Releases the form contents and the model of this page to reduce memory usage. The editor remains open and the
+	 * page is restored when it receives focus, is refreshed or its model is accessed. Pages that are dirty, busy or show
+	 * a new task are not hibernated.
+	 *
+	 * @return true, if the page was hibernated
+	 * @since 3.25
+	 */
+	public boolean hibernate() {
+		if (hibernated || model == null || busy || refreshDisabled || isDirty() || model.getTaskData().isNew()
+				|| getManagedForm() == null || getManagedForm().getForm().isDisposed()) {
+			return false;
+		}
+
+		try {
+			setReflow(false);
+			// prevent menu from being disposed when disposing control on the form
+			Menu menu = editorComposite.getMenu();
+			CommonUiUtil.setMenu(editorComposite, null);
+
+			for (Control control : editorComposite.getChildren()) {
+				control.dispose();
+			}
+			if (focusTracker != null) {
+				focusTracker.reset();
+			}
+			lastSelection = null;
+			for (IFormPart part : getManagedForm().getParts()) {
+				part.dispose();
+				getManagedForm().removePart(part);
+			}
+			if (attributeEditorToolkit != null) {
+				attributeEditorToolkit.dispose();
+				attributeEditorToolkit = null;
+			}
+
+			editorComposite.setMenu(menu);
+
+			model = null;
+			setTaskData(null);
+			hibernated = true;
+
+			Hyperlink restoreLink = toolkit.createHyperlink(editorComposite,
+					Messages.AbstractTaskEditorPage_Restore_editor_contents, SWT.NONE);
+			restoreLink.addHyperlinkListener(new HyperlinkAdapter() {
+				@Override
+				public void linkActivated(HyperlinkEvent e) {
+					AbstractTaskEditorPage.this.refresh();
+				}
+			});
+
+			getTaskEditor().setMessage(Messages.AbstractTaskEditorPage_Editor_contents_released,
+					IMessageProvider.INFORMATION, new HyperlinkAdapter() {
+						@Override
+						public void linkActivated(HyperlinkEvent e) {
+							AbstractTaskEditorPage.this.refresh();
+						}
+					});
+		} finally {
+			setReflow(true);
+		}
+		updateOutlinePage();
+		reflow();
+		return true;
+	}
+
+	/**
+	 * @return true, if the contents of this page have been released by {@link #hibernate()}
+	 * @since 3.25
+	 */
+	public boolean isHibernated() {
+		return hibernated;
+	}
+
 	private void refreshInput() {
 		try {
 			refreshDisabled = true;
@@ -1518,6 +1608,9 @@ public abstract class AbstractTaskEditorPage extends TaskFormPage
 
 	@Override
 	public void setFocus() {
+		if (hibernated) {
+			refresh();
+		}
 		if (focusTracker != null && focusTracker.setFocus()) {
 			return;
 		} else {
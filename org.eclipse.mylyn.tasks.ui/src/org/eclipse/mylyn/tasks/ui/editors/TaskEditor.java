@@ -583,6 +583,50 @@ public class TaskEditor extends SharedHeaderFormEditor implements ISaveablePart2
 		return formPages.toArray(new IFormPage[formPages.size()]);
 	}
 
+	/**
+	 * Returns the pages of this editor that display task data.
+	 *
+	 * @since 3.25
+	 */
+	public List<AbstractTaskEditorPage> getTaskEditorPages() {
+		List<AbstractTaskEditorPage> taskEditorPages = new ArrayList<AbstractTaskEditorPage>();
+		for (IFormPage page : getPages()) {
+			if (page instanceof AbstractTaskEditorPage) {
+				taskEditorPages.add((AbstractTaskEditorPage) page);
+			}
+		}
+		return taskEditorPages;
+	}
+
+	/**
+	 * Releases the contents of all task editor pages to reduce memory usage while keeping the editor open. Pages are
+	 * restored when they receive focus.
+	 *
+	 * @return true, if at least one page was hibernated
+	 * @see AbstractTaskEditorPage#hibernate()
+	 * @since 3.25
+	 */
+	public boolean hibernate() {
+		boolean hibernated = false;
+		for (AbstractTaskEditorPage page : getTaskEditorPages()) {
+			hibernated |= page.hibernate();
+		}
+		return hibernated;
+	}
+
+	/**
+	 * @return true, if any page of this editor is hibernated
+	 * @since 3.25
+	 */
+	public boolean isHibernated() {
+		for (AbstractTaskEditorPage page : getTaskEditorPages()) {
+			if (page.isHibernated()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
 	@Deprecated
 	protected IWorkbenchSiteProgressService getProgressService() {
 		Object siteService = getEditorSite().getAdapter(IWorkbenchSiteProgressService.class);
@@ -704,12 +748,18 @@ public class TaskEditor extends SharedHeaderFormEditor implements ISaveablePart2
 
 	@Override
 	public void setFocus() {
+		boolean hibernated = isHibernated();
+		TaskEditorBloatMonitor.editorActivated(this);
 		IFormPage page = getActivePageInstance();
 		if (page != null) {
 			page.setFocus();
 		} else {
 			super.setFocus();
 		}
+		if (hibernated && !isHibernated()) {
+			// contents were restored, ensure that other editors stay within the memory budget
+			TaskEditorBloatMonitor.editorOpened(this);
+		}
 	}
 
 	@Deprecated
@@ -11,12 +11,16 @@
 
 package org.eclipse.mylyn.internal.trac.core;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -24,6 +28,7 @@ import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.mylyn.commons.core.StatusHandler;
 import org.eclipse.mylyn.commons.net.AbstractWebLocation;
+import org.eclipse.mylyn.internal.tasks.core.RepositoryConnectionPool;
 import org.eclipse.mylyn.internal.trac.core.client.ITracClient;
 import org.eclipse.mylyn.internal.trac.core.client.ITracClient.Version;
 import org.eclipse.mylyn.internal.trac.core.client.TracClientData;
@@ -32,22 +37,30 @@ import org.eclipse.mylyn.tasks.core.TaskRepository;
 import org.eclipse.mylyn.tasks.core.TaskRepositoryLocationFactory;
 
 /**
- * Caches {@link ITracClient} objects.
+ * Caches {@link ITracClient} objects. The attributes of each repository are persisted in a separate file in the cache
+ * directory and files are only rewritten if the attributes of the corresponding repository have changed.
  * 
  * @author Steffen Pingel
  */
 public class TracClientManager implements IRepositoryListener {
 
+	private static final String CACHE_FILE_EXTENSION = ".data"; //$NON-NLS-1$
+
+	private static final String TEMP_FILE_EXTENSION = ".tmp"; //$NON-NLS-1$
+
 	private final Map<String, ITracClient> clientByUrl = new HashMap<String, ITracClient>();
 
 	private final Map<String, TracClientData> clientDataByUrl = new HashMap<String, TracClientData>();
 
-	private final File cacheFile;
+	// data that matches the contents of the cache file of the repository
+	private final Map<String, TracClientData> cachedDataByUrl = new HashMap<String, TracClientData>();
+
+	private final File cacheDirectory;
 
 	private volatile TaskRepositoryLocationFactory taskRepositoryLocationFactory;
 
-	public TracClientManager(File cacheFile, TaskRepositoryLocationFactory taskRepositoryLocationFactory) {
-		this.cacheFile = cacheFile;
+	public TracClientManager(File cacheDirectory, TaskRepositoryLocationFactory taskRepositoryLocationFactory) {
+		this.cacheDirectory = cacheDirectory;
 		this.taskRepositoryLocationFactory = taskRepositoryLocationFactory;
 
 		readCache();
@@ -57,6 +70,7 @@ public class TracClientManager implements IRepositoryListener {
 		ITracClient repository = clientByUrl.get(taskRepository.getRepositoryUrl());
 		if (repository == null) {
 			AbstractWebLocation location = taskRepositoryLocationFactory.createWebLocation(taskRepository);
+			RepositoryConnectionPool.getDefault().configure(location.getUrl(), taskRepository.getProperties());
 			repository = TracClientFactory.createClient(location, Version.fromVersion(taskRepository.getVersion()));
 			clientByUrl.put(taskRepository.getRepositoryUrl(), repository);
 
@@ -78,19 +92,29 @@ public class TracClientManager implements IRepositoryListener {
 		// make sure there is no stale client still in the cache, bug #149939
 		removeClient(repository);
 		clientDataByUrl.remove(repository.getRepositoryUrl());
+		deleteCache(repository.getRepositoryUrl());
 	}
 
 	public synchronized void clearClients() {
+		for (Map.Entry<String, ITracClient> entry : clientByUrl.entrySet()) {
+			clientDataByUrl.put(entry.getKey(), entry.getValue().getData());
+		}
 		clientByUrl.clear();
 	}
 
 	private synchronized void removeClient(TaskRepository repository) {
-		clientByUrl.remove(repository.getRepositoryUrl());
+		ITracClient client = clientByUrl.remove(repository.getRepositoryUrl());
+		if (client != null) {
+			// retain attributes that were refreshed by the client
+			clientDataByUrl.put(repository.getRepositoryUrl(), client.getData());
+		}
 	}
 
 	public synchronized void repositoryRemoved(TaskRepository repository) {
 		removeClient(repository);
 		clientDataByUrl.remove(repository.getRepositoryUrl());
+		deleteCache(repository.getRepositoryUrl());
+		RepositoryConnectionPool.getDefault().remove(repository.getRepositoryUrl());
 	}
 
 	public synchronized void repositorySettingsChanged(TaskRepository repository) {
@@ -100,24 +124,40 @@ public class TracClientManager implements IRepositoryListener {
 	}
 
 	public synchronized void readCache() {
-		if (cacheFile == null || !cacheFile.exists()) {
+		if (cacheDirectory == null || !cacheDirectory.exists()) {
+			return;
+		}
+
+		if (cacheDirectory.isFile()) {
+			// previous versions serialized the data of all repositories into a single file
+			readLegacyCache();
 			return;
 		}
 
+		File[] files = cacheDirectory.listFiles();
+		if (files != null) {
+			for (File file : files) {
+				if (file.getName().endsWith(CACHE_FILE_EXTENSION)) {
+					readCache(file);
+				}
+			}
+		}
+	}
+
+	private void readCache(File file) {
 		ObjectInputStream in = null;
 		try {
-			in = new ObjectInputStream(new FileInputStream(cacheFile));
-			int size = in.readInt();
-			for (int i = 0; i < size; i++) {
-				String url = (String) in.readObject();
-				TracClientData data = (TracClientData) in.readObject();
-				if (url != null && data != null) {
-					clientDataByUrl.put(url, data);
-				}
+			in = new ObjectInputStream(new BufferedInputStream(new FileInputStream(file)));
+			String url = (String) in.readObject();
+			TracClientData data = (TracClientData) in.readObject();
+			if (url != null && data != null) {
+				clientDataByUrl.put(url, data);
+				cachedDataByUrl.put(url, data);
 			}
 		} catch (Throwable e) {
 			StatusHandler.log(new Status(IStatus.WARNING, TracCorePlugin.ID_PLUGIN,
 					"The Trac respository configuration cache could not be read", e)); //$NON-NLS-1$
+			file.delete();
 		} finally {
 			if (in != null) {
 				try {
@@ -127,34 +167,101 @@ public class TracClientManager implements IRepositoryListener {
 				}
 			}
 		}
-
 	}
 
-	public synchronized void writeCache() {
-		if (cacheFile == null) {
-			return;
-		}
-
-		ObjectOutputStream out = null;
+	private void readLegacyCache() {
+		ObjectInputStream in = null;
 		try {
-			out = new ObjectOutputStream(new FileOutputStream(cacheFile));
-			out.writeInt(clientDataByUrl.size());
-			for (String url : clientDataByUrl.keySet()) {
-				out.writeObject(url);
-				out.writeObject(clientDataByUrl.get(url));
+			if (cacheDirectory.length() > 0) {
+				in = new ObjectInputStream(new FileInputStream(cacheDirectory));
+				int size = in.readInt();
+				for (int i = 0; i < size; i++) {
+					String url = (String) in.readObject();
+					TracClientData data = (TracClientData) in.readObject();
+					if (url != null && data != null) {
+						clientDataByUrl.put(url, data);
+					}
+				}
 			}
-		} catch (IOException e) {
+		} catch (Throwable e) {
 			StatusHandler.log(new Status(IStatus.WARNING, TracCorePlugin.ID_PLUGIN,
-					"The Trac respository configuration cache could not be written", e)); //$NON-NLS-1$
+					"The Trac respository configuration cache could not be read", e)); //$NON-NLS-1$
 		} finally {
-			if (out != null) {
+			if (in != null) {
 				try {
-					out.close();
+					in.close();
 				} catch (IOException e) {
 					// ignore
 				}
 			}
 		}
+		// the data is written to separate files by the next invocation of writeCache()
+		cacheDirectory.delete();
+	}
+
+	public synchronized void writeCache() {
+		if (cacheDirectory == null) {
+			return;
+		}
+
+		// clients replace their data when attributes are refreshed
+		for (Map.Entry<String, ITracClient> entry : clientByUrl.entrySet()) {
+			clientDataByUrl.put(entry.getKey(), entry.getValue().getData());
+		}
+
+		for (Map.Entry<String, TracClientData> entry : clientDataByUrl.entrySet()) {
+			if (cachedDataByUrl.get(entry.getKey()) != entry.getValue()) {
+				try {
+					writeCache(entry.getKey(), entry.getValue());
+					cachedDataByUrl.put(entry.getKey(), entry.getValue());
+				} catch (IOException e) {
+					StatusHandler.log(new Status(IStatus.WARNING, TracCorePlugin.ID_PLUGIN,
+							"The Trac respository configuration cache could not be written", e)); //$NON-NLS-1$
+				}
+			}
+		}
+	}
+
+	private void writeCache(String url, TracClientData data) throws IOException {
+		if (!cacheDirectory.exists() && !cacheDirectory.mkdirs()) {
+			throw new IOException("Failed to create directory " + cacheDirectory); //$NON-NLS-1$
+		}
+		File file = getCacheFile(url);
+		File tempFile = new File(cacheDirectory, file.getName() + TEMP_FILE_EXTENSION);
+		ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)));
+		try {
+			out.writeObject(url);
+			out.writeObject(data);
+		} finally {
+			out.close();
+		}
+		// replace the previous file only after the data was written completely
+		if (file.exists() && !file.delete()) {
+			tempFile.delete();
+			throw new IOException("Failed to replace " + file); //$NON-NLS-1$
+		}
+		if (!tempFile.renameTo(file)) {
+			throw new IOException("Failed to rename " + tempFile); //$NON-NLS-1$
+		}
+	}
+
+	private void deleteCache(String url) {
+		cachedDataByUrl.remove(url);
+		if (cacheDirectory != null) {
+			File file = getCacheFile(url);
+			if (file.exists() && !file.delete()) {
+				StatusHandler.log(new Status(IStatus.WARNING, TracCorePlugin.ID_PLUGIN,
+						"The Trac respository configuration cache could not be deleted: " + file)); //$NON-NLS-1$
+			}
+		}
+	}
+
+	private File getCacheFile(String url) {
+		try {
+			return new File(cacheDirectory, URLEncoder.encode(url, "UTF-8") + CACHE_FILE_EXTENSION); //$NON-NLS-1$
+		} catch (UnsupportedEncodingException e) {
+			throw new IllegalStateException(e);
+		}
 	}
 
 	public TaskRepositoryLocationFactory getTaskRepositoryLocationFactory() {
@@ -166,7 +273,8 @@ public class TracClientManager implements IRepositoryListener {
 	}
 
 	public void repositoryUrlChanged(TaskRepository repository, String oldUrl) {
-		// ignore
+		// the connections to the previous URL are no longer used
+		RepositoryConnectionPool.getDefault().remove(oldUrl);
 	}
 
 }
@@ -35,6 +35,7 @@ import org.eclipse.mylyn.commons.net.Policy;
 import org.eclipse.mylyn.internal.trac.core.client.AbstractWikiHandler;
 import org.eclipse.mylyn.internal.trac.core.client.ITracClient;
 import org.eclipse.mylyn.internal.trac.core.client.ITracClient.Version;
+import org.eclipse.mylyn.internal.trac.core.client.ITracTicketCollector;
 import org.eclipse.mylyn.internal.trac.core.client.ITracWikiClient;
 import org.eclipse.mylyn.internal.trac.core.client.TracException;
 import org.eclipse.mylyn.internal.trac.core.model.TracComment;
@@ -446,8 +447,9 @@ public class TracRepositoryConnector extends AbstractRepositoryConnector {
 	}
 
 	@Override
-	public IStatus performQuery(TaskRepository repository, IRepositoryQuery query, TaskDataCollector resultCollector,
-			ISynchronizationSession session, IProgressMonitor monitor) {
+	public IStatus performQuery(final TaskRepository repository, IRepositoryQuery query,
+			final TaskDataCollector resultCollector, final ISynchronizationSession session,
+			final IProgressMonitor monitor) {
 		try {
 			monitor.beginTask(Messages.TracRepositoryConnector_Querying_repository, IProgressMonitor.UNKNOWN);
 
@@ -458,15 +460,13 @@ public class TracRepositoryConnector extends AbstractRepositoryConnector {
 			}
 			search.setMax(TaskDataCollector.MAX_HITS);
 
-			ITracClient client;
 			try {
-				Map<String, ITask> taskById = null;
-
-				client = getClientManager().getTracClient(repository);
+				final ITracClient client = getClientManager().getTracClient(repository);
 				client.updateAttributes(monitor, false);
 
 				if (session != null && session.isFullSynchronization() && hasRichEditor(repository)
 						&& !session.getTasks().isEmpty()) {
+					Map<String, ITask> taskById = null;
 					// performance optimization: only fetch task ids, all changed tasks have already been marked stale by preSynchronization() 
 					List<Integer> ticketIds = new ArrayList<Integer>();
 					client.searchForTicketIds(search, ticketIds, monitor);
@@ -486,27 +486,40 @@ public class TracRepositoryConnector extends AbstractRepositoryConnector {
 						resultCollector.accept(taskData);
 					}
 				} else {
-					List<TracTicket> tickets = new ArrayList<TracTicket>();
-					client.search(search, tickets, monitor);
-
-					for (TracTicket ticket : tickets) {
-						TaskData taskData = taskDataHandler.createTaskDataFromTicket(client, repository, ticket,
-								monitor);
-						taskData.setPartial(true);
-						if (session != null && !session.isFullSynchronization() && hasRichEditor(repository)) {
-							if (taskById == null) {
-								taskById = new HashMap<String, ITask>();
-								for (ITask task : session.getTasks()) {
-									taskById.put(task.getTaskId(), task);
-								}
+					// preSyncronization() only handles full synchronizations
+					final boolean markStale = session != null && !session.isFullSynchronization()
+							&& hasRichEditor(repository);
+					final Map<String, ITask> taskById = new HashMap<String, ITask>();
+					if (markStale) {
+						for (ITask task : session.getTasks()) {
+							taskById.put(task.getTaskId(), task);
+						}
+					}
+					// tickets are passed to the collector as they are retrieved
+					final CoreException[] error = new CoreException[1];
+					client.search(search, new ITracTicketCollector() {
+						public void accept(TracTicket ticket) {
+							if (error[0] != null) {
+								return;
 							}
-							// preSyncronization() only handles full synchronizations
-							ITask task = taskById.get(ticket.getId() + ""); //$NON-NLS-1$
-							if (task != null && hasTaskChanged(repository, task, taskData)) {
-								session.markStale(task);
+							try {
+								TaskData taskData = taskDataHandler.createTaskDataFromTicket(client, repository,
+										ticket, monitor);
+								taskData.setPartial(true);
+								if (markStale) {
+									ITask task = taskById.get(ticket.getId() + ""); //$NON-NLS-1$
+									if (task != null && hasTaskChanged(repository, task, taskData)) {
+										session.markStale(task);
+									}
+								}
+								resultCollector.accept(taskData);
+							} catch (CoreException e) {
+								error[0] = e;
 							}
 						}
-						resultCollector.accept(taskData);
+					}, monitor);
+					if (error[0] != null) {
+						throw error[0];
 					}
 				}
 			} catch (OperationCanceledException e) {
@@ -16,6 +16,8 @@ import java.net.HttpURLConnection;
 import java.net.Proxy;
 import java.net.URL;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import org.apache.commons.httpclient.Cookie;
 import org.apache.commons.httpclient.HostConfiguration;
@@ -23,16 +25,20 @@ import org.apache.commons.httpclient.HttpClient;
 import org.apache.commons.httpclient.NameValuePair;
 import org.apache.commons.httpclient.cookie.CookiePolicy;
 import org.apache.commons.httpclient.methods.PostMethod;
+import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.Platform;
 import org.eclipse.mylyn.commons.core.CoreUtil;
 import org.eclipse.mylyn.commons.net.AbstractWebLocation;
 import org.eclipse.mylyn.commons.net.AuthenticationCredentials;
 import org.eclipse.mylyn.commons.net.WebUtil;
+import org.eclipse.mylyn.internal.tasks.core.RepositoryConnectionPool;
 import org.eclipse.mylyn.internal.trac.core.model.TracComponent;
 import org.eclipse.mylyn.internal.trac.core.model.TracMilestone;
 import org.eclipse.mylyn.internal.trac.core.model.TracPriority;
+import org.eclipse.mylyn.internal.trac.core.model.TracSearch;
 import org.eclipse.mylyn.internal.trac.core.model.TracSeverity;
+import org.eclipse.mylyn.internal.trac.core.model.TracTicket;
 import org.eclipse.mylyn.internal.trac.core.model.TracTicketField;
 import org.eclipse.mylyn.internal.trac.core.model.TracTicketResolution;
 import org.eclipse.mylyn.internal.trac.core.model.TracTicketStatus;
@@ -61,7 +67,14 @@ public abstract class AbstractTracClient implements ITracClient {
 
 	protected final AbstractWebLocation location;
 
-	protected TracClientData data;
+	// replaced on each refresh, instances are not modified after publication
+	private volatile TracClientData data;
+
+	// guards refreshes of data
+	private final Object refreshLock = new Object();
+
+	// incremented after each refresh, only modified while holding refreshLock
+	private volatile int refreshCount;
 
 	public AbstractTracClient(URL repositoryUrl, Version version, String username, String password, Proxy proxy) {
 		this.repositoryUrl = repositoryUrl.toString();
@@ -82,7 +95,7 @@ public abstract class AbstractTracClient implements ITracClient {
 
 	protected HttpClient createHttpClient() {
 		HttpClient httpClient = new HttpClient();
-		httpClient.setHttpConnectionManager(WebUtil.getConnectionManager());
+		httpClient.setHttpConnectionManager(RepositoryConnectionPool.getDefault().getConnectionManager(repositoryUrl));
 		httpClient.getParams().setCookiePolicy(CookiePolicy.RFC_2109);
 		WebUtil.configureHttpClient(httpClient, USER_AGENT);
 		return httpClient;
@@ -167,72 +180,123 @@ public abstract class AbstractTracClient implements ITracClient {
 		throw new TracLoginException();
 	}
 
+	public void search(TracSearch query, final List<TracTicket> result, IProgressMonitor monitor) throws TracException {
+		search(query, new ITracTicketCollector() {
+			public void accept(TracTicket ticket) {
+				result.add(ticket);
+			}
+		}, monitor);
+	}
+
 	public TracComponent[] getComponents() {
-		return (data.components != null) ? data.components.toArray(new TracComponent[0]) : null;
+		List<TracComponent> components = data.components;
+		return (components != null) ? components.toArray(new TracComponent[0]) : null;
 	}
 
 	public TracMilestone[] getMilestones() {
-		return (data.milestones != null) ? data.milestones.toArray(new TracMilestone[0]) : null;
+		List<TracMilestone> milestones = data.milestones;
+		return (milestones != null) ? milestones.toArray(new TracMilestone[0]) : null;
 	}
 
 	public TracPriority[] getPriorities() {
-		return (data.priorities != null) ? data.priorities.toArray(new TracPriority[0]) : null;
+		List<TracPriority> priorities = data.priorities;
+		return (priorities != null) ? priorities.toArray(new TracPriority[0]) : null;
 	}
 
 	public TracSeverity[] getSeverities() {
-		return (data.severities != null) ? data.severities.toArray(new TracSeverity[0]) : null;
+		List<TracSeverity> severities = data.severities;
+		return (severities != null) ? severities.toArray(new TracSeverity[0]) : null;
 	}
 
 	public TracTicketField[] getTicketFields() {
-		return (data.ticketFields != null) ? data.ticketFields.toArray(new TracTicketField[0]) : null;
+		List<TracTicketField> ticketFields = data.ticketFields;
+		return (ticketFields != null) ? ticketFields.toArray(new TracTicketField[0]) : null;
 	}
 
 	public TracTicketField getTicketFieldByName(String name) {
+		TracClientData data = this.data;
 		if (data.ticketFields != null) {
-			synchronized (this) {
-				// lazily fill fieldByName map
-				if (data.ticketFieldByName == null) {
-					data.ticketFieldByName = new HashMap<String, TracTicketField>();
-					for (TracTicketField field : data.ticketFields) {
-						data.ticketFieldByName.put(field.getName(), field);
-					}
+			// lazily fill fieldByName map, concurrent initialization yields equal maps
+			Map<String, TracTicketField> ticketFieldByName = data.ticketFieldByName;
+			if (ticketFieldByName == null) {
+				ticketFieldByName = new HashMap<String, TracTicketField>();
+				for (TracTicketField field : data.ticketFields) {
+					ticketFieldByName.put(field.getName(), field);
 				}
-				return data.ticketFieldByName.get(name);
+				data.ticketFieldByName = ticketFieldByName;
 			}
+			return ticketFieldByName.get(name);
 		}
 		return null;
 	}
 
 	public TracTicketResolution[] getTicketResolutions() {
-		return (data.ticketResolutions != null) ? data.ticketResolutions.toArray(new TracTicketResolution[0]) : null;
+		List<TracTicketResolution> ticketResolutions = data.ticketResolutions;
+		return (ticketResolutions != null) ? ticketResolutions.toArray(new TracTicketResolution[0]) : null;
 	}
 
 	public TracTicketStatus[] getTicketStatus() {
-		return (data.ticketStatus != null) ? data.ticketStatus.toArray(new TracTicketStatus[0]) : null;
+		List<TracTicketStatus> ticketStatus = data.ticketStatus;
+		return (ticketStatus != null) ? ticketStatus.toArray(new TracTicketStatus[0]) : null;
 	}
 
 	public TracTicketType[] getTicketTypes() {
-		return (data.ticketTypes != null) ? data.ticketTypes.toArray(new TracTicketType[0]) : null;
+		List<TracTicketType> ticketTypes = data.ticketTypes;
+		return (ticketTypes != null) ? ticketTypes.toArray(new TracTicketType[0]) : null;
 	}
 
 	public TracVersion[] getVersions() {
-		return (data.versions != null) ? data.versions.toArray(new TracVersion[0]) : null;
+		List<TracVersion> versions = data.versions;
+		return (versions != null) ? versions.toArray(new TracVersion[0]) : null;
 	}
 
 	public boolean hasAttributes() {
 		return (data.lastUpdate != 0);
 	}
 
+	/**
+	 * Refreshes the repository attributes. Attributes are retrieved into a copy of the current attributes which
+	 * replaces the current attributes when complete. Readers are never blocked by a refresh and only a single refresh
+	 * is performed at a time. Callers that request a refresh while another refresh is in progress wait for it to
+	 * complete and use its result. If the refresh does not change any attributes the current attributes remain
+	 * published.
+	 */
 	public void updateAttributes(IProgressMonitor monitor, boolean force) throws TracException {
-		if (!hasAttributes() || force) {
-			updateAttributes(monitor);
-			data.lastUpdate = System.currentTimeMillis();
+		if (!force && hasAttributes()) {
+			return;
+		}
+		int count = refreshCount;
+		synchronized (refreshLock) {
+			if (hasAttributes() && (!force || count != refreshCount)) {
+				// another thread has completed a refresh in the meantime
+				return;
+			}
+			TracClientData newData = new TracClientData(data);
+			updateAttributes(newData, monitor);
+			if (!hasAttributes() || !newData.hasSameAttributes(data)) {
+				if (newData.ticketFields == data.ticketFields) {
+					newData.ticketFieldByName = data.ticketFieldByName;
+				}
+				newData.lastUpdate = System.currentTimeMillis();
+				data = newData;
+			}
+			refreshCount++;
 		}
 	}
 
-	public abstract void updateAttributes(IProgressMonitor monitor) throws TracException;
+	/**
+	 * Retrieves the repository attributes into <code>data</code>. Attribute lists of <code>data</code> may be shared
+	 * with the published attributes and must be replaced rather than modified. Lists of attributes that have not
+	 * changed should be retained to avoid publishing a new instance.
+	 */
+	protected abstract void updateAttributes(TracClientData data, IProgressMonitor monitor) throws TracException;
+
+	public TracClientData getData() {
+		return data;
+	}
 
 	public void setData(TracClientData data) {
+		Assert.isNotNull(data);
 		this.data = data;
 	}
 
@@ -130,6 +130,19 @@ public interface ITracClient {
 	 */
 	void search(TracSearch query, List<TracTicket> result, IProgressMonitor monitor) throws TracException;
 
+	/**
+	 * Queries tickets from repository. Found tickets are passed to <code>collector</code> as soon as they have been
+	 * retrieved.
+	 * 
+	 * @param query
+	 *            the search criteria
+	 * @param collector
+	 *            receives found tickets
+	 * @throws TracException
+	 *             thrown in case of a connection error
+	 */
+	void search(TracSearch query, ITracTicketCollector collector, IProgressMonitor monitor) throws TracException;
+
 	/**
 	 * Queries ticket id from repository. All found tickets are added to <code>result</code>.
 	 * 
@@ -201,6 +214,14 @@ public interface ITracClient {
 
 	void updateTicket(TracTicket ticket, String comment, IProgressMonitor monitor) throws TracException;
 
+	/**
+	 * Returns the cached repository attributes. A new instance is returned after each refresh that changed the
+	 * attributes.
+	 * 
+	 * @see #updateAttributes(IProgressMonitor, boolean)
+	 */
+	TracClientData getData();
+
 	/**
 	 * Sets a reference to the cached repository attributes.
 	 * 
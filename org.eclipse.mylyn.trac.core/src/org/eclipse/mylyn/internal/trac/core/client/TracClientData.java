@@ -25,6 +25,10 @@ import org.eclipse.mylyn.internal.trac.core.model.TracTicketStatus;
 import org.eclipse.mylyn.internal.trac.core.model.TracTicketType;
 import org.eclipse.mylyn.internal.trac.core.model.TracVersion;
 
+/**
+ * Repository attributes retrieved from a Trac repository. Clients publish a new instance each time attributes are
+ * refreshed and do not modify instances after they were published which allows reading attributes without locking.
+ */
 public class TracClientData implements Serializable {
 
 	private static final long serialVersionUID = 6891961984245981675L;
@@ -49,6 +53,44 @@ public class TracClientData implements Serializable {
 
 	long lastUpdate;
 
-	transient Map<String, TracTicketField> ticketFieldByName;
+	/**
+	 * Fingerprints of the responses that the attribute lists were parsed from indexed by attribute type. Clients that
+	 * support fingerprints only parse attributes if the fingerprint of the corresponding response has changed.
+	 */
+	Map<String, Long> fingerprints;
+
+	transient volatile Map<String, TracTicketField> ticketFieldByName;
+
+	public TracClientData() {
+	}
+
+	/**
+	 * Creates a copy of <code>data</code> that shares the attribute lists. Lists must be replaced rather than modified
+	 * when updating the copy.
+	 */
+	TracClientData(TracClientData data) {
+		this.components = data.components;
+		this.milestones = data.milestones;
+		this.priorities = data.priorities;
+		this.severities = data.severities;
+		this.ticketFields = data.ticketFields;
+		this.ticketResolutions = data.ticketResolutions;
+		this.ticketStatus = data.ticketStatus;
+		this.ticketTypes = data.ticketTypes;
+		this.versions = data.versions;
+		this.lastUpdate = data.lastUpdate;
+		this.fingerprints = data.fingerprints;
+	}
+
+	/**
+	 * Returns true, if <code>data</code> shares all attribute lists with this instance, i.e. none of the attributes was
+	 * replaced by a refresh.
+	 */
+	boolean hasSameAttributes(TracClientData data) {
+		return components == data.components && milestones == data.milestones && priorities == data.priorities
+				&& severities == data.severities && ticketFields == data.ticketFields
+				&& ticketResolutions == data.ticketResolutions && ticketStatus == data.ticketStatus
+				&& ticketTypes == data.ticketTypes && versions == data.versions;
+	}
 
 }
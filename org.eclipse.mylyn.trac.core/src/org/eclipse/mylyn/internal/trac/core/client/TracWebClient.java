@@ -475,7 +475,8 @@ public class TracWebClient extends AbstractTracClient {
 		}
 	}
 
-	public void search(TracSearch query, List<TracTicket> result, IProgressMonitor monitor) throws TracException {
+	public void search(TracSearch query, ITracTicketCollector collector, IProgressMonitor monitor)
+			throws TracException {
 		GetMethod method = connect(repositoryUrl + ITracClient.QUERY_URL + query.toUrl(), monitor);
 		try {
 			InputStream in = WebUtil.getResponseBodyAsStream(method, monitor);
@@ -491,7 +492,7 @@ public class TracWebClient extends AbstractTracClient {
 						for (String key : constantValues.keySet()) {
 							ticket.putValue(key, WebSearchResultParser.parseTicketValue(constantValues.get(key)));
 						}
-						result.add(ticket);
+						collector.accept(ticket);
 					}
 				}
 			} finally {
@@ -529,8 +530,10 @@ public class TracWebClient extends AbstractTracClient {
 	}
 
 	@Override
-	public void updateAttributes(IProgressMonitor monitor) throws TracException {
+	protected void updateAttributes(TracClientData data, IProgressMonitor monitor) throws TracException {
 		monitor.beginTask(Messages.TracWebClient_Updating_attributes, IProgressMonitor.UNKNOWN);
+		// attributes are parsed from a page that can not be fingerprinted
+		data.fingerprints = null;
 
 		GetMethod method = connect(repositoryUrl + ITracClient.CUSTOM_QUERY_URL, monitor);
 		try {
@@ -549,16 +552,16 @@ public class TracWebClient extends AbstractTracClient {
 							String text = getText(tokenizer).trim();
 							int i = text.indexOf("var properties="); //$NON-NLS-1$
 							if (i != -1) {
-								if (!parseAttributesJSon(text.substring(i))) {
+								if (!parseAttributesJSon(data, text.substring(i))) {
 									// fall back
-									parseAttributesTokenizer(text.substring(i));
+									parseAttributesTokenizer(data, text.substring(i));
 								}
 							}
 						}
 					}
 				}
 
-				addResolutionAndStatus();
+				addResolutionAndStatus(data);
 			} finally {
 				in.close();
 			}
@@ -575,7 +578,7 @@ public class TracWebClient extends AbstractTracClient {
 		INIT, IN_LIST, IN_ATTRIBUTE_KEY, IN_ATTRIBUTE_VALUE, IN_ATTRIBUTE_VALUE_LIST
 	};
 
-	private boolean parseAttributesJSon(String text) {
+	private boolean parseAttributesJSon(TracClientData data, String text) {
 		// remove surrounding JavaScript
 		if (text.startsWith("var properties=")) { //$NON-NLS-1$
 			text = text.substring("var properties=".length()); //$NON-NLS-1$
@@ -630,7 +633,7 @@ public class TracWebClient extends AbstractTracClient {
 	/**
 	 * Parses the JavaScript code from the query page to extract repository configuration.
 	 */
-	private void parseAttributesTokenizer(String text) throws IOException {
+	private void parseAttributesTokenizer(TracClientData data, String text) throws IOException {
 		StreamTokenizer t = new StreamTokenizer(new StringReader(text));
 		t.quoteChar('"');
 
@@ -699,7 +702,7 @@ public class TracWebClient extends AbstractTracClient {
 		}
 	}
 
-	public void updateAttributesNewTicketPage(IProgressMonitor monitor) throws TracException {
+	void updateAttributesNewTicketPage(TracClientData data, IProgressMonitor monitor) throws TracException {
 		monitor.beginTask(Messages.TracWebClient_Updating_attributes, IProgressMonitor.UNKNOWN);
 
 		GetMethod method = connect(repositoryUrl + ITracClient.NEW_TICKET_URL, monitor);
@@ -758,7 +761,7 @@ public class TracWebClient extends AbstractTracClient {
 					}
 				}
 
-				addResolutionAndStatus();
+				addResolutionAndStatus(data);
 			} finally {
 				in.close();
 			}
@@ -771,7 +774,7 @@ public class TracWebClient extends AbstractTracClient {
 		}
 	}
 
-	private void addResolutionAndStatus() {
+	private void addResolutionAndStatus(TracClientData data) {
 		if (data.ticketResolutions == null || data.ticketResolutions.isEmpty()) {
 			data.ticketResolutions = new ArrayList<TracTicketResolution>(5);
 			data.ticketResolutions.add(new TracTicketResolution("fixed", 1)); //$NON-NLS-1$
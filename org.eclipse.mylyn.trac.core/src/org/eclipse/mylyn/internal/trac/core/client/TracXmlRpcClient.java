@@ -17,15 +17,28 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TimeZone;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Pattern;
 
 import org.apache.commons.httpclient.Credentials;
@@ -100,6 +113,33 @@ public class TracXmlRpcClient extends AbstractTracClient implements ITracWikiCli
 
 	private static final String ERROR_XML_RPC_PRIVILEGES_REQUIRED = "XML_RPC privileges are required to perform this operation"; //$NON-NLS-1$
 
+	/**
+	 * The tickets retrieved by a single multicall.
+	 * <p>
+	 * public for testing
+	 */
+	public static class TicketBatch {
+
+		final List<TracTicket> tickets;
+
+		final long bytes;
+
+		final long duration;
+
+		/**
+		 * @param bytes
+		 *            the estimated size of the response
+		 * @param duration
+		 *            the duration of the multicall in milliseconds
+		 */
+		public TicketBatch(List<TracTicket> tickets, long bytes, long duration) {
+			this.tickets = tickets;
+			this.bytes = bytes;
+			this.duration = duration;
+		}
+
+	}
+
 	private class XmlRpcRequest {
 
 		private final String method;
@@ -268,6 +308,57 @@ public class TracXmlRpcClient extends AbstractTracClient implements ITracWikiCli
 
 	public static final int REQUIRED_WIKI_RPC_VERSION = 2;
 
+	private static final int SEARCH_INITIAL_BATCH_SIZE = 50;
+
+	private static final int SEARCH_MIN_BATCH_SIZE = 10;
+
+	private static final int SEARCH_MAX_BATCH_SIZE = 500;
+
+	/**
+	 * The estimated number of bytes that a multicall for retrieving tickets should not exceed.
+	 */
+	private static final long SEARCH_MAX_BATCH_BYTES = 1024 * 1024;
+
+	/**
+	 * The duration in milliseconds that a multicall for retrieving tickets should not exceed.
+	 */
+	private static final long SEARCH_TARGET_BATCH_LATENCY = 5 * 1000;
+
+	private static final int SEARCH_MAX_CONCURRENT_BATCHES = 3;
+
+	// approximate number of bytes for the XML elements that encode a single value of a struct
+	private static final int XML_RPC_VALUE_OVERHEAD = 64;
+
+	private static final long POLL_INTERVAL = 500;
+
+	private static final String TICKET_COMPONENT = "ticket.component"; //$NON-NLS-1$
+
+	private static final String TICKET_MILESTONE = "ticket.milestone"; //$NON-NLS-1$
+
+	private static final String TICKET_PRIORITY = "ticket.priority"; //$NON-NLS-1$
+
+	private static final String TICKET_RESOLUTION = "ticket.resolution"; //$NON-NLS-1$
+
+	private static final String TICKET_SEVERITY = "ticket.severity"; //$NON-NLS-1$
+
+	private static final String TICKET_STATUS = "ticket.status"; //$NON-NLS-1$
+
+	private static final String TICKET_TYPE = "ticket.type"; //$NON-NLS-1$
+
+	private static final String TICKET_VERSION = "ticket.version"; //$NON-NLS-1$
+
+	private static final String TICKET_FIELDS = "ticket.getTicketFields"; //$NON-NLS-1$
+
+	/**
+	 * The attribute types that are retrieved by {@link #updateAttributes(TracClientData, IProgressMonitor)}.
+	 */
+	private static final String[] ATTRIBUTE_TYPES = { TICKET_COMPONENT, TICKET_MILESTONE, TICKET_PRIORITY,
+			TICKET_RESOLUTION, TICKET_SEVERITY, TICKET_STATUS, TICKET_TYPE, TICKET_VERSION };
+
+	private static final long FINGERPRINT_OFFSET_BASIS = 0xcbf29ce484222325L;
+
+	private static final long FINGERPRINT_PRIME = 0x100000001b3L;
+
 	private XmlRpcClient xmlrpc;
 
 	private TracHttpClientTransportFactory factory;
@@ -303,6 +394,8 @@ public class TracXmlRpcClient extends AbstractTracClient implements ITracWikiCli
 			config.setContentLengthOptional(false);
 			config.setConnectionTimeout(WebUtil.getConnectionTimeout());
 			config.setReplyTimeout(WebUtil.getSocketTimeout());
+			// responses are decompressed by TracHttpClientTransport if the server supports it
+			config.setGzipRequesting(true);
 
 			xmlrpc = new XmlRpcClient();
 			xmlrpc.setConfig(config);
@@ -441,7 +534,11 @@ public class TracXmlRpcClient extends AbstractTracClient implements ITracWikiCli
 		}
 	}
 
-	private Object call(IProgressMonitor monitor, String method, Object... parameters) throws TracException {
+	/**
+	 * Invokes <code>method</code> on the repository. All XML-RPC requests, including multicalls, are sent through this
+	 * method.
+	 */
+	protected Object call(IProgressMonitor monitor, String method, Object... parameters) throws TracException {
 		monitor = Policy.monitorFor(monitor);
 		TracException lastException = null;
 		for (int attempt = 0; attempt < 3; attempt++) {
@@ -671,22 +768,167 @@ public class TracXmlRpcClient extends AbstractTracClient implements ITracWikiCli
 		}
 	}
 
-	@SuppressWarnings("unchecked")
-	public void search(TracSearch query, List<TracTicket> tickets, IProgressMonitor monitor) throws TracException {
-		// an empty query string is not valid, therefore prepend order
-		Object[] result = (Object[]) call(monitor,
-				"ticket.query", "order=id" + query.toQuery(supportsMaxSearchResults(monitor))); //$NON-NLS-1$ //$NON-NLS-2$
+	/**
+	 * Retrieves the tickets matching <code>query</code> through a sequence of multicalls. The size of each multicall is
+	 * adjusted based on the size and duration of the previously completed multicall to stay within
+	 * {@link #SEARCH_MAX_BATCH_BYTES} and {@link #SEARCH_TARGET_BATCH_LATENCY}. Up to
+	 * {@link #SEARCH_MAX_CONCURRENT_BATCHES} multicalls are executed in parallel and tickets are passed to
+	 * <code>collector</code> in the order of the query as each multicall completes.
+	 */
+	public void search(TracSearch query, ITracTicketCollector collector, IProgressMonitor monitor)
+			throws TracException {
+		final IProgressMonitor searchMonitor = Policy.monitorFor(monitor);
+		List<Integer> ids = new ArrayList<Integer>();
+		searchForTicketIds(query, ids, searchMonitor);
+		if (ids.size() <= SEARCH_INITIAL_BATCH_SIZE) {
+			if (!ids.isEmpty()) {
+				for (TracTicket ticket : getTicketBatch(ids, searchMonitor).tickets) {
+					collector.accept(ticket);
+				}
+			}
+			return;
+		}
+
+		final IProgressMonitor batchMonitor = new NullProgressMonitor() {
+			@Override
+			public boolean isCanceled() {
+				return super.isCanceled() || searchMonitor.isCanceled();
+			}
+		};
+		ExecutorService executor = Executors.newFixedThreadPool(SEARCH_MAX_CONCURRENT_BATCHES, new ThreadFactory() {
+			private final AtomicInteger count = new AtomicInteger();
+
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "Trac search (" + repositoryUrl + ") " + count.getAndIncrement()); //$NON-NLS-1$ //$NON-NLS-2$
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		Deque<Future<TicketBatch>> futures = new ArrayDeque<Future<TicketBatch>>();
+		try {
+			int batchSize = SEARCH_INITIAL_BATCH_SIZE;
+			int offset = 0;
+			while (offset < ids.size() || !futures.isEmpty()) {
+				while (offset < ids.size() && futures.size() < SEARCH_MAX_CONCURRENT_BATCHES) {
+					int end = Math.min(ids.size(), offset + batchSize);
+					final List<Integer> batchIds = new ArrayList<Integer>(ids.subList(offset, end));
+					futures.add(executor.submit(new Callable<TicketBatch>() {
+						public TicketBatch call() throws Exception {
+							Policy.checkCanceled(batchMonitor);
+							return getTicketBatch(batchIds, batchMonitor);
+						}
+					}));
+					offset = end;
+				}
+
+				TicketBatch batch = getFirst(futures, searchMonitor);
+				for (TracTicket ticket : batch.tickets) {
+					collector.accept(ticket);
+				}
+				batchSize = getNextBatchSize(batchSize, batch);
+			}
+		} finally {
+			// cancel outstanding multicalls if a multicall or the collector failed
+			batchMonitor.setCanceled(true);
+			for (Future<TicketBatch> future : futures) {
+				future.cancel(true);
+			}
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Waits for the first of <code>futures</code> to complete and removes it. Fails without waiting for the first
+	 * future if any of the other futures has failed.
+	 */
+	private TicketBatch getFirst(Deque<Future<TicketBatch>> futures, IProgressMonitor monitor) throws TracException {
+		try {
+			Future<TicketBatch> first = futures.getFirst();
+			while (true) {
+				Policy.checkCanceled(monitor);
+				try {
+					TicketBatch batch = first.get(POLL_INTERVAL, TimeUnit.MILLISECONDS);
+					futures.removeFirst();
+					return batch;
+				} catch (TimeoutException e) {
+					// check for cancellation and failed multicalls
+					for (Future<TicketBatch> future : futures) {
+						if (future.isDone()) {
+							future.get();
+						}
+					}
+				}
+			}
+		} catch (InterruptedException e) {
+			throw new OperationCanceledException();
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof TracException) {
+				throw (TracException) cause;
+			} else if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			} else if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new TracException(cause);
+		}
+	}
 
-		Map<String, Object>[] calls = new Map[result.length];
+	/**
+	 * Retrieves the tickets for <code>ids</code> through a single multicall. Invoked concurrently by
+	 * {@link #search(TracSearch, ITracTicketCollector, IProgressMonitor)}.
+	 */
+	@SuppressWarnings("unchecked")
+	protected TicketBatch getTicketBatch(List<Integer> ids, IProgressMonitor monitor) throws TracException {
+		long start = System.currentTimeMillis();
+		Map<String, Object>[] calls = new Map[ids.size()];
 		for (int i = 0; i < calls.length; i++) {
-			calls[i] = createMultiCall("ticket.get", result[i]); //$NON-NLS-1$
+			calls[i] = createMultiCall("ticket.get", ids.get(i)); //$NON-NLS-1$
 		}
-		result = multicall(monitor, calls);
+		Object[] result = multicall(monitor, calls);
 
+		List<TracTicket> tickets = new ArrayList<TracTicket>(result.length);
+		long bytes = 0;
 		for (Object item : result) {
 			Object[] ticketResult = (Object[]) getMultiCallResult(item);
 			tickets.add(parseTicket(ticketResult));
+			bytes += estimateSize(ticketResult);
+		}
+		return new TicketBatch(tickets, bytes, System.currentTimeMillis() - start);
+	}
+
+	/**
+	 * Estimates the number of bytes that were transferred for <code>ticketResult</code>. The XML-RPC library does not
+	 * expose the size of responses, therefore the size is derived from the values and the encoding overhead of each
+	 * value.
+	 */
+	private long estimateSize(Object[] ticketResult) {
+		long size = XML_RPC_VALUE_OVERHEAD * 3;
+		Map<?, ?> attributes = (Map<?, ?>) ticketResult[3];
+		for (Map.Entry<?, ?> entry : attributes.entrySet()) {
+			size += XML_RPC_VALUE_OVERHEAD + entry.getKey().toString().length();
+			if (entry.getValue() != null) {
+				size += entry.getValue().toString().length();
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * Returns the number of tickets for the next multicall based on the size and duration of <code>batch</code>. The
+	 * batch size grows at most by a factor of two to avoid overshooting the limits after a batch of small tickets.
+	 */
+	private static int getNextBatchSize(int batchSize, TicketBatch batch) {
+		int count = batch.tickets.size();
+		if (count == 0) {
+			return batchSize;
+		}
+		long limit = 2L * batchSize;
+		limit = Math.min(limit, SEARCH_MAX_BATCH_BYTES / Math.max(1, batch.bytes / count));
+		if (batch.duration > 0) {
+			limit = Math.min(limit, SEARCH_TARGET_BATCH_LATENCY * count / batch.duration);
 		}
+		return (int) Math.max(SEARCH_MIN_BATCH_SIZE, Math.min(SEARCH_MAX_BATCH_SIZE, limit));
 	}
 
 	private boolean supportsWorkFlow(IProgressMonitor monitor) throws TracException {
@@ -718,78 +960,165 @@ public class TracXmlRpcClient extends AbstractTracClient implements ITracWikiCli
 	}
 
 	@Override
-	public synchronized void updateAttributes(IProgressMonitor monitor) throws TracException {
-		monitor.beginTask("Updating attributes", 9); //$NON-NLS-1$
-
-		Object[] result = getAttributes("ticket.component", monitor); //$NON-NLS-1$
-		data.components = new ArrayList<TracComponent>(result.length);
-		for (Object item : result) {
-			data.components.add(parseComponent((Map<?, ?>) getMultiCallResult(item)));
-		}
-		advance(monitor, 1);
+	@SuppressWarnings("unchecked")
+	protected void updateAttributes(TracClientData data, IProgressMonitor monitor) throws TracException {
+		monitor.beginTask("Updating attributes", 3); //$NON-NLS-1$
 
-		result = getAttributes("ticket.milestone", monitor); //$NON-NLS-1$
-		data.milestones = new ArrayList<TracMilestone>(result.length);
-		for (Object item : result) {
-			data.milestones.add(parseMilestone((Map<?, ?>) getMultiCallResult(item)));
-		}
-		advance(monitor, 1);
+		boolean assignValues = isApiVersionOrHigher(1, 0, 0, monitor);
 
-		List<TicketAttributeResult> attributes = getTicketAttributes("ticket.priority", monitor); //$NON-NLS-1$
-		data.priorities = new ArrayList<TracPriority>(result.length);
-		for (TicketAttributeResult attribute : attributes) {
-			data.priorities.add(new TracPriority(attribute.name, attribute.value));
+		// retrieve the ids of all attribute types and the ticket fields in a single call
+		Map<String, Object>[] calls = new Map[ATTRIBUTE_TYPES.length + 1];
+		for (int i = 0; i < ATTRIBUTE_TYPES.length; i++) {
+			calls[i] = createMultiCall(ATTRIBUTE_TYPES[i] + ".getAll"); //$NON-NLS-1$
 		}
-		Collections.sort(data.priorities);
+		calls[ATTRIBUTE_TYPES.length] = createMultiCall(TICKET_FIELDS);
+		Object[] result = multicall(monitor, calls);
 		advance(monitor, 1);
 
-		attributes = getTicketAttributes("ticket.resolution", monitor); //$NON-NLS-1$
-		data.ticketResolutions = new ArrayList<TracTicketResolution>(result.length);
-		for (TicketAttributeResult attribute : attributes) {
-			data.ticketResolutions.add(new TracTicketResolution(attribute.name, attribute.value));
+		// attributes can only be retrieved by id, fetch the attributes of all types in a second call
+		Object[][] ids = new Object[ATTRIBUTE_TYPES.length][];
+		List<Map<String, Object>> attributeCalls = new ArrayList<Map<String, Object>>();
+		for (int i = 0; i < ATTRIBUTE_TYPES.length; i++) {
+			ids[i] = (Object[]) getMultiCallResult(result[i]);
+			for (Object id : ids[i]) {
+				attributeCalls.add(createMultiCall(ATTRIBUTE_TYPES[i] + ".get", id)); //$NON-NLS-1$
+			}
 		}
-		Collections.sort(data.ticketResolutions);
+		Object[] attributes = (attributeCalls.isEmpty())
+				? new Object[0]
+				: multicall(monitor, attributeCalls.toArray(new Map[attributeCalls.size()]));
+		assert attributes.length == attributeCalls.size();
 		advance(monitor, 1);
 
-		attributes = getTicketAttributes("ticket.severity", monitor); //$NON-NLS-1$
-		data.severities = new ArrayList<TracSeverity>(result.length);
-		for (TicketAttributeResult attribute : attributes) {
-			data.severities.add(new TracSeverity(attribute.name, attribute.value));
+		// only parse attribute types that have changed since the last refresh
+		Map<String, Long> fingerprints = new HashMap<String, Long>();
+		int offset = 0;
+		for (int i = 0; i < ATTRIBUTE_TYPES.length; i++) {
+			Object[] values = Arrays.copyOfRange(attributes, offset, offset + ids[i].length);
+			offset += ids[i].length;
+			long fingerprint = fingerprint(fingerprint(FINGERPRINT_OFFSET_BASIS, ids[i]), values);
+			if (TICKET_STATUS.equals(ATTRIBUTE_TYPES[i])) {
+				fingerprint = fingerprint(fingerprint, assignValues);
+			}
+			fingerprints.put(ATTRIBUTE_TYPES[i], fingerprint);
+			if (hasChanged(data, ATTRIBUTE_TYPES[i], fingerprint)) {
+				parseAttributes(data, ATTRIBUTE_TYPES[i], ids[i], values, assignValues);
+			}
 		}
-		Collections.sort(data.severities);
-		advance(monitor, 1);
 
-		boolean assignValues = isApiVersionOrHigher(1, 0, 0, monitor);
-		attributes = getTicketAttributes("ticket.status", assignValues, monitor); //$NON-NLS-1$
-		data.ticketStatus = new ArrayList<TracTicketStatus>(result.length);
-		for (TicketAttributeResult attribute : attributes) {
-			data.ticketStatus.add(new TracTicketStatus(attribute.name, attribute.value));
+		Object[] fields = (Object[]) getMultiCallResult(result[ATTRIBUTE_TYPES.length]);
+		long fingerprint = fingerprint(FINGERPRINT_OFFSET_BASIS, fields);
+		fingerprints.put(TICKET_FIELDS, fingerprint);
+		if (hasChanged(data, TICKET_FIELDS, fingerprint)) {
+			List<TracTicketField> ticketFields = new ArrayList<TracTicketField>(fields.length);
+			for (Object item : fields) {
+				ticketFields.add(parseTicketField((Map<?, ?>) item));
+			}
+			data.ticketFields = ticketFields;
 		}
-		Collections.sort(data.ticketStatus);
+		data.fingerprints = fingerprints;
 		advance(monitor, 1);
+	}
 
-		attributes = getTicketAttributes("ticket.type", monitor); //$NON-NLS-1$
-		data.ticketTypes = new ArrayList<TracTicketType>(result.length);
-		for (TicketAttributeResult attribute : attributes) {
-			data.ticketTypes.add(new TracTicketType(attribute.name, attribute.value));
-		}
-		Collections.sort(data.ticketTypes);
-		advance(monitor, 1);
+	private boolean hasChanged(TracClientData data, String attributeType, long fingerprint) {
+		return data.fingerprints == null || !Long.valueOf(fingerprint).equals(data.fingerprints.get(attributeType));
+	}
 
-		result = getAttributes("ticket.version", monitor); //$NON-NLS-1$
-		data.versions = new ArrayList<TracVersion>(result.length);
-		for (Object item : result) {
-			data.versions.add(parseVersion((Map<?, ?>) getMultiCallResult(item)));
+	private void parseAttributes(TracClientData data, String attributeType, Object[] ids, Object[] values,
+			boolean assignValues) {
+		if (TICKET_COMPONENT.equals(attributeType)) {
+			List<TracComponent> components = new ArrayList<TracComponent>(values.length);
+			for (Object item : values) {
+				components.add(parseComponent((Map<?, ?>) getMultiCallResult(item)));
+			}
+			data.components = components;
+		} else if (TICKET_MILESTONE.equals(attributeType)) {
+			List<TracMilestone> milestones = new ArrayList<TracMilestone>(values.length);
+			for (Object item : values) {
+				milestones.add(parseMilestone((Map<?, ?>) getMultiCallResult(item)));
+			}
+			data.milestones = milestones;
+		} else if (TICKET_VERSION.equals(attributeType)) {
+			List<TracVersion> versions = new ArrayList<TracVersion>(values.length);
+			for (Object item : values) {
+				versions.add(parseVersion((Map<?, ?>) getMultiCallResult(item)));
+			}
+			data.versions = versions;
+		} else if (TICKET_PRIORITY.equals(attributeType)) {
+			List<TracPriority> priorities = new ArrayList<TracPriority>(values.length);
+			for (TicketAttributeResult attribute : parseTicketAttributes(attributeType, ids, values, false)) {
+				priorities.add(new TracPriority(attribute.name, attribute.value));
+			}
+			Collections.sort(priorities);
+			data.priorities = priorities;
+		} else if (TICKET_RESOLUTION.equals(attributeType)) {
+			List<TracTicketResolution> resolutions = new ArrayList<TracTicketResolution>(values.length);
+			for (TicketAttributeResult attribute : parseTicketAttributes(attributeType, ids, values, false)) {
+				resolutions.add(new TracTicketResolution(attribute.name, attribute.value));
+			}
+			Collections.sort(resolutions);
+			data.ticketResolutions = resolutions;
+		} else if (TICKET_SEVERITY.equals(attributeType)) {
+			List<TracSeverity> severities = new ArrayList<TracSeverity>(values.length);
+			for (TicketAttributeResult attribute : parseTicketAttributes(attributeType, ids, values, false)) {
+				severities.add(new TracSeverity(attribute.name, attribute.value));
+			}
+			Collections.sort(severities);
+			data.severities = severities;
+		} else if (TICKET_STATUS.equals(attributeType)) {
+			List<TracTicketStatus> ticketStatus = new ArrayList<TracTicketStatus>(values.length);
+			for (TicketAttributeResult attribute : parseTicketAttributes(attributeType, ids, values, assignValues)) {
+				ticketStatus.add(new TracTicketStatus(attribute.name, attribute.value));
+			}
+			Collections.sort(ticketStatus);
+			data.ticketStatus = ticketStatus;
+		} else if (TICKET_TYPE.equals(attributeType)) {
+			List<TracTicketType> ticketTypes = new ArrayList<TracTicketType>(values.length);
+			for (TicketAttributeResult attribute : parseTicketAttributes(attributeType, ids, values, false)) {
+				ticketTypes.add(new TracTicketType(attribute.name, attribute.value));
+			}
+			Collections.sort(ticketTypes);
+			data.ticketTypes = ticketTypes;
 		}
-		advance(monitor, 1);
+	}
 
-		result = (Object[]) call(monitor, "ticket.getTicketFields"); //$NON-NLS-1$
-		data.ticketFields = new ArrayList<TracTicketField>(result.length);
-		data.ticketFieldByName = null;
-		for (Object item : result) {
-			data.ticketFields.add(parseTicketField((Map<?, ?>) item));
+	/**
+	 * Computes a 64-bit FNV-1a hash of an XML-RPC response. Members of structs are hashed in the order of their names
+	 * since the order of members in a response is not significant.
+	 */
+	private static long fingerprint(long hash, Object value) {
+		if (value instanceof Object[]) {
+			hash = fingerprint(hash, "[" + ((Object[]) value).length); //$NON-NLS-1$
+			for (Object item : (Object[]) value) {
+				hash = fingerprint(hash, item);
+			}
+			return hash;
+		} else if (value instanceof Map<?, ?>) {
+			Map<String, Object> members = new TreeMap<String, Object>();
+			for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+				members.put(String.valueOf(entry.getKey()), entry.getValue());
+			}
+			hash = fingerprint(hash, "{" + members.size()); //$NON-NLS-1$
+			for (Map.Entry<String, Object> entry : members.entrySet()) {
+				hash = fingerprint(hash, entry.getKey());
+				hash = fingerprint(hash, entry.getValue());
+			}
+			return hash;
+		} else if (value instanceof Date) {
+			return fingerprint(hash, "d" + ((Date) value).getTime()); //$NON-NLS-1$
+		} else if (value instanceof String) {
+			// include the length to separate adjacent values
+			String text = (String) value;
+			hash = (hash ^ text.length()) * FINGERPRINT_PRIME;
+			for (int i = 0; i < text.length(); i++) {
+				hash = (hash ^ text.charAt(i)) * FINGERPRINT_PRIME;
+			}
+			return hash;
+		} else if (value == null) {
+			return fingerprint(hash, "n"); //$NON-NLS-1$
+		} else {
+			return fingerprint(hash, value.getClass().getSimpleName() + ":" + value); //$NON-NLS-1$
 		}
-		advance(monitor, 1);
 	}
 
 	private void advance(IProgressMonitor monitor, int worked) {
@@ -853,45 +1182,14 @@ public class TracXmlRpcClient extends AbstractTracClient implements ITracWikiCli
 		return field;
 	}
 
-	@SuppressWarnings("unchecked")
-	private Object[] getAttributes(String attributeType, IProgressMonitor monitor) throws TracException {
-		Object[] ids = (Object[]) call(monitor, attributeType + ".getAll"); //$NON-NLS-1$
-		Map<String, Object>[] calls = new Map[ids.length];
-		for (int i = 0; i < calls.length; i++) {
-			calls[i] = createMultiCall(attributeType + ".get", ids[i]); //$NON-NLS-1$
-		}
-
-		Object[] result = multicall(monitor, calls);
-		assert result.length == ids.length;
-
-		return result;
-	}
-
-	private List<TicketAttributeResult> getTicketAttributes(String attributeType, IProgressMonitor monitor)
-			throws TracException {
-		return getTicketAttributes(attributeType, false, monitor);
-	}
-
-	@SuppressWarnings("unchecked")
-	private List<TicketAttributeResult> getTicketAttributes(String attributeType, boolean assignValues,
-			IProgressMonitor monitor) throws TracException {
-		// get list of attribute ids first
-		Object[] ids = (Object[]) call(monitor, attributeType + ".getAll"); //$NON-NLS-1$
-		// fetch all attributes in a single call
-		Map<String, Object>[] calls = new Map[ids.length];
-		for (int i = 0; i < calls.length; i++) {
-			calls[i] = createMultiCall(attributeType + ".get", ids[i]); //$NON-NLS-1$
-		}
-
-		Object[] result = multicall(monitor, calls);
-		assert result.length == ids.length;
-
-		List<TicketAttributeResult> attributes = new ArrayList<TicketAttributeResult>(result.length);
-		for (int i = 0; i < calls.length; i++) {
+	private List<TicketAttributeResult> parseTicketAttributes(String attributeType, Object[] ids, Object[] values,
+			boolean assignValues) {
+		List<TicketAttributeResult> attributes = new ArrayList<TicketAttributeResult>(values.length);
+		for (int i = 0; i < values.length; i++) {
 			try {
 				TicketAttributeResult attribute = new TicketAttributeResult();
 				attribute.name = (String) ids[i];
-				Object value = getMultiCallResult(result[i]);
+				Object value = getMultiCallResult(values[i]);
 				if (assignValues) {
 					attribute.value = i;
 				} else {
@@ -906,7 +1204,6 @@ public class TracXmlRpcClient extends AbstractTracClient implements ITracWikiCli
 						"Invalid response from Trac repository for attribute type: '" + attributeType + "'", e)); //$NON-NLS-1$ //$NON-NLS-2$
 			}
 		}
-
 		return attributes;
 	}
 
@@ -24,6 +24,8 @@ import org.eclipse.mylyn.trac.tests.client.TracClientTest;
 import org.eclipse.mylyn.trac.tests.client.TracRepositoryInfoTest;
 import org.eclipse.mylyn.trac.tests.client.TracSearchTest;
 import org.eclipse.mylyn.trac.tests.client.TracTicketTest;
+import org.eclipse.mylyn.trac.tests.client.TracXmlRpcClientAttributesTest;
+import org.eclipse.mylyn.trac.tests.client.TracXmlRpcClientSearchTest;
 import org.eclipse.mylyn.trac.tests.client.TracXmlRpcClientTest;
 import org.eclipse.mylyn.trac.tests.core.TracClientManagerTest;
 import org.eclipse.mylyn.trac.tests.support.TracFixture;
@@ -44,6 +46,8 @@ public class AllTracHeadlessStandaloneTests {
 		suite.addTestSuite(TracTicketTest.class);
 		suite.addTestSuite(TracRepositoryInfoTest.class);
 		suite.addTestSuite(TracClientProxyTest.class);
+		suite.addTestSuite(TracXmlRpcClientSearchTest.class);
+		suite.addTestSuite(TracXmlRpcClientAttributesTest.class);
 		// network tests
 		if (!configuration.isLocalOnly()) {
 			List<TracFixture> fixtures = configuration.discover(TracFixture.class, "trac");
@@ -0,0 +1,265 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Tasktop Technologies and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Tasktop Technologies - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.mylyn.trac.tests.client;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.mylyn.commons.net.WebLocation;
+import org.eclipse.mylyn.internal.trac.core.client.ITracClient.Version;
+import org.eclipse.mylyn.internal.trac.core.client.TracClientData;
+import org.eclipse.mylyn.internal.trac.core.client.TracException;
+import org.eclipse.mylyn.internal.trac.core.client.TracXmlRpcClient;
+import org.eclipse.mylyn.internal.trac.core.model.TracComponent;
+import org.eclipse.mylyn.internal.trac.core.model.TracMilestone;
+import org.eclipse.mylyn.internal.trac.core.model.TracPriority;
+import org.eclipse.mylyn.internal.trac.core.model.TracRepositoryAttribute;
+import org.eclipse.mylyn.internal.trac.core.model.TracTicketField;
+import org.eclipse.mylyn.internal.trac.core.model.TracTicketStatus;
+
+/**
+ * Tests the retrieval of repository attributes in {@link TracXmlRpcClient#updateAttributes(IProgressMonitor, boolean)}
+ * without a repository.
+ */
+public class TracXmlRpcClientAttributesTest extends TestCase {
+
+	private static final String[] ATTRIBUTE_TYPES = { "ticket.component", "ticket.milestone", "ticket.priority",
+			"ticket.resolution", "ticket.severity", "ticket.status", "ticket.type", "ticket.version" };
+
+	/**
+	 * Answers XML-RPC requests from {@link #attributesByType} and {@link #ticketFields} instead of a repository.
+	 */
+	private class StubClient extends TracXmlRpcClient {
+
+		private final List<List<String>> multicalls = new ArrayList<List<String>>();
+
+		public StubClient() {
+			super(new WebLocation("http://mylyn.eclipse.org/trac"), Version.XML_RPC);
+		}
+
+		@Override
+		protected Object call(IProgressMonitor monitor, String method, Object... parameters) throws TracException {
+			if ("system.getAPIVersion".equals(method)) {
+				return new Object[] { 1, 1, 0 };
+			}
+			assertEquals("system.multicall", method);
+			Map<?, ?>[] calls = (Map<?, ?>[]) parameters[0];
+			List<String> methodNames = new ArrayList<String>();
+			Object[] result = new Object[calls.length];
+			for (int i = 0; i < calls.length; i++) {
+				String methodName = (String) calls[i].get("methodName");
+				Object[] params = (Object[]) calls[i].get("params");
+				methodNames.add(methodName);
+				result[i] = new Object[] { getResult(methodName, params) };
+			}
+			multicalls.add(methodNames);
+			return result;
+		}
+
+		private Object getResult(String methodName, Object[] params) {
+			if ("ticket.getTicketFields".equals(methodName)) {
+				return ticketFields.toArray();
+			}
+			String attributeType = methodName.substring(0, methodName.lastIndexOf('.'));
+			Map<String, Object> attributes = attributesByType.get(attributeType);
+			if (methodName.endsWith(".getAll")) {
+				return attributes.keySet().toArray();
+			}
+			return attributes.get(params[0]);
+		}
+
+	}
+
+	private final Map<String, Map<String, Object>> attributesByType = new HashMap<String, Map<String, Object>>();
+
+	private final List<Map<String, Object>> ticketFields = new ArrayList<Map<String, Object>>();
+
+	private StubClient client;
+
+	@Override
+	protected void setUp() throws Exception {
+		for (String attributeType : ATTRIBUTE_TYPES) {
+			attributesByType.put(attributeType, new LinkedHashMap<String, Object>());
+		}
+		attributesByType.get("ticket.component").put("component1", component("component1", "owner"));
+		attributesByType.get("ticket.component").put("component2", component("component2", "owner"));
+		attributesByType.get("ticket.milestone").put("milestone1", milestone("milestone1"));
+		attributesByType.get("ticket.priority").put("major", "2");
+		attributesByType.get("ticket.priority").put("blocker", "1");
+		attributesByType.get("ticket.status").put("new", "");
+		attributesByType.get("ticket.status").put("closed", "");
+		attributesByType.get("ticket.version").put("1.0", version("1.0"));
+		ticketFields.add(field("summary", "Summary"));
+		client = new StubClient();
+	}
+
+	public void testUpdateAttributesTwoMulticalls() throws Exception {
+		client.updateAttributes(new NullProgressMonitor(), true);
+
+		// the ids of all types and the ticket fields are retrieved by the first multicall
+		assertEquals(2, client.multicalls.size());
+		List<String> expected = new ArrayList<String>();
+		for (String attributeType : ATTRIBUTE_TYPES) {
+			expected.add(attributeType + ".getAll");
+		}
+		expected.add("ticket.getTicketFields");
+		assertEquals(expected, client.multicalls.get(0));
+		// the values of all attributes are retrieved by the second multicall
+		assertEquals(Arrays.asList("ticket.component.get", "ticket.component.get", "ticket.milestone.get",
+				"ticket.priority.get", "ticket.priority.get", "ticket.status.get", "ticket.status.get",
+				"ticket.version.get"), client.multicalls.get(1));
+
+		assertEquals(Arrays.asList("component1", "component2"), getNames(client.getComponents()));
+		assertEquals("owner", client.getComponents()[0].getOwner());
+		assertEquals("milestone1", client.getMilestones()[0].getName());
+		TracPriority[] priorities = client.getPriorities();
+		assertEquals("blocker", priorities[0].getName());
+		assertEquals("major", priorities[1].getName());
+		// status values are assigned in the order of the response
+		TracTicketStatus[] ticketStatus = client.getTicketStatus();
+		assertEquals("new", ticketStatus[0].getName());
+		assertEquals("closed", ticketStatus[1].getName());
+		assertEquals(0, client.getTicketResolutions().length);
+		assertEquals("1.0", client.getVersions()[0].getName());
+		assertEquals("Summary", client.getTicketFieldByName("summary").getLabel());
+	}
+
+	public void testUpdateAttributesNoAttributes() throws Exception {
+		for (Map<String, Object> attributes : attributesByType.values()) {
+			attributes.clear();
+		}
+		client.updateAttributes(new NullProgressMonitor(), true);
+
+		// there are no values to retrieve
+		assertEquals(1, client.multicalls.size());
+		assertTrue(client.hasAttributes());
+		assertEquals(0, client.getComponents().length);
+	}
+
+	public void testUnchangedAttributesKeepSnapshot() throws Exception {
+		client.updateAttributes(new NullProgressMonitor(), true);
+		TracClientData data = client.getData();
+		TracComponent[] components = client.getComponents();
+
+		client.updateAttributes(new NullProgressMonitor(), true);
+		assertEquals(4, client.multicalls.size());
+		// nothing has changed, readers continue to see the same attributes
+		assertSame(data, client.getData());
+		assertSame(components[0], client.getComponents()[0]);
+	}
+
+	public void testStructMemberOrderDoesNotChangeFingerprint() throws Exception {
+		client.updateAttributes(new NullProgressMonitor(), true);
+		TracClientData data = client.getData();
+
+		Map<String, Object> component = new LinkedHashMap<String, Object>();
+		component.put("owner", "owner");
+		component.put("description", "");
+		component.put("name", "component1");
+		attributesByType.get("ticket.component").put("component1", component);
+
+		client.updateAttributes(new NullProgressMonitor(), true);
+		assertSame(data, client.getData());
+	}
+
+	public void testChangedAttributeTypeIsParsedAgain() throws Exception {
+		client.updateAttributes(new NullProgressMonitor(), true);
+		TracClientData data = client.getData();
+		TracComponent[] components = client.getComponents();
+		TracMilestone[] milestones = client.getMilestones();
+		TracTicketField field = client.getTicketFieldByName("summary");
+
+		attributesByType.get("ticket.milestone").put("milestone2", milestone("milestone2"));
+		client.updateAttributes(new NullProgressMonitor(), true);
+
+		// a new snapshot is published that shares the attribute types that have not changed
+		assertNotSame(data, client.getData());
+		assertEquals(Arrays.asList("milestone1", "milestone2"), getNames(client.getMilestones()));
+		assertNotSame(milestones[0], client.getMilestones()[0]);
+		assertSame(components[0], client.getComponents()[0]);
+		assertSame(field, client.getTicketFieldByName("summary"));
+	}
+
+	public void testChangedTicketFieldsAreParsedAgain() throws Exception {
+		client.updateAttributes(new NullProgressMonitor(), true);
+		TracClientData data = client.getData();
+		TracComponent[] components = client.getComponents();
+
+		ticketFields.set(0, field("summary", "Title"));
+		client.updateAttributes(new NullProgressMonitor(), true);
+
+		assertNotSame(data, client.getData());
+		assertEquals("Title", client.getTicketFieldByName("summary").getLabel());
+		assertSame(components[0], client.getComponents()[0]);
+	}
+
+	public void testRestoredDataWithoutFingerprints() throws Exception {
+		client.updateAttributes(new NullProgressMonitor(), true);
+		TracComponent[] components = client.getComponents();
+
+		// data of previous versions was persisted without fingerprints
+		client.setData(new TracClientData());
+		client.updateAttributes(new NullProgressMonitor(), true);
+		assertTrue(client.hasAttributes());
+		assertNotSame(components[0], client.getComponents()[0]);
+	}
+
+	private List<String> getNames(TracRepositoryAttribute[] attributes) {
+		List<String> names = new ArrayList<String>();
+		for (TracRepositoryAttribute attribute : attributes) {
+			names.add(attribute.getName());
+		}
+		return names;
+	}
+
+	private Map<String, Object> component(String name, String owner) {
+		Map<String, Object> component = new LinkedHashMap<String, Object>();
+		component.put("name", name);
+		component.put("owner", owner);
+		component.put("description", "");
+		return component;
+	}
+
+	private Map<String, Object> milestone(String name) {
+		Map<String, Object> milestone = new LinkedHashMap<String, Object>();
+		milestone.put("name", name);
+		milestone.put("due", 0);
+		milestone.put("completed", 0);
+		milestone.put("description", "");
+		return milestone;
+	}
+
+	private Map<String, Object> version(String name) {
+		Map<String, Object> version = new LinkedHashMap<String, Object>();
+		version.put("name", name);
+		version.put("time", 0);
+		version.put("description", "");
+		return version;
+	}
+
+	private Map<String, Object> field(String name, String label) {
+		Map<String, Object> field = new LinkedHashMap<String, Object>();
+		field.put("name", name);
+		field.put("type", "text");
+		field.put("label", label);
+		return field;
+	}
+
+}
@@ -0,0 +1,234 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Tasktop Technologies and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Tasktop Technologies - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.mylyn.trac.tests.client;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.TestCase;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.mylyn.commons.net.WebLocation;
+import org.eclipse.mylyn.internal.trac.core.client.ITracClient.Version;
+import org.eclipse.mylyn.internal.trac.core.client.ITracTicketCollector;
+import org.eclipse.mylyn.internal.trac.core.client.TracException;
+import org.eclipse.mylyn.internal.trac.core.client.TracXmlRpcClient;
+import org.eclipse.mylyn.internal.trac.core.model.TracSearch;
+import org.eclipse.mylyn.internal.trac.core.model.TracTicket;
+
+/**
+ * Tests the batching of multicalls in {@link TracXmlRpcClient#search(TracSearch, ITracTicketCollector, IProgressMonitor)}
+ * without a repository.
+ */
+public class TracXmlRpcClientSearchTest extends TestCase {
+
+	/**
+	 * Returns tickets for multicalls instead of retrieving them from a repository.
+	 */
+	private static class StubClient extends TracXmlRpcClient {
+
+		private final int ticketCount;
+
+		private final List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<Integer>());
+
+		private final AtomicInteger runningBatches = new AtomicInteger();
+
+		private volatile int maxRunningBatches;
+
+		private long bytesPerTicket = 1024;
+
+		private long durationPerTicket;
+
+		public StubClient(int ticketCount) {
+			super(new WebLocation("http://mylyn.eclipse.org/trac"), Version.XML_RPC);
+			this.ticketCount = ticketCount;
+		}
+
+		@Override
+		public void searchForTicketIds(TracSearch query, List<Integer> tickets, IProgressMonitor monitor) {
+			for (int i = 1; i <= ticketCount; i++) {
+				tickets.add(i);
+			}
+		}
+
+		@Override
+		protected TicketBatch getTicketBatch(List<Integer> ids, IProgressMonitor monitor) throws TracException {
+			int batchIndex;
+			synchronized (batchSizes) {
+				batchIndex = batchSizes.size();
+				batchSizes.add(ids.size());
+			}
+			int running = runningBatches.incrementAndGet();
+			synchronized (this) {
+				maxRunningBatches = Math.max(maxRunningBatches, running);
+			}
+			try {
+				retrieve(batchIndex);
+				List<TracTicket> tickets = new ArrayList<TracTicket>();
+				for (int id : ids) {
+					tickets.add(new TracTicket(id));
+				}
+				return new TicketBatch(tickets, ids.size() * bytesPerTicket, ids.size() * durationPerTicket);
+			} finally {
+				runningBatches.decrementAndGet();
+			}
+		}
+
+		/**
+		 * Invoked for each multicall before the tickets are returned.
+		 */
+		protected void retrieve(int batchIndex) throws TracException {
+		}
+
+	}
+
+	private final List<Integer> ticketIds = Collections.synchronizedList(new ArrayList<Integer>());
+
+	private final ITracTicketCollector collector = new ITracTicketCollector() {
+		public void accept(TracTicket ticket) {
+			ticketIds.add(ticket.getId());
+		}
+	};
+
+	public void testSearchSingleMulticall() throws Exception {
+		StubClient client = new StubClient(30);
+		client.search(new TracSearch(), collector, new NullProgressMonitor());
+		assertEquals(Arrays.asList(30), client.batchSizes);
+		assertTicketIds(30);
+	}
+
+	public void testSearchBatchSizeGrows() throws Exception {
+		StubClient client = new StubClient(2000);
+		client.search(new TracSearch(), collector, new NullProgressMonitor());
+		// the first three multicalls are sent before the size is adjusted, each completed multicall doubles the size
+		assertEquals(Arrays.asList(50, 50, 50, 100, 200, 400, 500, 500, 150), client.batchSizes);
+		assertTicketIds(2000);
+	}
+
+	public void testSearchBatchSizeLimitedByBytes() throws Exception {
+		StubClient client = new StubClient(200);
+		client.bytesPerTicket = 100 * 1024;
+		client.search(new TracSearch(), collector, new NullProgressMonitor());
+		assertEquals(Arrays.asList(50, 50, 50, 10, 10, 10, 10, 10), client.batchSizes);
+		assertTicketIds(200);
+	}
+
+	public void testSearchBatchSizeLimitedByLatency() throws Exception {
+		StubClient client = new StubClient(250);
+		client.durationPerTicket = 250;
+		client.search(new TracSearch(), collector, new NullProgressMonitor());
+		assertEquals(Arrays.asList(50, 50, 50, 20, 20, 20, 20, 20), client.batchSizes);
+		assertTicketIds(250);
+	}
+
+	public void testSearchConcurrentMulticalls() throws Exception {
+		// each of the first multicalls waits for the others, this only completes if three multicalls run at the same time
+		final CyclicBarrier barrier = new CyclicBarrier(3);
+		StubClient client = new StubClient(500) {
+			@Override
+			protected void retrieve(int batchIndex) throws TracException {
+				if (batchIndex < 3) {
+					try {
+						barrier.await(10, TimeUnit.SECONDS);
+					} catch (Exception e) {
+						throw new TracException(e);
+					}
+				}
+			}
+		};
+		client.search(new TracSearch(), collector, new NullProgressMonitor());
+		assertEquals(3, client.maxRunningBatches);
+		assertTicketIds(500);
+	}
+
+	public void testSearchFailedMulticallCancelsOutstandingMulticalls() throws Exception {
+		final CountDownLatch interrupted = new CountDownLatch(2);
+		StubClient client = new StubClient(200) {
+			@Override
+			protected void retrieve(int batchIndex) throws TracException {
+				if (batchIndex == 1) {
+					throw new TracException("failed");
+				}
+				block(interrupted);
+			}
+		};
+		long start = System.currentTimeMillis();
+		try {
+			client.search(new TracSearch(), collector, new NullProgressMonitor());
+			fail("Expected TracException");
+		} catch (TracException e) {
+			assertEquals("failed", e.getMessage());
+		}
+		// the search does not wait for the first multicall to complete
+		assertTrue(System.currentTimeMillis() - start < 5 * 1000);
+		assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+		assertEquals(3, client.batchSizes.size());
+		assertTrue(ticketIds.isEmpty());
+	}
+
+	public void testSearchCollectorFailureCancelsOutstandingMulticalls() throws Exception {
+		final CountDownLatch started = new CountDownLatch(2);
+		final CountDownLatch interrupted = new CountDownLatch(2);
+		StubClient client = new StubClient(200) {
+			@Override
+			protected void retrieve(int batchIndex) throws TracException {
+				if (batchIndex > 0) {
+					started.countDown();
+					block(interrupted);
+				}
+			}
+		};
+		try {
+			client.search(new TracSearch(), new ITracTicketCollector() {
+				public void accept(TracTicket ticket) {
+					try {
+						started.await(5, TimeUnit.SECONDS);
+					} catch (InterruptedException e) {
+						// ignore
+					}
+					throw new IllegalStateException("collector failed");
+				}
+			}, new NullProgressMonitor());
+			fail("Expected IllegalStateException");
+		} catch (IllegalStateException e) {
+			assertEquals("collector failed", e.getMessage());
+		}
+		assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+		assertEquals(3, client.batchSizes.size());
+	}
+
+	private void block(CountDownLatch interrupted) {
+		try {
+			Thread.sleep(20 * 1000);
+		} catch (InterruptedException e) {
+			interrupted.countDown();
+			throw new OperationCanceledException();
+		}
+	}
+
+	private void assertTicketIds(int count) {
+		List<Integer> expected = new ArrayList<Integer>();
+		for (int i = 1; i <= count; i++) {
+			expected.add(i);
+		}
+		assertEquals(expected, ticketIds);
+	}
+
+}
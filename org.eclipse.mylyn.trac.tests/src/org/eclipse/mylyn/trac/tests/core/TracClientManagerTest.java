@@ -12,13 +12,21 @@
 package org.eclipse.mylyn.trac.tests.core;
 
 import java.io.File;
+import java.io.FileOutputStream;
+import java.io.ObjectOutputStream;
 import java.util.Arrays;
 
 import junit.framework.TestCase;
 
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.mylyn.commons.net.WebLocation;
 import org.eclipse.mylyn.internal.trac.core.TracClientManager;
+import org.eclipse.mylyn.internal.trac.core.TracCorePlugin;
 import org.eclipse.mylyn.internal.trac.core.client.ITracClient;
+import org.eclipse.mylyn.internal.trac.core.client.ITracClient.Version;
+import org.eclipse.mylyn.internal.trac.core.client.TracClientData;
+import org.eclipse.mylyn.internal.trac.core.client.TracXmlRpcClient;
 import org.eclipse.mylyn.internal.trac.core.model.TracMilestone;
 import org.eclipse.mylyn.tasks.core.TaskRepository;
 import org.eclipse.mylyn.tasks.core.TaskRepositoryLocationFactory;
@@ -54,6 +62,71 @@ public class TracClientManagerTest extends TestCase {
 		assertNull(client.getMilestones());
 	}
 
+	public void testReadLegacyCache() throws Exception {
+		TaskRepository localRepository = createLocalRepository();
+		File file = File.createTempFile("mylyn", null);
+		file.deleteOnExit();
+		// previous versions serialized the data of all repositories into a single file
+		ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(file));
+		try {
+			out.writeInt(1);
+			out.writeObject(localRepository.getRepositoryUrl());
+			out.writeObject(createData());
+		} finally {
+			out.close();
+		}
+
+		TracClientManager manager = new TracClientManager(file, new TaskRepositoryLocationFactory());
+		assertFalse(file.exists());
+		assertTrue(manager.getTracClient(localRepository).hasAttributes());
+
+		// the data is migrated to a file per repository
+		manager.writeCache();
+		assertTrue(file.isDirectory());
+		assertEquals(1, file.listFiles().length);
+		manager = new TracClientManager(file, new TaskRepositoryLocationFactory());
+		assertTrue(manager.getTracClient(localRepository).hasAttributes());
+		deleteCache(file);
+	}
+
+	public void testWriteCacheSkipsUnchangedRepositories() throws Exception {
+		TaskRepository localRepository = createLocalRepository();
+		File directory = createCacheDirectory();
+		TracClientManager manager = new TracClientManager(directory, new TaskRepositoryLocationFactory());
+		ITracClient client = manager.getTracClient(localRepository);
+		client.setData(createData());
+		manager.writeCache();
+		File[] files = directory.listFiles();
+		assertEquals(1, files.length);
+
+		// the file is not rewritten if the data of the repository has not changed
+		assertTrue(files[0].delete());
+		manager.writeCache();
+		assertFalse(files[0].exists());
+
+		client.setData(createData());
+		manager.writeCache();
+		assertTrue(files[0].exists());
+		deleteCache(directory);
+	}
+
+	public void testRepositoryRemovedDeletesCache() throws Exception {
+		TaskRepository localRepository = createLocalRepository();
+		File directory = createCacheDirectory();
+		TracClientManager manager = new TracClientManager(directory, new TaskRepositoryLocationFactory());
+		manager.getTracClient(localRepository).setData(createData());
+		manager.writeCache();
+		assertEquals(1, directory.listFiles().length);
+
+		manager.repositoryRemoved(localRepository);
+		assertEquals(0, directory.listFiles().length);
+		// the data of the removed repository is not written again
+		manager.writeCache();
+		assertEquals(0, directory.listFiles().length);
+		assertFalse(manager.getTracClient(localRepository).hasAttributes());
+		deleteCache(directory);
+	}
+
 	public void testWriteCache() throws Exception {
 		File file = File.createTempFile("mylyn", null);
 		file.deleteOnExit();
@@ -71,4 +144,43 @@ public class TracClientManagerTest extends TestCase {
 		assertEquals(Arrays.asList(milestones), Arrays.asList(client.getMilestones()));
 	}
 
+	private TaskRepository createLocalRepository() {
+		TaskRepository repository = new TaskRepository(TracCorePlugin.CONNECTOR_KIND, "http://mylyn.eclipse.org/trac");
+		repository.setVersion(Version.XML_RPC.name());
+		return repository;
+	}
+
+	/**
+	 * Returns data that was refreshed by a client without contacting a repository.
+	 */
+	private TracClientData createData() throws Exception {
+		TracXmlRpcClient client = new TracXmlRpcClient(new WebLocation("http://mylyn.eclipse.org/trac"),
+				Version.XML_RPC) {
+			@Override
+			protected void updateAttributes(TracClientData data, IProgressMonitor monitor) {
+				// keep the empty attributes
+			}
+		};
+		client.updateAttributes(new NullProgressMonitor(), true);
+		assertTrue(client.hasAttributes());
+		return client.getData();
+	}
+
+	private File createCacheDirectory() throws Exception {
+		File directory = File.createTempFile("mylyn", null);
+		assertTrue(directory.delete());
+		assertTrue(directory.mkdir());
+		return directory;
+	}
+
+	private void deleteCache(File directory) {
+		File[] files = directory.listFiles();
+		if (files != null) {
+			for (File file : files) {
+				file.delete();
+			}
+		}
+		directory.delete();
+	}
+
 }